@@ -0,0 +1,86 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.fxmisc.richtext.model.StyleSpans;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.mlt.rudibugger.view.editor.RudiCodeArea;
+
+/**
+ * Syntax highlighting of large .rudi files, as done by the editor after every
+ * change.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighlightingBenchmark {
+
+  /** The number of lines of the highlighted file. */
+  @Param({"1000", "10000"})
+  public int lines;
+
+  private String _text;
+
+  @Setup
+  public void setup() {
+    StringBuilder sb = new StringBuilder("import Common;\n\n");
+    // every rule takes eleven lines
+    for (int rule = 0; rule * 11 + 2 < lines; ++rule) {
+      sb.append("/* rule ").append(rule).append(" */\n")
+        .append("greeting").append(rule).append(":\n")
+        .append("if (lastDA().sender != agent")
+        .append(" && !(myLastDA() <= #Greeting(Meeting))) {\n")
+        .append("  // answer with a greeting\n")
+        .append("  emitDA(#Greeting(Meeting, theme=\"rule ")
+        .append(rule).append("\"));\n")
+        .append("  lastDAprocessed();\n")
+        .append("} else {\n")
+        .append("  int[] counts = { 1, 2, 3 };\n")
+        .append("  return;\n")
+        .append("}\n\n");
+    }
+    _text = sb.toString();
+  }
+
+  @Benchmark
+  public StyleSpans<Collection<String>> computeHighlighting() {
+    return RudiCodeArea.computeHighlighting(_text);
+  }
+
+}
@@ -17,32 +17,38 @@
  * IN THE SOFTWARE.
  */
 
-package de.dfki.mlt.rudibugger.rpc;
+package de.dfki.mlt.rudibugger.benchmarks;
 
 import java.util.Arrays;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import de.dfki.mlt.rudibugger.project.VondaRuntimeConnection;
 
 /**
- * This API specifies what commands can be sent from VOnDA to rudibugger.
- *
- * The received commands will be parsed an either handed to the correct function
- * or ignored by indicating that they are illegal.
+ * The decoding of VOnDA's commands as it was before the evaluation results
+ * were packed into bits: <code>RudibuggerAPI</code> as of the commit before
+ * "Decode printLog commands without intermediate arrays", kept verbatim as
+ * baseline of {@link RpcDecodeBenchmark}. Only the receiver of the decoded
+ * logs is replaced, as <code>VondaRuntimeConnection</code> does not take
+ * <code>boolean[]</code> results anymore.
  *
  * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
  */
-public class RudibuggerAPI implements Consumer<String[]> {
+public class LegacyRudibuggerAPI implements Consumer<String[]> {
 
   /** The logger. */
   static Logger log = LoggerFactory.getLogger("rudibuggerAPI");
 
+  /** Receives the decoded logs, as <code>VondaRuntimeConnection</code> did. */
+  public interface LegacyLogSink {
+    void printLog(int ruleId, boolean[] result);
+  }
+
   /** Represents the connection to VOnDA's runtime system. */
-  private final VondaRuntimeConnection _vonda;
+  private final LegacyLogSink _vonda;
 
   /** Initializes the API with the DataModel. */
-  public RudibuggerAPI(VondaRuntimeConnection vonda) {
+  public LegacyRudibuggerAPI(LegacyLogSink vonda) {
     _vonda = vonda;
   }
 
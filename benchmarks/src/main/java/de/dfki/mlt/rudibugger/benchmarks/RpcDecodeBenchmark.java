@@ -0,0 +1,117 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerAPI;
+import de.dfki.mlt.rudibugger.rpc.RuleLogSink;
+
+/**
+ * Decoding of VOnDA's <code>printLog</code> commands: the current bit packing
+ * decoder of <code>RudibuggerAPI</code>, with and without the construction of
+ * <code>LogData</code>, and the former decoder, {@link LegacyRudibuggerAPI},
+ * as baseline. Run with <code>-prof gc</code> to compare the allocations.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RpcDecodeBenchmark {
+
+  /** The number of evaluation results of the logged rule. */
+  @Param({"4", "100"})
+  public int resultCount;
+
+  private String[] _command;
+
+  private RudibuggerAPI _decodeOnly;
+
+  private RudibuggerAPI _toLogData;
+
+  private LegacyRudibuggerAPI _legacyDecodeOnly;
+
+  private LegacyRudibuggerAPI _legacyToLogData;
+
+  @Setup
+  public void setup(Blackhole bh) {
+    _command = new String[resultCount + 2];
+    _command[0] = "printLog";
+    _command[1] = "42";
+    for (int i = 0; i < resultCount; ++i)
+      _command[i + 2] = Boolean.toString(i % 3 != 0);
+
+    _decodeOnly = new RudibuggerAPI(
+            (received, ruleId, count, bits, more) -> {
+              bh.consume(ruleId);
+              bh.consume(bits);
+            });
+    RuleLogSink toLogData = (received, ruleId, count, bits, more) ->
+            bh.consume(new LogData(received, ruleId, count, bits, more));
+    _toLogData = new RudibuggerAPI(toLogData);
+
+    _legacyDecodeOnly = new LegacyRudibuggerAPI((ruleId, result) -> {
+      bh.consume(ruleId);
+      bh.consume(result);
+    });
+    // as VondaRuntimeConnection.printLog(int, boolean[]) did
+    _legacyToLogData = new LegacyRudibuggerAPI((ruleId, result) ->
+            bh.consume(new LogData(ruleId, result)));
+  }
+
+  @Benchmark
+  public void decode() {
+    _decodeOnly.parseCommand(_command);
+  }
+
+  @Benchmark
+  public void decodeToLogData() {
+    _toLogData.parseCommand(_command);
+  }
+
+  @Benchmark
+  public void legacyDecode() {
+    _legacyDecodeOnly.parseCommand(_command);
+  }
+
+  @Benchmark
+  public void legacyDecodeToLogData() {
+    _legacyToLogData.parseCommand(_command);
+  }
+
+}
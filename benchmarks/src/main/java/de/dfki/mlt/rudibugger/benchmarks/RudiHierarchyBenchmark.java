@@ -0,0 +1,103 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.mlt.rudibugger.view.fileTreeView.RudiHierarchy;
+
+/**
+ * Creation of the file tree of a project's .rudi folder out of a generated
+ * directory tree.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RudiHierarchyBenchmark {
+
+  /** The depth of the directory tree. */
+  @Param({"3", "6"})
+  public int depth;
+
+  /** The number of subdirectories of every directory. */
+  @Param({"4"})
+  public int fanOut;
+
+  /** The number of .rudi files in every directory. */
+  @Param({"5"})
+  public int files;
+
+  private Path _rudiFolder;
+
+  @Setup
+  public void setup() throws IOException {
+    _rudiFolder = Files.createTempDirectory("rudibugger-bench");
+    createTree(_rudiFolder, depth);
+  }
+
+  private void createTree(Path dir, int levels) throws IOException {
+    for (int i = 0; i < files; ++i)
+      Files.createFile(dir.resolve("File" + i + ".rudi"));
+    if (levels == 0) return;
+    for (int i = 0; i < fanOut; ++i)
+      createTree(Files.createDirectory(dir.resolve("dir" + i)), levels - 1);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(_rudiFolder)) {
+      for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())
+              ::iterator)
+        Files.delete(p);
+    }
+  }
+
+  @Benchmark
+  public RudiHierarchy addDirectoryRecursively() throws IOException {
+    RudiHierarchy rh = new RudiHierarchy(_rudiFolder,
+            _rudiFolder.resolve("RuleLoc.yml"));
+    rh.addDirectoryRecursively(_rudiFolder);
+    return rh;
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.benchmarks;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.rpc.JavaFXLogger;
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer.RenderedLog;
+import de.dfki.mlt.rudimant.common.RuleLogger;
+
+/**
+ * Rendering of received logs: the construction of <code>LogData</code>, the
+ * walk of VOnDA's <code>RuleLogger</code> feeding a
+ * <code>JavaFXLogger</code>, and <code>LogDataRenderer</code> with its
+ * per-rule templates in place.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleLogRenderBenchmark {
+
+  /** The number of rules of the synthetic rule model. */
+  private static final int RULES = 1000;
+
+  /** The number of different logs, cycled through. */
+  private static final int LOGS = 1024;
+
+  /** The number of base terms of every rule. */
+  @Param({"4", "16"})
+  public int terms;
+
+  private LogData[] _logs;
+
+  private boolean[][] _results;
+
+  private LogDataRenderer _renderer;
+
+  private RuleLogger _ruleLogger;
+
+  private JavaFXLogger _javaFXLogger;
+
+  private int _next;
+
+  @Setup
+  public void setup() {
+    RuleModel rm = RuleModel.createRuleModel(Paths.get("src"),
+            Paths.get("RuleLoc.yml"), SyntheticRules.create(RULES, terms));
+
+    _logs = new LogData[LOGS];
+    _results = new boolean[LOGS][];
+    for (int i = 0; i < LOGS; ++i) {
+      _results[i] = new boolean[terms + 1];
+      for (int j = 0; j <= terms; ++j)
+        _results[i][j] = ((i >> j) & 1) == 0;
+      _logs[i] = new LogData(i * 7 % RULES, _results[i]);
+    }
+
+    _renderer = new LogDataRenderer(rm.getRootImport());
+    for (LogData d : _logs)
+      _renderer.render(d);
+
+    _ruleLogger = new RuleLogger();
+    _javaFXLogger = new JavaFXLogger();
+    _ruleLogger.setRootInfo(rm.getRootImport());
+    _ruleLogger.registerPrinter(_javaFXLogger);
+    _ruleLogger.logAllRules();
+  }
+
+  private int next() {
+    return _next = (_next + 1) & (LOGS - 1);
+  }
+
+  @Benchmark
+  public LogData createLogData() {
+    int i = next();
+    return new LogData(i * 7 % RULES, _results[i]);
+  }
+
+  @Benchmark
+  public RenderedLog ruleLoggerWalk() {
+    int i = next();
+    _ruleLogger.logRule(_logs[i].getRuleId(), _results[i]);
+    return _javaFXLogger.popContent();
+  }
+
+  @Benchmark
+  public RenderedLog renderCached() {
+    return _renderer.render(_logs[next()]);
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.benchmarks;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudimant.common.IncludeInfo;
+
+/**
+ * Creation of the <code>RuleModel</code> out of a synthetic rule structure.
+ * Reading <code>RuleLoc.yml</code> itself is done by VOnDA; to include it,
+ * pass a real file with <code>-p ruleLocFile=path/to/RuleLoc.yml</code>.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleModelBenchmark {
+
+  /** The number of rules of the synthetic rule structure. */
+  @Param({"1000", "10000"})
+  public int ruleCount;
+
+  /** An optional RuleLoc.yml to read in instead of the synthetic structure. */
+  @Param({""})
+  public String ruleLocFile;
+
+  private final Path _rudiFolder = Paths.get("src");
+
+  private final Path _ruleLocYaml = Paths.get("RuleLoc.yml");
+
+  private IncludeInfo _structure;
+
+  @Setup
+  public void setup() {
+    _structure = SyntheticRules.create(ruleCount, 4);
+  }
+
+  @Benchmark
+  public RuleModel createRuleModel() {
+    if (! ruleLocFile.isEmpty()) {
+      Path ruleLoc = Paths.get(ruleLocFile);
+      return RuleModel.createRuleModel(ruleLoc.getParent(), ruleLoc);
+    }
+    return RuleModel.createRuleModel(_rudiFolder, _ruleLocYaml, _structure);
+  }
+
+}
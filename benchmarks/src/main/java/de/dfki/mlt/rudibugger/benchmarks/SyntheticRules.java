@@ -0,0 +1,95 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.benchmarks;
+
+import de.dfki.mlt.rudimant.common.IncludeInfo;
+import de.dfki.mlt.rudimant.common.RuleInfo;
+
+/**
+ * Creates synthetic rule structures as VOnDA would read them from a
+ * <code>RuleLoc.yml</code>: a root import with a number of imports, each
+ * containing the same number of rules.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public final class SyntheticRules {
+
+  /** Rules per import. */
+  static final int RULES_PER_IMPORT = 50;
+
+  /** An import of the synthetic structure. */
+  private static class SyntheticImport extends IncludeInfo {
+
+    private final String _filePath;
+
+    SyntheticImport(String label, IncludeInfo parent) {
+      _label = label;
+      _parent = parent;
+      _filePath = label + ".rudi";
+      if (parent != null) parent.getChildren().add(this);
+    }
+
+    @Override
+    public String getFilePath() { return _filePath; }
+  }
+
+  /** A rule of the synthetic structure. */
+  private static class SyntheticRule extends RuleInfo {
+
+    SyntheticRule(int id, int line, int terms, IncludeInfo parent) {
+      _id = id;
+      _label = "rule" + id;
+      _line = line;
+      _parent = parent;
+      _baseTerms = new String[terms];
+      StringBuilder expr = new StringBuilder();
+      for (int i = 0; i < terms; ++i) {
+        _baseTerms[i] = "v" + id + "_" + i + " > " + i;
+        if (i > 0) expr.append(i % 2 == 0 ? " && " : " || ");
+        expr.append(_baseTerms[i]);
+      }
+      _expr = expr.toString();
+      parent.getChildren().add(this);
+    }
+  }
+
+  private SyntheticRules() {}
+
+  /**
+   * Creates a synthetic rule structure.
+   *
+   * @param ruleCount
+   *        The number of rules, ids are assigned from 0 on
+   * @param terms
+   *        The number of base terms of every rule
+   * @return The root import of the structure
+   */
+  public static IncludeInfo create(int ruleCount, int terms) {
+    IncludeInfo root = new SyntheticImport("Root", null);
+    IncludeInfo current = root;
+    for (int id = 0; id < ruleCount; ++id) {
+      if (id % RULES_PER_IMPORT == 0)
+        current = new SyntheticImport("Import" + id / RULES_PER_IMPORT, root);
+      new SyntheticRule(id, id % RULES_PER_IMPORT * 10 + 1, terms, current);
+    }
+    return root;
+  }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.view.ruleLoggingTableView;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Application;
+import javafx.scene.text.Text;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dfki.mlt.rudibugger.benchmarks.SyntheticRules;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer;
+import de.dfki.mlt.rudibugger.rpc.TimestampService;
+
+/**
+ * Updating the cells of the rule logging table as when scrolling, one
+ * simulated frame per invocation. Like the table's <code>VirtualFlow</code>,
+ * a fixed pool of cells is recycled: every scrolled row moves the cell
+ * leaving the viewport to the other end and updates it with the new row. The
+ * viewport sweeps back and forth over a region of the logs, so rows are shown
+ * again, as when searching the table.
+ *
+ * This is a microbenchmark of <code>updateItem</code> only: the cells are not
+ * part of a scene and are updated on the benchmark thread, so neither CSS,
+ * layout nor rendering of a pulse is measured, and it runs without a display.
+ *
+ * The time column is measured with the <code>TimestampStringCache</code>
+ * and, for comparison, formatting every shown timestamp. This benchmark
+ * lives in the package of the cells, as the time cell and its cache are
+ * package-private.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleLogCellUpdateBenchmark {
+
+  /** The number of rules of the synthetic rule model. */
+  private static final int RULES = 1000;
+
+  /** The number of base terms of every rule. */
+  private static final int TERMS = 8;
+
+  /** The number of rows swept over by the viewport. */
+  private static final int REGION = 2000;
+
+  /** The number of rows in the viewport. */
+  private static final int VISIBLE_ROWS = 40;
+
+  /** Rows scrolled per frame: 1 for smooth scrolling, 40 for paging. */
+  @Param({"1", "40"})
+  public int step;
+
+  /** Shows a log in one of the cells of the pool. */
+  private interface Column {
+    void show(int cell, LogData item);
+  }
+
+  private LogData[] _logs;
+
+  private TimestampCellFactory[] _timeCells;
+
+  private Text[] _timeTexts;
+
+  private LabelCellFactory[] _labelCells;
+
+  private EvaluatedCellFactory[] _evaluatedCells;
+
+  /** The first row in the viewport. */
+  private int _top;
+
+  /** 1 while scrolling down, -1 while scrolling up. */
+  private int _direction = 1;
+
+  @Setup
+  public void setup() {
+    try {
+      // controls only ask the toolkit for their stylesheet if none is set
+      Application.setUserAgentStylesheet(Application.STYLESHEET_MODENA);
+    } catch (IllegalStateException ex) {
+      // the toolkit is not running, which the detached cells do not need
+    }
+    RuleModel rm = RuleModel.createRuleModel(Paths.get("src"),
+            Paths.get("RuleLoc.yml"), SyntheticRules.create(RULES, TERMS));
+    LogDataRenderer renderer = new LogDataRenderer(rm.getRootImport());
+
+    // a log every 250 microseconds, so most have their own timestamp
+    long start = TimestampService.now();
+    _logs = new LogData[REGION];
+    for (int i = 0; i < REGION; ++i)
+      _logs[i] = new LogData(start + i * 250_000L, i * 7 % RULES, TERMS + 1,
+              i * 0x9E3779B97F4A7C15L, null);
+
+    TimestampStringCache cache = new TimestampStringCache(true);
+    _timeCells = new TimestampCellFactory[VISIBLE_ROWS];
+    _timeTexts = new Text[VISIBLE_ROWS];
+    _labelCells = new LabelCellFactory[VISIBLE_ROWS];
+    _evaluatedCells = new EvaluatedCellFactory[VISIBLE_ROWS];
+    for (int i = 0; i < VISIBLE_ROWS; ++i) {
+      _timeCells[i] = new TimestampCellFactory(cache);
+      _timeTexts[i] = new Text();
+      _labelCells[i] = new LabelCellFactory(renderer);
+      _evaluatedCells[i] = new EvaluatedCellFactory(renderer);
+      _timeCells[i].updateItem(_logs[i], false);
+      _timeTexts[i].setText(format(_logs[i]));
+      _labelCells[i].updateItem(_logs[i], false);
+      _evaluatedCells[i].updateItem(_logs[i], false);
+    }
+  }
+
+  /** Formats a timestamp like the time cells did before caching. */
+  private static String format(LogData d) {
+    return TimestampStringCache.FORMATTER.format(
+            Instant.ofEpochMilli(d.getTimestamp())) + " / " + d.getCounter();
+  }
+
+  /**
+   * Scrolls by <code>step</code> rows. Row r is always shown in cell
+   * r % VISIBLE_ROWS.
+   */
+  private void scroll(Column column) {
+    for (int k = 0; k < step; ++k) {
+      if (_direction > 0 && _top + VISIBLE_ROWS == REGION) _direction = -1;
+      else if (_direction < 0 && _top == 0) _direction = 1;
+      if (_direction > 0) {
+        column.show(_top % VISIBLE_ROWS, _logs[_top + VISIBLE_ROWS]);
+        ++_top;
+      } else {
+        --_top;
+        column.show(_top % VISIBLE_ROWS, _logs[_top]);
+      }
+    }
+  }
+
+  @Benchmark
+  public int timeColumn() {
+    scroll((cell, d) -> _timeCells[cell].updateItem(d, false));
+    return _top;
+  }
+
+  @Benchmark
+  public int timeColumnFormatting() {
+    scroll((cell, d) -> _timeTexts[cell].setText(format(d)));
+    return _top;
+  }
+
+  @Benchmark
+  public int labelColumn() {
+    scroll((cell, d) -> _labelCells[cell].updateItem(d, false));
+    return _top;
+  }
+
+  @Benchmark
+  public int evaluatedColumn() {
+    scroll((cell, d) -> _evaluatedCells[cell].updateItem(d, false));
+    return _top;
+  }
+
+}
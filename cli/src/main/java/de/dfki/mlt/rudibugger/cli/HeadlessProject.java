@@ -0,0 +1,137 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.cli;
+
+import static de.dfki.mlt.rudibugger.Constants.GLOBAL_PROJECT_SPECIFIC_CONFIG_PATH;
+import static de.dfki.mlt.rudibugger.Constants.PATH_TO_GENERATED_FOLDER;
+import static de.dfki.mlt.rudimant.common.Configs.*;
+import static de.dfki.mlt.rudimant.common.Constants.*;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudimant.common.SimpleServer;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * The parts of a project needed to log rules without a graphical user
+ * interface: the project's configuration, its rule model and the port of
+ * VOnDA's debug server.
+ *
+ * Unlike <code>Project</code>, nothing is watched, compiled or created, so
+ * no JavaFX toolkit is needed.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+class HeadlessProject {
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Indicates the project's name. */
+  private final String _projectName;
+
+  /** The project's .rudi folder. */
+  private final Path _rudiFolder;
+
+  /** Represents the project's RuleLoc.yml. */
+  private final Path _ruleLocYaml;
+
+  /** The port of VOnDA's debug server. */
+  private final int _vondaPort;
+
+  /** Represents the project's rule structure. */
+  private final RuleModel _ruleModel;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR
+   * **************************************************************************/
+
+  /**
+   * Reads in the project's configuration and its rule model.
+   *
+   * @param configPath
+   *        The project's configuration .yml file
+   * @throws IOException
+   *        If the configuration could not be read or the project has not been
+   *        compiled yet
+   */
+  @SuppressWarnings("unchecked")
+  HeadlessProject(Path configPath) throws IOException {
+    configPath = configPath.toAbsolutePath();
+    String filename = configPath.getFileName().toString();
+    int dot = filename.lastIndexOf('.');
+    _projectName = dot < 0 ? filename : filename.substring(0, dot);
+    Path rootFolder = configPath.getParent();
+
+    Map<String, Object> config;
+    try (InputStream in = new FileInputStream(configPath.toFile())) {
+      config = (Map<String, Object>) new Yaml().load(in);
+    }
+    if (config == null || ! config.containsKey(CFG_INPUT_FILE))
+      throw new IOException(configPath + " is not a project configuration.");
+
+    File rudiDir = new File((String) config.get(CFG_INPUT_FILE))
+            .getParentFile();
+    _rudiFolder = rudiDir == null
+            ? rootFolder : rootFolder.resolve(rudiDir.toPath());
+
+    _ruleLocYaml = rootFolder.resolve(PATH_TO_GENERATED_FOLDER)
+            .resolve(RULE_LOCATION_FILE);
+    if (! Files.exists(_ruleLocYaml))
+      throw new IOException(_ruleLocYaml + " could not be found, "
+              + "the project has probably not been compiled yet.");
+
+    _vondaPort = config.containsKey(CFG_DEBUG_PORT)
+            ? (int) config.get(CFG_DEBUG_PORT)
+            : SimpleServer.DEFAULT_PORT;
+
+    _ruleModel = RuleModel.createRuleModel(_rudiFolder, _ruleLocYaml);
+    if (_ruleModel == null)
+      throw new IOException(_ruleLocYaml + " could not be read.");
+  }
+
+
+  /* ***************************************************************************
+   * GETTERS
+   * **************************************************************************/
+
+  /** @return The project's name */
+  String getProjectName() { return _projectName; }
+
+  /** @return The port of VOnDA's debug server */
+  int getVondaPort() { return _vondaPort; }
+
+  /** @return The project's rule structure */
+  RuleModel getRuleModel() { return _ruleModel; }
+
+  /** @return The project's folder containing the rule logging states */
+  Path getRuleModelStatesFolder() {
+    return GLOBAL_PROJECT_SPECIFIC_CONFIG_PATH.resolve(_projectName)
+            .resolve("loggingConfigurations");
+  }
+
+}
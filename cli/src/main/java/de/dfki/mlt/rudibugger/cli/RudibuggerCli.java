@@ -0,0 +1,231 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.cli;
+
+import de.dfki.mlt.rudibugger.cli.RuleLogPrinter.Format;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerAPI;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerClient;
+import de.dfki.mlt.rudibugger.rpc.SentLoggingStates;
+import de.dfki.mlt.rudimant.common.SimpleClient.ConnStatus;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Connects to VOnDA without a graphical user interface and streams the
+ * received rule logs to stdout or a file, e.g. on servers without a display.
+ *
+ * The project's rule model is read from its RuleLoc.yml, optionally a logging
+ * configuration saved by rudibugger is applied and sent to VOnDA whenever a
+ * connection has been established. No JavaFX toolkit is started. The program
+ * runs until it is interrupted.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RudibuggerCli {
+
+  /** The logger. */
+  static Logger log = LoggerFactory.getLogger("rudibuggerCli");
+
+  /** How often (in ms) the output is flushed. */
+  private static final long FLUSH_INTERVAL = 250;
+
+  private static final String USAGE =
+      "Usage: rudibugger-cli <project.yml> [options]\n"
+    + "  --state <file>          apply a saved logging configuration (a path\n"
+    + "                          or the name of a saved configuration)\n"
+    + "  --host <host>           VOnDA's host (default: localhost)\n"
+    + "  --port <port>           VOnDA's debug port (default: from project)\n"
+    + "  --format text|binary    output format (default: text), binary\n"
+    + "                          output can be replayed by rudibugger\n"
+    + "  --out <file>            write to file instead of stdout\n"
+    + "  --color                 colour the text output\n";
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  private Path _projectYml;
+  private Path _stateFile;
+  private String _host = "localhost";
+  private int _port = -1;
+  private Format _format = Format.TEXT;
+  private Path _outFile;
+  private boolean _color;
+
+  /** The logging states that have been sent to VOnDA. */
+  private final SentLoggingStates _sentStates = new SentLoggingStates();
+
+
+  /* ***************************************************************************
+   * MAIN AND METHODS
+   * **************************************************************************/
+
+  public static void main(String[] args) {
+    RudibuggerCli cli = new RudibuggerCli();
+    try {
+      cli.parseArguments(args);
+    } catch (IllegalArgumentException ex) {
+      System.err.println(ex.getMessage());
+      System.err.print(USAGE);
+      System.exit(2);
+    }
+    try {
+      cli.run();
+    } catch (IOException ex) {
+      log.error(ex.getMessage());
+      System.exit(1);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Reads in the command line arguments. */
+  private void parseArguments(String[] args) {
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      switch (arg) {
+        case "--state": _stateFile = Paths.get(value(args, ++i, arg)); break;
+        case "--host": _host = value(args, ++i, arg); break;
+        case "--port":
+          try {
+            _port = Integer.parseInt(value(args, ++i, arg));
+          } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal port: " + args[i]);
+          }
+          break;
+        case "--format":
+          String f = value(args, ++i, arg);
+          if (f.equals("text")) _format = Format.TEXT;
+          else if (f.equals("binary")) _format = Format.BINARY;
+          else throw new IllegalArgumentException("Unknown format: " + f);
+          break;
+        case "--out": _outFile = Paths.get(value(args, ++i, arg)); break;
+        case "--color": _color = true; break;
+        case "-h":
+        case "--help":
+          System.out.print(USAGE);
+          System.exit(0);
+          break;
+        default:
+          if (arg.startsWith("-") || _projectYml != null)
+            throw new IllegalArgumentException("Unknown argument: " + arg);
+          _projectYml = Paths.get(arg);
+      }
+    }
+    if (_projectYml == null)
+      throw new IllegalArgumentException("No project configuration given.");
+  }
+
+  /** @return The value of an option */
+  private static String value(String[] args, int i, String option) {
+    if (i >= args.length)
+      throw new IllegalArgumentException(option + " needs a value.");
+    return args[i];
+  }
+
+  /** Connects to VOnDA and streams the logs until interrupted. */
+  private void run() throws IOException, InterruptedException {
+    HeadlessProject project = new HeadlessProject(_projectYml);
+    RuleModel ruleModel = project.getRuleModel();
+
+    if (_stateFile != null) {
+      Path stateFile = _stateFile;
+      if (! Files.exists(stateFile))
+        stateFile = project.getRuleModelStatesFolder().resolve(_stateFile);
+      if (! Files.exists(stateFile)
+              && ! stateFile.getFileName().toString().endsWith(".yml"))
+        stateFile = project.getRuleModelStatesFolder()
+                .resolve(_stateFile + ".yml");
+      int n = RuleStateFile.apply(stateFile, ruleModel);
+      log.info("Applied logging configuration " + stateFile
+              + " to " + n + " rules.");
+    }
+
+    OutputStream out = _outFile == null
+            ? new FileOutputStream(FileDescriptor.out)
+            : Files.newOutputStream(_outFile);
+    RuleLogPrinter printer = new RuleLogPrinter(out, _format, _color,
+            ruleModel);
+
+    int port = _port < 0 ? project.getVondaPort() : _port;
+    RudibuggerClient client = new RudibuggerClient(_host, port,
+            new RudibuggerAPI(printer));
+    client.addPropertyChangeListener(e -> {
+      ConnStatus status = (ConnStatus) e.getNewValue();
+      log.info("Connection to VOnDA at " + _host + ":" + port + ": " + status);
+      if (status == ConnStatus.ONLINE) setAllLoggingStatuses(client, ruleModel);
+    });
+    if (client.isConnected()) setAllLoggingStatuses(client, ruleModel);
+
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        client.disconnect();
+      } catch (IOException ex) {
+        log.error(ex.toString());
+      }
+      try {
+        printer.close();
+      } catch (IOException ex) {
+        log.error("Could not write rule logs: " + ex.getMessage());
+      }
+      log.info("Wrote " + printer.getWrittenCount() + " rule logs.");
+    }, "rudibuggerCliShutdown"));
+
+    Thread flusher = new Thread(() -> {
+      try {
+        while (true) {
+          Thread.sleep(FLUSH_INTERVAL);
+          printer.flush();
+        }
+      } catch (IOException ex) {
+        log.error("Could not write rule logs: " + ex.getMessage());
+        System.exit(1);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }, "rudibuggerCliFlusher");
+    flusher.setDaemon(true);
+    flusher.start();
+
+    /* Wait until the program is interrupted */
+    new CountDownLatch(1).await();
+  }
+
+  /**
+   * Sends the loggingStatus of all rules to VOnDA, nothing after a reconnect
+   * to the same agent as the states do not change.
+   */
+  private void setAllLoggingStatuses(RudibuggerClient client,
+          RuleModel ruleModel) {
+    client.syncLoggingStatuses(() -> _sentStates.resync(
+            ruleModel.getLoggingStates(), client.getAgentId()));
+  }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.cli;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogData.StringPart;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer.RenderedLog;
+import de.dfki.mlt.rudibugger.rpc.RuleLogSink;
+import de.dfki.mlt.rudibugger.rpc.TimestampService;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogJournal;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes the received rule logs to a stream, either as text (one line per
+ * log) or in the binary format of {@link RuleLogJournal}, so that the output
+ * can later be replayed by rudibugger.
+ *
+ * In text mode, every line contains the time of reception, the rule's label,
+ * its outcome and the evaluated rule parts. Without colours, terms that
+ * evaluated to false are written as <code>{!term}</code> and terms that have
+ * not been evaluated as <code>{~term}</code>.
+ *
+ * The logs are written on the thread receiving VOnDA's messages into a
+ * buffer, {@link #flush()} should be called periodically.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+class RuleLogPrinter implements RuleLogSink, Closeable {
+
+  /** The available output formats. */
+  enum Format { TEXT, BINARY }
+
+  /** The ANSI escape sequences of the evaluation outcomes. */
+  private static final String ANSI_RESET = "\u001b[0m";
+  private static final String ANSI_RED = "\u001b[31m";
+  private static final String ANSI_GREEN = "\u001b[32m";
+  private static final String ANSI_GRAY = "\u001b[90m";
+
+  /** Formats the second of a log's time of reception. */
+  private static final DateTimeFormatter SECOND_FORMATTER
+          = DateTimeFormatter.ofPattern("HH:mm:ss.")
+            .withZone(ZoneId.systemDefault());
+
+  /** The size of the output buffer. */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The output format. */
+  private final Format _format;
+
+  /** Indicates whether text should be coloured using ANSI escape sequences. */
+  private final boolean _color;
+
+  /** Renders the logs in text mode. */
+  private final LogDataRenderer _renderer;
+
+  /** Receives the text output. */
+  private final Writer _writer;
+
+  /** Receives the binary output. */
+  private final WritableByteChannel _channel;
+
+  /** Collects the binary output. */
+  private final ByteBuffer _buffer;
+
+  /** Reused to build the lines of text output. */
+  private final StringBuilder _line = new StringBuilder(256);
+
+  /** The second (in ms since the epoch) of the last log's reception. */
+  private long _second = -1;
+
+  /** The formatted <code>_second</code>. */
+  private String _secondString;
+
+  /** The number of written logs. */
+  private volatile long _written;
+
+  /** The first error that occurred while writing (or null). */
+  private IOException _error;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR
+   * **************************************************************************/
+
+  /**
+   * Creates a new printer.
+   *
+   * @param out
+   *        The stream to write to
+   * @param format
+   *        The output format
+   * @param color
+   *        True, if text should be coloured using ANSI escape sequences
+   * @param ruleModel
+   *        The rule model of the logged rules
+   * @throws IOException
+   *        If the header of the binary format could not be written
+   */
+  RuleLogPrinter(OutputStream out, Format format, boolean color,
+          RuleModel ruleModel) throws IOException {
+    _format = format;
+    _color = color;
+    if (format == Format.TEXT) {
+      _renderer = new LogDataRenderer(ruleModel.getRootImport());
+      _writer = new BufferedWriter(
+              new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+      _channel = null;
+      _buffer = null;
+    } else {
+      _renderer = null;
+      _writer = null;
+      _channel = Channels.newChannel(out);
+      _buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      RuleLogJournal.putHeader(_buffer);
+      _buffer.put(RuleLogJournal.encodeRuleTable(TimestampService.now(),
+              ruleModel.getRuleKeys()));
+    }
+  }
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  @Override
+  public synchronized void printLog(long receivedNanos, int ruleId,
+          int resultCount, long resultBits, long[] moreResultBits) {
+    if (_error != null) return;
+    try {
+      if (_format == Format.TEXT)
+        printText(new LogData(receivedNanos, ruleId, resultCount, resultBits,
+                moreResultBits));
+      else
+        printBinary(receivedNanos, ruleId, resultCount, resultBits,
+                moreResultBits);
+      _written++;
+    } catch (IOException ex) {
+      _error = ex;
+    }
+  }
+
+  /** Writes a log as one line of text. */
+  private void printText(LogData data) throws IOException {
+    RenderedLog rendered = _renderer.render(data);
+    _line.setLength(0);
+    appendTime(data.getTimestamp());
+    _line.append(' ');
+    append(rendered.label);
+    _line.append(rendered.label.evalOutcome == LogData.GREEN
+            ? " TRUE: " : " FALSE: ");
+    for (StringPart part : rendered.evaluatedRuleParts) append(part);
+    _line.append('\n');
+    _writer.append(_line);
+  }
+
+  /** Appends the given time of reception (in ms since the epoch). */
+  private void appendTime(long millis) {
+    long second = millis - Math.floorMod(millis, 1000);
+    if (second != _second) {
+      _second = second;
+      _secondString = SECOND_FORMATTER.format(Instant.ofEpochMilli(second));
+    }
+    int ms = (int) (millis - second);
+    _line.append(_secondString);
+    if (ms < 100) _line.append('0');
+    if (ms < 10) _line.append('0');
+    _line.append(ms);
+  }
+
+  /** Appends a part of a rendered log, coloured or marked. */
+  private void append(StringPart part) {
+    if (_color) {
+      switch (part.evalOutcome) {
+        case LogData.RED: _line.append(ANSI_RED); break;
+        case LogData.GREEN: _line.append(ANSI_GREEN); break;
+        case LogData.GRAY: _line.append(ANSI_GRAY); break;
+        default: _line.append(part.content); return;
+      }
+      _line.append(part.content).append(ANSI_RESET);
+    } else {
+      switch (part.evalOutcome) {
+        case LogData.RED: _line.append("{!").append(part.content).append('}');
+          break;
+        case LogData.GRAY: _line.append("{~").append(part.content).append('}');
+          break;
+        default: _line.append(part.content);
+      }
+    }
+  }
+
+  /** Writes a log as a journal record. */
+  private void printBinary(long receivedNanos, int ruleId, int resultCount,
+          long resultBits, long[] moreResultBits) throws IOException {
+    int size = RuleLogJournal.recordSize(resultCount);
+    if (_buffer.remaining() < size) flushBuffer();
+    if (_buffer.remaining() < size) return;
+    RuleLogJournal.putRecord(_buffer, receivedNanos, ruleId, resultCount,
+            resultBits, moreResultBits);
+  }
+
+  /** Writes the buffered binary output. */
+  private void flushBuffer() throws IOException {
+    _buffer.flip();
+    while (_buffer.hasRemaining()) _channel.write(_buffer);
+    _buffer.clear();
+  }
+
+  /**
+   * Writes all buffered output.
+   *
+   * @throws IOException
+   *         If the output could not be written (now or before)
+   */
+  public synchronized void flush() throws IOException {
+    if (_error != null) throw _error;
+    try {
+      if (_format == Format.TEXT) {
+        _writer.flush();
+      } else {
+        flushBuffer();
+      }
+    } catch (IOException ex) {
+      _error = ex;
+      throw ex;
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      if (_format == Format.TEXT) _writer.close();
+      else _channel.close();
+    }
+  }
+
+  /** @return The number of written logs */
+  long getWrittenCount() { return _written; }
+
+}
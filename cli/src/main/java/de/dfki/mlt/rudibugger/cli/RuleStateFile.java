@@ -0,0 +1,108 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.cli;
+
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleInfoExtended;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudimant.common.BasicInfo;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Applies a logging configuration saved by the rule tree view to a rule
+ * model. The file is read as plain maps, so the JavaFX based
+ * <code>RuleTreeViewState</code> is not needed. Like the rule tree view, the
+ * items are matched by their labels, starting at the root import.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+final class RuleStateFile {
+
+  private RuleStateFile() {}
+
+  /** Reads the saved states as maps, ignoring the tags of the saved items. */
+  private static class UntypedConstructor extends SafeConstructor {
+    UntypedConstructor(LoaderOptions options) {
+      super(options);
+      this.yamlConstructors.put(null, new ConstructYamlMap());
+    }
+  }
+
+  /**
+   * Sets the logging state of every rule mentioned in the given file.
+   *
+   * @param file
+   *        A logging configuration saved by the rule tree view
+   * @param ruleModel
+   *        The rule model whose rules' states should be set
+   * @return The number of rules whose state has been set
+   * @throws IOException
+   *        If the file could not be read or does not fit the rule model
+   */
+  static int apply(Path file, RuleModel ruleModel) throws IOException {
+    LoaderOptions options = new LoaderOptions();
+    options.setTagInspector(tag -> true);
+    Object state;
+    try (Reader r = Files.newBufferedReader(file)) {
+      state = new Yaml(new UntypedConstructor(options)).load(r);
+    } catch (YAMLException ex) {
+      throw new IOException(file + " could not be parsed: " + ex.getMessage());
+    }
+    Map<?, ?> root = state instanceof Map ? child((Map) state, "root") : null;
+    BasicInfo rootImport = ruleModel.getRootImport();
+    if (root == null || ! rootImport.getLabel().equals(root.get("label")))
+      throw new IOException(file + " does not belong to this project.");
+    int count = 0;
+    for (BasicInfo child : rootImport.getChildren())
+      count += apply(child, root);
+    return count;
+  }
+
+  /** Helper function of <code>apply()</code>. */
+  private static int apply(BasicInfo info, Map<?, ?> parent) {
+    Map<?, ?> children = child(parent, "children");
+    Map<?, ?> item = children == null ? null : child(children, info.getLabel());
+    if (item == null) return 0;
+    int count = 0;
+    Map<?, ?> props = child(item, "props");
+    if (info instanceof RuleInfoExtended && props != null
+            && props.get("loggingState") instanceof Integer) {
+      ((RuleInfoExtended) info).setState((Integer) props.get("loggingState"));
+      count++;
+    }
+    for (BasicInfo child : info.getChildren())
+      count += apply(child, item);
+    return count;
+  }
+
+  /** @return The map stored under the given key, or null */
+  private static Map<?, ?> child(Map<?, ?> map, String key) {
+    Object o = map.get(key);
+    return o instanceof Map ? (Map<?, ?>) o : null;
+  }
+
+}
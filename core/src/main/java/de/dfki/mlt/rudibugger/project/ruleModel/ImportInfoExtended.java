@@ -19,14 +19,11 @@
 
 package de.dfki.mlt.rudibugger.project.ruleModel;
 
-import de.dfki.mlt.rudibugger.DataModel;
 import de.dfki.mlt.rudimant.common.BasicInfo;
 import static de.dfki.mlt.rudimant.common.Constants.*;
 import de.dfki.mlt.rudimant.common.IncludeInfo;
 import java.nio.file.Path;
 import java.util.HashSet;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,7 +48,7 @@ public class ImportInfoExtended extends IncludeInfo {
    * **************************************************************************/
 
   /** Describes how the rules of this import are being logged. */
-  private final IntegerProperty _state;
+  private final LoggingState _state;
 
   /** Represents the associated file. */
   private final Path _file;
@@ -60,11 +57,14 @@ public class ImportInfoExtended extends IncludeInfo {
    * The ruleLoggingStates of all the children of this
    * <code>ImportInfoExtended</code> (e.g. other imports or rules).
    */
-  private final HashSet<IntegerProperty> childStates = new HashSet<>();
+  private final HashSet<LoggingState> childStates = new HashSet<>();
 
   /** Describes whether or not this Import contains rules. */
   private boolean _containsRules;
 
+  /** Limits the logs of the rules of this Import (or null). */
+  private LogPolicy _logPolicy;
+
 
   /* ***************************************************************************
    * INITIALIZERS / CONSTRUCTORS
@@ -90,7 +90,7 @@ public class ImportInfoExtended extends IncludeInfo {
       log.error("Tried to use a non-extended ImportInfo as parent.");
     _parent = parent;
     _errors = original.getErrors();
-    _state = new SimpleIntegerProperty(STATE_ALWAYS);
+    _state = new LoggingState();
 //    _model = model;
     _file = rudiFolder.resolve(original.getFilePath()).normalize();
   }
@@ -130,19 +130,19 @@ public class ImportInfoExtended extends IncludeInfo {
    *          <code>RuleInfoExtended</code>.
    */
   public void addListener(BasicInfo bi) {
-    IntegerProperty state;
+    LoggingState state;
     if (bi instanceof RuleInfoExtended)
       state = ((RuleInfoExtended) bi).stateProperty();
     else
       state = ((ImportInfoExtended) bi).stateProperty();
 
     childStates.add(state);
-    state.addListener((cl, ov, nv) -> {
-      Integer t = -1;
-      for (IntegerProperty x : childStates) {
-        if (x.getValue().equals(STATE_RULELESS)) continue;
-        if ((t == -1) | (x.getValue().equals(t))) {
-          t = x.getValue();
+    state.addListener((ov, nv) -> {
+      int t = -1;
+      for (LoggingState x : childStates) {
+        if (x.get() == STATE_RULELESS) continue;
+        if ((t == -1) | (x.get() == t)) {
+          t = x.get();
         } else {
           this.setStateProperty(STATE_PARTLY);
           return;
@@ -153,6 +153,7 @@ public class ImportInfoExtended extends IncludeInfo {
   }
 
 
+
   /* ***************************************************************************
    * GETTERS & SETTERS
    * **************************************************************************/
@@ -178,15 +179,38 @@ public class ImportInfoExtended extends IncludeInfo {
    *        An Integer {@linkplain de.dfki.mlt.rudimant.common
    *        constant}.
    */
-  public void setStateProperty(int value) { _state.setValue(value); }
+  public void setStateProperty(int value) { _state.set(value); }
 
   /**
-   * Returns an <code>IntegerProperty</code> representing the logging state of
+   * Returns the <code>LoggingState</code> representing the logging state of
    * this <code>ImportInfoExtended</code>.
    *
-   * @return An <code>IntegerProperty</code>.
+   * @return A <code>LoggingState</code>.
    */
-  public IntegerProperty stateProperty() { return _state; }
+  public LoggingState stateProperty() { return _state; }
+
+  /** @return The policy set for this Import (or null) */
+  public LogPolicy getLogPolicy() { return _logPolicy; }
+
+  /**
+   * Sets the policy limiting the logs of all rules of this Import (and its
+   * subimports) without a policy of their own. The <code>RuleModel</code> has
+   * to be told about the change afterwards.
+   *
+   * @param policy
+   *        The policy, or null to use the policy of the parent Import
+   */
+  public void setLogPolicy(LogPolicy policy) { _logPolicy = policy; }
+
+  /**
+   * @return The policy of this Import or of the nearest parent Import having
+   *         one (or null)
+   */
+  public LogPolicy getEffectiveLogPolicy() {
+    if (_logPolicy != null || ! (_parent instanceof ImportInfoExtended))
+      return _logPolicy;
+    return ((ImportInfoExtended) _parent).getEffectiveLogPolicy();
+  }
 
   /** @return The absolute path of this Import. */
   public Path getAbsolutePath() { return _file; }
@@ -0,0 +1,120 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project.ruleModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes how many logs of a rule are kept when they are received: at most
+ * a number of logs per second, only every k-th log, or only logs whose
+ * results differ from the rule's previous log (state transitions). The
+ * limits can be combined, a log has to pass all of them.
+ *
+ * A policy can be set for a rule or for an import, in which case it applies
+ * to all rules of the import without a policy of their own. It is saved
+ * together with the logging states in the ruleModelState files (therefore
+ * it follows the JavaBeans convention).
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogPolicy {
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The maximum number of logs per second, 0 if unlimited. */
+  private int maxPerSecond;
+
+  /** Only every k-th log is kept, 1 (or 0) to keep every log. */
+  private int sampleEvery;
+
+  /** Whether only logs with changed results are kept. */
+  private boolean transitionsOnly;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTORS AND METHODS
+   * **************************************************************************/
+
+  /** Creates a policy keeping every log (needed for YAML). */
+  public LogPolicy() {}
+
+  /**
+   * Creates a new policy.
+   *
+   * @param maxPerSecond
+   *        The maximum number of logs per second, 0 if unlimited
+   * @param sampleEvery
+   *        Only every k-th log is kept, 1 to keep every log
+   * @param transitionsOnly
+   *        True, if only logs with changed results are kept
+   */
+  public LogPolicy(int maxPerSecond, int sampleEvery,
+          boolean transitionsOnly) {
+    if (maxPerSecond < 0 || sampleEvery < 0)
+      throw new IllegalArgumentException("Negative log limit: "
+              + maxPerSecond + ", " + sampleEvery);
+    this.maxPerSecond = maxPerSecond;
+    this.sampleEvery = sampleEvery;
+    this.transitionsOnly = transitionsOnly;
+  }
+
+  /** @return True, if this policy keeps every log */
+  public boolean isUnlimited() {
+    return maxPerSecond == 0 && sampleEvery <= 1 && ! transitionsOnly;
+  }
+
+  /** @return A short description, e.g. "10/s, 1 in 5, transitions" */
+  @Override
+  public String toString() {
+    if (isUnlimited()) return "unlimited";
+    List<String> limits = new ArrayList<>();
+    if (maxPerSecond > 0) limits.add(maxPerSecond + "/s");
+    if (sampleEvery > 1) limits.add("1 in " + sampleEvery);
+    if (transitionsOnly) limits.add("transitions");
+    return String.join(", ", limits);
+  }
+
+
+  /* ***************************************************************************
+   * GETTERS AND SETTERS (ALSO NEEDED FOR YAML)
+   * **************************************************************************/
+
+  /** @return The maximum number of logs per second, 0 if unlimited */
+  public int getMaxPerSecond() { return maxPerSecond; }
+
+  /** @param max The maximum number of logs per second, 0 if unlimited */
+  public void setMaxPerSecond(int max) { maxPerSecond = max; }
+
+  /** @return Only every k-th log is kept, 1 (or 0) to keep every log */
+  public int getSampleEvery() { return sampleEvery; }
+
+  /** @param k Only every k-th log is kept, 1 (or 0) to keep every log */
+  public void setSampleEvery(int k) { sampleEvery = k; }
+
+  /** @return True, if only logs with changed results are kept */
+  public boolean getTransitionsOnly() { return transitionsOnly; }
+
+  /** @param b True, if only logs with changed results are kept */
+  public void setTransitionsOnly(boolean b) { transitionsOnly = b; }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project.ruleModel;
+
+import static de.dfki.mlt.rudimant.common.Constants.STATE_ALWAYS;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The ruleLoggingState of a rule or an import. Listeners are notified
+ * whenever the state changes, so that views (or VOnDA) can follow it without
+ * depending on JavaFX properties.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LoggingState {
+
+  /** Is notified when a ruleLoggingState changes. */
+  @FunctionalInterface
+  public interface Listener {
+
+    /**
+     * @param oldState
+     *        The previous ruleLoggingState
+     * @param newState
+     *        The new ruleLoggingState
+     */
+    void changed(int oldState, int newState);
+
+  }
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The current ruleLoggingState, may be read from any thread. */
+  private volatile int _state = STATE_ALWAYS;
+
+  /** Are notified when the state changes. */
+  private final CopyOnWriteArrayList<Listener> _listeners
+          = new CopyOnWriteArrayList<>();
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /** @return The current ruleLoggingState */
+  public int get() { return _state; }
+
+  /**
+   * Sets the ruleLoggingState and notifies the listeners, if it has changed.
+   *
+   * @param state
+   *        An Integer {@linkplain de.dfki.mlt.rudimant.common constant}
+   */
+  public void set(int state) {
+    int old = _state;
+    if (old == state) return;
+    _state = state;
+    for (Listener l : _listeners) l.changed(old, state);
+  }
+
+  /** @param listener Is notified whenever the state changes */
+  public void addListener(Listener listener) { _listeners.add(listener); }
+
+  /** @param listener A previously added listener */
+  public void removeListener(Listener listener) {
+    _listeners.remove(listener);
+  }
+
+}
@@ -0,0 +1,303 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project.ruleModel;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudimant.common.BasicInfo;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Accumulates which rules of a <code>RuleModel</code> have ever been logged
+ * and which outcomes their base terms had: evaluated to true, evaluated to
+ * false or not evaluated because of shortcut evaluation.
+ *
+ * All outcomes are kept in one bit matrix: every rule has a row of one bit
+ * for having fired and three bits per base term. Ten thousand rules with a
+ * handful of base terms each take a few kilobytes, independent of the number
+ * of recorded logs. Like {@link RuleStatistics}, logs are recorded on the
+ * thread receiving them and the outcomes may be read from any thread.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleCoverage {
+
+  /** A base term evaluated to true. */
+  public static final int TERM_TRUE = 1;
+
+  /** A base term evaluated to false. */
+  public static final int TERM_FALSE = 2;
+
+  /** A base term was not evaluated because of shortcut evaluation. */
+  public static final int TERM_SHORTCUT = 4;
+
+  /** The number of bits per base term. */
+  private static final int BITS_PER_TERM = 3;
+
+
+  /* ***************************************************************************
+   * SUBCLASSES
+   * **************************************************************************/
+
+  /** The aggregated coverage of some rules. */
+  public static final class Summary {
+
+    /** The number of rules. */
+    public final int rules;
+
+    /** The number of rules that have been logged at least once. */
+    public final int firedRules;
+
+    /** The number of base terms of all rules. */
+    public final int terms;
+
+    /** The number of base terms that evaluated to true at least once. */
+    public final int termsTrue;
+
+    /** The number of base terms that evaluated to false at least once. */
+    public final int termsFalse;
+
+    /** The number of base terms that evaluated to true and to false. */
+    public final int termsBoth;
+
+    /** The number of base terms that were not evaluated at least once. */
+    public final int termsShortcut;
+
+    private Summary(int[] counts) {
+      rules = counts[0];
+      firedRules = counts[1];
+      terms = counts[2];
+      termsTrue = counts[3];
+      termsFalse = counts[4];
+      termsBoth = counts[5];
+      termsShortcut = counts[6];
+    }
+
+    /**
+     * @return The percentage of rules that fired and base terms that
+     *        evaluated to both true and false, or 100 if there is nothing
+     *        to cover
+     */
+    public double getPercentage() {
+      int all = rules + terms;
+      return all == 0 ? 100 : 100.0 * (firedRules + termsBoth) / all;
+    }
+
+  }
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The first bit of every rule's row, by id (-1 for unknown ids). */
+  private final int[] _offsets;
+
+  /** The number of base terms of every rule, by id. */
+  private final int[] _termCounts;
+
+  /** The bit matrix. */
+  private final AtomicLongArray _bits;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates an empty coverage of the given rules.
+   *
+   * @param rules
+   *        All rules of a rule model
+   */
+  public RuleCoverage(Collection<RuleInfoExtended> rules) {
+    int size = 1 + rules.stream().mapToInt(RuleInfoExtended::getId)
+            .max().orElse(-1);
+    _offsets = new int[size];
+    _termCounts = new int[size];
+    Arrays.fill(_offsets, -1);
+    int bits = 0;
+    for (RuleInfoExtended rule : rules) {
+      String[] terms = rule.getBaseterms();
+      _offsets[rule.getId()] = bits;
+      _termCounts[rule.getId()] = terms == null ? 0 : terms.length;
+      bits += 1 + BITS_PER_TERM * _termCounts[rule.getId()];
+    }
+    _bits = new AtomicLongArray((bits + Long.SIZE - 1) / Long.SIZE);
+  }
+
+  /**
+   * Records the outcomes of a log, logs of unknown rules are ignored.
+   *
+   * @param data
+   *        The log
+   * @param shortcutTerms
+   *        The base terms that were not evaluated, one bit each, as returned
+   *        by <code>LogDataRenderer.getShortcutTerms</code>
+   */
+  public void record(LogData data, long shortcutTerms) {
+    record(data.getRuleId(), data.getResultCount(), data.getResultBits(),
+            data.getMoreResultBits(), shortcutTerms);
+  }
+
+  /**
+   * Records the outcomes of a log that has not been turned into a
+   * <code>LogData</code>, logs of unknown rules are ignored.
+   *
+   * @param ruleId
+   *        The id of the logged rule
+   * @param resultCount
+   *        The number of evaluation results
+   * @param resultBits
+   *        The first 64 evaluation results, one bit per result
+   * @param moreResultBits
+   *        The remaining evaluation results (or null)
+   * @param shortcutTerms
+   *        The base terms that were not evaluated, one bit each
+   */
+  public void record(int ruleId, int resultCount, long resultBits,
+          long[] moreResultBits, long shortcutTerms) {
+    if (ruleId < 0 || ruleId >= _offsets.length || _offsets[ruleId] < 0)
+      return;
+    int bit = _offsets[ruleId];
+    set(bit++);
+    int terms = Math.min(_termCounts[ruleId], resultCount - 1);
+    for (int t = 0; t < terms; t++, bit += BITS_PER_TERM) {
+      int r = t + 1;
+      boolean result = r < Long.SIZE
+              ? (resultBits & (1L << r)) != 0
+              : (moreResultBits[r / Long.SIZE - 1] & (1L << r)) != 0;
+      if (t < Long.SIZE && (shortcutTerms & (1L << t)) != 0)
+        set(bit + 2);
+      else if (result)
+        set(bit);
+      else
+        set(bit + 1);
+    }
+  }
+
+  /** Sets a bit, the word is only written if the bit is not yet set. */
+  private void set(int bit) {
+    int word = bit >>> 6;
+    long mask = 1L << bit;
+    long old = _bits.get(word);
+    while ((old & mask) == 0 && ! _bits.compareAndSet(word, old, old | mask))
+      old = _bits.get(word);
+  }
+
+  private boolean isSet(int bit) {
+    return (_bits.get(bit >>> 6) & (1L << bit)) != 0;
+  }
+
+  /**
+   * Forgets all recorded outcomes. Logs recorded concurrently may or may not
+   * be forgotten.
+   */
+  public void reset() {
+    for (int i = 0; i < _bits.length(); i++) _bits.set(i, 0);
+  }
+
+  /** @return True, if the given rule has been logged at least once */
+  public boolean hasFired(int ruleId) {
+    return ruleId >= 0 && ruleId < _offsets.length && _offsets[ruleId] >= 0
+            && isSet(_offsets[ruleId]);
+  }
+
+  /** @return The number of base terms of the given rule */
+  public int getTermCount(int ruleId) {
+    return ruleId < 0 || ruleId >= _termCounts.length
+            ? 0 : _termCounts[ruleId];
+  }
+
+  /**
+   * @param ruleId
+   *        The id of a rule
+   * @param term
+   *        The index of one of its base terms
+   * @return The outcomes the base term had, a combination of
+   *        {@link #TERM_TRUE}, {@link #TERM_FALSE} and {@link #TERM_SHORTCUT}
+   */
+  public int getTermOutcomes(int ruleId, int term) {
+    if (term < 0 || term >= getTermCount(ruleId)) return 0;
+    int bit = _offsets[ruleId] + 1 + BITS_PER_TERM * term;
+    return (isSet(bit) ? TERM_TRUE : 0) | (isSet(bit + 1) ? TERM_FALSE : 0)
+            | (isSet(bit + 2) ? TERM_SHORTCUT : 0);
+  }
+
+  /**
+   * @param ruleId
+   *        The id of a rule
+   * @return True, if the rule fired and all its base terms evaluated to both
+   *        true and false
+   */
+  public boolean isCovered(int ruleId) {
+    if (! hasFired(ruleId)) return false;
+    for (int t = 0; t < getTermCount(ruleId); t++) {
+      int outcomes = getTermOutcomes(ruleId, t);
+      if ((outcomes & TERM_TRUE) == 0 || (outcomes & TERM_FALSE) == 0)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Aggregates the coverage of a rule or import with all its rules.
+   *
+   * @param info
+   *        A rule or an import
+   * @param withImports
+   *        True, if the rules of imports within an import are included
+   * @return The aggregated coverage
+   */
+  public Summary summarize(BasicInfo info, boolean withImports) {
+    int[] counts = new int[7];
+    if (info instanceof RuleInfoExtended)
+      count((RuleInfoExtended) info, counts);
+    for (BasicInfo child : info.getChildren())
+      summarize(child, withImports, counts);
+    return new Summary(counts);
+  }
+
+  private void summarize(BasicInfo info, boolean withImports, int[] counts) {
+    if (info instanceof RuleInfoExtended)
+      count((RuleInfoExtended) info, counts);
+    else if (! withImports)
+      return;
+    for (BasicInfo child : info.getChildren())
+      summarize(child, withImports, counts);
+  }
+
+  private void count(RuleInfoExtended rule, int[] counts) {
+    int id = rule.getId();
+    counts[0]++;
+    if (hasFired(id)) counts[1]++;
+    for (int t = 0; t < getTermCount(id); t++) {
+      int outcomes = getTermOutcomes(id, t);
+      counts[2]++;
+      if ((outcomes & TERM_TRUE) != 0) counts[3]++;
+      if ((outcomes & TERM_FALSE) != 0) counts[4]++;
+      if ((outcomes & (TERM_TRUE | TERM_FALSE)) == (TERM_TRUE | TERM_FALSE))
+        counts[5]++;
+      if ((outcomes & TERM_SHORTCUT) != 0) counts[6]++;
+    }
+  }
+
+}
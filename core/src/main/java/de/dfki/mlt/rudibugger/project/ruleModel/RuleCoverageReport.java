@@ -0,0 +1,198 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project.ruleModel;
+
+import static de.dfki.mlt.rudibugger.project.ruleModel.RuleCoverage.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleCoverage.Summary;
+import de.dfki.mlt.rudimant.common.BasicInfo;
+
+/**
+ * Writes the coverage of a rule model as CSV (one line per base term) or as
+ * a self-contained HTML page (one section per import).
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public final class RuleCoverageReport {
+
+  private RuleCoverageReport() {}
+
+  /**
+   * Writes one line per base term, rules without base terms get one line
+   * with empty term columns.
+   *
+   * @param coverage
+   *        The coverage to write
+   * @param root
+   *        The root import of the covered rule model
+   * @param out
+   *        The writer to write to
+   * @throws IOException
+   *         If writing fails
+   */
+  public static void writeCsv(RuleCoverage coverage, ImportInfoExtended root,
+          Writer out) throws IOException {
+    out.write("import,rule,id,line,fired,term,base_term,true,false,shortcut\n");
+    for (ImportInfoExtended ii : collectImports(root)) {
+      for (RuleInfoExtended ri : collectRules(ii)) {
+        int id = ri.getId();
+        String prefix = csv(ii.getLabel()) + "," + csv(ri.getLabel()) + ","
+                + id + "," + ri.getLine() + "," + coverage.hasFired(id);
+        int terms = coverage.getTermCount(id);
+        if (terms == 0) out.write(prefix + ",,,,,\n");
+        for (int t = 0; t < terms; t++) {
+          int outcomes = coverage.getTermOutcomes(id, t);
+          out.write(prefix + "," + t + "," + csv(ri.getBaseterms()[t])
+                  + "," + ((outcomes & TERM_TRUE) != 0)
+                  + "," + ((outcomes & TERM_FALSE) != 0)
+                  + "," + ((outcomes & TERM_SHORTCUT) != 0) + "\n");
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes an HTML page with the overall coverage and a section per import:
+   * its coverage and a table of its rules, where base terms that evaluated
+   * to both true and false are green, the ones with only one of the
+   * outcomes yellow and the others red.
+   *
+   * @param coverage
+   *        The coverage to write
+   * @param root
+   *        The root import of the covered rule model
+   * @param title
+   *        The title of the page
+   * @param out
+   *        The writer to write to
+   * @throws IOException
+   *         If writing fails
+   */
+  public static void writeHtml(RuleCoverage coverage, ImportInfoExtended root,
+          String title, Writer out) throws IOException {
+    out.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n"
+            + "<title>" + html(title) + "</title>\n<style>\n"
+            + "body { font-family: sans-serif; }\n"
+            + "table { border-collapse: collapse; }\n"
+            + "td, th { border: 1px solid #ccc; padding: 2px 6px; }\n"
+            + ".both { background: #c6efce; }\n"
+            + ".one { background: #ffeb9c; }\n"
+            + ".none { background: #ffc7ce; }\n"
+            + ".shortcut { color: gray; }\n"
+            + "</style>\n</head>\n<body>\n");
+    out.write("<h1>" + html(title) + "</h1>\n");
+    out.write("<p>" + summary(coverage.summarize(root, true)) + "</p>\n");
+    for (ImportInfoExtended ii : collectImports(root)) {
+      List<RuleInfoExtended> rules = collectRules(ii);
+      if (rules.isEmpty()) continue;
+      out.write("<h2>" + html(ii.getLabel()) + "</h2>\n<p>"
+              + html(String.valueOf(ii.getAbsolutePath())) + "<br>"
+              + summary(coverage.summarize(ii, false)) + "</p>\n");
+      out.write("<table>\n<tr><th>Rule</th><th>Line</th><th>Fired</th>"
+              + "<th>Base terms</th></tr>\n");
+      for (RuleInfoExtended ri : rules) {
+        int id = ri.getId();
+        out.write("<tr><td class=\"" + (coverage.hasFired(id) ? "both" : "none")
+                + "\">" + html(ri.getLabel()) + "</td><td>" + ri.getLine()
+                + "</td><td>" + (coverage.hasFired(id) ? "yes" : "no")
+                + "</td><td>");
+        for (int t = 0; t < coverage.getTermCount(id); t++) {
+          int outcomes = coverage.getTermOutcomes(id, t);
+          int both = TERM_TRUE | TERM_FALSE;
+          String cls = (outcomes & both) == both ? "both"
+                  : (outcomes & both) != 0 ? "one" : "none";
+          if ((outcomes & TERM_SHORTCUT) != 0) cls += " shortcut";
+          out.write("<span class=\"" + cls + "\" title=\"" + outcomes(outcomes)
+                  + "\">" + html(ri.getBaseterms()[t]) + "</span> ");
+        }
+        out.write("</td></tr>\n");
+      }
+      out.write("</table>\n");
+    }
+    out.write("</body>\n</html>\n");
+  }
+
+  /** @return The given import and all imports below it, depth first */
+  private static List<ImportInfoExtended> collectImports(
+          ImportInfoExtended root) {
+    List<ImportInfoExtended> imports = new ArrayList<>();
+    collectImports(root, imports);
+    return imports;
+  }
+
+  private static void collectImports(BasicInfo info,
+          List<ImportInfoExtended> imports) {
+    if (info instanceof ImportInfoExtended)
+      imports.add((ImportInfoExtended) info);
+    for (BasicInfo child : info.getChildren()) collectImports(child, imports);
+  }
+
+  /** @return The rules of the given import (not of imports below it) */
+  private static List<RuleInfoExtended> collectRules(ImportInfoExtended ii) {
+    List<RuleInfoExtended> rules = new ArrayList<>();
+    collectRules(ii, rules);
+    return rules;
+  }
+
+  private static void collectRules(BasicInfo info,
+          List<RuleInfoExtended> rules) {
+    for (BasicInfo child : info.getChildren()) {
+      if (child instanceof RuleInfoExtended) {
+        rules.add((RuleInfoExtended) child);
+        collectRules(child, rules);
+      }
+    }
+  }
+
+  private static String summary(Summary s) {
+    return String.format(Locale.ROOT, "%.1f %% covered: %d of %d rules fired,"
+            + " %d of %d base terms evaluated to true and false, %d were"
+            + " shortcut", s.getPercentage(), s.firedRules, s.rules,
+            s.termsBoth, s.terms, s.termsShortcut);
+  }
+
+  private static String outcomes(int outcomes) {
+    List<String> names = new ArrayList<>();
+    if ((outcomes & TERM_TRUE) != 0) names.add("true");
+    if ((outcomes & TERM_FALSE) != 0) names.add("false");
+    if ((outcomes & TERM_SHORTCUT) != 0) names.add("shortcut");
+    return names.isEmpty() ? "never evaluated" : String.join(", ", names);
+  }
+
+  private static String csv(String s) {
+    if (s == null) return "";
+    if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0)
+      return s;
+    return '"' + s.replace("\"", "\"\"") + '"';
+  }
+
+  private static String html(String s) {
+    if (s == null) return "";
+    return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+            .replace("\"", "&quot;");
+  }
+
+}
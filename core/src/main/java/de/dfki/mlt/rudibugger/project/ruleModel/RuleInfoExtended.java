@@ -19,13 +19,10 @@
 
 package de.dfki.mlt.rudibugger.project.ruleModel;
 
-import de.dfki.mlt.rudibugger.DataModel;
 import de.dfki.mlt.rudimant.common.BasicInfo;
 import static de.dfki.mlt.rudimant.common.Constants.*;
 import de.dfki.mlt.rudimant.common.RuleInfo;
 import java.nio.file.Path;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,11 +43,14 @@ public class RuleInfoExtended extends RuleInfo {
    * **************************************************************************/
 
   /** Describes how the rules of this import are being logged. */
-  private final IntegerProperty _state;
+  private final LoggingState _state;
 
   /** Represents the Import containing this rule. */
   private final ImportInfoExtended _parentImport;
 
+  /** Limits the logs of this rule (or null to use the import's policy). */
+  private LogPolicy _logPolicy;
+
 
   /* ***************************************************************************
    * INITIALIZERS / CONSTRUCTORS
@@ -72,7 +72,7 @@ public class RuleInfoExtended extends RuleInfo {
     _label = original.getLabel();
     _line = original.getLine();
     _parent = parent;
-    _state = new SimpleIntegerProperty(STATE_ALWAYS);
+    _state = new LoggingState();
     _id = original.getId();
     _expr = original.getExpression();
     _baseTerms = original.getBaseterms();
@@ -149,7 +149,7 @@ public class RuleInfoExtended extends RuleInfo {
    *           An Integer {@linkplain de.dfki.mlt.rudimant.common
    *           constant}.
    */
-  public void setState(int i) { _state.setValue(i); }
+  public void setState(int i) { _state.set(i); }
 
   /**
    * Sets the given Integer {@linkplain de.dfki.mlt.rudimant.common
@@ -159,13 +159,34 @@ public class RuleInfoExtended extends RuleInfo {
    *        An Integer {@linkplain de.dfki.mlt.rudimant.common
    *        constant}
    */
-  public void setStateProperty(int value) { _state.setValue(value); }
+  public void setStateProperty(int value) { _state.set(value); }
 
   /**
-   * @return An <code>IntegerProperty</code> representing the logging state of
+   * @return The <code>LoggingState</code> representing the logging state of
    * this <code>RuleInfoExtended</code>
    */
-  public IntegerProperty stateProperty() { return _state; }
+  public LoggingState stateProperty() { return _state; }
+
+  /** @return The policy set for this rule (or null) */
+  public LogPolicy getLogPolicy() { return _logPolicy; }
+
+  /**
+   * Sets the policy limiting the logs of this rule. The
+   * <code>RuleModel</code> has to be told about the change afterwards.
+   *
+   * @param policy
+   *        The policy, or null to use the policy of the containing imports
+   */
+  public void setLogPolicy(LogPolicy policy) { _logPolicy = policy; }
+
+  /**
+   * @return The policy limiting the logs of this rule: its own or the one of
+   *         the nearest containing import having one (or null)
+   */
+  public LogPolicy getEffectiveLogPolicy() {
+    if (_logPolicy != null || _parentImport == null) return _logPolicy;
+    return _parentImport.getEffectiveLogPolicy();
+  }
 
   /** @return The parent <code>ImportInfoExtended</code> */
   public ImportInfoExtended getParentImport() { return _parentImport; }
@@ -0,0 +1,92 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project.ruleModel;
+
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer;
+import de.dfki.mlt.rudibugger.rpc.RuleLogSink;
+
+/**
+ * Records every received log in a rule model's {@link RuleStatistics} and
+ * {@link RuleCoverage}. It is called on the thread receiving the logs (or
+ * replaying them), before any log is suppressed, discarded by a capture or
+ * dropped because the queue is full, so that the counts are complete.
+ *
+ * Which base terms were not evaluated is looked up with a renderer of its
+ * own, the JavaFX application thread's renderer is not touched. Known result
+ * patterns are looked up without allocating. Logs are recorded one at a
+ * time, so that the receiving and the replaying thread can share a counter.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogCounter implements RuleLogSink {
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Counts the logs of every rule. */
+  private final RuleStatistics _statistics;
+
+  /** Accumulates the outcomes of every rule's base terms. */
+  private final RuleCoverage _coverage;
+
+  /** Finds the base terms that were not evaluated. */
+  private final LogDataRenderer _renderer;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates a counter for the given rule model.
+   *
+   * @param statistics
+   *        The rule model's statistics
+   * @param coverage
+   *        The rule model's coverage
+   * @param renderer
+   *        A renderer for the rule model, only used by this counter
+   */
+  public RuleLogCounter(RuleStatistics statistics, RuleCoverage coverage,
+          LogDataRenderer renderer) {
+    _statistics = statistics;
+    _coverage = coverage;
+    _renderer = renderer;
+  }
+
+  @Override
+  public synchronized void printLog(long receivedNanos, int ruleId,
+          int resultCount, long resultBits, long[] moreResultBits) {
+    long shortcutTerms = _renderer.getShortcutTerms(ruleId, resultCount,
+            resultBits, moreResultBits);
+    _statistics.record(ruleId, (resultBits & 1) != 0, shortcutTerms != 0,
+            System.nanoTime());
+    _coverage.record(ruleId, resultCount, resultBits, moreResultBits,
+            shortcutTerms);
+  }
+
+  /** @return The statistics the logs are counted in */
+  public RuleStatistics getStatistics() { return _statistics; }
+
+  /** @return The coverage the logs are recorded in */
+  public RuleCoverage getCoverage() { return _coverage; }
+
+}
@@ -25,21 +25,24 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer;
 import de.dfki.mlt.rudimant.common.BasicInfo;
 import de.dfki.mlt.rudimant.common.ErrorInfo;
 import de.dfki.mlt.rudimant.common.IncludeInfo;
 import de.dfki.mlt.rudimant.common.RuleInfo;
-import javafx.beans.property.IntegerProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableMap;
 
 /**
  * This class contains the data about the rule structure that is shown in
@@ -69,9 +72,9 @@ public class RuleModel {
   /** Maps used Paths to their respective <code>ImportInfoExtended</code>. */
   private final Map<Path, ImportInfoExtended> _pathToImport = new HashMap<>();
 
-  /** Maps rule ID's to their ruleLoggingState property. */
-  private final ObservableMap<Integer, IntegerProperty> _idLoggingStateMap
-          = FXCollections.observableMap(new LinkedHashMap<>());
+  /** Maps rule ID's to their ruleLoggingState. */
+  private final Map<Integer, LoggingState> _idLoggingStateMap
+          = new LinkedHashMap<>();
 
   /** Maps ruleIds to paths and lines. */
   private final HashMap<Integer, RuleInfoExtended> _idRuleMap = new HashMap<>();
@@ -100,6 +103,19 @@ public class RuleModel {
   /** Indicates the outcome of the last compilation attempt. */
   private Integer _compilationOutcome = COMPILATION_UNDEFINED;
 
+  /** Counts the logs of every rule. */
+  private RuleStatistics _statistics;
+
+  /** Accumulates the outcomes of every rule's base terms. */
+  private RuleCoverage _coverage;
+
+  /** Records the received logs in the statistics and the coverage. */
+  private RuleLogCounter _logCounter;
+
+  /** Are run whenever a policy limiting the logs has been changed. */
+  private final List<Runnable> _logPolicyListeners
+          = new CopyOnWriteArrayList<>();
+
 
   /* ***************************************************************************
    * INITIALIZERS, UPDATERS AND RESETTER
@@ -108,15 +124,38 @@ public class RuleModel {
   public static RuleModel createRuleModel(Path rudiFolder, Path ruleLocYaml) {
     RuleModel rm = new RuleModel(rudiFolder, ruleLocYaml);
 
-    BasicInfo basicRuleStructure = rm.readInRuleLocationFile();
+    IncludeInfo basicRuleStructure = rm.readInRuleLocationFile();
     if (basicRuleStructure == null) return null;
 
-    ImportInfoExtended processedRuleStructure
-            = (ImportInfoExtended) rm.processInfos(basicRuleStructure, null);
-    rm._rootImport = processedRuleStructure;
+    return rm.init(basicRuleStructure);
+  }
 
-    rm.setCompilationOutcomeState();
-    return rm;
+  /**
+   * Creates a RuleModel out of an already read in rule structure (e.g. a
+   * synthetic one for benchmarks).
+   *
+   * @param rudiFolder
+   *        The project's .rudi folder
+   * @param ruleLocYaml
+   *        The project's RuleLoc.yml
+   * @param ruleStructure
+   *        The root of the rule structure
+   * @return The new RuleModel
+   */
+  public static RuleModel createRuleModel(Path rudiFolder, Path ruleLocYaml,
+          IncludeInfo ruleStructure) {
+    return new RuleModel(rudiFolder, ruleLocYaml).init(ruleStructure);
+  }
+
+  /** Processes the given rule structure, helper of the factory methods. */
+  private RuleModel init(IncludeInfo ruleStructure) {
+    _rootImport = (ImportInfoExtended) processInfos(ruleStructure, null);
+    setCompilationOutcomeState();
+    _statistics = new RuleStatistics(_idRuleMap.keySet());
+    _coverage = new RuleCoverage(_idRuleMap.values());
+    _logCounter = new RuleLogCounter(_statistics, _coverage,
+            new LogDataRenderer(_rootImport));
+    return this;
   }
 
   private RuleModel(Path rudiFolder, Path ruleLocYaml) {
@@ -236,6 +275,21 @@ public class RuleModel {
    */
   public RuleInfoExtended getRule(int id) { return _idRuleMap.get(id); }
 
+  /**
+   * Identifies every rule independently of its id, which might change when
+   * the project is compiled again.
+   *
+   * @return A map of every ruleId to the key of its rule (the label of the
+   *         containing import and the rule's label)
+   */
+  public Map<Integer, String> getRuleKeys() {
+    HashMap<Integer, String> keys = new HashMap<>();
+    for (RuleInfoExtended rule : _idRuleMap.values())
+      keys.put(rule.getId(),
+              rule.getParentImport().getLabel() + ":" + rule.getLabel());
+    return keys;
+  }
+
 
   /* ***************************************************************************
    * GETTERS AND SETTERS FOR PRIVATE FIELDS AND PROPERTIES
@@ -269,9 +323,73 @@ public class RuleModel {
   public LinkedHashMap<ErrorInfo, ImportInfoExtended>
         getParsingFailure() { return _parsingFailure; }
 
-  /** @Return ObservableMap containing the ruleLoggingStates of all rules */
-  public ObservableMap<Integer, IntegerProperty> idLoggingStatesMap() {
-    return _idLoggingStateMap;
+  /** @Return Map containing the ruleLoggingStates of all rules */
+  public Map<Integer, LoggingState> idLoggingStatesMap() {
+    return Collections.unmodifiableMap(_idLoggingStateMap);
+  }
+
+  /** @return The current ruleLoggingStates of all rules, sorted by id */
+  public SortedMap<Integer, Integer> getLoggingStates() {
+    SortedMap<Integer, Integer> states = new TreeMap<>();
+    _idLoggingStateMap.forEach((id, state) -> states.put(id, state.get()));
+    return states;
+  }
+
+  /** @return The log counters of all rules */
+  public RuleStatistics getStatistics() { return _statistics; }
+
+  /** @return The coverage of all rules and their base terms */
+  public RuleCoverage getCoverage() { return _coverage; }
+
+  /** @return Records received logs in the statistics and the coverage */
+  public RuleLogCounter getLogCounter() { return _logCounter; }
+
+  /**
+   * @return A new counter with statistics and coverage of its own, for logs
+   *         that must not be mixed with the received ones, e.g. a replay
+   */
+  public RuleLogCounter createLogCounter() {
+    return new RuleLogCounter(new RuleStatistics(_idRuleMap.keySet()),
+            new RuleCoverage(_idRuleMap.values()),
+            new LogDataRenderer(_rootImport));
+  }
+
+  /**
+   * @return The policies limiting the logs of all rules having one (their
+   *         own or one of their imports), by rule id
+   */
+  public Map<Integer, LogPolicy> getLogPolicies() {
+    Map<Integer, LogPolicy> policies = new HashMap<>();
+    for (RuleInfoExtended rule : _idRuleMap.values()) {
+      LogPolicy policy = rule.getEffectiveLogPolicy();
+      if (policy != null && ! policy.isUnlimited())
+        policies.put(rule.getId(), policy);
+    }
+    return policies;
+  }
+
+  /**
+   * @param listener
+   *        Is run whenever the policies limiting the logs have been changed
+   */
+  public void addLogPolicyListener(Runnable listener) {
+    _logPolicyListeners.add(listener);
+  }
+
+  /**
+   * @param listener
+   *        A listener added by {@link #addLogPolicyListener(Runnable)}
+   */
+  public void removeLogPolicyListener(Runnable listener) {
+    _logPolicyListeners.remove(listener);
+  }
+
+  /**
+   * Notifies the listeners that the policy of a rule or an import has been
+   * changed.
+   */
+  public void logPoliciesChanged() {
+    for (Runnable listener : _logPolicyListeners) listener.run();
   }
 
   /** @Return The outcome of the last compilation attempt. */
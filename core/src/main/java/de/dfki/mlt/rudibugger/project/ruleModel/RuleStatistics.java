@@ -0,0 +1,170 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project.ruleModel;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the logs of every rule of a <code>RuleModel</code>: how often it
+ * fired, how often it evaluated to true or false and how often some of its
+ * terms were not evaluated because of shortcut evaluation. Additionally, an
+ * exponentially decaying estimate of every rule's rate is kept.
+ *
+ * The counters are arrays indexed by rule id, recording a log neither
+ * allocates nor locks. Logs are recorded on the thread receiving them (see
+ * {@link RuleLogCounter}), the counters may be read from any thread.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleStatistics {
+
+  /** The time constant of the decaying rates (in ns). */
+  private static final double RATE_TIME_CONSTANT = 10e9;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** How often each rule fired, by id. */
+  private final AtomicLongArray _fired;
+
+  /** How often each rule evaluated to true, by id. */
+  private final AtomicLongArray _true;
+
+  /** How often each rule evaluated to false, by id. */
+  private final AtomicLongArray _false;
+
+  /** How often terms of each rule were not evaluated, by id. */
+  private final AtomicLongArray _shortcut;
+
+  /**
+   * The decaying rate of each rule at its last log (in logs per second, as
+   * raw bits of a double).
+   */
+  private final AtomicLongArray _rate;
+
+  /** The time of each rule's last log (in ns), by id. */
+  private final AtomicLongArray _lastNanos;
+
+  /** The number of recorded logs of all rules. */
+  private final AtomicLong _total = new AtomicLong();
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates empty counters for the given rules.
+   *
+   * @param ruleIds
+   *        The ids of all rules (not negative)
+   */
+  public RuleStatistics(Collection<Integer> ruleIds) {
+    int size = 1 + ruleIds.stream().mapToInt(Integer::intValue)
+            .max().orElse(-1);
+    _fired = new AtomicLongArray(size);
+    _true = new AtomicLongArray(size);
+    _false = new AtomicLongArray(size);
+    _shortcut = new AtomicLongArray(size);
+    _rate = new AtomicLongArray(size);
+    _lastNanos = new AtomicLongArray(size);
+  }
+
+  /**
+   * Records a log, logs of unknown rules are ignored. Concurrent logs of the
+   * same rule are all counted, but may update its rate only once.
+   *
+   * @param ruleId
+   *        The id of the logged rule
+   * @param result
+   *        The outcome of the rule
+   * @param shortcut
+   *        True, if some of its terms were not evaluated
+   * @param nanos
+   *        The time of the log, as of <code>System.nanoTime()</code>
+   */
+  public void record(int ruleId, boolean result, boolean shortcut,
+          long nanos) {
+    if (ruleId < 0 || ruleId >= _fired.length()) return;
+    _total.incrementAndGet();
+    _fired.incrementAndGet(ruleId);
+    if (result) _true.incrementAndGet(ruleId);
+    else _false.incrementAndGet(ruleId);
+    if (shortcut) _shortcut.incrementAndGet(ruleId);
+    double rate = getRate(ruleId, nanos) + 1e9 / RATE_TIME_CONSTANT;
+    _rate.set(ruleId, Double.doubleToRawLongBits(rate));
+    _lastNanos.set(ruleId, nanos);
+  }
+
+  /**
+   * Sets all counters and rates to zero. Logs recorded concurrently may or
+   * may not be removed.
+   */
+  public void reset() {
+    _total.set(0);
+    for (int i = 0; i < _fired.length(); i++) {
+      _fired.set(i, 0);
+      _true.set(i, 0);
+      _false.set(i, 0);
+      _shortcut.set(i, 0);
+      _rate.set(i, 0);
+    }
+  }
+
+  /** @return The number of recorded logs of all rules */
+  public long getTotal() { return _total.get(); }
+
+  /** @return How often the given rule fired */
+  public long getFired(int ruleId) { return get(_fired, ruleId); }
+
+  /** @return How often the given rule evaluated to true */
+  public long getTrue(int ruleId) { return get(_true, ruleId); }
+
+  /** @return How often the given rule evaluated to false */
+  public long getFalse(int ruleId) { return get(_false, ruleId); }
+
+  /** @return How often terms of the given rule were not evaluated */
+  public long getShortcut(int ruleId) { return get(_shortcut, ruleId); }
+
+  private static long get(AtomicLongArray counters, int ruleId) {
+    return ruleId < 0 || ruleId >= counters.length()
+            ? 0 : counters.get(ruleId);
+  }
+
+  /**
+   * @param ruleId
+   *        The id of a rule
+   * @param nanos
+   *        The current time, as of <code>System.nanoTime()</code>
+   * @return The decayed rate of the given rule (in logs per second)
+   */
+  public double getRate(int ruleId, long nanos) {
+    if (ruleId < 0 || ruleId >= _rate.length()) return 0;
+    double rate = Double.longBitsToDouble(_rate.get(ruleId));
+    if (rate == 0) return 0;
+    long elapsed = Math.max(0, nanos - _lastNanos.get(ruleId));
+    return rate * Math.exp(- elapsed / RATE_TIME_CONSTANT);
+  }
+
+}
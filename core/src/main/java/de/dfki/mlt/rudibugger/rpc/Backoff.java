@@ -0,0 +1,104 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.util.Random;
+
+/**
+ * Computes the delays between reconnection attempts: the delay doubles with
+ * every attempt up to a maximum, and half of it is chosen randomly (jitter),
+ * so that several debuggers do not hammer a restarted agent at the same
+ * time. After a number of attempts, no further delay is given.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class Backoff {
+
+  /** Allows an unlimited number of attempts. */
+  public static final int UNLIMITED = -1;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The delay before the first attempt (in ms). */
+  private final long _initialMillis;
+
+  /** The maximum delay (in ms). */
+  private final long _maxMillis;
+
+  /** The maximum number of attempts, or {@link #UNLIMITED}. */
+  private final int _maxAttempts;
+
+  /** Chooses the jitter. */
+  private final Random _random;
+
+  /** The number of attempts since the last reset. */
+  private int _attempts;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * @param initialMillis
+   *        The delay before the first attempt (in ms, positive)
+   * @param maxMillis
+   *        The maximum delay (in ms)
+   * @param maxAttempts
+   *        The maximum number of attempts, or {@link #UNLIMITED}
+   * @param random
+   *        Chooses the jitter
+   */
+  public Backoff(long initialMillis, long maxMillis, int maxAttempts,
+          Random random) {
+    if (initialMillis <= 0 || maxMillis < initialMillis)
+      throw new IllegalArgumentException("Illegal backoff: "
+              + initialMillis + ", " + maxMillis);
+    _initialMillis = initialMillis;
+    _maxMillis = maxMillis;
+    _maxAttempts = maxAttempts;
+    _random = random;
+  }
+
+  /**
+   * Counts an attempt and returns how long to wait before it.
+   *
+   * @return The delay in ms, between half of and the full exponential delay,
+   *         or -1 if no attempts are left
+   */
+  public synchronized long nextDelayMillis() {
+    if (_maxAttempts != UNLIMITED && _attempts >= _maxAttempts) return -1;
+    long delay = _initialMillis << Math.min(_attempts, 30);
+    if (delay > _maxMillis || delay <= 0) delay = _maxMillis;
+    _attempts++;
+    long half = delay / 2;
+    return delay - half + (long) (_random.nextDouble() * (half + 1));
+  }
+
+  /** Starts over with the initial delay, e.g. after a stable connection. */
+  public synchronized void reset() { _attempts = 0; }
+
+  /** @return The number of attempts since the last reset */
+  public synchronized int getAttempts() { return _attempts; }
+
+}
@@ -0,0 +1,382 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import de.dfki.mlt.rudimant.common.SimpleClient.ConnStatus;
+
+/**
+ * Keeps a connection to VOnDA's debug server alive. VOnDA's
+ * <code>SimpleClient</code> does not reconnect by itself once its connection
+ * is lost, so every attempt uses a new {@link RudibuggerClient}:
+ *
+ *  - the server's port is probed first, failed attempts are repeated after a
+ *    {@link Backoff} (exponential with jitter, optionally bounded), which is
+ *    only reset after a connection has been stable for a while,
+ *  - a client that keeps trying to connect is stopped with
+ *    {@link RudibuggerClient#close()}, and a new client is only created
+ *    once the thread of the previous one has ended,
+ *  - while connected, a heartbeat {@link RudibuggerClient#PING} measures the
+ *    round-trip time, if the server supports it. A connection whose pings
+ *    are not answered anymore is closed and re-established.
+ *
+ * Listeners are notified with the same "status" events as with a
+ * <code>SimpleClient</code>: TRYING while (re)connecting, ONLINE and OFFLINE
+ * when stopped or after the last attempt. After every (re)connect, the
+ * logging states have to be synchronised again, the agent may have been
+ * restarted.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class ConnectionManager {
+
+  /** The logger. */
+  static Logger log = LoggerFactory.getLogger("rudibuggerClient");
+
+  /** How long probing the server's port may take. */
+  private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+
+  /** The time between two heartbeats. */
+  private static final long HEARTBEAT_MILLIS = 2000;
+
+  /** The number of unanswered heartbeats after which a connection is lost. */
+  private static final int MAX_MISSED_HEARTBEATS = 3;
+
+  /** How long to wait for the thread of a closed client to end. */
+  private static final long CLOSE_TIMEOUT_MILLIS = 1000;
+
+  /** How long a connection must last to reset the backoff. */
+  private static final long STABLE_MILLIS = 5000;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  private final String _host;
+
+  private final int _port;
+
+  /** Receives the commands sent by the server. */
+  private final Consumer<String[]> _consumer;
+
+  /** Computes the delays between the attempts. */
+  private final Backoff _backoff;
+
+  /** Runs the attempts and heartbeats. */
+  private final ScheduledExecutorService _scheduler
+          = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "vondaConnection");
+            t.setDaemon(true);
+            return t;
+          });
+
+  private final PropertyChangeSupport _pcs = new PropertyChangeSupport(this);
+
+  /** The client of the current attempt or connection (or null). */
+  private volatile RudibuggerClient _client;
+
+  private volatile ConnStatus _status = ConnStatus.OFFLINE;
+
+  /** Whether the connection should be closed and not re-established. */
+  private volatile boolean _stopped = true;
+
+  /** The <code>System.nanoTime()</code> of the last established connection. */
+  private volatile long _onlineSince;
+
+  /** The <code>System.nanoTime()</code> of the first unanswered ping. */
+  private long _firstUnansweredPing;
+
+  /** Sends the heartbeats while connected (or null). */
+  private ScheduledFuture<?> _heartbeat;
+
+  /** How often a connection has been established. */
+  private volatile long _connects;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTORS
+   * **************************************************************************/
+
+  /**
+   * Creates a manager that retries after 250 ms up to 10 s between attempts,
+   * without limiting their number.
+   *
+   * @param host
+   *        The host of the debug server
+   * @param port
+   *        The port of the debug server
+   * @param consumer
+   *        Receives the commands sent by the server
+   */
+  public ConnectionManager(String host, int port,
+          Consumer<String[]> consumer) {
+    this(host, port, consumer,
+            new Backoff(250, 10_000, Backoff.UNLIMITED, new Random()));
+  }
+
+  /**
+   * @param host
+   *        The host of the debug server
+   * @param port
+   *        The port of the debug server
+   * @param consumer
+   *        Receives the commands sent by the server
+   * @param backoff
+   *        Computes the delays between the attempts
+   */
+  public ConnectionManager(String host, int port,
+          Consumer<String[]> consumer, Backoff backoff) {
+    _host = host;
+    _port = port;
+    _consumer = consumer;
+    _backoff = backoff;
+  }
+
+
+  /* ***************************************************************************
+   * CONNECT AND DISCONNECT
+   * **************************************************************************/
+
+  /** Starts connecting, a stopped manager cannot be started again. */
+  public void start() {
+    _stopped = false;
+    setStatus(ConnStatus.TRYING);
+    _scheduler.execute(this::attempt);
+  }
+
+  /** Closes the connection and stops all further attempts. */
+  public void stop() {
+    _stopped = true;
+    _scheduler.shutdownNow();
+    closeClient();
+    setStatus(ConnStatus.OFFLINE);
+  }
+
+  /** Tries to connect, runs on the scheduler's thread. */
+  private void attempt() {
+    if (_stopped) return;
+    if (! previousClientClosed()) {
+      retry();
+      return;
+    }
+    try (Socket probe = new Socket()) {
+      probe.connect(new InetSocketAddress(_host, _port),
+              CONNECT_TIMEOUT_MILLIS);
+    } catch (IOException ex) {
+      log.debug("VOnDA is not reachable on port {}: {}", _port,
+              ex.getMessage());
+      retry();
+      return;
+    }
+    RudibuggerClient client = new RudibuggerClient(_host, _port, _consumer);
+    _client = client;
+    /* stopped while the client was created */
+    if (_stopped) {
+      client.close();
+      return;
+    }
+    long connects = _connects;
+    client.addPropertyChangeListener(e -> submit(() ->
+            clientStatusChanged(client, (ConnStatus) e.getNewValue())));
+    /* the client starts connecting at once and may be online already */
+    if (client.isConnected())
+      submit(() -> clientStatusChanged(client, ConnStatus.ONLINE));
+    /* only if this client never came online, a lost one retries by itself */
+    _scheduler.schedule(() -> {
+      if (client == _client && _connects == connects) {
+        log.debug("Connecting to VOnDA timed out.");
+        closeClient();
+        retry();
+      }
+    }, CONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Makes sure that the thread of the previous client has ended before a new
+   * client is created, there is at most one client at a time.
+   *
+   * @return True, if there is no previous client (anymore)
+   */
+  private boolean previousClientClosed() {
+    RudibuggerClient client = _client;
+    if (client == null) return true;
+    client.close();
+    try {
+      if (! client.awaitClosed(CLOSE_TIMEOUT_MILLIS)) {
+        log.warn("The previous connection to VOnDA has not been closed yet.");
+        return false;
+      }
+    } catch (InterruptedException ex) {
+      /* stopped in the meantime */
+      return false;
+    }
+    _client = null;
+    return true;
+  }
+
+  /**
+   * Runs a task on the scheduler's thread, tasks submitted after stopping
+   * are dropped.
+   */
+  private void submit(Runnable task) {
+    if (_stopped) return;
+    try {
+      _scheduler.execute(task);
+    } catch (RejectedExecutionException ex) {
+      /* stopped in the meantime */
+    }
+  }
+
+  /** Schedules the next attempt, if there are attempts left. */
+  private void retry() {
+    if (_stopped) return;
+    long delay = _backoff.nextDelayMillis();
+    if (delay < 0) {
+      log.warn("Giving up connecting to VOnDA after {} attempts.",
+              _backoff.getAttempts());
+      _stopped = true;
+      setStatus(ConnStatus.OFFLINE);
+      return;
+    }
+    setStatus(ConnStatus.TRYING);
+    log.debug("Connecting to VOnDA again in {} ms", delay);
+    _scheduler.schedule(this::attempt, delay, TimeUnit.MILLISECONDS);
+  }
+
+  /** Follows the status of a client, runs on the scheduler's thread. */
+  private void clientStatusChanged(RudibuggerClient client,
+          ConnStatus status) {
+    if (client != _client || _stopped) return;
+    switch (status) {
+      case ONLINE:
+        if (_status == ConnStatus.ONLINE) return;
+        _connects++;
+        _onlineSince = System.nanoTime();
+        _firstUnansweredPing = 0;
+        _heartbeat = _scheduler.scheduleWithFixedDelay(this::heartbeat,
+                HEARTBEAT_MILLIS, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+        setStatus(ConnStatus.ONLINE);
+        break;
+      case OFFLINE:
+        if (_status != ConnStatus.ONLINE) return;
+        log.info("Lost connection to VOnDA.");
+        closeClient();
+        if (System.nanoTime() - _onlineSince
+                >= TimeUnit.MILLISECONDS.toNanos(STABLE_MILLIS))
+          _backoff.reset();
+        retry();
+        break;
+      default:
+    }
+  }
+
+  /**
+   * Sends a ping and closes the connection if the pings have not been
+   * answered for a while, runs on the scheduler's thread.
+   */
+  private void heartbeat() {
+    RudibuggerClient client = _client;
+    if (client == null || ! client.isPingSupported()) return;
+    long now = System.nanoTime();
+    if (client.getLastPongNanos() >= _firstUnansweredPing)
+      _firstUnansweredPing = 0;
+    if (_firstUnansweredPing == 0) {
+      _firstUnansweredPing = now;
+    } else if (now - _firstUnansweredPing > TimeUnit.MILLISECONDS.toNanos(
+            MAX_MISSED_HEARTBEATS * HEARTBEAT_MILLIS)) {
+      log.warn("VOnDA did not answer for {} heartbeats, reconnecting.",
+              MAX_MISSED_HEARTBEATS);
+      closeClient();
+      return;
+    }
+    client.ping();
+  }
+
+  /**
+   * Stops the heartbeat and closes the current client (if any), which also
+   * stops it if it is still trying to connect.
+   */
+  private void closeClient() {
+    if (_heartbeat != null) _heartbeat.cancel(false);
+    _heartbeat = null;
+    RudibuggerClient client = _client;
+    if (client != null) client.close();
+  }
+
+  private void setStatus(ConnStatus status) {
+    ConnStatus old = _status;
+    _status = status;
+    _pcs.firePropertyChange("status", old, status);
+  }
+
+
+  /* ***************************************************************************
+   * GETTERS AND LISTENERS
+   * **************************************************************************/
+
+  /** @return The client of the current connection (or null) */
+  public RudibuggerClient getClient() {
+    return _status == ConnStatus.ONLINE ? _client : null;
+  }
+
+  /** @return True, if connected to the server */
+  public boolean isConnected() {
+    RudibuggerClient client = getClient();
+    return client != null && client.isConnected();
+  }
+
+  /** @return The status of the connection */
+  public ConnStatus getStatus() { return _status; }
+
+  /** @return The last measured round-trip time in ns, or -1 if unknown */
+  public long getRoundTripNanos() {
+    RudibuggerClient client = getClient();
+    return client == null ? -1 : client.getRoundTripNanos();
+  }
+
+  /** @return How often a connection has been established */
+  public long getConnectCount() { return _connects; }
+
+  /** @return The number of failed attempts since the last stable connection */
+  public int getFailedAttempts() { return _backoff.getAttempts(); }
+
+  public void addPropertyChangeListener(PropertyChangeListener listener) {
+    _pcs.addPropertyChangeListener(listener);
+  }
+
+  public void removePropertyChangeListener(PropertyChangeListener listener) {
+    _pcs.removePropertyChangeListener(listener);
+  }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Measures how long received logs take to reach the stages of their way into
+ * the rule logging table. Every stage has its own {@link LatencyHistogram} of
+ * the time since the log's reception in <code>RudibuggerAPI</code>, so that
+ * the slow stage can be told apart from the ones before it.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class IngestLatency {
+
+  /** The stages of a received log, in the order they are passed. */
+  public enum Stage {
+
+    /** The log has been decoded into a <code>LogData</code>. */
+    DECODED("Decoded"),
+
+    /** The log has been put into the queue of the user interface. */
+    ENQUEUED("Enqueued"),
+
+    /** The log has been taken from the queue by the user interface. */
+    DEQUEUED("Dequeued"),
+
+    /** The log has been inserted into the table (including sorting). */
+    INSERTED("Inserted");
+
+    /** The name of the stage shown to the user. */
+    public final String label;
+
+    Stage(String label) { this.label = label; }
+
+  }
+
+  /** The percentiles reported by {@link #writeCsv(Writer)}. */
+  private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The histograms, indexed by the stages' ordinals. */
+  private final LatencyHistogram[] _histograms
+          = new LatencyHistogram[Stage.values().length];
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /** Creates a new measurement with empty histograms. */
+  public IngestLatency() {
+    for (int i = 0; i < _histograms.length; ++i)
+      _histograms[i] = new LatencyHistogram();
+  }
+
+  /**
+   * Records that a log has reached the given stage now.
+   *
+   * @param stage
+   *        The reached stage
+   * @param receivedNanos
+   *        The time of the log's reception, as returned by
+   *        {@link TimestampService#now()}
+   */
+  public void record(Stage stage, long receivedNanos) {
+    record(stage, receivedNanos, TimestampService.now());
+  }
+
+  /**
+   * Records that a log has reached the given stage at the given time, to take
+   * the time only once for a batch of logs.
+   *
+   * @param stage
+   *        The reached stage
+   * @param receivedNanos
+   *        The time of the log's reception
+   * @param nowNanos
+   *        The time the stage has been reached
+   */
+  public void record(Stage stage, long receivedNanos, long nowNanos) {
+    _histograms[stage.ordinal()].record(nowNanos - receivedNanos);
+  }
+
+  /**
+   * @param stage
+   *        A stage
+   * @return The histogram of the latencies until the given stage
+   */
+  public LatencyHistogram get(Stage stage) {
+    return _histograms[stage.ordinal()];
+  }
+
+  /** Removes all recorded latencies. */
+  public void reset() {
+    for (LatencyHistogram h : _histograms) h.reset();
+  }
+
+  /**
+   * Writes the number of logs, percentiles and the maximum of every stage as
+   * CSV, latencies are given in microseconds.
+   *
+   * @param out
+   *        The writer to write to
+   * @throws IOException
+   *         If writing fails
+   */
+  public void writeCsv(Writer out) throws IOException {
+    out.write("stage,count");
+    for (double p : PERCENTILES)
+      out.write(",p" + (p == (long) p ? Long.toString((long) p) : p) + "_us");
+    out.write(",max_us\n");
+    for (Stage stage : Stage.values()) {
+      LatencyHistogram h = get(stage);
+      out.write(stage.name().toLowerCase(Locale.ROOT) + "," + h.getCount());
+      for (double p : PERCENTILES)
+        out.write("," + toMicros(h.getPercentile(p)));
+      out.write("," + toMicros(h.getMax()) + "\n");
+    }
+  }
+
+  /**
+   * @param nanos
+   *        A latency in nanoseconds
+   * @return The latency in microseconds with one decimal
+   */
+  public static String toMicros(long nanos) {
+    return String.format(Locale.ROOT, "%.1f", nanos / 1000.0);
+  }
+
+}
@@ -19,40 +19,56 @@
 
 package de.dfki.mlt.rudibugger.rpc;
 
+import de.dfki.mlt.rudibugger.rpc.LogData.StringPart;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer.RenderedLog;
 import de.dfki.mlt.rudimant.common.DefaultLogger;
 import java.util.ArrayList;
 
 /**
- * TODO: Missing documentation
+ * Collects the output of VOnDA's <code>RuleLogger</code> for one logged rule
+ * and turns it into a <code>RenderedLog</code>. The first coloured part
+ * is the rule's label, all further parts are the evaluated rule parts.
+ *
+ * An instance is not thread-safe and should be owned by one thread only.
  *
  * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
  */
 public class JavaFXLogger extends DefaultLogger {
 
-  private ArrayList<LogData> data = new ArrayList<LogData>();
+  /** The label of the rule currently being logged. */
+  private StringPart _label;
+
+  /** The evaluated parts of the rule currently being logged. */
+  private ArrayList<StringPart> _parts = new ArrayList<>();
 
   private void printInColor(String s, int color) {
-    if (data.isEmpty()) data.add(new LogData());
-    data.get(0).addStringPart(s, color);
+    if (_label == null)
+      _label = new StringPart(s, color);
+    else
+      _parts.add(new StringPart(s, color));
   }
 
-  public LogData popContent() {
-    LogData returnVal = data.remove(0);
+  /**
+   * Creates a <code>RenderedLog</code> out of the collected output and resets
+   * this logger.
+   *
+   * @return The finished <code>RenderedLog</code>
+   */
+  public RenderedLog popContent() {
+    RenderedLog returnVal = new RenderedLog(_label, _parts);
+    _label = null;
+    _parts = new ArrayList<>();
     return returnVal;
   }
 
-  public void addRuleIdToLogData(int ruleId) {
-    data.get(0).addRuleId(ruleId);
-  }
-
   public boolean pendingLoggingData() {
-    return ! data.isEmpty();
+    return _label != null;
   }
 
   @Override
   protected void print(String s) {
     if (s != "\n")
-      data.get(0).addStringPart(s, LogData.BLACK);
+      printInColor(s, LogData.BLACK);
   }
 
   @Override
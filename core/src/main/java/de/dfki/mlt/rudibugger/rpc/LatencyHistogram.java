@@ -0,0 +1,139 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds. Every power of two is
+ * divided into {@value #SUB_BUCKETS} buckets, so that reported percentiles are
+ * at most about 6% above the real value. Recording takes constant time and
+ * allocates nothing, it may be done from any thread.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LatencyHistogram {
+
+  /** The number of bits distinguishing the buckets of a power of two. */
+  private static final int SUB_BUCKET_BITS = 4;
+
+  /** The number of buckets every power of two is divided into. */
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /** The number of buckets covering all positive long values. */
+  private static final int BUCKETS
+          = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Counts the recorded values of every bucket. */
+  private final AtomicLongArray _counts = new AtomicLongArray(BUCKETS);
+
+  /** The largest recorded value. */
+  private final AtomicLong _max = new AtomicLong();
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /**
+   * @param nanos
+   *        A non-negative latency
+   * @return The index of the bucket containing the given latency
+   */
+  private static int bucketOf(long nanos) {
+    if (nanos < SUB_BUCKETS) return (int) nanos;
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (nanos >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * @param bucket
+   *        The index of a bucket
+   * @return The largest latency contained in the given bucket
+   */
+  private static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) return bucket;
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  /**
+   * Records a latency, negative values are recorded as 0.
+   *
+   * @param nanos
+   *        The latency in nanoseconds
+   */
+  public void record(long nanos) {
+    if (nanos < 0) nanos = 0;
+    _counts.incrementAndGet(bucketOf(nanos));
+    long max = _max.get();
+    while (nanos > max && ! _max.compareAndSet(max, nanos))
+      max = _max.get();
+  }
+
+  /**
+   * Removes all recorded latencies. Latencies recorded concurrently may or may
+   * not be removed.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; ++i) _counts.set(i, 0);
+    _max.set(0);
+  }
+
+  /** @return The number of recorded latencies */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKETS; ++i) count += _counts.get(i);
+    return count;
+  }
+
+  /** @return The largest recorded latency in nanoseconds */
+  public long getMax() { return _max.get(); }
+
+  /**
+   * @param percentile
+   *        The wanted percentile (between 0 and 100)
+   * @return The latency in nanoseconds that the given percentage of the
+   *         recorded latencies did not exceed, or 0 if nothing was recorded
+   */
+  public long getPercentile(double percentile) {
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; ++i) total += counts[i] = _counts.get(i);
+    if (total == 0) return 0;
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; ++i) {
+      seen += counts[i];
+      if (seen >= rank) return Math.min(upperBoundOf(i), getMax());
+    }
+    return getMax();
+  }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.util.Arrays;
+
+/**
+ * Captures the logs around a triggering log, like a logic analyser: while
+ * armed, received logs are kept in a ring buffer of the last
+ * <code>preTrigger</code> logs. When a log matches the {@link LogTrigger},
+ * the buffered logs, the triggering log and the next
+ * <code>postTrigger</code> logs are passed on to the target, all other logs
+ * are discarded before a <code>LogData</code> is created for them.
+ *
+ * The ring buffer consists of primitive arrays, only results beyond the
+ * first 64 are copied into arrays of their own. Logs are received on the
+ * thread receiving VOnDA's messages, the state can be queried and the
+ * capture can be re-armed from any thread.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogCapture implements RuleLogSink {
+
+  /** The state of a capture. */
+  public enum State {
+
+    /** Logs are buffered until the trigger matches. */
+    ARMED,
+
+    /** The trigger matched, the following logs are passed on. */
+    TRIGGERED,
+
+    /** All logs of the capture have been passed on, others are discarded. */
+    CAPTURED
+
+  }
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Decides which log triggers the capture. */
+  private final LogTrigger _trigger;
+
+  /** Receives the captured logs. */
+  private final RuleLogSink _target;
+
+  /** The number of logs passed on after the triggering one. */
+  private final int _postTrigger;
+
+  /** The times of reception of the buffered logs. */
+  private final long[] _received;
+
+  /** The ruleIds of the buffered logs. */
+  private final int[] _ruleIds;
+
+  /** The number of evaluation results of the buffered logs. */
+  private final int[] _resultCounts;
+
+  /** The first 64 evaluation results of the buffered logs. */
+  private final long[] _resultBits;
+
+  /** The remaining evaluation results of the buffered logs (or null). */
+  private final long[][] _moreResultBits;
+
+  /** The index of the oldest buffered log. */
+  private int _head;
+
+  /** The number of buffered logs. */
+  private int _size;
+
+  /** The number of logs still to be passed on after the trigger. */
+  private int _remaining;
+
+  /** The current state. */
+  private volatile State _state = State.ARMED;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates an armed capture.
+   *
+   * @param trigger
+   *        Decides which log triggers the capture
+   * @param preTrigger
+   *        The number of logs kept before the triggering one
+   * @param postTrigger
+   *        The number of logs passed on after the triggering one
+   * @param target
+   *        Receives the captured logs
+   */
+  public LogCapture(LogTrigger trigger, int preTrigger, int postTrigger,
+          RuleLogSink target) {
+    if (preTrigger < 0 || postTrigger < 0)
+      throw new IllegalArgumentException("Negative capture window: "
+              + preTrigger + ", " + postTrigger);
+    _trigger = trigger;
+    _postTrigger = postTrigger;
+    _target = target;
+    _received = new long[preTrigger];
+    _ruleIds = new int[preTrigger];
+    _resultCounts = new int[preTrigger];
+    _resultBits = new long[preTrigger];
+    _moreResultBits = new long[preTrigger][];
+  }
+
+  @Override
+  public synchronized void printLog(long receivedNanos, int ruleId,
+          int resultCount, long resultBits, long[] moreResultBits) {
+    switch (_state) {
+      case ARMED:
+        if (_trigger.matches(ruleId, resultCount, resultBits, moreResultBits)) {
+          flushBuffer();
+          _target.printLog(receivedNanos, ruleId, resultCount, resultBits,
+                  moreResultBits);
+          _remaining = _postTrigger;
+          _state = _remaining > 0 ? State.TRIGGERED : State.CAPTURED;
+        } else {
+          buffer(receivedNanos, ruleId, resultCount, resultBits,
+                  moreResultBits);
+        }
+        break;
+      case TRIGGERED:
+        _target.printLog(receivedNanos, ruleId, resultCount, resultBits,
+                moreResultBits);
+        if (--_remaining == 0) _state = State.CAPTURED;
+        break;
+      case CAPTURED:
+        break;
+    }
+  }
+
+  /** Keeps a log in the ring buffer, replacing the oldest one if full. */
+  private void buffer(long receivedNanos, int ruleId, int resultCount,
+          long resultBits, long[] moreResultBits) {
+    int capacity = _received.length;
+    if (capacity == 0) return;
+    int i;
+    if (_size < capacity) {
+      i = (_head + _size++) % capacity;
+    } else {
+      i = _head;
+      _head = (_head + 1) % capacity;
+    }
+    _received[i] = receivedNanos;
+    _ruleIds[i] = ruleId;
+    _resultCounts[i] = resultCount;
+    _resultBits[i] = resultBits;
+    if (resultCount > Long.SIZE) {
+      int words = (resultCount - 1) / Long.SIZE;
+      if (_moreResultBits[i] == null || _moreResultBits[i].length < words)
+        _moreResultBits[i] = new long[words];
+      System.arraycopy(moreResultBits, 0, _moreResultBits[i], 0, words);
+    }
+  }
+
+  /** Passes the buffered logs on, oldest first, and empties the buffer. */
+  private void flushBuffer() {
+    int capacity = _received.length;
+    for (int n = 0; n < _size; n++) {
+      int i = (_head + n) % capacity;
+      _target.printLog(_received[i], _ruleIds[i], _resultCounts[i],
+              _resultBits[i], _moreResultBits[i]);
+    }
+    _head = 0;
+    _size = 0;
+  }
+
+  /** Discards the buffered logs and waits for the trigger again. */
+  public synchronized void arm() {
+    _head = 0;
+    _size = 0;
+    Arrays.fill(_moreResultBits, null);
+    _state = State.ARMED;
+  }
+
+  /** @return The current state */
+  public State getState() { return _state; }
+
+  /** @return The number of logs in the pre-trigger buffer */
+  public synchronized int getBufferedCount() { return _size; }
+
+  /** @return The number of logs still to be captured after the trigger */
+  public synchronized int getRemainingCount() {
+    return _state == State.TRIGGERED ? _remaining : 0;
+  }
+
+}
@@ -0,0 +1,251 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * This class is used to organize the received data from VOnDA. One instance of
+ * this class represents one log entry. Its fields will
+ * be used as columns in the different rows of the ruleLoggingTreeView.
+ *
+ * To keep long sessions small, only the ruleId, the time of logging and the
+ * evaluation results (packed into bits) are stored. The coloured
+ * representation of the rule is reconstructed by a {@link LogDataRenderer}
+ * when it is actually needed.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public final class LogData {
+
+
+  /* ***************************************************************************
+   * EVALUATION OUTCOMES
+   * **************************************************************************/
+
+  /** Indicates that something evaluated to false. */
+  public static final int RED = 1;
+
+  /** Indicates that something evaluated to true. */
+  public static final int GREEN = 2;
+
+  /** Indicates that something has not been evaluated, but could have been. */
+  public static final int GRAY = 3;
+
+  /** Indicates that something has not been evaluated, and should not be. */
+  public static final int BLACK = 0;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Orders logs by the sequence in which they have been received. */
+  public static final Comparator<LogData> BY_SEQUENCE
+          = (x, y) -> Long.compare(x._sequence, y._sequence);
+
+  /**
+   * Represents when the specific rule was received (in ns since the epoch,
+   * see {@link TimestampService}).
+   */
+  private final long _timestamp;
+
+  /**
+   * Represents how many rules where logged at the exact same millisecond + 1.
+   */
+  private final int _counter;
+
+  /** Monotonic key representing the order in which logs were received. */
+  private final long _sequence;
+
+  /** Represents the ruleId of the logged rule. */
+  private final int _ruleId;
+
+  /** The number of evaluation results. */
+  private final int _resultCount;
+
+  /** The first 64 evaluation results, one bit per result. */
+  private final long _results;
+
+  /** The remaining evaluation results (only used for very large rules). */
+  private final long[] _moreResults;
+
+
+  /* ***************************************************************************
+   * SUBCLASSES
+   * **************************************************************************/
+
+  /**
+   * Container class represents a (usually short) String and its evaluation
+   * state.
+   */
+  public static final class StringPart {
+
+    /** Represents a (short) String) */
+    public final String content;
+
+    /** Represents the evaluation outcome of the included String. */
+    public final int evalOutcome;
+
+    /**
+     * Creates a new instance of the container class StringPart.
+     *
+     * @param content
+     *        A (small) String, a part of a rule
+     * @param evalOutcome
+     *        The evaluation outcome of the given rule part
+     *
+     */
+    public StringPart(String content, int evalOutcome)  {
+      this.content = content;
+      this.evalOutcome = evalOutcome;
+    }
+
+  }
+
+
+  /* ***************************************************************************
+   * CLASS-SPECIFIC METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates a new LogData object, stamped with the current time.
+   *
+   * @param ruleId
+   *        The ruleId of the logged rule
+   * @param result
+   *        The evaluation results of the logged rule
+   */
+  public LogData(int ruleId, boolean[] result) {
+    this(TimestampService.now(), ruleId, result.length, pack(result, 0),
+            packRemaining(result));
+  }
+
+  /**
+   * Creates a new LogData object out of already packed evaluation results.
+   * May be called from any thread.
+   *
+   * @param receivedNanos
+   *        The time of reception, as returned by {@link TimestampService#now()}
+   * @param ruleId
+   *        The ruleId of the logged rule
+   * @param resultCount
+   *        The number of evaluation results
+   * @param resultBits
+   *        The first 64 evaluation results, one bit per result
+   * @param moreResultBits
+   *        The remaining evaluation results, 64 per element (only read if
+   *        there are more than 64 results, may be longer than needed)
+   */
+  public LogData(long receivedNanos, int ruleId, int resultCount,
+          long resultBits, long[] moreResultBits) {
+    _timestamp = receivedNanos;
+    _counter = TimestampService.countWithinMillisecond(receivedNanos);
+    _sequence = TimestampService.nextSequence();
+    _ruleId = ruleId;
+    _resultCount = resultCount;
+    _results = resultBits;
+    _moreResults = resultCount > Long.SIZE
+            ? Arrays.copyOf(moreResultBits, (resultCount - 1) / Long.SIZE)
+            : null;
+  }
+
+  /**
+   * Packs all but the first 64 results into an array of longs.
+   *
+   * @param result
+   *        The evaluation results
+   * @return The packed results or null, if there are at most 64 results
+   */
+  private static long[] packRemaining(boolean[] result) {
+    if (result.length <= Long.SIZE) return null;
+    long[] bits = new long[(result.length - 1) / Long.SIZE];
+    for (int i = 0; i < bits.length; i++)
+      bits[i] = pack(result, (i + 1) * Long.SIZE);
+    return bits;
+  }
+
+  /**
+   * Packs up to 64 results into a long, starting at the given offset.
+   *
+   * @param result
+   *        The evaluation results
+   * @param offset
+   *        The index of the first result to pack
+   * @return The packed results
+   */
+  private static long pack(boolean[] result, int offset) {
+    long bits = 0;
+    int end = Math.min(result.length, offset + Long.SIZE);
+    for (int i = offset; i < end; i++) {
+      if (result[i]) bits |= 1L << (i - offset);
+    }
+    return bits;
+  }
+
+  /** @return The ruleId of the rule linked to this log entry. */
+  public int getRuleId() { return _ruleId; }
+
+  /** @return The time of logging in ms since the epoch */
+  public long getTimestamp() { return _timestamp / 1_000_000L; }
+
+  /** @return The time of logging in ns since the epoch */
+  public long getTimestampNanos() { return _timestamp; }
+
+  /**
+   * @return The number of logs that have been logged at the same millisecond
+   *         before (and including) this one
+   */
+  public int getCounter() { return _counter; }
+
+  /** @return The monotonic key representing the order of reception */
+  public long getSequence() { return _sequence; }
+
+  /** @return The number of evaluation results */
+  public int getResultCount() { return _resultCount; }
+
+  /** @return The first 64 evaluation results, one bit per result */
+  public long getResultBits() { return _results; }
+
+  /**
+   * @param i
+   *        The index of the wanted result
+   * @return The evaluation result with the given index
+   */
+  public boolean getResult(int i) {
+    if (i < Long.SIZE) return (_results & (1L << i)) != 0;
+    return (_moreResults[i / Long.SIZE - 1] & (1L << (i % Long.SIZE))) != 0;
+  }
+
+  /**
+   * @return The evaluation results beyond the first 64, 64 per element, or
+   *         null if there are at most 64 results (not copied, do not modify)
+   */
+  public long[] getMoreResultBits() { return _moreResults; }
+
+  /** @return A newly allocated array containing the evaluation results */
+  public boolean[] getResults() {
+    boolean[] result = new boolean[_resultCount];
+    for (int i = 0; i < _resultCount; i++) result[i] = getResult(i);
+    return result;
+  }
+
+}
@@ -0,0 +1,320 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import de.dfki.mlt.rudibugger.rpc.LogData.StringPart;
+import de.dfki.mlt.rudimant.common.BasicInfo;
+import de.dfki.mlt.rudimant.common.RuleLogger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reconstructs the coloured representation of a <code>LogData</code> from the
+ * rule structure. This is only done when a log actually becomes visible.
+ *
+ * For every rule a {@link RuleLogTemplate} is built the first time one of its
+ * logs is rendered. Afterwards rendering a log only maps its evaluation
+ * results onto the template's slot colours, VOnDA's rule logger is only
+ * consulted for result patterns that have not been seen before. The templates
+ * are valid for one rule model, {@link #setRootInfo(BasicInfo)} discards them.
+ *
+ * An instance is not thread-safe and should only be used on the JavaFX
+ * application thread.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogDataRenderer {
+
+  /** VOnDA's rule logger, walks the rules' expressions. */
+  private RuleLogger _rl;
+
+  /** Collects the output of the rule logger. */
+  private JavaFXLogger _jfl;
+
+  /** Maps ruleIds to the templates of the respective rules. */
+  private final HashMap<Integer, RuleLogTemplate> _templates
+          = new HashMap<>();
+
+  /** The initial capacity of the shortcut cache (a power of two). */
+  private static final int SHORTCUT_CACHE_SIZE = 1 << 10;
+
+  /** The most result patterns kept in the shortcut cache. */
+  static final int MAX_SHORTCUT_PATTERNS = 1 << 14;
+
+  /**
+   * The ruleIds + 1 of the cached result patterns, 0 marks a free slot. The
+   * cache is an open addressing hash table, so that looking up a known
+   * pattern does not allocate. It holds at most
+   * {@link #MAX_SHORTCUT_PATTERNS} patterns; once it is full, it is cleared
+   * and learns anew, so it does not grow any further.
+   */
+  private int[] _shortcutRules;
+
+  /** The packed evaluation results of the cached result patterns. */
+  private long[] _shortcutBits;
+
+  /** The terms not evaluated in the cached result patterns, one bit each. */
+  private long[] _shortcutTerms;
+
+  /** The number of cached result patterns. */
+  private int _shortcutCount;
+
+
+  /* ***************************************************************************
+   * SUBCLASSES
+   * **************************************************************************/
+
+  /** The coloured representation of a logged rule. */
+  public static final class RenderedLog {
+
+    /** Represents the evaluated rule's label. */
+    public final StringPart label;
+
+    /** Represents the evaluated strings / rule parts of the logged rule. */
+    public final List<StringPart> evaluatedRuleParts;
+
+    /**
+     * Creates a new instance of the container class RenderedLog.
+     *
+     * @param label
+     *        The rule's label and its evaluation outcome
+     * @param evaluatedRuleParts
+     *        The evaluated parts of the rule
+     */
+    public RenderedLog(StringPart label, List<StringPart> evaluatedRuleParts) {
+      this.label = label;
+      this.evaluatedRuleParts
+              = Collections.unmodifiableList(evaluatedRuleParts);
+    }
+
+  }
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates a new renderer.
+   *
+   * @param rootInfo
+   *        The root of the rule structure (or null)
+   */
+  public LogDataRenderer(BasicInfo rootInfo) {
+    setRootInfo(rootInfo);
+  }
+
+  /**
+   * Uses a new rule structure for rendering and discards all templates of
+   * the previous one.
+   *
+   * @param rootInfo
+   *        The root of the new rule structure (or null)
+   */
+  public final void setRootInfo(BasicInfo rootInfo) {
+    _templates.clear();
+    _shortcutRules = new int[SHORTCUT_CACHE_SIZE];
+    _shortcutBits = new long[SHORTCUT_CACHE_SIZE];
+    _shortcutTerms = new long[SHORTCUT_CACHE_SIZE];
+    _shortcutCount = 0;
+    _rl = new RuleLogger();
+    _jfl = new JavaFXLogger();
+    if (rootInfo != null) _rl.setRootInfo(rootInfo);
+    _rl.registerPrinter(_jfl);
+    _rl.logAllRules();
+  }
+
+  /**
+   * Returns the coloured representation of the given log.
+   *
+   * @param data
+   *        The log to render
+   * @return The coloured representation
+   */
+  public RenderedLog render(LogData data) {
+    return render(data.getRuleId(), data.getResultCount(),
+            data.getResultBits(), data.getMoreResultBits());
+  }
+
+  private RenderedLog render(int ruleId, int resultCount, long resultBits,
+          long[] moreResultBits) {
+    RuleLogTemplate template = _templates.get(ruleId);
+    boolean cacheable = resultCount <= Long.SIZE;
+    if (template != null && cacheable) {
+      RenderedLog r = template.get(resultBits);
+      if (r != null) return r;
+    }
+
+    RenderedLog rendered = renderWithRuleLogger(ruleId,
+            unpack(resultCount, resultBits, moreResultBits));
+    if (rendered == null) {
+      return new RenderedLog(new StringPart(
+              "Unknown rule " + ruleId, LogData.BLACK),
+              Collections.emptyList());
+    }
+    if (template == null) {
+      template = new RuleLogTemplate(rendered);
+      _templates.put(ruleId, template);
+    }
+    return cacheable
+            ? template.learn(resultBits, rendered)
+            : rendered;
+  }
+
+  /**
+   * Determines whether some terms of the logged rule were not evaluated
+   * because of shortcut evaluation.
+   *
+   * @param data
+   *        The log to examine
+   * @return True, if some terms were not evaluated
+   */
+  public boolean hasShortcut(LogData data) {
+    return getShortcutTerms(data) != 0;
+  }
+
+  /**
+   * Determines which base terms of the logged rule were not evaluated
+   * because of shortcut evaluation. Every result pattern of a rule is only
+   * rendered once to find out.
+   *
+   * @param data
+   *        The log to examine
+   * @return One bit per base term (in the order of the rule's base terms),
+   *        set if the term was not evaluated; only the first 64 base terms
+   *        are reported
+   */
+  public long getShortcutTerms(LogData data) {
+    return getShortcutTerms(data.getRuleId(), data.getResultCount(),
+            data.getResultBits(), data.getMoreResultBits());
+  }
+
+  /**
+   * Like {@link #getShortcutTerms(LogData)}, for a log that has not been
+   * turned into a <code>LogData</code>. Known result patterns are looked up
+   * without allocating.
+   *
+   * @param ruleId
+   *        The id of the logged rule
+   * @param resultCount
+   *        The number of evaluation results
+   * @param resultBits
+   *        The first 64 evaluation results, one bit per result
+   * @param moreResultBits
+   *        The remaining evaluation results (or null)
+   * @return One bit per base term, set if the term was not evaluated
+   */
+  public long getShortcutTerms(int ruleId, int resultCount, long resultBits,
+          long[] moreResultBits) {
+    if (resultCount > Long.SIZE)
+      return getShortcutTerms(render(ruleId, resultCount, resultBits,
+              moreResultBits));
+    int rule = ruleId + 1;
+    long bits = resultBits;
+    int mask = _shortcutRules.length - 1;
+    int i = slot(rule, bits) & mask;
+    while (_shortcutRules[i] != 0) {
+      if (_shortcutRules[i] == rule && _shortcutBits[i] == bits)
+        return _shortcutTerms[i];
+      i = (i + 1) & mask;
+    }
+    long terms = getShortcutTerms(render(ruleId, resultCount, resultBits,
+            moreResultBits));
+    if (_shortcutCount == MAX_SHORTCUT_PATTERNS) {
+      /* keeps the cache's size, it will be needed again */
+      Arrays.fill(_shortcutRules, 0);
+      _shortcutCount = 0;
+      i = slot(rule, bits) & mask;
+    }
+    _shortcutRules[i] = rule;
+    _shortcutBits[i] = bits;
+    _shortcutTerms[i] = terms;
+    if (2 * ++_shortcutCount > _shortcutRules.length) growShortcutCache();
+    return terms;
+  }
+
+  /** @return The number of result patterns in the shortcut cache */
+  int getShortcutCacheSize() { return _shortcutCount; }
+
+  /** The coloured parts of a rendered log are its base terms, in order. */
+  private static long getShortcutTerms(RenderedLog rendered) {
+    long terms = 0;
+    int term = 0;
+    for (StringPart part : rendered.evaluatedRuleParts) {
+      if (part.evalOutcome == LogData.BLACK) continue;
+      if (part.evalOutcome == LogData.GRAY && term < Long.SIZE)
+        terms |= 1L << term;
+      term++;
+    }
+    return terms;
+  }
+
+  private static int slot(int rule, long bits) {
+    long h = (bits ^ (bits >>> 32)) * 31 + rule;
+    return (int) (h ^ (h >>> 16)) * 0x9E3779B1;
+  }
+
+  /** Doubles the capacity of the shortcut cache. */
+  private void growShortcutCache() {
+    int[] rules = _shortcutRules;
+    long[] bits = _shortcutBits;
+    long[] terms = _shortcutTerms;
+    _shortcutRules = new int[rules.length * 2];
+    _shortcutBits = new long[rules.length * 2];
+    _shortcutTerms = new long[rules.length * 2];
+    int mask = _shortcutRules.length - 1;
+    for (int j = 0; j < rules.length; j++) {
+      if (rules[j] == 0) continue;
+      int i = slot(rules[j], bits[j]) & mask;
+      while (_shortcutRules[i] != 0) i = (i + 1) & mask;
+      _shortcutRules[i] = rules[j];
+      _shortcutBits[i] = bits[j];
+      _shortcutTerms[i] = terms[j];
+    }
+  }
+
+  /**
+   * Renders a log by letting VOnDA's rule logger walk the rule's expression.
+   *
+   * @param ruleId
+   *        The id of the logged rule
+   * @param results
+   *        Its evaluation results
+   * @return The coloured representation or null, if the rule is unknown
+   */
+  private RenderedLog renderWithRuleLogger(int ruleId, boolean[] results) {
+    _rl.logRule(ruleId, results);
+    return _jfl.pendingLoggingData() ? _jfl.popContent() : null;
+  }
+
+  /** @return The packed evaluation results as array */
+  private static boolean[] unpack(int resultCount, long resultBits,
+          long[] moreResultBits) {
+    boolean[] results = new boolean[resultCount];
+    for (int i = 0; i < resultCount; i++)
+      results[i] = i < Long.SIZE
+              ? (resultBits & (1L << i)) != 0
+              : (moreResultBits[i / Long.SIZE - 1] & (1L << i)) != 0;
+    return results;
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free queue that decouples the thread receiving logs from
+ * VOnDA from the JavaFX application thread. Producers never block: if the
+ * queue is full, the offered element is dropped and counted.
+ *
+ * The consumer (usually an <code>AnimationTimer</code>) drains the queue once
+ * per pulse and reports how long that took, so that the queue depth and the
+ * drain time per frame can be observed.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogIngestQueue<E> {
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Contains the queued elements. */
+  private final ConcurrentLinkedQueue<E> _queue
+          = new ConcurrentLinkedQueue<>();
+
+  /** The maximum number of queued elements. */
+  private final int _capacity;
+
+  /** The current number of queued elements. */
+  private final AtomicInteger _size = new AtomicInteger();
+
+  /** Counts the elements that had to be dropped because of a full queue. */
+  private final AtomicLong _dropped = new AtomicLong();
+
+  /** The time (in ns) the last drain took. */
+  private volatile long _lastDrainNanos;
+
+  /** The longest time (in ns) a drain took so far. */
+  private volatile long _maxDrainNanos;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR
+   * **************************************************************************/
+
+  /**
+   * Creates a new queue.
+   *
+   * @param capacity
+   *        The maximum number of elements that can be queued
+   */
+  public LogIngestQueue(int capacity) {
+    if (capacity <= 0)
+      throw new IllegalArgumentException("Capacity must be positive.");
+    _capacity = capacity;
+  }
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /**
+   * Enqueues an element without blocking.
+   *
+   * @param e
+   *        The element to enqueue
+   * @return True, if the element has been enqueued, false if it has been
+   *         dropped because the queue is full
+   */
+  public boolean offer(E e) {
+    int size;
+    do {
+      size = _size.get();
+      if (size >= _capacity) {
+        _dropped.incrementAndGet();
+        return false;
+      }
+    } while (! _size.compareAndSet(size, size + 1));
+    _queue.offer(e);
+    return true;
+  }
+
+  /**
+   * Moves up to <code>max</code> elements into the given collection, in the
+   * order in which they have been enqueued.
+   *
+   * @param target
+   *        The collection to add the elements to
+   * @param max
+   *        The maximum number of elements to move
+   * @return The number of moved elements
+   */
+  public int drainTo(Collection<? super E> target, int max) {
+    int n = 0;
+    E e;
+    while (n < max && (e = _queue.poll()) != null) {
+      target.add(e);
+      n++;
+    }
+    if (n > 0) _size.addAndGet(-n);
+    return n;
+  }
+
+  /** Removes all queued elements. */
+  public void clear() {
+    int n = 0;
+    while (_queue.poll() != null) n++;
+    if (n > 0) _size.addAndGet(-n);
+  }
+
+  /**
+   * Reports the duration of a drain of this queue.
+   *
+   * @param nanos
+   *        The time the drain took in nanoseconds
+   */
+  public void recordDrain(long nanos) {
+    _lastDrainNanos = nanos;
+    if (nanos > _maxDrainNanos) _maxDrainNanos = nanos;
+  }
+
+
+  /* ***************************************************************************
+   * METRICS
+   * **************************************************************************/
+
+  /** @return The current number of queued elements */
+  public int size() { return _size.get(); }
+
+  /** @return The maximum number of elements that can be queued */
+  public int getCapacity() { return _capacity; }
+
+  /** @return The number of elements dropped because the queue was full */
+  public long getDroppedCount() { return _dropped.get(); }
+
+  /** @return The time (in ns) the last drain took */
+  public long getLastDrainNanos() { return _lastDrainNanos; }
+
+  /** @return The longest time (in ns) a drain took so far */
+  public long getMaxDrainNanos() { return _maxDrainNanos; }
+
+}
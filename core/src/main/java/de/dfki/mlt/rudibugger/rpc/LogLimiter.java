@@ -0,0 +1,180 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import de.dfki.mlt.rudibugger.project.ruleModel.LogPolicy;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Applies the {@link LogPolicy}s of the rules to the received logs, before a
+ * <code>LogData</code> is created for them, and counts the suppressed logs of
+ * every rule so that they can be shown.
+ *
+ * The limits and the state of every rule are kept in primitive arrays indexed
+ * by rule id: admitting a log neither allocates nor searches. Logs are
+ * admitted on the thread receiving VOnDA's messages, the policies can be set
+ * and the counters read from any thread. State transitions are detected by
+ * comparing the first 64 evaluation results with the rule's previous log.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogLimiter {
+
+  /** One second in ns, the window of the rate limits. */
+  private static final long SECOND_NANOS = 1_000_000_000L;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Whether a rule has a policy, by id. */
+  private boolean[] _limited = new boolean[0];
+
+  /** The maximum number of logs per second (0 = unlimited), by id. */
+  private int[] _maxPerSecond = new int[0];
+
+  /** Only every k-th log is kept, by id. */
+  private int[] _sampleEvery = new int[0];
+
+  /** Whether only logs with changed results are kept, by id. */
+  private boolean[] _transitionsOnly = new boolean[0];
+
+  /** The start of the current rate window (in ns), by id. */
+  private long[] _windowStart = new long[0];
+
+  /** The number of logs kept in the current rate window, by id. */
+  private int[] _windowCount = new int[0];
+
+  /** The number of logs seen for sampling, by id. */
+  private long[] _sampled = new long[0];
+
+  /** The results of the previous log (-1: none yet), by id. */
+  private int[] _lastCount = new int[0];
+
+  /** The first 64 results of the previous log, by id. */
+  private long[] _lastBits = new long[0];
+
+  /** The number of suppressed logs, by id. */
+  private long[] _suppressed = new long[0];
+
+  /** The number of suppressed logs of all rules. */
+  private long _totalSuppressed;
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /**
+   * Replaces the policies of all rules. The state of a rule is reset, the
+   * suppressed counters are kept.
+   *
+   * @param policies
+   *        The policies of the limited rules, by id
+   */
+  public synchronized void setPolicies(Map<Integer, LogPolicy> policies) {
+    int size = 1 + policies.keySet().stream().mapToInt(Integer::intValue)
+            .max().orElse(-1);
+    _limited = new boolean[size];
+    _maxPerSecond = new int[size];
+    _sampleEvery = new int[size];
+    _transitionsOnly = new boolean[size];
+    _windowStart = new long[size];
+    _windowCount = new int[size];
+    _sampled = new long[size];
+    _lastCount = new int[size];
+    _lastBits = new long[size];
+    Arrays.fill(_lastCount, -1);
+    if (_suppressed.length < size)
+      _suppressed = Arrays.copyOf(_suppressed, size);
+    policies.forEach((id, policy) -> {
+      if (id < 0) return;
+      _limited[id] = true;
+      _maxPerSecond[id] = policy.getMaxPerSecond();
+      _sampleEvery[id] = policy.getSampleEvery();
+      _transitionsOnly[id] = policy.getTransitionsOnly();
+    });
+  }
+
+  /**
+   * Decides whether a received log is kept, if not it is counted as
+   * suppressed.
+   *
+   * @param receivedNanos
+   *        The time of reception in ns, as returned by
+   *        {@link TimestampService#now()}
+   * @param ruleId
+   *        The id of the logged rule
+   * @param resultCount
+   *        The number of evaluation results
+   * @param resultBits
+   *        The first 64 evaluation results
+   * @return True, if the log is kept
+   */
+  public synchronized boolean admit(long receivedNanos, int ruleId,
+          int resultCount, long resultBits) {
+    if (ruleId < 0 || ruleId >= _limited.length || ! _limited[ruleId])
+      return true;
+    if (_transitionsOnly[ruleId]) {
+      boolean same = _lastCount[ruleId] == resultCount
+              && _lastBits[ruleId] == resultBits;
+      _lastCount[ruleId] = resultCount;
+      _lastBits[ruleId] = resultBits;
+      if (same) return suppress(ruleId);
+    }
+    int k = _sampleEvery[ruleId];
+    if (k > 1 && _sampled[ruleId]++ % k != 0) return suppress(ruleId);
+    int max = _maxPerSecond[ruleId];
+    if (max > 0) {
+      if (receivedNanos - _windowStart[ruleId] >= SECOND_NANOS
+              || _windowCount[ruleId] == 0) {
+        _windowStart[ruleId] = receivedNanos;
+        _windowCount[ruleId] = 0;
+      }
+      if (_windowCount[ruleId] >= max) return suppress(ruleId);
+      _windowCount[ruleId]++;
+    }
+    return true;
+  }
+
+  private boolean suppress(int ruleId) {
+    _suppressed[ruleId]++;
+    _totalSuppressed++;
+    return false;
+  }
+
+  /** Sets the suppressed counters to zero. */
+  public synchronized void resetSuppressed() {
+    Arrays.fill(_suppressed, 0);
+    _totalSuppressed = 0;
+  }
+
+  /** @return The number of suppressed logs of the given rule */
+  public synchronized long getSuppressed(int ruleId) {
+    return ruleId < 0 || ruleId >= _suppressed.length
+            ? 0 : _suppressed[ruleId];
+  }
+
+  /** @return The number of suppressed logs of all rules */
+  public synchronized long getTotalSuppressed() { return _totalSuppressed; }
+
+}
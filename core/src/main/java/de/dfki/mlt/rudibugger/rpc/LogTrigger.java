@@ -0,0 +1,106 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.util.BitSet;
+
+/**
+ * Decides which received log triggers a {@link LogCapture}. A trigger works
+ * on the decoded log before a <code>LogData</code> is created and must
+ * neither block nor allocate.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+@FunctionalInterface
+public interface LogTrigger {
+
+  /** Matches every log. */
+  LogTrigger ANY = (ruleId, resultCount, resultBits, moreResultBits) -> true;
+
+  /**
+   * @param ruleId
+   *        The ruleId of the logged rule
+   * @param resultCount
+   *        The number of evaluation results
+   * @param resultBits
+   *        The first 64 evaluation results, one bit per result
+   * @param moreResultBits
+   *        The remaining evaluation results, 64 per element
+   * @return True, if the log triggers the capture
+   */
+  boolean matches(int ruleId, int resultCount, long resultBits,
+          long[] moreResultBits);
+
+  /**
+   * @param other
+   *        Another trigger
+   * @return A trigger matching the logs matched by this and the other one
+   */
+  default LogTrigger and(LogTrigger other) {
+    return (ruleId, resultCount, resultBits, moreResultBits) ->
+            matches(ruleId, resultCount, resultBits, moreResultBits)
+            && other.matches(ruleId, resultCount, resultBits, moreResultBits);
+  }
+
+  /**
+   * @param ruleIds
+   *        The ids of the triggering rules (not modified afterwards)
+   * @return A trigger matching the logs of the given rules
+   */
+  static LogTrigger forRules(BitSet ruleIds) {
+    return (ruleId, resultCount, resultBits, moreResultBits) ->
+            ruleId >= 0 && ruleIds.get(ruleId);
+  }
+
+  /**
+   * Creates a trigger matching the evaluation results of a log. The pattern
+   * has one character per result: <code>1</code> (true), <code>0</code>
+   * (false) or <code>?</code> (any), the first one stands for the outcome of
+   * the whole rule, the others for the base terms. Results beyond the pattern
+   * are not compared, at most 64 results can be given.
+   *
+   * @param pattern
+   *        The result pattern, e.g. <code>0?1</code>
+   * @return The trigger
+   * @throws IllegalArgumentException
+   *         If the pattern contains other characters or is too long
+   */
+  static LogTrigger forResults(String pattern) {
+    if (pattern.length() > Long.SIZE)
+      throw new IllegalArgumentException("At most " + Long.SIZE
+              + " results can be matched: " + pattern);
+    long mask = 0, value = 0;
+    for (int i = 0; i < pattern.length(); i++) {
+      switch (pattern.charAt(i)) {
+        case '1': value |= 1L << i; // fall through
+        case '0': mask |= 1L << i; break;
+        case '?': break;
+        default:
+          throw new IllegalArgumentException(
+                  "Illegal character in result pattern: " + pattern);
+      }
+    }
+    final long m = mask, v = value;
+    final int length = pattern.length();
+    return (ruleId, resultCount, resultBits, moreResultBits) ->
+            resultCount >= length && (resultBits & m) == v;
+  }
+
+}
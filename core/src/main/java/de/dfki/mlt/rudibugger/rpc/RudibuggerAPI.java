@@ -0,0 +1,122 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This API specifies what commands can be sent from VOnDA to rudibugger.
+ *
+ * The received commands will be parsed an either handed to the correct function
+ * or ignored by indicating that they are illegal.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RudibuggerAPI implements Consumer<String[]> {
+
+  /** The logger. */
+  static Logger log = LoggerFactory.getLogger("rudibuggerAPI");
+
+  /** Receives the decoded rule logs. */
+  private final RuleLogSink _vonda;
+
+  /**
+   * Reused buffer for evaluation results beyond the first 64. Only accessed by
+   * the thread receiving VOnDA's messages.
+   */
+  private long[] _moreResultBits = new long[0];
+
+  /** Initializes the API with the receiver of the decoded rule logs. */
+  public RudibuggerAPI(RuleLogSink vonda) {
+    _vonda = vonda;
+  }
+
+  /**
+   * Parses incoming commands by dividing them into the command's / function's
+   * name and the parameters of the function call. They will then be transmitted
+   * to the chosen function or ignored by stating that they are illegal.
+   *
+   * @param args
+   *        Array containing one command and multiple parameters
+   */
+  public void parseCommand(String[] args) {
+    long received = TimestampService.now();
+    String command = args[0];
+    switch (command) {
+      case "printLog":
+        printLog(args, 1, received);
+        break;
+      default:
+        log.error("Illegal RudibuggerService call: {}",
+                Arrays.toString(args));
+    }
+  }
+
+  @Override
+  public void accept(String[] args) { parseCommand(args); }
+
+  /** Starts the process to print a received log in the ruleLogginTableView. */
+  public void printLog(String[] args) {
+    printLog(args, 0, TimestampService.now());
+  }
+
+  /**
+   * Decodes the parameters of a <code>printLog</code> command starting at the
+   * given offset. The evaluation results are packed directly into bits, no
+   * intermediate arrays are created for rules with at most 64 results.
+   *
+   * @param args
+   *        Array containing the ruleId followed by the evaluation results
+   * @param offset
+   *        The index of the ruleId in <code>args</code>
+   * @param received
+   *        The time the command has been received
+   */
+  private void printLog(String[] args, int offset, long received) {
+    try {
+      int ruleId = Integer.parseInt(args[offset]);
+      int resultCount = args.length - offset - 1;
+      long bits = 0;
+      if (resultCount > Long.SIZE) {
+        int words = (resultCount - 1) / Long.SIZE;
+        if (_moreResultBits.length < words)
+          _moreResultBits = new long[words];
+        else
+          Arrays.fill(_moreResultBits, 0, words, 0L);
+      }
+      for (int i = 0; i < resultCount; ++i) {
+        if (! Boolean.parseBoolean(args[offset + 1 + i])) continue;
+        if (i < Long.SIZE)
+          bits |= 1L << i;
+        else
+          _moreResultBits[i / Long.SIZE - 1] |= 1L << (i % Long.SIZE);
+      }
+      _vonda.printLog(received, ruleId, resultCount, bits, _moreResultBits);
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+      log.error("Illegal RudibuggerService Call: "
+              + "printLog can't work with parameters {}",
+              Arrays.toString(args));
+    }
+  }
+
+}
@@ -0,0 +1,400 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import de.dfki.mlt.rudimant.common.SimpleClient;
+import de.dfki.mlt.rudimant.common.SimpleClient.ConnStatus;
+
+/**
+ * An XML-RPC Client to connect to rudibugger in Java using VOnDA's
+ * SimpleClient. This is manly a wrapper class of this class but includes
+ * specific functionality to communicate with VOnDA's runtime system by sending
+ * commands to the latter.
+ *
+ * @author Bernd Kiefer kiefer@dfki.de
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RudibuggerClient {
+
+  /** The logger. */
+  static Logger log = LoggerFactory.getLogger("rudibuggerClient");
+
+  /** Asks the server which optional commands it supports. */
+  public static final String REQ_CAPABILITIES = "reqCapabilities";
+
+  /** The server's answer to {@link #REQ_CAPABILITIES}. */
+  public static final String CAPABILITIES = "capabilities";
+
+  /**
+   * Prefixes the id of the running agent instance among the capabilities,
+   * e.g. <code>agent=4f2a</code>.
+   */
+  public static final String AGENT_ID_PREFIX = "agent=";
+
+  /** Sets the logging states of many rules, run-length encoded by id. */
+  public static final String SET_LOG_STATS = "setLogStats";
+
+  /**
+   * Asks the server to answer with {@link #PONG} and the same token, to
+   * measure the round-trip time. Only sent if the server announces it among
+   * its capabilities.
+   */
+  public static final String PING = "ping";
+
+  /** The server's answer to {@link #PING}. */
+  public static final String PONG = "pong";
+
+  /** How long to wait for the server's capabilities. */
+  private static final long CAPABILITIES_TIMEOUT_MILLIS = 500;
+
+  /** An instance of VOnDA's simple client. */
+  SimpleClient client;
+
+  /**
+   * Whether the server understands {@link #SET_LOG_STATS}, or null if this is
+   * not known yet.
+   */
+  private volatile Boolean _bulkSupported;
+
+  /**
+   * The id of the connected agent instance, or null if it is not known (yet).
+   */
+  private volatile String _agentId;
+
+  /** Whether the server answers {@link #PING}. */
+  private volatile boolean _pingSupported;
+
+  /** The last measured round-trip time in ns, or -1 if unknown. */
+  private volatile long _roundTripNanos = -1;
+
+  /** The <code>System.nanoTime()</code> of the last answered ping (or 0). */
+  private volatile long _lastPongNanos;
+
+  /**
+   * The thread of the SimpleClient, known from its first status change
+   * (TRYING), or null if it has not started yet.
+   */
+  private volatile Thread _thread;
+
+  /** Is counted down when the thread of the SimpleClient is known. */
+  private final CountDownLatch _started = new CountDownLatch(1);
+
+  /** Whether {@link #close()} has been called. */
+  private volatile boolean _closed;
+
+  /** The logging states waiting for the server's capabilities (or null). */
+  private final AtomicReference<Supplier<? extends SortedMap<Integer, Integer>>>
+          _pendingStates = new AtomicReference<>();
+
+  /**
+   * Initializes a client that connects to the server (VOnDA) on localhost at
+   * the given port to send log information to the debugger (rudibugger).
+   */
+  public RudibuggerClient(String host, int portNumber,
+          Consumer<String[]> consumer) {
+    client = new SimpleClient(host, portNumber, args -> {
+      if (CAPABILITIES.equals(args[0]))
+        receivedCapabilities(args);
+      else if (PONG.equals(args[0]))
+        receivedPong(args);
+      else
+        consumer.accept(args);
+    }, "Debugger");
+    /* the server may be another one after a reconnect */
+    client.addPropertyChangeListener(e -> {
+      if (e.getNewValue() == ConnStatus.TRYING && _thread == null) {
+        _thread = Thread.currentThread();
+        _started.countDown();
+      }
+      /* closed before the SimpleClient's thread got here */
+      if (_closed) stopClientThread();
+      if (e.getNewValue() != ConnStatus.ONLINE) {
+        _bulkSupported = null;
+        _agentId = null;
+        _pingSupported = false;
+        _roundTripNanos = -1;
+      }
+    });
+    client.startClient();
+  }
+
+  /** @return True, if client is connect to server (VOnDA), else false */
+  public boolean isConnected() {
+    return client.getConnStatus() == ConnStatus.ONLINE;
+  }
+
+  /**
+   * @return The id of the connected agent instance as announced with its
+   *        capabilities, or null if it did not announce one (yet). It is
+   *        known when the supplier of
+   *        {@link #syncLoggingStatuses(Supplier)} is asked for the states.
+   */
+  public String getAgentId() {
+    return _agentId;
+  }
+
+  /**
+   * @return True, if the server announced that it answers {@link #PING}
+   *         (the capabilities are asked for with the first synchronisation of
+   *         the logging states)
+   */
+  public boolean isPingSupported() { return _pingSupported; }
+
+  /** Sends a {@link #PING} with the current time as token. */
+  public void ping() {
+    client.send(PING, Long.toString(System.nanoTime()));
+  }
+
+  /** Handles the server's answer to {@link #PING}. */
+  private void receivedPong(String[] args) {
+    long now = System.nanoTime();
+    try {
+      _roundTripNanos = now - Long.parseLong(args[1]);
+      _lastPongNanos = now;
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+      log.error("Illegal " + PONG + ": " + String.join(" ", args));
+    }
+  }
+
+  /** @return The last measured round-trip time in ns, or -1 if unknown */
+  public long getRoundTripNanos() { return _roundTripNanos; }
+
+  /**
+   * @return The <code>System.nanoTime()</code> of the last answered ping, or
+   *         0 if none has been answered
+   */
+  public long getLastPongNanos() { return _lastPongNanos; }
+
+  /** Disconnects client from server (VOnDA). */
+  public void disconnect() throws IOException {
+    client.disconnect();
+  }
+
+  /**
+   * Disconnects from the server and stops the SimpleClient's thread. Unlike
+   * {@link #disconnect()}, this also works while the client is still trying
+   * to connect: the SimpleClient then retries every 100 ms until its thread
+   * is interrupted. A closed client cannot be used anymore.
+   */
+  public void close() {
+    _closed = true;
+    stopClientThread();
+  }
+
+  /**
+   * Closes the socket if there is one, and interrupts the SimpleClient's
+   * thread: a retrying thread ends when its sleep is interrupted, an online
+   * one when reading from its closed socket fails.
+   */
+  private void stopClientThread() {
+    try {
+      client.disconnect();
+    } catch (IOException ex) {
+      log.debug("Could not close connection: " + ex.getMessage());
+    }
+    Thread thread = _thread;
+    if (thread != null) thread.interrupt();
+  }
+
+  /**
+   * Waits for the SimpleClient's thread to end after {@link #close()}.
+   *
+   * @param millis
+   *        The maximum time to wait
+   * @return True, if the thread has ended
+   * @throws InterruptedException
+   *        If the waiting thread is interrupted
+   */
+  public boolean awaitClosed(long millis) throws InterruptedException {
+    long deadline = System.nanoTime() + millis * 1_000_000;
+    if (! _started.await(millis, MILLISECONDS)) return false;
+    Thread thread = _thread;
+    long left = (deadline - System.nanoTime()) / 1_000_000;
+    if (left > 0) thread.join(left);
+    return ! thread.isAlive();
+  }
+
+  public void addPropertyChangeListener(PropertyChangeListener listener) {
+    client.addPropertyChangeListener(listener);
+  }
+
+  public void removePropertyChangeListener(PropertyChangeListener listener) {
+    client.removePropertyChangeListener(listener);
+  }
+
+  /**
+   * Sets the ruleLoggingState of a given rule to a given state by sending a
+   * specific command to VOnDA.
+   *
+   * @param ruleId
+   *        The id of the Rule
+   * @param newState
+   *        The new state of the given Rule
+   */
+  public void setLoggingStatus(int ruleId, int newState) {
+    log.debug("setLogState of rule {} to {}", ruleId, newState);
+    client.send("setLogStat", Integer.toString(ruleId),
+            Integer.toString(newState));
+  }
+
+  /**
+   * Sends the logging states of all rules to VOnDA. If the server supports
+   * {@link #SET_LOG_STATS}, all states are sent in one command, otherwise one
+   * <code>setLogStat</code> per rule is sent.
+   *
+   * Whether the server supports it is asked once per connection, the states
+   * are only taken from the supplier when they are sent. Changes sent in the
+   * meantime with {@link #setLoggingStatus(int, int)} are therefore not
+   * overwritten by older states.
+   *
+   * @param states
+   *        Supplies the logging states by rule id
+   */
+  public void syncLoggingStatuses(
+          Supplier<? extends SortedMap<Integer, Integer>> states) {
+    Boolean bulk = _bulkSupported;
+    if (bulk != null) {
+      sendLoggingStatuses(states, bulk);
+      return;
+    }
+    _pendingStates.set(states);
+    client.send(REQ_CAPABILITIES);
+    CompletableFuture.delayedExecutor(CAPABILITIES_TIMEOUT_MILLIS, MILLISECONDS)
+            .execute(() -> {
+      if (_bulkSupported == null) {
+        log.info("VOnDA does not support " + SET_LOG_STATS
+                + ", sending logging states one by one.");
+        _bulkSupported = false;
+      }
+      sendPendingStates();
+    });
+  }
+
+  /** Handles the server's answer to {@link #REQ_CAPABILITIES}. */
+  private void receivedCapabilities(String[] args) {
+    for (String arg : args)
+      if (arg.startsWith(AGENT_ID_PREFIX))
+        _agentId = arg.substring(AGENT_ID_PREFIX.length());
+    _pingSupported = Arrays.asList(args).contains(PING);
+    _bulkSupported = Arrays.asList(args).contains(SET_LOG_STATS);
+    sendPendingStates();
+  }
+
+  /** Sends the logging states waiting for the capabilities (if any). */
+  private void sendPendingStates() {
+    Supplier<? extends SortedMap<Integer, Integer>> states
+            = _pendingStates.getAndSet(null);
+    Boolean bulk = _bulkSupported;
+    if (states != null && bulk != null && isConnected())
+      sendLoggingStatuses(states, bulk);
+  }
+
+  /**
+   * Sends the logging states of some rules to VOnDA, in a single command if
+   * VOnDA is known to support it.
+   *
+   * The states are taken from the supplier and sent while no other states
+   * are sent by this client, so that states taken later are never sent
+   * before states taken earlier.
+   *
+   * @param states
+   *        Supplies the changed logging states by rule id
+   */
+  public void setLoggingStatuses(
+          Supplier<? extends SortedMap<Integer, Integer>> states) {
+    sendLoggingStatuses(states, Boolean.TRUE.equals(_bulkSupported));
+  }
+
+  private synchronized void sendLoggingStatuses(
+          Supplier<? extends SortedMap<Integer, Integer>> supplier,
+          boolean bulk) {
+    SortedMap<Integer, Integer> states = supplier.get();
+    if (states.isEmpty()) return;
+    if (bulk && states.size() > 1) {
+      log.debug("setLogStats of {} rules", states.size());
+      client.send(encodeLoggingStatuses(states));
+    } else {
+      states.forEach(this::setLoggingStatus);
+    }
+  }
+
+  /**
+   * Encodes logging states as {@link #SET_LOG_STATS} command: runs of
+   * consecutive rule ids with the same state are given as triples of the
+   * first id, the number of rules and the state.
+   *
+   * @param states
+   *        The logging states by rule id
+   * @return The command and its arguments
+   */
+  public static String[] encodeLoggingStatuses(
+          SortedMap<Integer, Integer> states) {
+    List<String> cmd = new ArrayList<>();
+    cmd.add(SET_LOG_STATS);
+    int first = 0, count = 0, state = 0;
+    for (Map.Entry<Integer, Integer> e : states.entrySet()) {
+      int id = e.getKey();
+      if (count > 0 && id == first + count && e.getValue() == state) {
+        count++;
+        continue;
+      }
+      if (count > 0) addRun(cmd, first, count, state);
+      first = id;
+      count = 1;
+      state = e.getValue();
+    }
+    if (count > 0) addRun(cmd, first, count, state);
+    return cmd.toArray(new String[cmd.size()]);
+  }
+
+  private static void addRun(List<String> cmd, int first, int count,
+          int state) {
+    cmd.add(Integer.toString(first));
+    cmd.add(Integer.toString(count));
+    cmd.add(Integer.toString(state));
+  }
+
+  /**
+   * Request information from VOnDA about a field of custom agent.
+   *
+   * @param field
+   *        The name of the wanted field
+   */
+  public void requestFieldInfo(String field) {
+    client.send("reqFieldInfo", field);
+  }
+
+}
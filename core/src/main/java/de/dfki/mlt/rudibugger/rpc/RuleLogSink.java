@@ -0,0 +1,48 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+/**
+ * Receives the rule logs decoded by {@link RudibuggerAPI}. Implementations
+ * are called from the thread receiving VOnDA's messages and should not block.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public interface RuleLogSink {
+
+  /**
+   * Receives a rule log.
+   *
+   * @param receivedNanos
+   *        The time of reception, as returned by {@link TimestampService#now()}
+   * @param ruleId
+   *        The ruleId of the logged rule
+   * @param resultCount
+   *        The number of evaluation results
+   * @param resultBits
+   *        The first 64 evaluation results, one bit per result
+   * @param moreResultBits
+   *        The remaining evaluation results, 64 per element (only valid if
+   *        there are more than 64 results, reused by the caller)
+   */
+  void printLog(long receivedNanos, int ruleId, int resultCount,
+          long resultBits, long[] moreResultBits);
+
+}
@@ -0,0 +1,175 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import de.dfki.mlt.rudibugger.rpc.LogData.StringPart;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer.RenderedLog;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The pre-tokenized representation of one rule: its label followed by the
+ * fixed text segments and term slots of its expression. Only the colour of a
+ * segment depends on the evaluation results of a log, so every distinct
+ * result pattern is coloured once and then shared by all logs with the same
+ * pattern.
+ *
+ * The colours of a new pattern are still learned from one pass of VOnDA's
+ * rule logger, since which terms are shortcut is decided there. The learned
+ * patterns are kept in an open addressing table keyed by the packed results,
+ * which holds at most {@link #MAX_PATTERNS} patterns; once it is full, it is
+ * cleared and learns anew. Logs of rules with more than 64
+ * results do not fit into one key and are never looked up here, the
+ * {@link LogDataRenderer} renders them with the rule logger every time.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+final class RuleLogTemplate {
+
+  /** The label (first element) and the segments of the rule's expression. */
+  private final String[] _segments;
+
+  /** The most result patterns kept per rule. */
+  static final int MAX_PATTERNS = 256;
+
+  /** The initial number of slots of the pattern table (a power of two). */
+  private static final int INITIAL_SLOTS = 4;
+
+  /** The packed evaluation results of the learned patterns. */
+  private long[] _keys = new long[INITIAL_SLOTS];
+
+  /** The coloured representations of the patterns, null marks a free slot. */
+  private RenderedLog[] _colourings = new RenderedLog[INITIAL_SLOTS];
+
+  /** The number of learned patterns. */
+  private int _count;
+
+  /**
+   * Creates the template of a rule out of one rendered log of that rule.
+   *
+   * @param rendered
+   *        An arbitrary rendered log of the rule
+   */
+  RuleLogTemplate(RenderedLog rendered) {
+    List<StringPart> parts = rendered.evaluatedRuleParts;
+    _segments = new String[parts.size() + 1];
+    _segments[0] = rendered.label.content;
+    for (int i = 0; i < parts.size(); i++)
+      _segments[i + 1] = parts.get(i).content;
+  }
+
+  /**
+   * @param resultBits
+   *        The packed evaluation results of a log
+   * @return The coloured representation of the given results, or null if
+   *         this result pattern has not been seen yet
+   */
+  RenderedLog get(long resultBits) {
+    int mask = _keys.length - 1;
+    for (int i = slot(resultBits) & mask; _colourings[i] != null;
+            i = (i + 1) & mask) {
+      if (_keys[i] == resultBits) return _colourings[i];
+    }
+    return null;
+  }
+
+  /**
+   * Learns the colours of a new result pattern. The returned representation
+   * shares its strings with this template.
+   *
+   * @param resultBits
+   *        The packed evaluation results of a log
+   * @param rendered
+   *        The log rendered by the rule logger
+   * @return The representation that will be returned for this pattern from
+   *         now on, or the given one if it does not fit this template
+   */
+  RenderedLog learn(long resultBits, RenderedLog rendered) {
+    List<StringPart> parts = rendered.evaluatedRuleParts;
+    if (! matches(rendered)) return rendered;
+    ArrayList<StringPart> slots = new ArrayList<>(parts.size());
+    for (int i = 0; i < parts.size(); i++)
+      slots.add(new StringPart(_segments[i + 1], parts.get(i).evalOutcome));
+    RenderedLog r = new RenderedLog(
+            new StringPart(_segments[0], rendered.label.evalOutcome), slots);
+    put(resultBits, r);
+    return r;
+  }
+
+  /** @return The number of result patterns currently kept */
+  int size() { return _count; }
+
+  /** Adds a pattern, clearing all others first if the table is full. */
+  private void put(long resultBits, RenderedLog r) {
+    int mask = _keys.length - 1;
+    int i = slot(resultBits) & mask;
+    while (_colourings[i] != null) {
+      if (_keys[i] == resultBits) {
+        _colourings[i] = r;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    if (_count == MAX_PATTERNS) {
+      /* keeps the table's size, it will be needed again */
+      Arrays.fill(_colourings, null);
+      _count = 0;
+      i = slot(resultBits) & mask;
+    }
+    _keys[i] = resultBits;
+    _colourings[i] = r;
+    if (2 * ++_count > _keys.length) grow();
+  }
+
+  /** Doubles the number of slots. */
+  private void grow() {
+    long[] keys = _keys;
+    RenderedLog[] colourings = _colourings;
+    _keys = new long[keys.length * 2];
+    _colourings = new RenderedLog[keys.length * 2];
+    int mask = _keys.length - 1;
+    for (int j = 0; j < keys.length; j++) {
+      if (colourings[j] == null) continue;
+      int i = slot(keys[j]) & mask;
+      while (_colourings[i] != null) i = (i + 1) & mask;
+      _keys[i] = keys[j];
+      _colourings[i] = colourings[j];
+    }
+  }
+
+  /** @return The home slot of a pattern (before masking) */
+  private static int slot(long bits) {
+    return (int) ((bits * 0x9E3779B97F4A7C15L) >>> 32);
+  }
+
+  /** @return True, if the given rendering consists of this template's text */
+  private boolean matches(RenderedLog rendered) {
+    List<StringPart> parts = rendered.evaluatedRuleParts;
+    if (parts.size() + 1 != _segments.length
+            || ! _segments[0].equals(rendered.label.content))
+      return false;
+    for (int i = 0; i < parts.size(); i++) {
+      if (! _segments[i + 1].equals(parts.get(i).content)) return false;
+    }
+    return true;
+  }
+
+}
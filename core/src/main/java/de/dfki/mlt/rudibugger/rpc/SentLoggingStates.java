@@ -0,0 +1,105 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Remembers the logging states that have been sent to a VOnDA agent, so that
+ * after a reconnect to the same agent only the states that changed in the
+ * meantime have to be sent again. The agent is identified by the id it
+ * announces with its capabilities (see {@link RudibuggerClient#getAgentId()}),
+ * an agent without an id always gets all states.
+ *
+ * States are considered to be known by the agent once they have been handed
+ * to the client, commands lost while the connection breaks down are not
+ * detected.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class SentLoggingStates {
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The states that have been sent, by rule id. */
+  private final Map<Integer, Integer> _sent = new HashMap<>();
+
+  /** The id of the agent the states have been sent to (or null). */
+  private String _agentId;
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /**
+   * Determines the states to be sent after a (re)connect and remembers them
+   * as sent.
+   *
+   * @param states
+   *        The current logging states of all rules by id
+   * @param agentId
+   *        The id of the connected agent, or null if it is unknown
+   * @return All states for another or an unknown agent, else only the states
+   *        that differ from the sent ones
+   */
+  public synchronized SortedMap<Integer, Integer> resync(
+          SortedMap<Integer, Integer> states, String agentId) {
+    boolean sameAgent = agentId != null && agentId.equals(_agentId);
+    _agentId = agentId;
+    if (! sameAgent) {
+      _sent.clear();
+      _sent.putAll(states);
+      return states;
+    }
+    SortedMap<Integer, Integer> changed = new TreeMap<>();
+    states.forEach((id, state) -> {
+      if (update(id, state)) changed.put(id, state);
+    });
+    _sent.keySet().retainAll(states.keySet());
+    return changed;
+  }
+
+  /**
+   * Remembers the state of a rule as sent.
+   *
+   * @param ruleId
+   *        The id of the rule
+   * @param state
+   *        Its current state
+   * @return True, if the state differs from the one sent before
+   */
+  public synchronized boolean update(int ruleId, int state) {
+    Integer sent = _sent.put(ruleId, state);
+    return sent == null || sent != state;
+  }
+
+  /** Forgets all sent states, the next resync sends all states again. */
+  public synchronized void clear() {
+    _sent.clear();
+    _agentId = null;
+  }
+
+}
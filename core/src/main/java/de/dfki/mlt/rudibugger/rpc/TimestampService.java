@@ -0,0 +1,92 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides the timestamps and sequence keys of received logs. All methods are
+ * lock-free and may be called from any thread.
+ *
+ * Timestamps are given in nanoseconds since the epoch. The wall-clock time is
+ * captured once, afterwards the time advances with
+ * <code>System.nanoTime()</code>. Timestamps therefore never go backwards, even
+ * if the system clock is adjusted, and logs within the same millisecond can
+ * still be told apart.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public final class TimestampService {
+
+  /** The number of bits used by the counter within one millisecond. */
+  private static final int COUNTER_BITS = 20;
+
+  /** Masks the counter within one millisecond. */
+  private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+  /** The wall-clock time (in ns since the epoch) at class initialization. */
+  private static final long EPOCH_NANOS_AT_START
+          = System.currentTimeMillis() * 1_000_000L;
+
+  /** The value of <code>System.nanoTime()</code> at class initialization. */
+  private static final long NANO_TIME_AT_START = System.nanoTime();
+
+  /** The source of the sequence keys. */
+  private static final AtomicLong SEQUENCE = new AtomicLong();
+
+  /**
+   * The most recently counted millisecond (upper bits) and how often it has
+   * been counted (lower {@value #COUNTER_BITS} bits).
+   */
+  private static final AtomicLong MILLIS_AND_COUNTER = new AtomicLong();
+
+  private TimestampService() {}
+
+  /** @return The current monotonic time in nanoseconds since the epoch */
+  public static long now() {
+    return EPOCH_NANOS_AT_START + (System.nanoTime() - NANO_TIME_AT_START);
+  }
+
+  /** @return A new sequence key, greater than all previously returned ones */
+  public static long nextSequence() {
+    return SEQUENCE.incrementAndGet();
+  }
+
+  /**
+   * Counts how many timestamps have been stamped within the same millisecond.
+   *
+   * @param timestampNanos
+   *        A timestamp returned by {@link #now()}
+   * @return 1 for the first timestamp of a millisecond, 2 for the second, ...
+   */
+  public static int countWithinMillisecond(long timestampNanos) {
+    long millis = timestampNanos / 1_000_000L;
+    long prev, next;
+    do {
+      prev = MILLIS_AND_COUNTER.get();
+      long count = (prev >>> COUNTER_BITS) == millis
+              ? Math.min((prev & COUNTER_MASK) + 1, COUNTER_MASK)
+              : 1;
+      next = (millis << COUNTER_BITS) | count;
+    } while (! MILLIS_AND_COUNTER.compareAndSet(prev, next));
+    return (int) (next & COUNTER_MASK);
+  }
+
+}
@@ -0,0 +1,435 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.ruleLogging;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogIngestQueue;
+import de.dfki.mlt.rudibugger.rpc.TimestampService;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends every received log to a binary journal on disk, so that a session
+ * can be inspected after the rule logging window has been closed.
+ *
+ * Logs are handed over through a bounded queue and written by a daemon
+ * thread into a buffered <code>FileChannel</code>, which is forced to disk
+ * periodically. Once a journal file exceeds its maximum size, a new file is
+ * started. Written logs are not kept in memory.
+ *
+ * A journal file starts with a header ({@link #MAGIC}, {@link #VERSION}, the
+ * creation time in ms since the epoch), followed by one record per log:
+ * <pre>
+ *   long   timestamp (ns since the epoch)
+ *   int    ruleId
+ *   int    number of results
+ *   long[] results, one bit per result (at least one element)
+ * </pre>
+ * Whenever the rule model changes (and at the beginning of every file), a
+ * rule table record maps the ruleIds to keys identifying the rules, so that
+ * a journal can still be replayed after the ruleIds have changed:
+ * <pre>
+ *   long   timestamp (ns since the epoch)
+ *   int    {@link #RULE_TABLE}
+ *   int    number of entries
+ *   then per entry: int ruleId, int length, UTF-8 bytes of the rule's key
+ * </pre>
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogJournal {
+
+  /** The logger. */
+  static Logger log = LoggerFactory.getLogger("ruleLogJournal");
+
+  /** Identifies a journal file. */
+  public static final int MAGIC = 0x524c4a31;
+
+  /** The version of the journal format. */
+  public static final int VERSION = 1;
+
+  /** The size of a journal file's header in bytes. */
+  public static final int HEADER_SIZE = 4 + 4 + 8;
+
+  /** The ruleId marking a rule table record. */
+  public static final int RULE_TABLE = -1;
+
+  /** The file extension of journal files. */
+  public static final String FILE_EXTENSION = ".rlj";
+
+  /** The default maximum size of a journal file. */
+  public static final long DEFAULT_MAX_FILE_BYTES = 64L * 1024 * 1024;
+
+  /** The maximum number of logs waiting to be written. */
+  private static final int QUEUE_CAPACITY = 1 << 16;
+
+  /** How often (in ms) written logs are forced to disk. */
+  private static final long FSYNC_INTERVAL = 1000;
+
+  /** How long (in ms) the writer sleeps if there is nothing to write. */
+  private static final long IDLE_SLEEP = 20;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The folder containing the journal files. */
+  private final Path _folder;
+
+  /** The common prefix of this session's journal files. */
+  private final String _sessionName;
+
+  /** A journal file is rotated if it would grow beyond this size. */
+  private final long _maxFileBytes;
+
+  /** Contains the logs waiting to be written. */
+  private final LogIngestQueue<LogData> _queue
+          = new LogIngestQueue<>(QUEUE_CAPACITY);
+
+  /** Collects the encoded records before they are written. */
+  private final ByteBuffer _buffer = ByteBuffer.allocateDirect(1 << 18);
+
+  /** A new rule table that has not been written yet. */
+  private static final class PendingRuleTable {
+
+    /** Maps the ruleIds to keys identifying the rules. */
+    final Map<Integer, String> table;
+
+    /** The number of logs queued before the table has been set. */
+    final long position;
+
+    PendingRuleTable(Map<Integer, String> table, long position) {
+      this.table = table;
+      this.position = position;
+    }
+  }
+
+  /** New rule tables that have not been written yet, oldest first. */
+  private final ConcurrentLinkedQueue<PendingRuleTable> _pendingRuleTables
+          = new ConcurrentLinkedQueue<>();
+
+  /** The number of logs queued so far. */
+  private final AtomicLong _queued = new AtomicLong();
+
+  /** The number of logs taken from the queue so far (writer thread only). */
+  private long _taken;
+
+  /** The most recently written rule table (or null). */
+  private Map<Integer, String> _ruleTable;
+
+  /** The currently written journal file. */
+  private FileChannel _channel;
+
+  /** The number of the current journal file within this session. */
+  private int _fileIndex = -1;
+
+  /** The size of the current journal file. */
+  private long _fileBytes;
+
+  /** The number of logs written so far. */
+  private volatile long _written;
+
+  /** Writes the queued logs. */
+  private final Thread _writer;
+
+  /** Indicates that the journal should be closed. */
+  private volatile boolean _closing;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR
+   * **************************************************************************/
+
+  /**
+   * Opens a new journal session in the given folder.
+   *
+   * @param folder
+   *        The folder containing the journal files, created if necessary
+   * @param maxFileBytes
+   *        The size after which a new journal file is started
+   * @throws IOException
+   *        If the first journal file could not be created
+   */
+  public RuleLogJournal(Path folder, long maxFileBytes) throws IOException {
+    _folder = folder;
+    _maxFileBytes = Math.max(maxFileBytes, 1 << 20);
+    _sessionName = "session-"
+            + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+    Files.createDirectories(folder);
+    rotate();
+    _writer = new Thread(this::writeLoop, "ruleLogJournal");
+    _writer.setDaemon(true);
+    _writer.start();
+    log.info("Journaling rule logs to " + currentFile());
+  }
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /**
+   * Queues a log to be written. Never blocks, may be called from any thread.
+   *
+   * @param data
+   *        The log to write
+   * @return True, if the log has been queued, false if it had to be dropped
+   */
+  public boolean append(LogData data) {
+    if (_closing || ! _queue.offer(data)) return false;
+    _queued.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Records a new mapping of ruleIds to rule keys, logs appended afterwards
+   * refer to it. Logs that are still queued are written before the new
+   * table, as they refer to the previous one. May be called from any thread.
+   *
+   * @param ruleTable
+   *        Maps the ruleIds to keys identifying the rules
+   */
+  public void setRuleTable(Map<Integer, String> ruleTable) {
+    _pendingRuleTables.add(
+            new PendingRuleTable(new HashMap<>(ruleTable), _queued.get()));
+  }
+
+  /** Writes all queued logs, forces them to disk and closes the journal. */
+  public void close() {
+    _closing = true;
+    try {
+      _writer.join();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Writes queued logs until the journal is closed. */
+  private void writeLoop() {
+    ArrayList<LogData> batch = new ArrayList<>();
+    long lastSync = System.currentTimeMillis();
+    try {
+      while (true) {
+        boolean closing = _closing;
+        // a rule table set from now on comes after all logs counted here
+        long queued = _queued.get();
+        PendingRuleTable pending;
+        while ((pending = _pendingRuleTables.peek()) != null
+                && pending.position <= _taken) {
+          _pendingRuleTables.poll();
+          _ruleTable = pending.table;
+          writeRuleTable();
+        }
+        // the logs queued before a new table still refer to the old one
+        long max = Math.min(4096, queued - _taken);
+        if (pending != null) max = Math.min(max, pending.position - _taken);
+        _taken += _queue.drainTo(batch, (int) max);
+        for (LogData d : batch) write(d);
+        boolean idle = batch.isEmpty();
+        batch.clear();
+        long now = System.currentTimeMillis();
+        if (idle || closing || now - lastSync >= FSYNC_INTERVAL) {
+          flush();
+          if (now - lastSync >= FSYNC_INTERVAL || closing) {
+            _channel.force(false);
+            lastSync = now;
+          }
+        }
+        if (closing && _queue.size() == 0) break;
+        if (idle) Thread.sleep(IDLE_SLEEP);
+      }
+    } catch (IOException ex) {
+      log.error("Could not write rule log journal: " + ex.getMessage());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      try {
+        flush();
+        _channel.close();
+      } catch (IOException ex) {
+        log.error("Could not close rule log journal: " + ex.getMessage());
+      }
+    }
+  }
+
+  /** Encodes a log into the buffer, rotating the journal if necessary. */
+  private void write(LogData d) throws IOException {
+    int size = recordSize(d.getResultCount());
+    if (_fileBytes + _buffer.position() + size > _maxFileBytes) {
+      flush();
+      rotate();
+    }
+    if (_buffer.remaining() < size) flush();
+    if (_buffer.remaining() < size) {
+      log.warn("Rule {} has too many results to be journaled", d.getRuleId());
+      return;
+    }
+    putRecord(_buffer, d.getTimestampNanos(), d.getRuleId(),
+            d.getResultCount(), d.getResultBits(), d.getMoreResultBits());
+    _written++;
+  }
+
+  /** Writes the current rule table directly to the journal file. */
+  private void writeRuleTable() throws IOException {
+    if (_ruleTable == null) return;
+    ByteBuffer record = encodeRuleTable(TimestampService.now(), _ruleTable);
+    flush();
+    while (record.hasRemaining()) _fileBytes += _channel.write(record);
+  }
+
+  /** Writes the buffer's content to the current journal file. */
+  private void flush() throws IOException {
+    _buffer.flip();
+    while (_buffer.hasRemaining()) _fileBytes += _channel.write(_buffer);
+    _buffer.clear();
+  }
+
+  /** Closes the current journal file (if any) and starts a new one. */
+  private void rotate() throws IOException {
+    if (_channel != null) {
+      _channel.force(false);
+      _channel.close();
+    }
+    _fileIndex++;
+    _channel = FileChannel.open(currentFile(), StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    putHeader(header);
+    header.flip();
+    while (header.hasRemaining()) _channel.write(header);
+    _fileBytes = HEADER_SIZE;
+    writeRuleTable();
+  }
+
+  /** @return The currently written journal file */
+  private Path currentFile() {
+    return _folder.resolve(String.format("%s-%03d%s",
+            _sessionName, _fileIndex, FILE_EXTENSION));
+  }
+
+
+  /* ***************************************************************************
+   * ENCODING
+   * **************************************************************************/
+
+  /**
+   * @param resultCount
+   *        The number of evaluation results of a log
+   * @return The size of the log's record in bytes
+   */
+  public static int recordSize(int resultCount) {
+    int words = Math.max(1, (resultCount + Long.SIZE - 1) / Long.SIZE);
+    return 8 + 4 + 4 + 8 * words;
+  }
+
+  /**
+   * Puts a file header into the given buffer.
+   *
+   * @param buffer
+   *        The buffer, needs at least {@link #HEADER_SIZE} remaining bytes
+   */
+  public static void putHeader(ByteBuffer buffer) {
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis());
+  }
+
+  /**
+   * Puts the record of a log into the given buffer.
+   *
+   * @param buffer
+   *        The buffer, needs at least {@link #recordSize(int)} remaining bytes
+   * @param timestamp
+   *        The time of reception in ns since the epoch
+   * @param ruleId
+   *        The ruleId of the logged rule
+   * @param resultCount
+   *        The number of evaluation results
+   * @param resultBits
+   *        The first 64 evaluation results, one bit per result
+   * @param moreResultBits
+   *        The remaining evaluation results, 64 per element (only read if
+   *        there are more than 64 results)
+   */
+  public static void putRecord(ByteBuffer buffer, long timestamp, int ruleId,
+          int resultCount, long resultBits, long[] moreResultBits) {
+    buffer.putLong(timestamp).putInt(ruleId).putInt(resultCount)
+            .putLong(resultBits);
+    int more = Math.max(0, (resultCount - 1) / Long.SIZE);
+    for (int i = 0; i < more; i++) buffer.putLong(moreResultBits[i]);
+  }
+
+  /**
+   * Encodes a rule table record.
+   *
+   * @param timestamp
+   *        The time of the record in ns since the epoch
+   * @param ruleTable
+   *        Maps the ruleIds to keys identifying the rules
+   * @return A buffer containing the record, ready to be written
+   */
+  public static ByteBuffer encodeRuleTable(long timestamp,
+          Map<Integer, String> ruleTable) {
+    ArrayList<byte[]> keys = new ArrayList<>(ruleTable.size());
+    int size = 8 + 4 + 4;
+    for (String key : ruleTable.values()) {
+      byte[] b = key.getBytes(StandardCharsets.UTF_8);
+      keys.add(b);
+      size += 4 + 4 + b.length;
+    }
+    ByteBuffer record = ByteBuffer.allocate(size);
+    record.putLong(timestamp).putInt(RULE_TABLE).putInt(ruleTable.size());
+    int i = 0;
+    for (Integer id : ruleTable.keySet()) {
+      byte[] b = keys.get(i++);
+      record.putInt(id).putInt(b.length).put(b);
+    }
+    record.flip();
+    return record;
+  }
+
+
+  /* ***************************************************************************
+   * GETTERS
+   * **************************************************************************/
+
+  /** @return The folder containing the journal files */
+  public Path getFolder() { return _folder; }
+
+  /** @return The number of logs written so far */
+  public long getWrittenCount() { return _written; }
+
+  /** @return The number of logs that could not be queued for writing */
+  public long getDroppedCount() { return _queue.getDroppedCount(); }
+
+}
@@ -0,0 +1,275 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.ruleLogging;
+
+import static de.dfki.mlt.rudibugger.ruleLogging.RuleLogJournal.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams the logs of a recorded journal session (one or more files written
+ * by {@link RuleLogJournal}) from disk. Only one record is held in memory at
+ * a time, so sessions of any length can be read.
+ *
+ * <pre>
+ *   try (RuleLogJournalReader r = RuleLogJournalReader.openSession(file)) {
+ *     while (r.next()) { ... r.getRuleId() ... }
+ *   }
+ * </pre>
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogJournalReader implements Closeable {
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The files of the session, in order. */
+  private final List<Path> _files;
+
+  /** The index of the currently read file. */
+  private int _fileIndex = -1;
+
+  /** The currently read file. */
+  private FileChannel _channel;
+
+  /** Contains read, but not yet decoded bytes. */
+  private ByteBuffer _buffer = ByteBuffer.allocateDirect(1 << 20);
+
+  /** The most recently read rule table (empty if there was none yet). */
+  private Map<Integer, String> _ruleTable = Collections.emptyMap();
+
+  /** Is increased whenever a new rule table has been read. */
+  private int _ruleTableVersion;
+
+  /* The current record */
+  private long _timestamp;
+  private int _ruleId;
+  private int _resultCount;
+  private long _resultBits;
+  private long[] _moreResultBits = new long[0];
+
+
+  /* ***************************************************************************
+   * CONSTRUCTORS
+   * **************************************************************************/
+
+  /**
+   * Creates a reader for the given journal files.
+   *
+   * @param files
+   *        The journal files, in the order in which they should be read
+   */
+  public RuleLogJournalReader(List<Path> files) {
+    _files = new ArrayList<>(files);
+    _buffer.limit(0);
+  }
+
+  /**
+   * Creates a reader for the whole session the given journal file belongs
+   * to, i.e. it and all further files of the same session.
+   *
+   * @param file
+   *        A journal file
+   * @return A reader for the session
+   * @throws IOException
+   *        If the journal folder can not be read
+   */
+  public static RuleLogJournalReader openSession(Path file)
+          throws IOException {
+    String name = file.getFileName().toString();
+    int dash = name.lastIndexOf('-');
+    if (dash < 0 || ! name.endsWith(FILE_EXTENSION))
+      return new RuleLogJournalReader(Collections.singletonList(file));
+    String session = name.substring(0, dash + 1);
+    Path folder = file.toAbsolutePath().getParent();
+    try (Stream<Path> s = Files.list(folder)) {
+      List<Path> files = s.filter(p -> {
+        String n = p.getFileName().toString();
+        return n.startsWith(session) && n.endsWith(FILE_EXTENSION)
+                && n.compareTo(name) >= 0;
+      }).sorted().collect(Collectors.toList());
+      return new RuleLogJournalReader(files);
+    }
+  }
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /**
+   * Advances to the next log. Rule table records are read on the way.
+   *
+   * @return True, if there is another log, false if the session has ended
+   * @throws IOException
+   *        If a journal file can not be read or is corrupt
+   */
+  public boolean next() throws IOException {
+    while (true) {
+      if (! fill(8 + 4)) {
+        if (! nextFile()) return false;
+        continue;
+      }
+      _timestamp = _buffer.getLong();
+      int id = _buffer.getInt();
+      if (id == RULE_TABLE) {
+        readRuleTable();
+        continue;
+      }
+      require(4 + 8);
+      _ruleId = id;
+      _resultCount = _buffer.getInt();
+      _resultBits = _buffer.getLong();
+      int more = Math.max(0, (_resultCount - 1) / Long.SIZE);
+      if (more > 0) {
+        require(8 * more);
+        if (_moreResultBits.length < more) _moreResultBits = new long[more];
+        for (int i = 0; i < more; i++) _moreResultBits[i] = _buffer.getLong();
+      }
+      return true;
+    }
+  }
+
+  /** Reads a rule table record (after its timestamp and marker). */
+  private void readRuleTable() throws IOException {
+    require(4);
+    int n = _buffer.getInt();
+    HashMap<Integer, String> table = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      require(4 + 4);
+      int id = _buffer.getInt();
+      int len = _buffer.getInt();
+      require(len);
+      byte[] b = new byte[len];
+      _buffer.get(b);
+      table.put(id, new String(b, StandardCharsets.UTF_8));
+    }
+    _ruleTable = table;
+    _ruleTableVersion++;
+  }
+
+  /** Like {@link #fill(int)}, but a truncated record is an error. */
+  private void require(int bytes) throws IOException {
+    if (! fill(bytes))
+      throw new IOException("Truncated record in " + _files.get(_fileIndex));
+  }
+
+  /**
+   * Makes sure that the buffer contains at least the given number of bytes.
+   *
+   * @return False, if the end of the current file has been reached first
+   */
+  private boolean fill(int bytes) throws IOException {
+    if (_channel == null) return false;
+    if (_buffer.remaining() >= bytes) return true;
+    if (_buffer.capacity() < bytes) {
+      ByteBuffer larger = ByteBuffer.allocateDirect(bytes);
+      larger.put(_buffer);
+      larger.flip();
+      _buffer = larger;
+    }
+    _buffer.compact();
+    try {
+      while (_buffer.position() < bytes) {
+        if (_channel.read(_buffer) < 0) break;
+      }
+    } finally {
+      _buffer.flip();
+    }
+    return _buffer.remaining() >= bytes;
+  }
+
+  /**
+   * Opens the next file of the session and checks its header.
+   *
+   * @return False, if there is no further file
+   */
+  private boolean nextFile() throws IOException {
+    if (_channel != null) _channel.close();
+    _channel = null;
+    if (++_fileIndex >= _files.size()) return false;
+    Path file = _files.get(_fileIndex);
+    _channel = FileChannel.open(file, StandardOpenOption.READ);
+    _buffer.clear().limit(0);
+    if (! fill(HEADER_SIZE) || _buffer.getInt() != MAGIC)
+      throw new IOException(file + " is not a rule log journal.");
+    int version = _buffer.getInt();
+    if (version != VERSION)
+      throw new IOException(file + " has unsupported version " + version);
+    _buffer.getLong();
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (_channel != null) _channel.close();
+    _channel = null;
+    _fileIndex = _files.size();
+  }
+
+
+  /* ***************************************************************************
+   * GETTERS (CURRENT RECORD)
+   * **************************************************************************/
+
+  /** @return The time of reception in ns since the epoch */
+  public long getTimestampNanos() { return _timestamp; }
+
+  /** @return The ruleId as recorded */
+  public int getRuleId() { return _ruleId; }
+
+  /** @return The number of evaluation results */
+  public int getResultCount() { return _resultCount; }
+
+  /** @return The first 64 evaluation results, one bit per result */
+  public long getResultBits() { return _resultBits; }
+
+  /**
+   * @return The remaining evaluation results (reused for every record, only
+   *         valid if there are more than 64 results)
+   */
+  public long[] getMoreResultBits() { return _moreResultBits; }
+
+  /** @return The rule table valid for the current log (may be empty) */
+  public Map<Integer, String> getRuleTable() { return _ruleTable; }
+
+  /** @return A number that changes whenever a new rule table has been read */
+  public int getRuleTableVersion() { return _ruleTableVersion; }
+
+  /** @return The files of the session */
+  public List<Path> getFiles() { return Collections.unmodifiableList(_files); }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.ruleLogging;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogIngestQueue;
+import de.dfki.mlt.rudibugger.rpc.RuleLogSink;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays a recorded journal session into a log queue, as if the logs were
+ * received from VOnDA. The original timing can be kept, sped up or ignored.
+ *
+ * The recorded ruleIds are remapped to the ruleIds of the current rule model
+ * using the rule tables stored in the journal. Logs of rules that do not exist
+ * anymore are skipped and their ids reported.
+ *
+ * The replay runs on its own thread and streams the session from disk. If the
+ * target queue is full, the replay waits instead of dropping logs, only logs
+ * that have been queued are counted as replayed.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogReplay {
+
+  /** The logger. */
+  static Logger log = LoggerFactory.getLogger("ruleLogReplay");
+
+  /** Replays the session as fast as possible. */
+  public static final double AS_FAST_AS_POSSIBLE = 0;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Reads the recorded session. */
+  private final RuleLogJournalReader _reader;
+
+  /** Maps rule keys to the ruleIds of the current rule model. */
+  private final Map<String, Integer> _currentIds = new HashMap<>();
+
+  /** The ruleIds existing in the current rule model. */
+  private final Set<Integer> _currentIdSet;
+
+  /** Receives the replayed logs. */
+  private final LogIngestQueue<LogData> _target;
+
+  /** Is told about every replayed log before it is queued (or null). */
+  private final RuleLogSink _observer;
+
+  /** The replay speed (1 = original speed, 0 = as fast as possible). */
+  private final double _speed;
+
+  /** Maps recorded ruleIds to current ruleIds (for the current rule table). */
+  private final HashMap<Integer, Integer> _remap = new HashMap<>();
+
+  /** The version of the rule table <code>_remap</code> is based on. */
+  private int _remapVersion = -1;
+
+  /** The recorded ruleIds that do not exist anymore. */
+  private final Set<Integer> _unknownRuleIds
+          = Collections.synchronizedSet(new TreeSet<>());
+
+  /** The number of replayed logs. */
+  private volatile long _replayed;
+
+  /** The number of skipped logs (of unknown rules). */
+  private volatile long _skipped;
+
+  /** Runs the replay. */
+  private Thread _thread;
+
+  /** Indicates that the replay should stop. */
+  private volatile boolean _stopped;
+
+  /** Is called when the replay has finished (or null). */
+  private final Consumer<RuleLogReplay> _onFinished;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR
+   * **************************************************************************/
+
+  /**
+   * Creates a new replay.
+   *
+   * @param reader
+   *        Reads the recorded session
+   * @param currentRuleKeys
+   *        Maps the ruleIds of the current rule model to their rule keys
+   * @param target
+   *        Receives the replayed logs
+   * @param observer
+   *        Is told about every replayed log on the replay thread before it is
+   *        queued, e.g. to count it (may be null)
+   * @param speed
+   *        The replay speed (1 = original speed, 2 = twice as fast, ...), or
+   *        {@link #AS_FAST_AS_POSSIBLE}
+   * @param onFinished
+   *        Is called on the replay thread when the replay has finished
+   *        (may be null)
+   */
+  public RuleLogReplay(RuleLogJournalReader reader,
+          Map<Integer, String> currentRuleKeys, LogIngestQueue<LogData> target,
+          RuleLogSink observer, double speed,
+          Consumer<RuleLogReplay> onFinished) {
+    _reader = reader;
+    currentRuleKeys.forEach((id, key) -> _currentIds.put(key, id));
+    _currentIdSet = currentRuleKeys.keySet();
+    _target = target;
+    _observer = observer;
+    _speed = speed;
+    _onFinished = onFinished;
+  }
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /** Starts the replay on a new thread. */
+  public void start() {
+    _thread = new Thread(this::run, "ruleLogReplay");
+    _thread.setDaemon(true);
+    _thread.start();
+  }
+
+  /** Stops the replay. */
+  public void stop() {
+    _stopped = true;
+    if (_thread != null) LockSupport.unpark(_thread);
+  }
+
+  /** Replays the session, runs on the replay thread. */
+  private void run() {
+    long firstTimestamp = 0;
+    boolean first = true;
+    long start = System.nanoTime();
+    try {
+      while (! _stopped && _reader.next()) {
+        if (first) {
+          firstTimestamp = _reader.getTimestampNanos();
+          first = false;
+        }
+        int ruleId = remap(_reader.getRuleId());
+        if (ruleId < 0) {
+          _skipped++;
+          continue;
+        }
+        if (_speed > 0) {
+          long due = start + (long) ((_reader.getTimestampNanos()
+                  - firstTimestamp) / _speed);
+          long wait;
+          while (! _stopped && (wait = due - System.nanoTime()) > 0)
+            LockSupport.parkNanos(wait);
+        }
+        if (_observer != null)
+          _observer.printLog(_reader.getTimestampNanos(), ruleId,
+                  _reader.getResultCount(), _reader.getResultBits(),
+                  _reader.getMoreResultBits());
+        LogData data = new LogData(_reader.getTimestampNanos(), ruleId,
+                _reader.getResultCount(), _reader.getResultBits(),
+                _reader.getMoreResultBits());
+        while (! _stopped) {
+          /* the queue may have been filled by another producer meanwhile */
+          if (_target.size() < _target.getCapacity() && _target.offer(data)) {
+            _replayed++;
+            break;
+          }
+          LockSupport.parkNanos(1_000_000);
+        }
+      }
+    } catch (IOException ex) {
+      log.error("Replay aborted: " + ex.getMessage());
+    } finally {
+      try {
+        _reader.close();
+      } catch (IOException ex) {
+        log.error("Could not close journal: " + ex.getMessage());
+      }
+      if (! _unknownRuleIds.isEmpty())
+        log.warn("Skipped {} logs of rules that do not exist anymore: {}",
+                _skipped, _unknownRuleIds);
+      log.info("Replayed {} logs.", _replayed);
+      if (_onFinished != null) _onFinished.accept(this);
+    }
+  }
+
+  /**
+   * @param recordedId
+   *        A recorded ruleId
+   * @return The corresponding ruleId in the current rule model, or -1 if the
+   *         rule does not exist anymore
+   */
+  private int remap(int recordedId) {
+    if (_remapVersion != _reader.getRuleTableVersion()) {
+      _remap.clear();
+      _remapVersion = _reader.getRuleTableVersion();
+    }
+    Integer id = _remap.get(recordedId);
+    if (id == null) {
+      Map<Integer, String> recorded = _reader.getRuleTable();
+      if (recorded.isEmpty()) {
+        /* journal without rule table: assume the ids did not change */
+        id = _currentIdSet.contains(recordedId) ? recordedId : -1;
+      } else {
+        Integer current = _currentIds.get(recorded.get(recordedId));
+        id = current == null ? -1 : current;
+      }
+      _remap.put(recordedId, id);
+      if (id < 0) _unknownRuleIds.add(recordedId);
+    }
+    return id;
+  }
+
+
+  /* ***************************************************************************
+   * GETTERS
+   * **************************************************************************/
+
+  /** @return True, if the replay is still running */
+  public boolean isRunning() { return _thread != null && _thread.isAlive(); }
+
+  /** @return The number of replayed logs, i.e. queued ones */
+  public long getReplayedCount() { return _replayed; }
+
+  /** @return The number of skipped logs of rules that do not exist anymore */
+  public long getSkippedCount() { return _skipped; }
+
+  /** @return The recorded ruleIds that do not exist anymore */
+  public Set<Integer> getUnknownRuleIds() {
+    synchronized (_unknownRuleIds) {
+      return new TreeSet<>(_unknownRuleIds);
+    }
+  }
+
+}
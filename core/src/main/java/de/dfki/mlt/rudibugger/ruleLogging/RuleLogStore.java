@@ -0,0 +1,257 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.ruleLogging;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A ring buffer with a bounded capacity containing the logged rules.
+ * Appending a log takes constant time. What happens if the store is full is
+ * defined by its {@link EvictionPolicy}.
+ *
+ * Logs are indexed chronologically: index 0 is the oldest log in the store.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogStore {
+
+  /**
+   * The estimated number of bytes a log occupies in the store (the compact
+   * <code>LogData</code> and its slot in the ring buffer).
+   */
+  public static final int BYTES_PER_ENTRY = 56;
+
+  /** Defines what happens when a log is appended to a full store. */
+  public enum EvictionPolicy {
+
+    /** The oldest log is removed. */
+    DROP_OLDEST,
+
+    /**
+     * The older half of the store is thinned out: only every Nth log is kept.
+     * Repeated thinning keeps a sparse, but long history.
+     */
+    KEEP_EVERY_NTH
+
+  }
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Contains the logs. */
+  private LogData[] _buffer;
+
+  /** The index of the oldest log in the buffer. */
+  private int _head;
+
+  /** The number of logs in the store. */
+  private int _size;
+
+  /** The active eviction policy. */
+  private EvictionPolicy _policy;
+
+  /** Only every Nth log is kept when thinning out the store. */
+  private int _downsamplingFactor;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTORS
+   * **************************************************************************/
+
+  /**
+   * Creates a new store.
+   *
+   * @param capacity
+   *        The maximum number of logs in the store
+   * @param policy
+   *        Defines what happens when the store is full
+   * @param downsamplingFactor
+   *        Only every Nth log is kept by {@link EvictionPolicy#KEEP_EVERY_NTH}
+   */
+  public RuleLogStore(int capacity, EvictionPolicy policy,
+          int downsamplingFactor) {
+    checkCapacity(capacity);
+    _buffer = new LogData[capacity];
+    setPolicy(policy, downsamplingFactor);
+  }
+
+  /** Rejects capacities too small to hold a log before evicting one. */
+  private static void checkCapacity(int capacity) {
+    if (capacity < 2)
+      throw new IllegalArgumentException("Capacity must be at least 2.");
+  }
+
+  /**
+   * @param megabytes
+   *        The amount of memory the logs may occupy
+   * @return The capacity of a store fitting into the given amount of memory
+   */
+  public static int capacityForMegabytes(int megabytes) {
+    long capacity = (long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY;
+    return (int) Math.max(2, Math.min(Integer.MAX_VALUE - 8, capacity));
+  }
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /**
+   * @param i
+   *        The chronological index of the wanted log (0 is the oldest)
+   * @return The log with the given index
+   */
+  public LogData get(int i) {
+    if (i < 0 || i >= _size)
+      throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + _size);
+    return _buffer[(_head + i) % _buffer.length];
+  }
+
+  /** @return True, if appending a log requires an eviction first */
+  public boolean isFull() { return _size == _buffer.length; }
+
+  /**
+   * Appends a log. The store must not be full.
+   *
+   * @param data
+   *        The log to append
+   */
+  public void append(LogData data) {
+    if (isFull()) throw new IllegalStateException("The store is full.");
+    _buffer[(_head + _size) % _buffer.length] = data;
+    _size++;
+  }
+
+  /**
+   * Removes the oldest log.
+   *
+   * @return The removed log
+   */
+  public LogData removeOldest() {
+    if (_size == 0) throw new IllegalStateException("The store is empty.");
+    LogData oldest = _buffer[_head];
+    _buffer[_head] = null;
+    _head = (_head + 1) % _buffer.length;
+    _size--;
+    return oldest;
+  }
+
+  /**
+   * @param i
+   *        The chronological index of a log
+   * @return True, if {@link #downsample()} would keep the log: it belongs to
+   * the newer half of the store or its index is a multiple of N
+   */
+  public boolean survivesDownsampling(int i) {
+    return i >= _size / 2 || i % _downsamplingFactor == 0;
+  }
+
+  /**
+   * Thins out the older half of the store, only every Nth log of it is kept.
+   *
+   * @return The removed logs (oldest first)
+   */
+  public List<LogData> downsample() {
+    List<LogData> removed = new ArrayList<>(_size / 2);
+    LogData[] kept = new LogData[_size];
+    int n = 0;
+    for (int i = 0; i < _size; i++) {
+      LogData d = get(i);
+      if (survivesDownsampling(i))
+        kept[n++] = d;
+      else
+        removed.add(d);
+    }
+    Arrays.fill(_buffer, null);
+    System.arraycopy(kept, 0, _buffer, 0, n);
+    _head = 0;
+    _size = n;
+    return removed;
+  }
+
+  /**
+   * Changes the capacity of the store. If the store contains more logs than
+   * the new capacity, the oldest ones are removed.
+   *
+   * @param capacity
+   *        The new maximum number of logs in the store
+   * @return The removed logs (oldest first)
+   */
+  public List<LogData> setCapacity(int capacity) {
+    checkCapacity(capacity);
+    List<LogData> removed = new ArrayList<>(Math.max(0, _size - capacity));
+    while (_size > capacity) removed.add(removeOldest());
+    LogData[] buffer = new LogData[capacity];
+    for (int i = 0; i < _size; i++) buffer[i] = get(i);
+    _buffer = buffer;
+    _head = 0;
+    return removed;
+  }
+
+  /**
+   * Changes what happens when the store is full. The logs in the store are
+   * not touched.
+   *
+   * @param policy
+   *        Defines what happens when the store is full
+   * @param downsamplingFactor
+   *        Only every Nth log is kept by {@link EvictionPolicy#KEEP_EVERY_NTH}
+   */
+  public final void setPolicy(EvictionPolicy policy, int downsamplingFactor) {
+    if (downsamplingFactor < 2 && policy == EvictionPolicy.KEEP_EVERY_NTH)
+      throw new IllegalArgumentException(
+              "Downsampling factor must be at least 2.");
+    _policy = policy;
+    _downsamplingFactor = downsamplingFactor;
+  }
+
+  /** Removes all logs. */
+  public void clear() {
+    Arrays.fill(_buffer, null);
+    _head = 0;
+    _size = 0;
+  }
+
+
+  /* ***************************************************************************
+   * GETTERS
+   * **************************************************************************/
+
+  /** @return The number of logs in the store */
+  public int size() { return _size; }
+
+  /** @return The maximum number of logs in the store */
+  public int getCapacity() { return _buffer.length; }
+
+  /** @return The estimated memory occupied by the logs in bytes */
+  public long getEstimatedBytes() { return (long) _size * BYTES_PER_ENTRY; }
+
+  /** @return The active eviction policy */
+  public EvictionPolicy getPolicy() { return _policy; }
+
+  /** @return Only every Nth log is kept when thinning out the store */
+  public int getDownsamplingFactor() { return _downsamplingFactor; }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project.ruleModel;
+
+import static de.dfki.mlt.rudibugger.project.ruleModel.RuleCoverage.*;
+import static org.junit.Assert.*;
+
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleCoverage.Summary;
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudimant.common.IncludeInfo;
+import de.dfki.mlt.rudimant.common.RuleInfo;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import org.junit.Test;
+
+/**
+ * Tests how <code>RuleCoverage</code> accumulates the outcomes of rules and
+ * base terms, how it summarizes them and the CSV report.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleCoverageTest {
+
+  private static class TestImport extends IncludeInfo {
+
+    TestImport(String label, IncludeInfo parent) {
+      _label = label;
+      _parent = parent;
+      if (parent != null) parent.getChildren().add(this);
+    }
+
+    @Override
+    public String getFilePath() { return _label + ".rudi"; }
+  }
+
+  private static class TestRule extends RuleInfo {
+
+    TestRule(int id, int terms, IncludeInfo parent) {
+      _id = id;
+      _label = "rule" + id;
+      _line = id + 1;
+      _parent = parent;
+      _baseTerms = new String[terms];
+      for (int t = 0; t < terms; t++) _baseTerms[t] = "t" + t;
+      parent.getChildren().add(this);
+    }
+  }
+
+  /*
+   * Main: rule 0 (2 terms), rule 1 (no terms), import Sub
+   * Sub: rule 2 (70 terms), rule 5 (1 term)
+   */
+  private final RuleModel _rm;
+
+  private final RuleCoverage _coverage;
+
+  public RuleCoverageTest() {
+    IncludeInfo root = new TestImport("Main", null);
+    new TestRule(0, 2, root);
+    new TestRule(1, 0, root);
+    IncludeInfo sub = new TestImport("Sub", root);
+    new TestRule(2, 70, sub);
+    new TestRule(5, 1, sub);
+    _rm = RuleModel.createRuleModel(Paths.get("src"),
+            Paths.get("RuleLoc.yml"), root);
+    _coverage = _rm.getCoverage();
+  }
+
+  /** Records a log whose results are given as string of 0 and 1. */
+  private void record(int ruleId, String results, long shortcutTerms) {
+    boolean[] r = new boolean[results.length()];
+    for (int i = 0; i < r.length; i++) r[i] = results.charAt(i) == '1';
+    _coverage.record(new LogData(ruleId, r), shortcutTerms);
+  }
+
+  @Test
+  public void nothingIsCoveredInitially() {
+    assertFalse(_coverage.hasFired(0));
+    assertEquals(0, _coverage.getTermOutcomes(0, 0));
+    assertFalse(_coverage.isCovered(1));
+    Summary s = _coverage.summarize(_rm.getRootImport(), true);
+    assertEquals(4, s.rules);
+    assertEquals(0, s.firedRules);
+    assertEquals(73, s.terms);
+    assertEquals(0, s.getPercentage(), 0);
+  }
+
+  @Test
+  public void recordsTheOutcomesOfTheBaseTerms() {
+    record(0, "110", 0);
+    assertTrue(_coverage.hasFired(0));
+    assertEquals(TERM_TRUE, _coverage.getTermOutcomes(0, 0));
+    assertEquals(TERM_FALSE, _coverage.getTermOutcomes(0, 1));
+    assertFalse(_coverage.isCovered(0));
+
+    record(0, "001", 0);
+    assertEquals(TERM_TRUE | TERM_FALSE, _coverage.getTermOutcomes(0, 0));
+    assertEquals(TERM_TRUE | TERM_FALSE, _coverage.getTermOutcomes(0, 1));
+    assertTrue(_coverage.isCovered(0));
+  }
+
+  @Test
+  public void shortcutTermsAreNotEvaluated() {
+    record(0, "010", 0b10);
+    assertEquals(TERM_TRUE, _coverage.getTermOutcomes(0, 0));
+    assertEquals(TERM_SHORTCUT, _coverage.getTermOutcomes(0, 1));
+  }
+
+  @Test
+  public void rulesWithoutTermsAreCoveredOnceFired() {
+    assertFalse(_coverage.isCovered(1));
+    record(1, "0", 0);
+    assertTrue(_coverage.isCovered(1));
+    assertEquals(0, _coverage.getTermCount(1));
+  }
+
+  @Test
+  public void termsBeyondTheFirst64ResultsAreRecorded() {
+    StringBuilder results = new StringBuilder("1");
+    for (int t = 0; t < 70; t++) results.append(t % 2);
+    record(2, results.toString(), 0);
+    assertEquals(70, _coverage.getTermCount(2));
+    for (int t = 0; t < 70; t++)
+      assertEquals("term " + t, t % 2 == 0 ? TERM_FALSE : TERM_TRUE,
+              _coverage.getTermOutcomes(2, t));
+  }
+
+  @Test
+  public void missingResultsLeaveTermsUntouched() {
+    record(0, "11", 0);
+    assertEquals(TERM_TRUE, _coverage.getTermOutcomes(0, 0));
+    assertEquals(0, _coverage.getTermOutcomes(0, 1));
+  }
+
+  @Test
+  public void unknownRulesAreIgnored() {
+    record(3, "111", 0);
+    record(-1, "1", 0);
+    record(99, "1", 0);
+    assertFalse(_coverage.hasFired(3));
+    assertEquals(0, _coverage.summarize(_rm.getRootImport(), true)
+            .firedRules);
+  }
+
+  @Test
+  public void summarizesWithAndWithoutImports() {
+    record(0, "110", 0);
+    record(0, "101", 0b01);
+    record(5, "11", 0);
+    record(5, "00", 0);
+    Summary all = _coverage.summarize(_rm.getRootImport(), true);
+    assertEquals(2, all.firedRules);
+    assertEquals(73, all.terms);
+    assertEquals(3, all.termsTrue);
+    assertEquals(2, all.termsFalse);
+    assertEquals(2, all.termsBoth);
+    assertEquals(1, all.termsShortcut);
+    assertEquals(100.0 * 4 / 77, all.getPercentage(), 1e-9);
+
+    Summary main = _coverage.summarize(_rm.getRootImport(), false);
+    assertEquals(2, main.rules);
+    assertEquals(1, main.firedRules);
+    assertEquals(2, main.terms);
+    assertEquals(1, main.termsBoth);
+
+    Summary rule = _coverage.summarize(_rm.getRule(5), false);
+    assertEquals(1, rule.rules);
+    assertEquals(100, rule.getPercentage(), 0);
+  }
+
+  @Test
+  public void resetForgetsAllOutcomes() {
+    record(0, "110", 0);
+    _coverage.reset();
+    assertFalse(_coverage.hasFired(0));
+    assertEquals(0, _coverage.getTermOutcomes(0, 0));
+  }
+
+  @Test(timeout = 10_000)
+  public void concurrentLogsOfNeighbouringBitsAreAllKept()
+          throws Exception {
+    /* the bits of all terms of rule 2 share a few words, every thread makes
+     * ten other terms true and all the rest false */
+    Thread[] threads = new Thread[7];
+    for (int i = 0; i < threads.length; i++) {
+      int first = 10 * i;
+      threads[i] = new Thread(() -> {
+        long bits = 0;
+        long[] more = new long[1];
+        for (int t = first; t < first + 10; t++) {
+          if (t + 1 < Long.SIZE) bits |= 1L << (t + 1);
+          else more[0] |= 1L << (t + 1 - Long.SIZE);
+        }
+        for (int n = 0; n < 1000; n++) _coverage.record(2, 71, bits, more, 0);
+      });
+      threads[i].start();
+    }
+    for (Thread t : threads) t.join();
+    for (int t = 0; t < 70; t++)
+      assertEquals("term " + t, TERM_TRUE | TERM_FALSE,
+              _coverage.getTermOutcomes(2, t));
+    assertTrue(_coverage.isCovered(2));
+  }
+
+  @Test
+  public void csvHasOneLinePerTerm() throws IOException {
+    record(5, "10", 0);
+    StringWriter out = new StringWriter();
+    RuleCoverageReport.writeCsv(_coverage, _rm.getRootImport(), out);
+    String[] lines = out.toString().split("\n");
+    assertEquals(1 + 2 + 1 + 70 + 1, lines.length);
+    assertTrue(lines[0].startsWith("import,rule,id"));
+    assertTrue(out.toString().contains("Sub,rule5,5,6,true,0,t0,false,true,"
+            + "false\n"));
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project.ruleModel;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * Tests the counters and decaying rates of <code>RuleStatistics</code>, also
+ * while logs are recorded on another thread.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleStatisticsTest {
+
+  private final RuleStatistics _stats
+          = new RuleStatistics(Arrays.asList(0, 1, 5));
+
+  @Test
+  public void countsOutcomesPerRule() {
+    _stats.record(1, true, false, 0);
+    _stats.record(1, false, true, 0);
+    _stats.record(5, false, false, 0);
+    assertEquals(3, _stats.getTotal());
+    assertEquals(2, _stats.getFired(1));
+    assertEquals(1, _stats.getTrue(1));
+    assertEquals(1, _stats.getFalse(1));
+    assertEquals(1, _stats.getShortcut(1));
+    assertEquals(1, _stats.getFalse(5));
+    assertEquals(0, _stats.getFired(0));
+  }
+
+  @Test
+  public void ignoresUnknownRules() {
+    _stats.record(-1, true, false, 0);
+    _stats.record(6, true, false, 0);
+    assertEquals(0, _stats.getTotal());
+    assertEquals(0, _stats.getFired(6));
+    assertEquals(0, _stats.getRate(6, 0), 0);
+  }
+
+  @Test
+  public void ratesDecay() {
+    long second = 1_000_000_000L;
+    for (int i = 0; i < 100; i++) _stats.record(0, true, false, i * second);
+    double rate = _stats.getRate(0, 99 * second);
+    /* one log per second, counted right after each log */
+    assertEquals(0.1 / (1 - Math.exp(-0.1)), rate, 1e-3);
+    assertEquals(rate / Math.E, _stats.getRate(0, 109 * second), 1e-9);
+    assertEquals(0, _stats.getRate(1, 99 * second), 0);
+  }
+
+  @Test
+  public void resetSetsEverythingToZero() {
+    _stats.record(0, true, true, 0);
+    _stats.reset();
+    assertEquals(0, _stats.getTotal());
+    assertEquals(0, _stats.getFired(0));
+    assertEquals(0, _stats.getShortcut(0));
+    assertEquals(0, _stats.getRate(0, 0), 0);
+  }
+
+  @Test(timeout = 10_000)
+  public void logsRecordedOnOtherThreadsAreAllCounted() throws Exception {
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 50_000; i++)
+          _stats.record(i % 2, i % 3 == 0, false, System.nanoTime());
+      });
+      threads[t].start();
+    }
+    for (Thread t : threads) t.join();
+    assertEquals(200_000, _stats.getTotal());
+    assertEquals(100_000, _stats.getFired(0));
+    assertEquals(100_000, _stats.getFired(1));
+    assertEquals(200_000, _stats.getTrue(0) + _stats.getTrue(1)
+            + _stats.getFalse(0) + _stats.getFalse(1));
+  }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests the delays, the jitter and the limit of the reconnection attempts.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class BackoffTest {
+
+  /** Always chooses the same jitter. */
+  private static Random fixed(double value) {
+    return new Random() {
+      @Override
+      public double nextDouble() { return value; }
+    };
+  }
+
+  @Test
+  public void delaysDoubleUpToTheMaximum() {
+    Backoff backoff = new Backoff(100, 1000, Backoff.UNLIMITED,
+            fixed(0.999999));
+    long[] expected = { 100, 200, 400, 800, 1000, 1000, 1000 };
+    for (long delay : expected)
+      assertEquals(delay, backoff.nextDelayMillis());
+    assertEquals(expected.length, backoff.getAttempts());
+  }
+
+  @Test
+  public void theSmallestJitterHalvesTheDelay() {
+    Backoff backoff = new Backoff(100, 1000, Backoff.UNLIMITED, fixed(0));
+    long[] expected = { 50, 100, 200, 400, 500, 500 };
+    for (long delay : expected)
+      assertEquals(delay, backoff.nextDelayMillis());
+  }
+
+  @Test
+  public void jitterStaysBetweenHalfAndFullDelay() {
+    Random random = new Random(5);
+    Backoff backoff = new Backoff(250, 10_000, Backoff.UNLIMITED, random);
+    for (int i = 0; i < 1000; i++) {
+      if (i % 10 == 0) backoff.reset();
+      long full = Math.min(10_000, 250L << (i % 10));
+      long delay = backoff.nextDelayMillis();
+      assertTrue(delay + " < " + full / 2, delay >= full - full / 2);
+      assertTrue(delay + " > " + full, delay <= full);
+    }
+  }
+
+  @Test
+  public void jitterSpreadsTheDelays() {
+    Backoff backoff = new Backoff(1000, 1000, Backoff.UNLIMITED,
+            new Random(8));
+    long min = Long.MAX_VALUE, max = 0;
+    for (int i = 0; i < 1000; i++) {
+      long delay = backoff.nextDelayMillis();
+      min = Math.min(min, delay);
+      max = Math.max(max, delay);
+    }
+    assertTrue(min < 550);
+    assertTrue(max > 950);
+  }
+
+  @Test
+  public void limitedAttemptsAreExhausted() {
+    Backoff backoff = new Backoff(10, 100, 3, new Random(1));
+    for (int i = 0; i < 3; i++) assertTrue(backoff.nextDelayMillis() > 0);
+    assertEquals(-1, backoff.nextDelayMillis());
+    assertEquals(-1, backoff.nextDelayMillis());
+    assertEquals(3, backoff.getAttempts());
+  }
+
+  @Test
+  public void resetStartsOverWithTheInitialDelay() {
+    Backoff backoff = new Backoff(100, 1000, 2, fixed(0.999999));
+    backoff.nextDelayMillis();
+    backoff.nextDelayMillis();
+    assertEquals(-1, backoff.nextDelayMillis());
+    backoff.reset();
+    assertEquals(0, backoff.getAttempts());
+    assertEquals(100, backoff.nextDelayMillis());
+  }
+
+  @Test
+  public void manyAttemptsDoNotOverflow() {
+    Backoff backoff = new Backoff(1L << 40, Long.MAX_VALUE,
+            Backoff.UNLIMITED, fixed(0.5));
+    for (int i = 0; i < 100; i++) {
+      long delay = backoff.nextDelayMillis();
+      assertTrue(delay >= 1L << 39);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void theInitialDelayMustBePositive() {
+    new Backoff(0, 100, Backoff.UNLIMITED, new Random());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void theMaximumMustNotBeSmallerThanTheInitialDelay() {
+    new Backoff(100, 99, Backoff.UNLIMITED, new Random());
+  }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import de.dfki.mlt.rudimant.common.SimpleClient;
+import de.dfki.mlt.rudimant.common.SimpleClient.ConnStatus;
+
+/**
+ * Checks that the {@link ConnectionManager} does not leave the threads of
+ * VOnDA's <code>SimpleClient</code> behind, which keep trying to connect
+ * every 100 ms unless they are stopped.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class ConnectionManagerTest {
+
+  /** How long to wait for a thread to end or a status to be reached. */
+  private static final long TIMEOUT_MILLIS = 3000;
+
+  private ServerSocket _server;
+
+  /** The connections accepted by the server. */
+  private final List<Socket> _accepted = new ArrayList<>();
+
+  private ConnectionManager _manager;
+
+  /** The number of SimpleClient threads of other tests. */
+  private int _threadsBefore;
+
+  /**
+   * @return The number of live threads running a <code>SimpleClient</code>,
+   *         trying to connect or reading from the server
+   */
+  static int clientThreads() {
+    int n = 0;
+    for (StackTraceElement[] stack : Thread.getAllStackTraces().values()) {
+      for (StackTraceElement e : stack) {
+        if (e.getClassName().equals(SimpleClient.class.getName())) {
+          n++;
+          break;
+        }
+      }
+    }
+    return n;
+  }
+
+  /** Waits until the condition holds, or the timeout has passed. */
+  static boolean waitFor(BooleanSupplier condition)
+          throws InterruptedException {
+    long deadline = System.nanoTime() + TIMEOUT_MILLIS * 1_000_000;
+    while (! condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) return false;
+      Thread.sleep(10);
+    }
+    return true;
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    _server = new ServerSocket(0);
+    _threadsBefore = clientThreads();
+    _manager = new ConnectionManager("localhost", _server.getLocalPort(),
+            args -> {}, new Backoff(20, 50, Backoff.UNLIMITED, new Random(1)));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    _manager.stop();
+    _server.close();
+    for (Socket s : _accepted) s.close();
+  }
+
+  /** Accepts the probe of the manager and goes down before the client. */
+  private void acceptOnlyTheProbe() throws IOException {
+    _server.accept().close();
+    _server.close();
+  }
+
+  /** Accepts and keeps the connections of the manager. */
+  private void acceptAll() {
+    Thread t = new Thread(() -> {
+      try {
+        while (true) {
+          Socket s = _server.accept();
+          synchronized (_accepted) { _accepted.add(s); }
+        }
+      } catch (IOException ex) {
+        /* closed */
+      }
+    });
+    t.setDaemon(true);
+    t.start();
+  }
+
+  @Test(timeout = 20_000)
+  public void aTimedOutClientIsStopped() throws Exception {
+    _manager.start();
+    acceptOnlyTheProbe();
+    /* the client timed out and the probes fail now */
+    assertTrue(waitFor(() -> _manager.getFailedAttempts() >= 3));
+    assertEquals(ConnStatus.TRYING, _manager.getStatus());
+    assertTrue(waitFor(() -> clientThreads() <= _threadsBefore));
+  }
+
+  @Test(timeout = 20_000)
+  public void stopEndsARetryingClient() throws Exception {
+    _manager.start();
+    acceptOnlyTheProbe();
+    _manager.stop();
+    assertEquals(ConnStatus.OFFLINE, _manager.getStatus());
+    assertTrue(waitFor(() -> clientThreads() <= _threadsBefore));
+  }
+
+  @Test(timeout = 20_000)
+  public void stopEndsAConnectedClient() throws Exception {
+    acceptAll();
+    _manager.start();
+    assertTrue(waitFor(_manager::isConnected));
+    assertEquals(_threadsBefore + 1, clientThreads());
+    _manager.stop();
+    assertTrue(waitFor(() -> clientThreads() <= _threadsBefore));
+  }
+
+  @Test(timeout = 20_000)
+  public void aLostConnectionIsReestablishedWithOneClient() throws Exception {
+    acceptAll();
+    _manager.start();
+    for (int i = 1; i <= 3; i++) {
+      assertTrue(waitFor(_manager::isConnected));
+      assertEquals(i, _manager.getConnectCount());
+      assertTrue(clientThreads() <= _threadsBefore + 1);
+      synchronized (_accepted) {
+        for (Socket s : _accepted) s.close();
+        _accepted.clear();
+      }
+      int connects = i;
+      assertTrue(waitFor(() -> _manager.getConnectCount() > connects
+              || ! _manager.isConnected()));
+    }
+    _manager.stop();
+    assertTrue(waitFor(() -> clientThreads() <= _threadsBefore));
+  }
+
+  @Test(timeout = 20_000)
+  public void aClosedClientEndsItsThread() throws Exception {
+    int port = _server.getLocalPort();
+    _server.close();
+    RudibuggerClient client = new RudibuggerClient("localhost", port,
+            args -> {});
+    assertTrue(waitFor(() -> clientThreads() > _threadsBefore));
+    Thread.sleep(250);
+    /* disconnecting does not stop a client that is trying to connect */
+    client.disconnect();
+    Thread.sleep(250);
+    assertEquals(_threadsBefore + 1, clientThreads());
+    client.close();
+    assertTrue(client.awaitClosed(TIMEOUT_MILLIS));
+    assertEquals(_threadsBefore, clientThreads());
+  }
+
+  @Test(timeout = 20_000)
+  public void aClientClosedAtOnceEndsItsThread() throws Exception {
+    int port = _server.getLocalPort();
+    _server.close();
+    for (int i = 0; i < 20; i++) {
+      RudibuggerClient client = new RudibuggerClient("localhost", port,
+              args -> {});
+      client.close();
+      assertTrue(client.awaitClosed(TIMEOUT_MILLIS));
+    }
+    assertTrue(waitFor(() -> clientThreads() <= _threadsBefore));
+  }
+
+}
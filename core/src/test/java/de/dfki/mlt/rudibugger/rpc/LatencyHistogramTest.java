@@ -0,0 +1,142 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+/**
+ * Tests the buckets, percentiles and concurrent recording of
+ * <code>LatencyHistogram</code>.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LatencyHistogramTest {
+
+  @Test
+  public void isEmptyWithoutRecordings() {
+    LatencyHistogram h = new LatencyHistogram();
+    assertEquals(0, h.getCount());
+    assertEquals(0, h.getMax());
+    assertEquals(0, h.getPercentile(50));
+    assertEquals(0, h.getPercentile(100));
+  }
+
+  @Test
+  public void smallLatenciesAreExact() {
+    LatencyHistogram h = new LatencyHistogram();
+    for (int i = 0; i < 16; i++) h.record(i);
+    assertEquals(16, h.getCount());
+    assertEquals(0, h.getPercentile(0));
+    assertEquals(7, h.getPercentile(50));
+    assertEquals(14, h.getPercentile(93.75));
+    assertEquals(15, h.getPercentile(100));
+  }
+
+  @Test
+  public void negativeLatenciesCountAsZero() {
+    LatencyHistogram h = new LatencyHistogram();
+    h.record(-5);
+    assertEquals(1, h.getCount());
+    assertEquals(0, h.getMax());
+    assertEquals(0, h.getPercentile(100));
+  }
+
+  @Test
+  public void percentilesAreAtMostOneSixteenthTooHigh() {
+    LatencyHistogram h = new LatencyHistogram();
+    Random random = new Random(7);
+    long[] values = new long[100_000];
+    for (int i = 0; i < values.length; i++) {
+      /* spread over many powers of two, from ns to seconds */
+      values[i] = (long) Math.pow(2, 4 + 26 * random.nextDouble());
+      h.record(values[i]);
+    }
+    Arrays.sort(values);
+    for (double p : new double[] { 1, 10, 50, 90, 99, 99.9 }) {
+      long exact = values[(int) Math.ceil(values.length * p / 100) - 1];
+      long reported = h.getPercentile(p);
+      assertTrue(p + ": " + reported + " < " + exact, reported >= exact);
+      assertTrue(p + ": " + reported + " >> " + exact,
+              reported <= exact + exact / 16);
+    }
+  }
+
+  @Test
+  public void percentilesNeverExceedTheMaximum() {
+    LatencyHistogram h = new LatencyHistogram();
+    h.record(1_000_000);
+    h.record(1_000_001);
+    assertEquals(1_000_001, h.getMax());
+    assertEquals(1_000_001, h.getPercentile(100));
+    assertTrue(h.getPercentile(50) >= 1_000_000);
+  }
+
+  @Test
+  public void recordsTheLargestLatency() {
+    LatencyHistogram h = new LatencyHistogram();
+    h.record(Long.MAX_VALUE);
+    h.record(1);
+    assertEquals(Long.MAX_VALUE, h.getMax());
+    assertEquals(Long.MAX_VALUE, h.getPercentile(100));
+    assertEquals(1, h.getPercentile(50));
+  }
+
+  @Test
+  public void resetRemovesAllLatencies() {
+    LatencyHistogram h = new LatencyHistogram();
+    h.record(42);
+    h.record(4242);
+    h.reset();
+    assertEquals(0, h.getCount());
+    assertEquals(0, h.getMax());
+    assertEquals(0, h.getPercentile(99));
+  }
+
+  @Test(timeout = 10_000)
+  public void concurrentRecordingsAreAllCounted() throws Exception {
+    LatencyHistogram h = new LatencyHistogram();
+    int threads = 4;
+    int perThread = 100_000;
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] recorders = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      long offset = t;
+      recorders[t] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException ex) {
+          return;
+        }
+        for (int i = 0; i < perThread; i++) h.record(i * threads + offset);
+      });
+      recorders[t].start();
+    }
+    start.countDown();
+    for (Thread t : recorders) t.join();
+    assertEquals((long) threads * perThread, h.getCount());
+    assertEquals((long) threads * perThread - 1, h.getMax());
+  }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests that the shortcut cache of <code>LogDataRenderer</code> answers known
+ * result patterns and stays bounded.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogDataRendererTest {
+
+  @Test
+  public void shortcutCacheKeepsKnownPatterns() {
+    // without a rule structure every rule is unknown and has no shortcut
+    LogDataRenderer renderer = new LogDataRenderer(null);
+    assertEquals(0, renderer.getShortcutTerms(1, 3, 0b101, null));
+    assertEquals(0, renderer.getShortcutTerms(1, 3, 0b101, null));
+    assertEquals(1, renderer.getShortcutCacheSize());
+    assertEquals(0, renderer.getShortcutTerms(2, 3, 0b101, null));
+    assertEquals(2, renderer.getShortcutCacheSize());
+  }
+
+  @Test
+  public void shortcutCacheStaysBounded() {
+    LogDataRenderer renderer = new LogDataRenderer(null);
+    int patterns = 3 * LogDataRenderer.MAX_SHORTCUT_PATTERNS;
+    for (int p = 0; p < patterns; p++) {
+      assertEquals(0, renderer.getShortcutTerms(p % 7, 10, p, null));
+      assertTrue(renderer.getShortcutCacheSize()
+              <= LogDataRenderer.MAX_SHORTCUT_PATTERNS);
+    }
+    assertEquals(LogDataRenderer.MAX_SHORTCUT_PATTERNS,
+            renderer.getShortcutCacheSize());
+    // a pattern learned after the last clearing is still known
+    renderer.getShortcutTerms((patterns - 1) % 7, 10, patterns - 1, null);
+    assertEquals(LogDataRenderer.MAX_SHORTCUT_PATTERNS,
+            renderer.getShortcutCacheSize());
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests the packing of evaluation results into <code>LogData</code> and its
+ * memory footprint.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogDataTest {
+
+  /** The number of logs allocated to measure the footprint of one. */
+  private static final int LOGS = 500_000;
+
+  /**
+   * The most a log of a rule with at most 64 results may occupy: a 12 byte
+   * header and 40 bytes of fields with compressed oops, padded to 56. The
+   * bound leaves room for uncompressed headers and measuring noise.
+   */
+  private static final long MAX_BYTES_PER_LOG = 72;
+
+  private static boolean[] results(int count, int seed) {
+    boolean[] results = new boolean[count];
+    for (int i = 0; i < count; i++) results[i] = ((i * 7 + seed) % 3) == 0;
+    return results;
+  }
+
+  @Test
+  public void packsUpTo64Results() {
+    boolean[] results = results(64, 1);
+    LogData data = new LogData(5, results);
+    assertEquals(5, data.getRuleId());
+    assertEquals(64, data.getResultCount());
+    assertNull(data.getMoreResultBits());
+    for (int i = 0; i < results.length; i++)
+      assertEquals("result " + i, results[i], data.getResult(i));
+  }
+
+  @Test
+  public void packsMoreThan64Results() {
+    boolean[] results = results(150, 2);
+    LogData data = new LogData(7, results);
+    assertEquals(150, data.getResultCount());
+    assertEquals(2, data.getMoreResultBits().length);
+    boolean[] unpacked = data.getResults();
+    assertEquals(results.length, unpacked.length);
+    for (int i = 0; i < results.length; i++)
+      assertEquals("result " + i, results[i], unpacked[i]);
+  }
+
+  @Test
+  public void sequenceIncreasesWithEveryLog() {
+    LogData first = new LogData(1, new boolean[] { true });
+    LogData second = new LogData(1, new boolean[] { true });
+    assertTrue(second.getSequence() > first.getSequence());
+    assertTrue(LogData.BY_SEQUENCE.compare(first, second) < 0);
+  }
+
+  @Test
+  public void retainsFewBytesPerLog() {
+    long bits = 0b1011;
+    LogData[] logs = new LogData[LOGS];
+    long before = usedMemory();
+    for (int i = 0; i < LOGS; i++)
+      logs[i] = new LogData(TimestampService.now(), i % 100, 4, bits, null);
+    long after = usedMemory();
+    long perLog = (after - before) / LOGS;
+    assertTrue("a log occupies " + perLog + " bytes",
+            perLog <= MAX_BYTES_PER_LOG);
+    assertEquals(LOGS - 1, logs[LOGS - 1].getSequence()
+            - logs[0].getSequence());
+  }
+
+  /** @return The heap in use after (hopefully) collecting all garbage */
+  private static long usedMemory() {
+    Runtime rt = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+    }
+    return used;
+  }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+/**
+ * Tests the capacity, dropping and draining of <code>LogIngestQueue</code>.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogIngestQueueTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsNonPositiveCapacity() {
+    new LogIngestQueue<Integer>(0);
+  }
+
+  @Test
+  public void dropsAndCountsOffersAtCapacity() {
+    LogIngestQueue<Integer> queue = new LogIngestQueue<>(3);
+    assertTrue(queue.offer(1));
+    assertTrue(queue.offer(2));
+    assertTrue(queue.offer(3));
+    assertFalse(queue.offer(4));
+    assertFalse(queue.offer(5));
+    assertEquals(3, queue.size());
+    assertEquals(2, queue.getDroppedCount());
+
+    List<Integer> drained = new ArrayList<>();
+    queue.drainTo(drained, 1);
+    assertTrue(queue.offer(6));
+    assertFalse(queue.offer(7));
+    assertEquals(3, queue.getDroppedCount());
+  }
+
+  @Test
+  public void drainsInOfferOrderUpToMax() {
+    LogIngestQueue<Integer> queue = new LogIngestQueue<>(10);
+    for (int i = 0; i < 5; i++) queue.offer(i);
+
+    List<Integer> drained = new ArrayList<>();
+    assertEquals(3, queue.drainTo(drained, 3));
+    assertEquals(Arrays.asList(0, 1, 2), drained);
+    assertEquals(2, queue.size());
+
+    assertEquals(2, queue.drainTo(drained, 100));
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), drained);
+    assertEquals(0, queue.size());
+    assertEquals(0, queue.drainTo(drained, 100));
+  }
+
+  @Test
+  public void clearFreesTheCapacity() {
+    LogIngestQueue<Integer> queue = new LogIngestQueue<>(2);
+    queue.offer(1);
+    queue.offer(2);
+    queue.clear();
+    assertEquals(0, queue.size());
+    assertTrue(queue.offer(3));
+    assertTrue(queue.offer(4));
+    assertEquals(0, queue.getDroppedCount());
+  }
+
+  @Test
+  public void recordsLastAndMaximumDrainTime() {
+    LogIngestQueue<Integer> queue = new LogIngestQueue<>(1);
+    queue.recordDrain(500);
+    queue.recordDrain(200);
+    assertEquals(200, queue.getLastDrainNanos());
+    assertEquals(500, queue.getMaxDrainNanos());
+  }
+
+  @Test(timeout = 10000)
+  public void neverExceedsCapacityWithConcurrentProducers()
+          throws InterruptedException {
+    final int capacity = 1000;
+    final int producers = 4;
+    final int perProducer = 10000;
+    LogIngestQueue<Integer> queue = new LogIngestQueue<>(capacity);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      Thread t = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException ex) {
+          return;
+        }
+        for (int i = 0; i < perProducer; i++) queue.offer(i);
+      });
+      t.start();
+      threads.add(t);
+    }
+    start.countDown();
+    for (Thread t : threads) t.join();
+
+    List<Integer> drained = new ArrayList<>();
+    queue.drainTo(drained, Integer.MAX_VALUE);
+    assertEquals(capacity, drained.size());
+    assertEquals((long) producers * perProducer - capacity,
+            queue.getDroppedCount());
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import de.dfki.mlt.rudibugger.project.ruleModel.LogPolicy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Tests the rate window, the sampling and the transitions-only filter of
+ * <code>LogLimiter</code>, and its suppressed counters.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogLimiterTest {
+
+  private static final long MS = 1_000_000L;
+
+  private final LogLimiter _limiter = new LogLimiter();
+
+  private void limit(int ruleId, int maxPerSecond, int sampleEvery,
+          boolean transitionsOnly) {
+    Map<Integer, LogPolicy> policies = new HashMap<>();
+    policies.put(ruleId, new LogPolicy(maxPerSecond, sampleEvery,
+            transitionsOnly));
+    _limiter.setPolicies(policies);
+  }
+
+  /** @return The number of admitted logs of a rule, results all true */
+  private int admit(long fromNanos, long stepNanos, int count, int ruleId) {
+    int admitted = 0;
+    for (int i = 0; i < count; i++)
+      if (_limiter.admit(fromNanos + i * stepNanos, ruleId, 1, 1L))
+        admitted++;
+    return admitted;
+  }
+
+  @Test
+  public void admitsEverythingWithoutPolicies() {
+    assertEquals(100, admit(0, 0, 100, 3));
+    assertEquals(0, _limiter.getTotalSuppressed());
+  }
+
+  @Test
+  public void admitsRulesWithoutPolicy() {
+    limit(1, 1, 0, false);
+    assertEquals(10, admit(0, 0, 10, 0));
+    assertEquals(10, admit(0, 0, 10, 7));
+    assertEquals(10, admit(0, 0, 10, -1));
+  }
+
+  @Test
+  public void rateWindowLastsOneSecond() {
+    limit(1, 3, 0, false);
+    /* ten logs within 100 ms: three are admitted */
+    assertEquals(3, admit(0, 10 * MS, 10, 1));
+    assertEquals(7, _limiter.getSuppressed(1));
+    /* still the same window */
+    assertFalse(_limiter.admit(999 * MS, 1, 1, 1L));
+    /* a new window starts one second after the first admitted log */
+    assertEquals(3, admit(1000 * MS, MS, 5, 1));
+    assertEquals(10, _limiter.getSuppressed(1));
+  }
+
+  @Test
+  public void rateLimitAdmitsTheLimitPerSecondAtSteadyLoad() {
+    limit(1, 5, 0, false);
+    /* 100 logs per second for ten seconds */
+    assertEquals(50, admit(0, 10 * MS, 1000, 1));
+  }
+
+  @Test
+  public void samplingKeepsEveryKthLog() {
+    limit(2, 0, 4, false);
+    boolean[] expected = { true, false, false, false, true, false, false,
+      false, true };
+    for (int i = 0; i < expected.length; i++)
+      assertEquals("log " + i, expected[i], _limiter.admit(i, 2, 1, 1L));
+    assertEquals(6, _limiter.getSuppressed(2));
+  }
+
+  @Test
+  public void samplingEveryFirstKeepsAllLogs() {
+    limit(2, 0, 1, false);
+    assertEquals(20, admit(0, 0, 20, 2));
+  }
+
+  @Test
+  public void transitionsOnlyKeepsChangedResults() {
+    limit(3, 0, 0, true);
+    assertTrue(_limiter.admit(0, 3, 2, 0b01));
+    assertFalse(_limiter.admit(1, 3, 2, 0b01));
+    assertTrue(_limiter.admit(2, 3, 2, 0b11));
+    assertFalse(_limiter.admit(3, 3, 2, 0b11));
+    assertTrue(_limiter.admit(4, 3, 2, 0b01));
+    /* a different number of results is a change as well */
+    assertTrue(_limiter.admit(5, 3, 3, 0b01));
+    assertEquals(2, _limiter.getSuppressed(3));
+  }
+
+  @Test
+  public void policiesAreCombined() {
+    limit(4, 2, 2, true);
+    /* transitions only: alternating results are all changes */
+    int admitted = 0;
+    for (int i = 0; i < 10; i++)
+      if (_limiter.admit(i * MS, 4, 1, i & 1)) admitted++;
+    /* every second change is sampled, at most two per second */
+    assertEquals(2, admitted);
+    assertEquals(8, _limiter.getSuppressed(4));
+  }
+
+  @Test
+  public void newPoliciesResetTheStateButKeepTheCounters() {
+    limit(1, 1, 0, false);
+    assertEquals(1, admit(0, 0, 3, 1));
+    limit(1, 1, 0, false);
+    assertTrue(_limiter.admit(1, 1, 1, 1L));
+    assertEquals(2, _limiter.getSuppressed(1));
+
+    _limiter.setPolicies(Collections.emptyMap());
+    assertEquals(5, admit(2, 0, 5, 1));
+    assertEquals(2, _limiter.getSuppressed(1));
+    assertEquals(2, _limiter.getTotalSuppressed());
+  }
+
+  @Test
+  public void resetSuppressedSetsTheCountersToZero() {
+    limit(1, 0, 2, false);
+    admit(0, 0, 10, 1);
+    assertEquals(5, _limiter.getTotalSuppressed());
+    _limiter.resetSuppressed();
+    assertEquals(0, _limiter.getSuppressed(1));
+    assertEquals(0, _limiter.getTotalSuppressed());
+    assertEquals(0, _limiter.getSuppressed(99));
+  }
+
+}
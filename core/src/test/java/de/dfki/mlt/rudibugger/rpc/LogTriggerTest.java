@@ -0,0 +1,123 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import java.util.BitSet;
+import org.junit.Test;
+
+/**
+ * Tests the rule and result triggers of <code>LogTrigger</code> and their
+ * combination.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogTriggerTest {
+
+  /** Packs results given as string of 0 and 1. */
+  private static long bits(String results) {
+    long bits = 0;
+    for (int i = 0; i < results.length(); i++)
+      if (results.charAt(i) == '1') bits |= 1L << i;
+    return bits;
+  }
+
+  private static boolean matches(LogTrigger trigger, int ruleId,
+          String results) {
+    return trigger.matches(ruleId, results.length(), bits(results), null);
+  }
+
+  @Test
+  public void anyMatchesEveryLog() {
+    assertTrue(matches(LogTrigger.ANY, 0, ""));
+    assertTrue(matches(LogTrigger.ANY, 7, "0101"));
+  }
+
+  @Test
+  public void forRulesMatchesTheGivenRules() {
+    BitSet ids = new BitSet();
+    ids.set(3);
+    ids.set(200);
+    LogTrigger trigger = LogTrigger.forRules(ids);
+    assertTrue(matches(trigger, 3, "1"));
+    assertTrue(matches(trigger, 200, "0"));
+    assertFalse(matches(trigger, 4, "1"));
+    assertFalse(matches(trigger, -1, "1"));
+  }
+
+  @Test
+  public void forResultsComparesTheGivenResults() {
+    LogTrigger trigger = LogTrigger.forResults("0?1");
+    assertTrue(matches(trigger, 1, "001"));
+    assertTrue(matches(trigger, 1, "011"));
+    assertTrue(matches(trigger, 1, "0111"));
+    assertFalse(matches(trigger, 1, "101"));
+    assertFalse(matches(trigger, 1, "010"));
+  }
+
+  @Test
+  public void forResultsNeedsAllPatternResults() {
+    LogTrigger trigger = LogTrigger.forResults("1??");
+    assertFalse(matches(trigger, 1, "1"));
+    assertFalse(matches(trigger, 1, "11"));
+    assertTrue(matches(trigger, 1, "100"));
+  }
+
+  @Test
+  public void emptyResultPatternMatchesEveryLog() {
+    assertTrue(matches(LogTrigger.forResults(""), 1, ""));
+    assertTrue(matches(LogTrigger.forResults(""), 1, "0"));
+  }
+
+  @Test
+  public void forResultsAcceptsSixtyFourResults() {
+    StringBuilder pattern = new StringBuilder();
+    for (int i = 0; i < 63; i++) pattern.append('?');
+    pattern.append('1');
+    LogTrigger trigger = LogTrigger.forResults(pattern.toString());
+    assertTrue(trigger.matches(1, 64, 1L << 63, null));
+    assertFalse(trigger.matches(1, 64, ~(1L << 63), null));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsTooLongPatterns() {
+    StringBuilder pattern = new StringBuilder();
+    for (int i = 0; i < 65; i++) pattern.append('?');
+    LogTrigger.forResults(pattern.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsIllegalCharacters() {
+    LogTrigger.forResults("01x");
+  }
+
+  @Test
+  public void andNeedsBothTriggers() {
+    BitSet ids = new BitSet();
+    ids.set(2);
+    LogTrigger trigger = LogTrigger.forRules(ids)
+            .and(LogTrigger.forResults("1"));
+    assertTrue(matches(trigger, 2, "1"));
+    assertFalse(matches(trigger, 2, "0"));
+    assertFalse(matches(trigger, 3, "1"));
+  }
+
+}
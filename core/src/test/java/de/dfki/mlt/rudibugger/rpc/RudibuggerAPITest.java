@@ -0,0 +1,141 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import org.junit.Test;
+
+/**
+ * Tests the decoding of VOnDA's <code>printLog</code> commands, and that it
+ * does not allocate.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RudibuggerAPITest {
+
+  /** The number of decodes whose allocations are measured. */
+  private static final int DECODES = 100_000;
+
+  /** Remembers the last decoded log. */
+  private static class LastLog implements RuleLogSink {
+    int calls, ruleId, resultCount;
+    long resultBits;
+    long[] moreResultBits;
+
+    @Override
+    public void printLog(long receivedNanos, int ruleId, int resultCount,
+            long resultBits, long[] moreResultBits) {
+      calls++;
+      this.ruleId = ruleId;
+      this.resultCount = resultCount;
+      this.resultBits = resultBits;
+      this.moreResultBits = moreResultBits;
+    }
+  }
+
+  private static String[] printLog(int ruleId, int resultCount) {
+    String[] command = new String[resultCount + 2];
+    command[0] = "printLog";
+    command[1] = Integer.toString(ruleId);
+    for (int i = 0; i < resultCount; i++)
+      command[i + 2] = Boolean.toString(i % 3 != 0);
+    return command;
+  }
+
+  private static boolean expected(int i) { return i % 3 != 0; }
+
+  @Test
+  public void decodesUpTo64Results() {
+    LastLog sink = new LastLog();
+    new RudibuggerAPI(sink).parseCommand(printLog(42, 64));
+    assertEquals(1, sink.calls);
+    assertEquals(42, sink.ruleId);
+    assertEquals(64, sink.resultCount);
+    for (int i = 0; i < 64; i++)
+      assertEquals(expected(i), (sink.resultBits & (1L << i)) != 0);
+  }
+
+  @Test
+  public void decodesMoreThan64Results() {
+    LastLog sink = new LastLog();
+    RudibuggerAPI api = new RudibuggerAPI(sink);
+    api.parseCommand(printLog(7, 200));
+    assertEquals(200, sink.resultCount);
+    LogData data = new LogData(0, sink.ruleId, sink.resultCount,
+            sink.resultBits, sink.moreResultBits);
+    for (int i = 0; i < 200; i++)
+      assertEquals("result " + i, expected(i), data.getResult(i));
+
+    /* the reused buffer must not keep bits of the previous command */
+    String[] allFalse = printLog(7, 130);
+    for (int i = 2; i < allFalse.length; i++) allFalse[i] = "false";
+    api.parseCommand(allFalse);
+    assertEquals(0, sink.resultBits);
+    assertEquals(0, sink.moreResultBits[0]);
+    assertEquals(0, sink.moreResultBits[1]);
+  }
+
+  @Test
+  public void ignoresIllegalCommands() {
+    LastLog sink = new LastLog();
+    RudibuggerAPI api = new RudibuggerAPI(sink);
+    api.parseCommand(new String[] { "printLog", "notANumber", "true" });
+    api.parseCommand(new String[] { "printLog" });
+    api.parseCommand(new String[] { "unknown", "1" });
+    assertEquals(0, sink.calls);
+  }
+
+  @Test
+  public void decodingDoesNotAllocate() {
+    assertNoAllocations(printLog(42, 16));
+  }
+
+  @Test
+  public void decodingLargeRulesDoesNotAllocate() {
+    assertNoAllocations(printLog(42, 150));
+  }
+
+  /**
+   * Decodes a command many times and checks that the decoder allocated
+   * nothing (only the buffer for large rules, once).
+   */
+  private static void assertNoAllocations(String[] command) {
+    com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean)
+                    ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    LastLog sink = new LastLog();
+    RudibuggerAPI api = new RudibuggerAPI(sink);
+    for (int i = 0; i < DECODES; i++) api.parseCommand(command);
+
+    long overhead = threads.getThreadAllocatedBytes(thread);
+    overhead = threads.getThreadAllocatedBytes(thread) - overhead;
+    long before = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < DECODES; i++) api.parseCommand(command);
+    long allocated = threads.getThreadAllocatedBytes(thread) - before
+            - overhead;
+    assertEquals(2 * DECODES, sink.calls);
+    assertTrue(allocated + " bytes allocated by " + DECODES + " decodes",
+            allocated < 1024);
+  }
+
+}
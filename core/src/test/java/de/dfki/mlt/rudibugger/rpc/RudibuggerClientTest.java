@@ -0,0 +1,100 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static de.dfki.mlt.rudibugger.rpc.RudibuggerClient.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.Test;
+
+/**
+ * Tests the encoding of logging states as <code>setLogStats</code> command.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RudibuggerClientTest {
+
+  private static SortedMap<Integer, Integer> states(int... idsAndStates) {
+    SortedMap<Integer, Integer> states = new TreeMap<>();
+    for (int i = 0; i + 1 < idsAndStates.length; i += 2)
+      states.put(idsAndStates[i], idsAndStates[i + 1]);
+    return states;
+  }
+
+  /** Decodes a command like VOnDA does. */
+  private static SortedMap<Integer, Integer> decode(String[] cmd) {
+    assertEquals(SET_LOG_STATS, cmd[0]);
+    assertEquals(1, cmd.length % 3);
+    SortedMap<Integer, Integer> states = new TreeMap<>();
+    for (int i = 1; i + 2 < cmd.length; i += 3) {
+      int first = Integer.parseInt(cmd[i]);
+      int count = Integer.parseInt(cmd[i + 1]);
+      int state = Integer.parseInt(cmd[i + 2]);
+      assertTrue(count > 0);
+      for (int id = first; id < first + count; id++) states.put(id, state);
+    }
+    return states;
+  }
+
+  @Test
+  public void noStatesGiveAnEmptyCommand() {
+    assertArrayEquals(new String[] { SET_LOG_STATS },
+            encodeLoggingStatuses(states()));
+  }
+
+  @Test
+  public void consecutiveRulesWithTheSameStateFormOneRun() {
+    assertArrayEquals(new String[] { SET_LOG_STATS, "3", "4", "1" },
+            encodeLoggingStatuses(states(3, 1, 4, 1, 5, 1, 6, 1)));
+  }
+
+  @Test
+  public void gapsAndStateChangesStartNewRuns() {
+    assertArrayEquals(new String[] { SET_LOG_STATS,
+      "0", "2", "0", "2", "1", "3", "5", "2", "3" },
+            encodeLoggingStatuses(states(0, 0, 1, 0, 2, 3, 5, 3, 6, 3)));
+  }
+
+  @Test
+  public void largeStatesAreEncodedUnchanged() {
+    assertArrayEquals(new String[] { SET_LOG_STATS, "1000", "2", "1000" },
+            encodeLoggingStatuses(states(1000, 1000, 1001, 1000)));
+  }
+
+  @Test
+  public void randomStatesSurviveTheRoundTrip() {
+    Random random = new Random(3);
+    for (int round = 0; round < 100; round++) {
+      SortedMap<Integer, Integer> states = new TreeMap<>();
+      int id = random.nextInt(10);
+      for (int n = random.nextInt(200); n > 0; n--) {
+        states.put(id, random.nextInt(3) == 0 ? random.nextInt(4) : 1);
+        id += 1 + (random.nextInt(5) == 0 ? random.nextInt(3) : 0);
+      }
+      String[] cmd = encodeLoggingStatuses(states);
+      assertEquals(states, decode(cmd));
+      assertTrue(cmd.length <= 1 + 3 * states.size());
+    }
+  }
+
+}
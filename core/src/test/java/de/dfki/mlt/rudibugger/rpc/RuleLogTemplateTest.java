@@ -0,0 +1,109 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static de.dfki.mlt.rudibugger.rpc.LogData.*;
+import static org.junit.Assert.*;
+
+import de.dfki.mlt.rudibugger.rpc.LogData.StringPart;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer.RenderedLog;
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * Tests that logs with the same result pattern share one rendering, and that
+ * the number of kept patterns is bounded.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogTemplateTest {
+
+  /**
+   * @return A rendering of <code>a &amp;&amp; b</code> as the rule logger
+   *         would produce it, with fresh strings every time
+   */
+  private static RenderedLog rendered(int label, int a, int b) {
+    return new RenderedLog(new StringPart(new String("rule"), label),
+            Arrays.asList(new StringPart(new String("a"), a),
+                    new StringPart(new String(" && "), BLACK),
+                    new StringPart(new String("b"), b)));
+  }
+
+  @Test
+  public void identicalPatternsShareOneRendering() {
+    RuleLogTemplate template = new RuleLogTemplate(rendered(GREEN, GREEN,
+            GREEN));
+    assertNull(template.get(0b111));
+    RenderedLog learned = template.learn(0b111, rendered(GREEN, GREEN,
+            GREEN));
+    assertSame(learned, template.get(0b111));
+    assertSame(learned, template.get(0b111));
+  }
+
+  @Test
+  public void patternsShareTheTemplatesStrings() {
+    RuleLogTemplate template = new RuleLogTemplate(rendered(GREEN, GREEN,
+            GREEN));
+    RenderedLog t = template.learn(0b111, rendered(GREEN, GREEN, GREEN));
+    RenderedLog f = template.learn(0b010, rendered(RED, RED, GRAY));
+    assertNotSame(t, f);
+    assertSame(t.label.content, f.label.content);
+    for (int i = 0; i < t.evaluatedRuleParts.size(); i++)
+      assertSame(t.evaluatedRuleParts.get(i).content,
+              f.evaluatedRuleParts.get(i).content);
+    assertEquals(RED, f.label.evalOutcome);
+    assertEquals(GRAY, f.evaluatedRuleParts.get(2).evalOutcome);
+  }
+
+  @Test
+  public void keepsAllPatternsUpToTheBound() {
+    RuleLogTemplate template = new RuleLogTemplate(rendered(GREEN, GREEN,
+            GREEN));
+    RenderedLog[] learned = new RenderedLog[RuleLogTemplate.MAX_PATTERNS];
+    for (int i = 0; i < learned.length; i++)
+      learned[i] = template.learn(i * 0x10001L, rendered(GREEN, RED, GRAY));
+    assertEquals(RuleLogTemplate.MAX_PATTERNS, template.size());
+    for (int i = 0; i < learned.length; i++)
+      assertSame(learned[i], template.get(i * 0x10001L));
+  }
+
+  @Test
+  public void staysBoundedBeyondTheBound() {
+    RuleLogTemplate template = new RuleLogTemplate(rendered(GREEN, GREEN,
+            GREEN));
+    for (long bits = 0; bits < 100 * RuleLogTemplate.MAX_PATTERNS; bits++) {
+      RenderedLog r = template.learn(bits, rendered(GREEN, RED, GRAY));
+      assertSame(r, template.get(bits));
+      assertTrue(template.size() <= RuleLogTemplate.MAX_PATTERNS);
+    }
+    assertEquals(RuleLogTemplate.MAX_PATTERNS, template.size());
+  }
+
+  @Test
+  public void doesNotLearnRenderingsOfOtherText() {
+    RuleLogTemplate template = new RuleLogTemplate(rendered(GREEN, GREEN,
+            GREEN));
+    RenderedLog other = new RenderedLog(new StringPart("other", GREEN),
+            Arrays.asList(new StringPart("c", GREEN)));
+    assertSame(other, template.learn(0b11, other));
+    assertNull(template.get(0b11));
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.rpc;
+
+import static org.junit.Assert.*;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.Test;
+
+/**
+ * Tests which logging states <code>SentLoggingStates</code> sends again after
+ * a reconnect.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class SentLoggingStatesTest {
+
+  private final SentLoggingStates _sent = new SentLoggingStates();
+
+  private static SortedMap<Integer, Integer> states(int... idsAndStates) {
+    SortedMap<Integer, Integer> states = new TreeMap<>();
+    for (int i = 0; i + 1 < idsAndStates.length; i += 2)
+      states.put(idsAndStates[i], idsAndStates[i + 1]);
+    return states;
+  }
+
+  @Test
+  public void firstSyncSendsAllStates() {
+    SortedMap<Integer, Integer> all = states(1, 0, 2, 1, 3, 2);
+    assertEquals(all, _sent.resync(all, "agent"));
+  }
+
+  @Test
+  public void reconnectToTheSameAgentSendsOnlyChanges() {
+    _sent.resync(states(1, 0, 2, 1, 3, 2), "agent");
+    assertEquals(states(), _sent.resync(states(1, 0, 2, 1, 3, 2), "agent"));
+    assertEquals(states(2, 3),
+            _sent.resync(states(1, 0, 2, 3, 3, 2), "agent"));
+  }
+
+  @Test
+  public void anotherAgentGetsAllStates() {
+    _sent.resync(states(1, 0, 2, 1), "agent");
+    SortedMap<Integer, Integer> all = states(1, 0, 2, 1);
+    assertEquals(all, _sent.resync(all, "restarted agent"));
+  }
+
+  @Test
+  public void anUnknownAgentAlwaysGetsAllStates() {
+    SortedMap<Integer, Integer> all = states(1, 0, 2, 1);
+    assertEquals(all, _sent.resync(all, null));
+    assertEquals(all, _sent.resync(all, null));
+  }
+
+  @Test
+  public void updatesBetweenReconnectsAreNotSentAgain() {
+    _sent.resync(states(1, 0, 2, 1), "agent");
+    assertTrue(_sent.update(2, 3));
+    assertFalse(_sent.update(2, 3));
+    assertEquals(states(), _sent.resync(states(1, 0, 2, 3), "agent"));
+  }
+
+  @Test
+  public void removedRulesAreSentWhenTheyReappear() {
+    _sent.resync(states(1, 0, 2, 1), "agent");
+    assertEquals(states(), _sent.resync(states(1, 0), "agent"));
+    assertEquals(states(2, 1), _sent.resync(states(1, 0, 2, 1), "agent"));
+  }
+
+  @Test
+  public void clearSendsAllStatesAgain() {
+    _sent.resync(states(1, 0, 2, 1), "agent");
+    _sent.clear();
+    assertTrue(_sent.update(1, 0));
+    SortedMap<Integer, Integer> all = states(1, 0, 2, 1);
+    assertEquals(all, _sent.resync(all, "agent"));
+  }
+
+}
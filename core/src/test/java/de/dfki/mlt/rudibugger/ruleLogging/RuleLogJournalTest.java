@@ -0,0 +1,217 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.ruleLogging;
+
+import static org.junit.Assert.*;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Writes journal sessions and reads them back.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogJournalTest {
+
+  private Path _folder;
+
+  @Before
+  public void createFolder() throws IOException {
+    _folder = Files.createTempDirectory("rudibugger-journal");
+  }
+
+  @After
+  public void deleteFolder() throws IOException {
+    for (Path p : files()) Files.delete(p);
+    Files.delete(_folder);
+  }
+
+  /** @return The journal files in the folder, in the order they were written */
+  private List<Path> files() throws IOException {
+    try (Stream<Path> s = Files.list(_folder)) {
+      return s.sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static LogData log(int ruleId, int resultCount) {
+    boolean[] results = new boolean[resultCount];
+    for (int i = 0; i < resultCount; i++)
+      results[i] = ((i * 31 + ruleId) % 7) < 3;
+    return new LogData(ruleId, results);
+  }
+
+  private static void assertRecord(LogData expected, RuleLogJournalReader r) {
+    assertEquals(expected.getTimestampNanos(), r.getTimestampNanos());
+    assertEquals(expected.getRuleId(), r.getRuleId());
+    assertEquals(expected.getResultCount(), r.getResultCount());
+    assertEquals(expected.getResultBits(), r.getResultBits());
+    int more = Math.max(0, (expected.getResultCount() - 1) / Long.SIZE);
+    for (int i = 0; i < more; i++)
+      assertEquals(expected.getMoreResultBits()[i],
+              r.getMoreResultBits()[i]);
+  }
+
+  @Test
+  public void roundTripKeepsLogsAndRuleTables() throws Exception {
+    Map<Integer, String> first = new HashMap<>();
+    first.put(1, "Main/greet");
+    first.put(2, "Main/gr\u00fc\u00dfen");
+    Map<Integer, String> second = Collections.singletonMap(1, "Main/bye");
+    List<LogData> before = new ArrayList<>();
+    List<LogData> after = new ArrayList<>();
+
+    RuleLogJournal journal = new RuleLogJournal(_folder, 0);
+    journal.setRuleTable(first);
+    for (int count : new int[] { 1, 3, 64, 65, 130 }) {
+      LogData d = log(count % 2 + 1, count);
+      before.add(d);
+      assertTrue(journal.append(d));
+    }
+    // the logs above are most likely still queued
+    journal.setRuleTable(second);
+    for (int i = 0; i < 100; i++) {
+      LogData d = log(1, 1 + i);
+      after.add(d);
+      assertTrue(journal.append(d));
+    }
+    journal.close();
+    assertFalse(journal.append(log(1, 1)));
+    assertEquals(0, journal.getDroppedCount());
+    assertEquals(1, files().size());
+
+    try (RuleLogJournalReader r =
+            RuleLogJournalReader.openSession(files().get(0))) {
+      for (LogData d : before) {
+        assertTrue(r.next());
+        assertRecord(d, r);
+        assertEquals(first, r.getRuleTable());
+      }
+      int version = r.getRuleTableVersion();
+      for (LogData d : after) {
+        assertTrue(r.next());
+        assertRecord(d, r);
+        assertEquals(second, r.getRuleTable());
+      }
+      assertTrue(r.getRuleTableVersion() > version);
+      assertFalse(r.next());
+    }
+  }
+
+  @Test
+  public void closeWritesAllQueuedLogs() throws Exception {
+    RuleLogJournal journal = new RuleLogJournal(_folder, 0);
+    List<LogData> logs = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      LogData d = log(i % 50, 1 + i % 70);
+      logs.add(d);
+      assertTrue(journal.append(d));
+    }
+    journal.close();
+    assertEquals(logs.size(), journal.getWrittenCount());
+    try (RuleLogJournalReader r =
+            RuleLogJournalReader.openSession(files().get(0))) {
+      for (LogData d : logs) {
+        assertTrue(r.next());
+        assertRecord(d, r);
+      }
+      assertFalse(r.next());
+    }
+  }
+
+  @Test
+  public void rotatesFilesAndReadsTheWholeSession() throws Exception {
+    Map<Integer, String> table = Collections.singletonMap(3, "Main/rule");
+    // the smallest file size is 1 MiB, records of one result take 24 bytes
+    RuleLogJournal journal = new RuleLogJournal(_folder, 1);
+    journal.setRuleTable(table);
+    int logs = 60_000;
+    for (int i = 0; i < logs; i++) assertTrue(journal.append(log(3, 1)));
+    journal.close();
+    List<Path> files = files();
+    assertEquals(2, files.size());
+    assertTrue(Files.size(files.get(0)) <= 1 << 20);
+
+    int total = 0;
+    try (RuleLogJournalReader r =
+            RuleLogJournalReader.openSession(files.get(0))) {
+      assertEquals(files, r.getFiles());
+      long last = 0;
+      while (r.next()) {
+        assertEquals(table, r.getRuleTable());
+        assertTrue(r.getTimestampNanos() >= last);
+        last = r.getTimestampNanos();
+        total++;
+      }
+    }
+    assertEquals(logs, total);
+
+    int fromSecond = 0;
+    try (RuleLogJournalReader r =
+            RuleLogJournalReader.openSession(files.get(1))) {
+      while (r.next()) {
+        assertEquals(table, r.getRuleTable());
+        fromSecond++;
+      }
+    }
+    assertTrue(fromSecond > 0 && fromSecond < logs);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsFilesThatAreNoJournal() throws IOException {
+    Path file = _folder.resolve("notes" + RuleLogJournal.FILE_EXTENSION);
+    Files.write(file, "no journal, but long enough".getBytes());
+    try (RuleLogJournalReader r = RuleLogJournalReader.openSession(file)) {
+      r.next();
+    }
+  }
+
+  @Test
+  public void truncatedRecordsAreAnError() throws Exception {
+    RuleLogJournal journal = new RuleLogJournal(_folder, 0);
+    journal.append(log(1, 100));
+    journal.close();
+    Path file = files().get(0);
+    try (FileChannel c = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      c.truncate(c.size() - 3);
+    }
+    try (RuleLogJournalReader r = RuleLogJournalReader.openSession(file)) {
+      r.next();
+      fail("truncated record has been read");
+    } catch (IOException ex) {
+      assertTrue(ex.getMessage().contains("Truncated"));
+    }
+  }
+
+}
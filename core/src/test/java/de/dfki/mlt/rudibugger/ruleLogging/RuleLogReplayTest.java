@@ -0,0 +1,119 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.ruleLogging;
+
+import static org.junit.Assert.*;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogIngestQueue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Replays recorded journal sessions.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogReplayTest {
+
+  private Path _folder;
+
+  @Before
+  public void createFolder() throws IOException {
+    _folder = Files.createTempDirectory("rudibugger-replay");
+  }
+
+  @After
+  public void deleteFolder() throws IOException {
+    try (Stream<Path> s = Files.list(_folder)) {
+      for (Path p : s.collect(Collectors.toList())) Files.delete(p);
+    }
+    Files.delete(_folder);
+  }
+
+  /** Records a session of the given number of logs of the given rule. */
+  private Path record(Map<Integer, String> table, int ruleId, int logs)
+          throws IOException {
+    RuleLogJournal journal = new RuleLogJournal(_folder, 0);
+    journal.setRuleTable(table);
+    for (int i = 0; i < logs; i++)
+      assertTrue(journal.append(new LogData(ruleId, new boolean[] { true })));
+    journal.close();
+    try (Stream<Path> s = Files.list(_folder)) {
+      return s.findFirst().get();
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void countsOnlyQueuedLogs() throws Exception {
+    Map<Integer, String> table = Collections.singletonMap(1, "Main/rule");
+    Path file = record(table, 1, 500);
+    // rejects every third offer, as if another producer had been faster
+    LogIngestQueue<LogData> queue = new LogIngestQueue<LogData>(1000) {
+      private int _offers;
+
+      @Override
+      public boolean offer(LogData e) {
+        return ++_offers % 3 != 0 && super.offer(e);
+      }
+    };
+    CountDownLatch finished = new CountDownLatch(1);
+    RuleLogReplay replay = new RuleLogReplay(
+            RuleLogJournalReader.openSession(file), table, queue, null,
+            RuleLogReplay.AS_FAST_AS_POSSIBLE, r -> finished.countDown());
+    replay.start();
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+    List<LogData> replayed = new ArrayList<>();
+    queue.drainTo(replayed, Integer.MAX_VALUE);
+    assertEquals(500, replayed.size());
+    assertEquals(replayed.size(), replay.getReplayedCount());
+    assertEquals(0, replay.getSkippedCount());
+  }
+
+  @Test(timeout = 10_000)
+  public void skipsRulesThatDoNotExistAnymore() throws Exception {
+    Path file = record(Collections.singletonMap(7, "Main/gone"), 7, 10);
+    LogIngestQueue<LogData> queue = new LogIngestQueue<>(100);
+    CountDownLatch finished = new CountDownLatch(1);
+    RuleLogReplay replay = new RuleLogReplay(
+            RuleLogJournalReader.openSession(file),
+            Collections.singletonMap(1, "Main/rule"), queue, null,
+            RuleLogReplay.AS_FAST_AS_POSSIBLE, r -> finished.countDown());
+    replay.start();
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertEquals(0, queue.size());
+    assertEquals(0, replay.getReplayedCount());
+    assertEquals(10, replay.getSkippedCount());
+  }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.ruleLogging;
+
+import static org.junit.Assert.*;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore.EvictionPolicy;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests the ring buffer of logged rules and its eviction policies.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogStoreTest {
+
+  /** Creates a log whose rule id identifies it. */
+  private static LogData log(int id) {
+    return new LogData(id, new boolean[] { true });
+  }
+
+  /** Appends logs with the given ids, evicting like the rule logging view. */
+  private static void fill(RuleLogStore store, int from, int to) {
+    for (int id = from; id < to; id++) {
+      if (store.isFull()) {
+        if (store.getPolicy() == EvictionPolicy.DROP_OLDEST)
+          store.removeOldest();
+        else
+          store.downsample();
+      }
+      store.append(log(id));
+    }
+  }
+
+  private static void assertIds(RuleLogStore store, int... ids) {
+    assertEquals(ids.length, store.size());
+    for (int i = 0; i < ids.length; i++)
+      assertEquals("index " + i, ids[i], store.get(i).getRuleId());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsCapacityBelowTwo() {
+    new RuleLogStore(1, EvictionPolicy.DROP_OLDEST, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsDownsamplingFactorBelowTwo() {
+    new RuleLogStore(10, EvictionPolicy.KEEP_EVERY_NTH, 1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void refusesToAppendWhenFull() {
+    RuleLogStore store = new RuleLogStore(2, EvictionPolicy.DROP_OLDEST, 2);
+    store.append(log(0));
+    store.append(log(1));
+    store.append(log(2));
+  }
+
+  @Test
+  public void dropOldestKeepsTheNewestLogsInOrder() {
+    RuleLogStore store = new RuleLogStore(4, EvictionPolicy.DROP_OLDEST, 2);
+    fill(store, 0, 3);
+    assertIds(store, 0, 1, 2);
+    assertFalse(store.isFull());
+    fill(store, 3, 11);
+    assertTrue(store.isFull());
+    assertIds(store, 7, 8, 9, 10);
+    assertEquals(4 * RuleLogStore.BYTES_PER_ENTRY, store.getEstimatedBytes());
+  }
+
+  @Test
+  public void removeOldestReturnsTheOldestLog() {
+    RuleLogStore store = new RuleLogStore(3, EvictionPolicy.DROP_OLDEST, 2);
+    fill(store, 0, 5);
+    assertEquals(2, store.removeOldest().getRuleId());
+    assertIds(store, 3, 4);
+  }
+
+  @Test
+  public void keepEveryNthThinsOutTheOlderHalf() {
+    RuleLogStore store = new RuleLogStore(8, EvictionPolicy.KEEP_EVERY_NTH, 2);
+    fill(store, 0, 8);
+    for (int i = 0; i < 8; i++)
+      assertEquals("index " + i, i >= 4 || i % 2 == 0,
+              store.survivesDownsampling(i));
+    List<LogData> removed = store.downsample();
+    assertEquals(2, removed.size());
+    assertEquals(1, removed.get(0).getRuleId());
+    assertEquals(3, removed.get(1).getRuleId());
+    assertIds(store, 0, 2, 4, 5, 6, 7);
+  }
+
+  @Test
+  public void repeatedThinningKeepsASparseHistory() {
+    RuleLogStore store = new RuleLogStore(8, EvictionPolicy.KEEP_EVERY_NTH, 3);
+    fill(store, 0, 20);
+    assertIds(store, 0, 13, 14, 15, 16, 17, 18, 19);
+  }
+
+  @Test
+  public void shrinkingRemovesTheOldestLogs() {
+    RuleLogStore store = new RuleLogStore(6, EvictionPolicy.DROP_OLDEST, 2);
+    fill(store, 0, 9);
+    List<LogData> removed = store.setCapacity(4);
+    assertEquals(2, removed.size());
+    assertEquals(3, removed.get(0).getRuleId());
+    assertEquals(4, removed.get(1).getRuleId());
+    assertEquals(4, store.getCapacity());
+    assertIds(store, 5, 6, 7, 8);
+    fill(store, 9, 10);
+    assertIds(store, 6, 7, 8, 9);
+  }
+
+  @Test
+  public void growingKeepsAllLogs() {
+    RuleLogStore store = new RuleLogStore(3, EvictionPolicy.DROP_OLDEST, 2);
+    fill(store, 0, 5);
+    assertTrue(store.setCapacity(5).isEmpty());
+    assertIds(store, 2, 3, 4);
+    fill(store, 5, 7);
+    assertIds(store, 2, 3, 4, 5, 6);
+  }
+
+  @Test
+  public void changingThePolicyKeepsTheLogs() {
+    RuleLogStore store = new RuleLogStore(4, EvictionPolicy.DROP_OLDEST, 2);
+    fill(store, 0, 4);
+    store.setPolicy(EvictionPolicy.KEEP_EVERY_NTH, 2);
+    assertEquals(EvictionPolicy.KEEP_EVERY_NTH, store.getPolicy());
+    assertEquals(2, store.getDownsamplingFactor());
+    assertIds(store, 0, 1, 2, 3);
+    fill(store, 4, 5);
+    assertIds(store, 0, 2, 3, 4);
+  }
+
+  @Test
+  public void clearEmptiesTheStore() {
+    RuleLogStore store = new RuleLogStore(4, EvictionPolicy.DROP_OLDEST, 2);
+    fill(store, 0, 6);
+    store.clear();
+    assertEquals(0, store.size());
+    fill(store, 6, 8);
+    assertIds(store, 6, 7);
+  }
+
+  @Test
+  public void capacityForMegabytesUsesTheEntrySize() {
+    assertEquals(1024 * 1024 / RuleLogStore.BYTES_PER_ENTRY,
+            RuleLogStore.capacityForMegabytes(1));
+    assertEquals(Integer.MAX_VALUE - 8,
+            RuleLogStore.capacityForMegabytes(Integer.MAX_VALUE));
+  }
+
+}
@@ -106,6 +106,8 @@ public class DataModel {
     Project newProject = Project.openProject(projectYamlPath);
     if (newProject == null) return; // Project could not be opened
     _loadedProject.set(newProject);
+    if (globalConf.getJournalRuleLogs())
+      newProject.startJournal(globalConf.getJournalMaxFileBytes());
     if (newProject.getRuleModel() != null
         && globalConf.getAutomaticallyConnectToVonda())
       getLoadedProject().vonda.connect(getLoadedProject().getVondaPort(), this);
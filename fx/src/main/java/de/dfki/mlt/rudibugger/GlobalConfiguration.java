@@ -38,6 +38,8 @@ import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.inspector.TagInspector;
 
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore.EvictionPolicy;
 import de.dfki.mlt.rudimant.common.IncludeInfo;
 import de.dfki.mlt.rudimant.common.RuleInfo;
 import javafx.beans.property.BooleanProperty;
@@ -180,6 +182,12 @@ public class GlobalConfiguration {
     }
   }
 
+  /**
+   * @param key  The setting
+   * @return The current value of the given setting
+   */
+  public Object getSetting(String key) { return _globalConfigs.get(key); }
+
   /** Contains the default values for the global configuration file. */
   private static final HashMap<String, Object> DEFAULT_GLOBAL_CONFIGURATION =
           new HashMap<String, Object>() {{
@@ -192,6 +200,12 @@ public class GlobalConfiguration {
       put("automaticallyConnectToVonda", false);
       put("showErrorInfoInRuleTreeViewContextMenu", true);
       put("globalFontSize", 18);
+      put("ruleLogCapacity", 100000);
+      put("ruleLogCapacityUnit", "entries");
+      put("ruleLogEvictionPolicy", "dropOldest");
+      put("ruleLogDownsamplingFactor", 2);
+      put("journalRuleLogs", true);
+      put("journalMaxFileMB", 64);
     }};
 
 
@@ -332,4 +346,73 @@ public class GlobalConfiguration {
     return String.format("-fx-font-size: %d;", getGlobalFontSize());
   }
 
+  /**
+   * @return The maximum number of logged rules kept by the rule logging view,
+   * computed from the configured number of entries or megabytes
+   */
+  public int getRuleLogCapacity() {
+    int capacity = getPositiveInt("ruleLogCapacity", 100000);
+    if ("MB".equals(_globalConfigs.get("ruleLogCapacityUnit")))
+      return RuleLogStore.capacityForMegabytes(capacity);
+    return Math.max(2, capacity);
+  }
+
+  /**
+   * @return Defines what happens to old logged rules when the capacity of the
+   * rule logging view has been reached
+   */
+  public EvictionPolicy getRuleLogEvictionPolicy() {
+    if ("keepEveryNth".equals(_globalConfigs.get("ruleLogEvictionPolicy")))
+      return EvictionPolicy.KEEP_EVERY_NTH;
+    return EvictionPolicy.DROP_OLDEST;
+  }
+
+  /**
+   * @return Only every Nth old logged rule is kept when downsampling
+   */
+  public int getRuleLogDownsamplingFactor() {
+    return Math.max(2, getPositiveInt("ruleLogDownsamplingFactor", 2));
+  }
+
+  /**
+   * Calls the given listener whenever one of the settings of the rule logging
+   * view (capacity, its unit, eviction policy or downsampling factor) has
+   * changed.
+   *
+   * @param listener
+   *        Applies the new settings
+   */
+  public void addRuleLogSettingsListener(Runnable listener) {
+    _globalConfigs.addListener((MapChangeListener<String, Object>) c -> {
+      if (c.getKey().startsWith("ruleLog")) listener.run();
+    });
+  }
+
+  /**
+   * @return True, if received logs should be written to a journal on disk
+   */
+  public boolean getJournalRuleLogs() {
+    return (boolean) _globalConfigs.get("journalRuleLogs");
+  }
+
+  /** @return The size after which a new journal file is started */
+  public long getJournalMaxFileBytes() {
+    return getPositiveInt("journalMaxFileMB", 64) * 1024L * 1024L;
+  }
+
+  /**
+   * Reads a positive integer setting, which may also have been stored as a
+   * string by a text field.
+   */
+  private int getPositiveInt(String key, int defaultValue) {
+    Object spec = _globalConfigs.get(key);
+    try {
+      int value = (spec instanceof Integer)
+              ? (Integer) spec : Integer.parseInt(String.valueOf(spec));
+      return value > 0 ? value : defaultValue;
+    } catch (NumberFormatException ex) {
+      return defaultValue;
+    }
+  }
+
 }
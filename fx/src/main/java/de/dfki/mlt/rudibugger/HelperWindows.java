@@ -24,8 +24,16 @@ import de.dfki.mlt.rudibugger.view.menuBar.AboutController;
 import de.dfki.mlt.rudibugger.view.menuBar.SettingsController;
 import de.dfki.mlt.rudibugger.editor.Editor;
 import de.dfki.mlt.rudibugger.project.Project;
+import de.dfki.mlt.rudibugger.project.ruleModel.LogPolicy;
+import de.dfki.mlt.rudibugger.rpc.IngestLatency;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogJournal;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogReplay;
 import de.dfki.mlt.rudibugger.searchAndFind.SearchController;
 import de.dfki.mlt.rudibugger.tracking.TrackingController;
+import de.dfki.mlt.rudibugger.view.ingestLatency.IngestLatencyController;
+import de.dfki.mlt.rudibugger.view.logCapture.LogCaptureController;
+import de.dfki.mlt.rudibugger.view.ruleCoverage.RuleCoverageController;
+import de.dfki.mlt.rudibugger.view.ruleStatistics.RuleStatisticsController;
 import de.dfki.mlt.rudibugger.view.ruleLoggingTableView.RuleLoggingTableViewController;
 import static de.dfki.mlt.rudimant.common.Constants.*;
 import java.io.File;
@@ -34,13 +42,21 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Optional;
+import javafx.beans.binding.Bindings;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.ButtonBar.ButtonData;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceDialog;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.GridPane;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
@@ -82,6 +98,20 @@ public final class HelperWindows {
     return stage;
   }
 
+  /**
+   * Adds content to a window's AnchorPane, so that it fills the window.
+   *
+   * @param page The AnchorPane of the window
+   * @param content The content of the window
+   */
+  private static void fillPage(AnchorPane page, Node content) {
+    page.getChildren().add(content);
+    AnchorPane.setTopAnchor(content, 0.0);
+    AnchorPane.setRightAnchor(content, 0.0);
+    AnchorPane.setLeftAnchor(content, 0.0);
+    AnchorPane.setBottomAnchor(content, 0.0);
+  }
+
 
   /* ***************************************************************************
    * SETTINGS WINDOW
@@ -149,11 +179,7 @@ public final class HelperWindows {
     AnchorPane page = new AnchorPane();
     page.setStyle(globalConf.getGlobalFontSizeAsStyle());
     TableView table = new TableView();
-    page.getChildren().add(table);
-    AnchorPane.setTopAnchor(table, 0.0);
-    AnchorPane.setRightAnchor(table, 0.0);
-    AnchorPane.setLeftAnchor(table, 0.0);
-    AnchorPane.setBottomAnchor(table, 0.0);
+    fillPage(page, table);
 
     RuleLoggingTableViewController controller
       = new RuleLoggingTableViewController();
@@ -434,6 +460,159 @@ public final class HelperWindows {
     return newRudiFile;
   }
 
+  /* ***************************************************************************
+   * INGEST LATENCY WINDOW
+   * **************************************************************************/
+
+  /**
+   * Shows a new window with the latencies of received logs.
+   *
+   * @param mainStage The main stage of rudibugger
+   * @param latency The measured latencies
+   * @param globalConf The global configuration
+   */
+  public static void showIngestLatencyWindow(Stage mainStage,
+      IngestLatency latency, GlobalConfiguration globalConf) {
+    AnchorPane page = new AnchorPane();
+    page.setStyle(globalConf.getGlobalFontSizeAsStyle());
+    page.setPrefSize(480, 220);
+    Stage stage = createWindow(mainStage, page, "Ingest latency");
+
+    IngestLatencyController controller = new IngestLatencyController(latency);
+    fillPage(page, controller.createContent(stage));
+    stage.show();
+  }
+
+  /* ***************************************************************************
+   * RULE STATISTICS WINDOW
+   * **************************************************************************/
+
+  /**
+   * Shows a new window with the number of logs of every rule.
+   *
+   * @param mainStage The main stage of rudibugger
+   * @param project The project whose rules are shown
+   * @param editor Opens a rule on double click
+   * @param globalConf The global configuration
+   */
+  public static void showRuleStatisticsWindow(Stage mainStage,
+      Project project, Editor editor, GlobalConfiguration globalConf) {
+    AnchorPane page = new AnchorPane();
+    page.setStyle(globalConf.getGlobalFontSizeAsStyle());
+    page.setPrefSize(620, 400);
+    Stage stage = createWindow(mainStage, page, "Rule statistics");
+
+    RuleStatisticsController controller
+            = new RuleStatisticsController(project, editor);
+    fillPage(page, controller.createContent(stage));
+    stage.show();
+  }
+
+
+  /* ***************************************************************************
+   * LOG CAPTURE WINDOW
+   * **************************************************************************/
+
+  /**
+   * Shows a new window to capture only the logs around a trigger.
+   *
+   * @param mainStage The main stage of rudibugger
+   * @param project The project whose logs are captured
+   * @param globalConf The global configuration
+   */
+  public static void showLogCaptureWindow(Stage mainStage, Project project,
+      GlobalConfiguration globalConf) {
+    AnchorPane page = new AnchorPane();
+    page.setStyle(globalConf.getGlobalFontSizeAsStyle());
+    page.setPrefSize(420, 220);
+    Stage stage = createWindow(mainStage, page, "Capture rule logs");
+
+    LogCaptureController controller = new LogCaptureController(project);
+    fillPage(page, controller.createContent(stage));
+    stage.show();
+  }
+
+
+  /* ***************************************************************************
+   * RULE COVERAGE WINDOW
+   * **************************************************************************/
+
+  /**
+   * Shows a new window with the coverage of every import's rules.
+   *
+   * @param mainStage The main stage of rudibugger
+   * @param project The project whose rules are shown
+   * @param editor Shows the coverage next to the rules on demand
+   * @param globalConf The global configuration
+   */
+  public static void showRuleCoverageWindow(Stage mainStage,
+      Project project, Editor editor, GlobalConfiguration globalConf) {
+    AnchorPane page = new AnchorPane();
+    page.setStyle(globalConf.getGlobalFontSizeAsStyle());
+    page.setPrefSize(760, 400);
+    Stage stage = createWindow(mainStage, page, "Rule coverage");
+
+    RuleCoverageController controller
+            = new RuleCoverageController(project, editor);
+    fillPage(page, controller.createContent(stage));
+    stage.show();
+  }
+
+  /**
+   * Opens a window to select where to export the rule coverage.
+   *
+   * @param stage The stage of the coverage window
+   * @return The path of a .html or .csv file or null, if the export has been
+   *         cancelled
+   */
+  public static Path openExportCoverageDialog(Stage stage) {
+    FileChooser chooser = new FileChooser();
+    chooser.getExtensionFilters().addAll(
+      new FileChooser.ExtensionFilter("HTML report (*.html)", "*.html"),
+      new FileChooser.ExtensionFilter("CSV file (*.csv)", "*.csv"));
+    chooser.setInitialFileName("rule-coverage.html");
+    chooser.setTitle("Export rule coverage...");
+
+    File chosenFile = chooser.showSaveDialog(stage);
+    if (chosenFile == null) {
+      log.debug("Aborted export of rule coverage.");
+      return null;
+    }
+    Path file = chosenFile.toPath();
+    String name = file.getFileName().toString();
+    if (! name.endsWith(".html") && ! name.endsWith(".csv"))
+      file = Paths.get(file.toString()
+        + (chooser.getSelectedExtensionFilter() != null
+           && chooser.getSelectedExtensionFilter().getExtensions()
+              .contains("*.csv") ? ".csv" : ".html"));
+    return file;
+  }
+
+  /**
+   * Opens a window to select where to export the ingest latencies.
+   *
+   * @param stage The stage of the latency window
+   * @return The path of a .csv file or null, if the export has been cancelled
+   */
+  public static Path openExportLatencyDialog(Stage stage) {
+    FileChooser chooser = new FileChooser();
+    chooser.getExtensionFilters().add(
+      new FileChooser.ExtensionFilter("CSV file (*.csv)", "*.csv"));
+    chooser.setInitialFileName("ingest-latency.csv");
+    chooser.setTitle("Export ingest latencies...");
+
+    File chosenFile = chooser.showSaveDialog(stage);
+    if (chosenFile == null) {
+      log.debug("Aborted export of ingest latencies.");
+      return null;
+    }
+    Path file = chosenFile.toPath();
+    if (! file.getFileName().toString().endsWith(".csv"))
+      file = Paths.get(file.toString() + ".csv");
+    return file;
+  }
+
+
   /**
    * Opens a window to select where to store a new ruleModelState file and how
    * to name it.
@@ -466,4 +645,115 @@ public final class HelperWindows {
     return file;
 
   }
+
+  /**
+   * Opens a window to select a recorded rule log journal.
+   *
+   * @param stage The stage of rudibugger
+   * @param journalFolder The folder containing the journal files
+   * @return The Path of the chosen journal file
+   */
+  public static Path openJournalFileDialog(Stage stage, Path journalFolder) {
+    FileChooser chooser = new FileChooser();
+    if (Files.exists(journalFolder))
+      chooser.setInitialDirectory(journalFolder.toFile());
+    chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+      "Rule log journals (*" + RuleLogJournal.FILE_EXTENSION + ")",
+      "*" + RuleLogJournal.FILE_EXTENSION));
+    chooser.setTitle("Replay recorded session...");
+
+    File chosenFile = chooser.showOpenDialog(stage);
+    if (chosenFile == null) {
+      log.debug("Aborted selection of journal file.");
+      return null;
+    }
+    return chosenFile.toPath();
+  }
+
+  /**
+   * Asks the user how fast a recorded session should be replayed.
+   *
+   * @return The replay speed (1 = original speed, 0 = as fast as possible) or
+   *         null, if the replay has been cancelled
+   */
+  public static Double openReplaySpeedDialog() {
+    String asFastAsPossible = "As fast as possible";
+    ChoiceDialog<String> dialog = new ChoiceDialog<>("1x",
+      "1x", "2x", "10x", "100x", asFastAsPossible);
+    dialog.setTitle("Replay recorded session...");
+    dialog.setHeaderText("How fast should the session be replayed?");
+    dialog.setContentText("Speed:");
+    Optional<String> result = dialog.showAndWait();
+    if (! result.isPresent()) return null;
+    if (result.get().equals(asFastAsPossible))
+      return RuleLogReplay.AS_FAST_AS_POSSIBLE;
+    return Double.parseDouble(result.get().replace("x", ""));
+  }
+
+  /**
+   * Asks the user how the logs of a rule or an import should be limited.
+   *
+   * @param name The name of the rule or import
+   * @param current The current policy (or null)
+   * @return The chosen policy, or null if the dialog has been cancelled
+   */
+  public static LogPolicy openLogPolicyDialog(String name, LogPolicy current) {
+    LogPolicy old = current == null ? new LogPolicy() : current;
+    TextField maxPerSecond = new TextField(old.getMaxPerSecond() > 0
+            ? Integer.toString(old.getMaxPerSecond()) : "");
+    maxPerSecond.setPromptText("unlimited");
+    TextField sampleEvery = new TextField(old.getSampleEvery() > 1
+            ? Integer.toString(old.getSampleEvery()) : "");
+    sampleEvery.setPromptText("every log");
+    CheckBox transitionsOnly
+            = new CheckBox("Only keep logs whose results changed");
+    transitionsOnly.setSelected(old.getTransitionsOnly());
+    GridPane grid = new GridPane();
+    grid.setHgap(8);
+    grid.setVgap(8);
+    grid.addRow(0, new Label("At most logs per second:"), maxPerSecond);
+    grid.addRow(1, new Label("Only keep one log in:"), sampleEvery);
+    grid.add(transitionsOnly, 0, 2, 2, 1);
+
+    Dialog<LogPolicy> dialog = new Dialog<>();
+    dialog.setTitle("Limit logs...");
+    dialog.setHeaderText("How should the logs of " + name + " be limited?\n"
+            + "Suppressed logs are counted but not shown.");
+    dialog.getDialogPane().setContent(grid);
+    dialog.getDialogPane().getButtonTypes()
+            .addAll(ButtonType.OK, ButtonType.CANCEL);
+    Node ok = dialog.getDialogPane().lookupButton(ButtonType.OK);
+    ok.disableProperty().bind(Bindings.createBooleanBinding(
+            () -> ! maxPerSecond.getText().trim().matches("\\d{0,9}")
+                  || ! sampleEvery.getText().trim().matches("\\d{0,9}"),
+            maxPerSecond.textProperty(), sampleEvery.textProperty()));
+    dialog.setResultConverter(button -> button != ButtonType.OK ? null
+            : new LogPolicy(parseLimit(maxPerSecond), parseLimit(sampleEvery),
+                    transitionsOnly.isSelected()));
+    return dialog.showAndWait().orElse(null);
+  }
+
+  /** @return The number entered in the given field, 0 if it is empty */
+  private static int parseLimit(TextField field) {
+    String text = field.getText().trim();
+    return text.isEmpty() ? 0 : Integer.parseInt(text);
+  }
+
+  /**
+   * Informs the user about a finished replay.
+   *
+   * @param replay The finished replay
+   */
+  public static void showReplayFinishedInfo(RuleLogReplay replay) {
+    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+    alert.setTitle("Replay finished");
+    alert.setHeaderText("Replayed " + replay.getReplayedCount() + " logs.");
+    if (replay.getSkippedCount() > 0) {
+      alert.setContentText("Skipped " + replay.getSkippedCount()
+        + " logs of rules that do not exist anymore.\n"
+        + "Recorded ruleIds: " + replay.getUnknownRuleIds());
+    }
+    alert.show();
+  }
+
 }
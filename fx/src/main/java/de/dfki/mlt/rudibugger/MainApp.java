@@ -30,6 +30,7 @@ import static de.dfki.mlt.rudibugger.ViewLayout.*;
 import java.nio.file.Path;
 
 import de.dfki.mlt.rudibugger.editor.RudibuggerEditor;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
 import de.dfki.mlt.rudibugger.view.toolBar.ToolBarController;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -147,8 +148,12 @@ public class MainApp extends Application {
      * ************************************************************************/
 
     menuController.init(model,
-        (chosenFile) -> RuleTreeViewState
-          .loadState(chosenFile, ruleTreeViewController.getTreeView()),
+        (chosenFile) -> {
+          RuleTreeViewState
+            .loadState(chosenFile, ruleTreeViewController.getTreeView());
+          RuleModel rm = model.getLoadedProject().getRuleModel();
+          if (rm != null) rm.logPoliciesChanged();
+        },
         (chosenFile) -> RuleTreeViewState
           .saveState(chosenFile, ruleTreeViewController.getTreeView()),
         stage,
@@ -8,6 +8,7 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Function;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
@@ -52,6 +53,9 @@ public class RudibuggerEditor extends Editor {
 
   private ReadOnlyObjectProperty<Tab> _currentlySelectedTab;
 
+  /** Supplies the line markers of a file by line number (or null). */
+  private Function<Path, Map<Integer, String>> _lineMarkers;
+
 
   /* ***************************************************************************
    * CONSTRUCTOR & OTHER METHODS
@@ -167,6 +171,7 @@ public class RudibuggerEditor extends Editor {
     RudiTab newRudiTab = new RudiTab(content, file, this);
     _tabPane.getTabs().add(newRudiTab);
     _openFiles.put(file, newRudiTab);
+    if (_lineMarkers != null) applyLineMarkers(newRudiTab);
   }
 
   private String readInFile(Path file) {
@@ -222,6 +227,33 @@ public class RudibuggerEditor extends Editor {
   }
 
 
+  /* ***************************************************************************
+   * LINE MARKERS
+   * **************************************************************************/
+
+  /**
+   * Shows markers next to the line numbers of all open and later opened
+   * files, or removes them.
+   *
+   * @param markers
+   *        Maps a file to the style classes of the markers by line number
+   *        (starting at 1), or null to remove all markers
+   */
+  public void setLineMarkers(Function<Path, Map<Integer, String>> markers) {
+    _lineMarkers = markers;
+    _openFiles.values().forEach(this::applyLineMarkers);
+  }
+
+  private void applyLineMarkers(RudiTab tab) {
+    if (_lineMarkers == null || tab.getFile() == null) {
+      tab.getCodeArea().setLineMarkers(null);
+      return;
+    }
+    Map<Integer, String> markers = _lineMarkers.apply(tab.getFile());
+    tab.getCodeArea().setLineMarkers(paragraph -> markers.get(paragraph + 1));
+  }
+
+
   /* ***************************************************************************
    * GETTERS
    * **************************************************************************/
@@ -42,6 +42,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -49,7 +50,15 @@ import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleLogCounter;
 import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.rpc.IngestLatency;
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer;
+import de.dfki.mlt.rudibugger.rpc.LogIngestQueue;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogJournal;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogJournalReader;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogReplay;
 import de.dfki.mlt.rudibugger.project.watchServices.RudiFolderWatch;
 import de.dfki.mlt.rudibugger.project.watchServices.RuleLocationYamlWatch;
 import de.dfki.mlt.rudibugger.view.fileTreeView.RudiHierarchy;
@@ -123,12 +132,45 @@ public class Project {
   private final ObjectProperty<RuleModel> _ruleModel
           = new SimpleObjectProperty<>(null);
 
-  /** Represents the connection to VOnDA's runtime system. */
-  public VondaRuntimeConnection vonda;
+  /**
+   * Represents the connection to VOnDA's runtime system. It is kept for the
+   * whole lifetime of the project, a reloaded rule model is swapped in.
+   */
+  public final VondaRuntimeConnection vonda;
 
   /** Represents VOnDAs compiler. */
   public VondaCompiler compiler;
 
+  /**
+   * Reconstructs the coloured representation of logged rules, its templates
+   * are rebuilt for every new rule model.
+   */
+  private final LogDataRenderer _logRenderer = new LogDataRenderer(null);
+
+  /**
+   * Measures the latencies of received logs until they are shown, kept for
+   * every new rule model.
+   */
+  private final IngestLatency _ingestLatency = new IngestLatency();
+
+  /** The operational metrics of this project, published as MBean. */
+  private final ProjectMetrics _metrics = new ProjectMetrics(this);
+
+  /** Writes the received logs to disk (or null, if disabled). */
+  private RuleLogJournal _journal;
+
+  /** The maximum number of replayed logs waiting for the table. */
+  private static final int REPLAY_QUEUE_CAPACITY = 1 << 16;
+
+  /** The currently running replay of a recorded session (or null). */
+  private volatile RuleLogReplay _replay;
+
+  /** The queue of the replayed logs, separate from the received ones. */
+  private volatile LogIngestQueue<LogData> _replayQueue;
+
+  /** Counts the replayed logs, separate from the received ones. */
+  private RuleLogCounter _replayCounter;
+
   /** Watches the .rudi folder for changes. */
   private RudiFolderWatch _rudiFolderWatch;
 
@@ -155,8 +197,11 @@ public class Project {
   public void closeProject() {
     disableListeners();
     vonda.closeConnection();
+    stopReplay();
+    stopJournal();
     _rudiFolderWatch.shutDownListener();
     _ruleLocYamlWatch.shutDownListener();
+    _metrics.unregister();
   }
 
   /** Creates a new instance of this class. */
@@ -176,6 +221,7 @@ public class Project {
             = FXCollections.observableMap(rudibuggerSpecificConfigMap);
 
     _rudiHierarchy = new RudiHierarchy(_rudiFolder, _ruleLocYaml);
+    vonda = new VondaRuntimeConnection(_ingestLatency, _metrics);
     initWatches();
     compiler = new VondaCompiler(this);
     enableListeners();
@@ -183,17 +229,115 @@ public class Project {
     if (Files.exists(_ruleLocYaml)) {
       initRuleModel();
     }
+    _metrics.register();
   }
 
   public final void initRuleModel() {
+    long start = System.nanoTime();
     RuleModel rm = RuleModel.createRuleModel(_rudiFolder, _ruleLocYaml);
-    vonda = new VondaRuntimeConnection(rm);
+    vonda.setRuleModel(rm);
+    if (_journal != null && rm != null)
+      _journal.setRuleTable(rm.getRuleKeys());
+    _logRenderer.setRootInfo(rm == null ? null : rm.getRootImport());
     _ruleModel.set(rm);
+    _metrics.ruleModelLoaded(System.nanoTime() - start);
+  }
+
+  /**
+   * Starts writing the received logs to the project's journal folder.
+   *
+   * @param maxFileBytes
+   *        The size after which a new journal file is started
+   */
+  public void startJournal(long maxFileBytes) {
+    if (_journal != null) return;
+    try {
+      _journal = new RuleLogJournal(getJournalFolder(), maxFileBytes);
+      vonda.setJournal(_journal);
+      if (getRuleModel() != null)
+        _journal.setRuleTable(getRuleModel().getRuleKeys());
+    } catch (IOException ex) {
+      log.error("Could not start rule log journal: " + ex.getMessage());
+    }
+  }
+
+  /** Stops writing the received logs to disk. */
+  public void stopJournal() {
+    if (_journal == null) return;
+    vonda.setJournal(null);
+    _journal.close();
+    _journal = null;
+  }
+
+  /**
+   * Replays a recorded journal session into the rule logging table. A replay
+   * that is still running is stopped first.
+   *
+   * The replayed logs are queued and counted separately from the received
+   * ones, so they neither end up in the live statistics and coverage nor
+   * interleave with live logs in the table: the table shows the replay's
+   * queue while it is not empty, the received logs wait in theirs meanwhile.
+   *
+   * @param journalFile
+   *        A journal file of the session to replay
+   * @param speed
+   *        The replay speed (1 = original speed), or
+   *        {@link RuleLogReplay#AS_FAST_AS_POSSIBLE}
+   * @param onFinished
+   *        Is called on the replay thread when the replay has finished
+   * @return The started replay, or null if the journal could not be opened
+   */
+  public RuleLogReplay startReplay(Path journalFile, double speed,
+          Consumer<RuleLogReplay> onFinished) {
+    stopReplay();
+    if (getRuleModel() == null) return null;
+    try {
+      LogIngestQueue<LogData> queue =
+              new LogIngestQueue<>(REPLAY_QUEUE_CAPACITY);
+      RuleLogCounter counter = getRuleModel().createLogCounter();
+      _replay = new RuleLogReplay(RuleLogJournalReader.openSession(journalFile),
+              getRuleModel().getRuleKeys(), queue, counter, speed, onFinished);
+      _replayQueue = queue;
+      _replayCounter = counter;
+      _replay.start();
+      return _replay;
+    } catch (IOException ex) {
+      log.error("Could not open journal: " + ex.getMessage());
+      return null;
+    }
+  }
+
+  /** @return True, if a recorded session is being replayed */
+  public boolean isReplaying() {
+    return _replay != null && _replay.isRunning();
+  }
+
+  /**
+   * @return The queue of the replayed logs while a replay is running or its
+   *         logs have not all been taken yet, else null
+   */
+  public LogIngestQueue<LogData> getReplayQueue() {
+    LogIngestQueue<LogData> queue = _replayQueue;
+    if (queue == null || isReplaying() || queue.size() > 0) return queue;
+    return null;
+  }
+
+  /**
+   * @return The statistics and coverage of the last replay (or null, if there
+   *         has been none since the project was opened)
+   */
+  public RuleLogCounter getReplayCounter() { return _replayCounter; }
+
+  /** Stops a running replay (if any) and discards its pending logs. */
+  public void stopReplay() {
+    if (_replay != null) _replay.stop();
+    _replay = null;
+    _replayQueue = null;
   }
 
   private void initWatches() {
     _rudiFolderWatch = RudiFolderWatch.createRudiFolderWatch(
-          _rudiHierarchy, _rudiFolder);
+          _rudiHierarchy, _rudiFolder, _metrics);
     _ruleLocYamlWatch = RuleLocationYamlWatch.createRuleLocationWatch(
             this, _rudiHierarchy, getGeneratedFilesFolder());
   }
@@ -292,6 +436,12 @@ public class Project {
     return ruleLocYaml;
   }
 
+  /** @return The Project's folder containing the rule log journals. */
+  public Path getJournalFolder() {
+    return GLOBAL_PROJECT_SPECIFIC_CONFIG_PATH.resolve(_projectName)
+            .resolve("journal");
+  }
+
   /** @return The Project's folder containing rule logging configurations. */
   private Path retrieveRuleModelStatesFolder() {
     Path ruleModelStatesFolder = GLOBAL_PROJECT_SPECIFIC_CONFIG_PATH
@@ -461,6 +611,9 @@ public class Project {
   public ObjectProperty<RuleModel> ruleModelProperty() { return _ruleModel; }
   public RuleModel getRuleModel() { return _ruleModel.get(); }
   public RudiHierarchy getRudiHierarchy() { return _rudiHierarchy; }
+  public LogDataRenderer getLogRenderer() { return _logRenderer; }
+  public IngestLatency getIngestLatency() { return _ingestLatency; }
+  public ProjectMetrics getMetrics() { return _metrics; }
 
 
   /* ***************************************************************************
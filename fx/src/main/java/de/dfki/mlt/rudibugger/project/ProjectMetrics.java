@@ -0,0 +1,305 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project;
+
+import static de.dfki.mlt.rudibugger.Constants.*;
+
+import de.dfki.mlt.rudibugger.rpc.ConnectionManager;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the operational metrics of a project and publishes them as MBean
+ * under <code>de.dfki.mlt.rudibugger:type=Project,name=...</code>. The
+ * counters are lock-free and may be updated from any thread; rates are
+ * computed when they are read, at most once per second.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class ProjectMetrics implements ProjectMetricsMXBean {
+
+  static Logger log = LoggerFactory.getLogger("projectMetrics");
+
+  /** The minimum time between two computations of the rates. */
+  private static final long RATE_INTERVAL_NANOS = 1_000_000_000L;
+
+  /** A counter whose rate is computed when it is read. */
+  private static final class RateCounter {
+
+    private final AtomicLong _count = new AtomicLong();
+
+    /** The count when the rate was last computed. */
+    private long _sampledCount;
+
+    /** The rate per second during the last interval. */
+    private double _rate;
+
+    private void sample(double seconds) {
+      long count = _count.get();
+      _rate = (count - _sampledCount) / seconds;
+      _sampledCount = count;
+    }
+  }
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The project whose metrics are collected. */
+  private final Project _project;
+
+  /** The name this MBean is registered with (or null). */
+  private ObjectName _name;
+
+  private final AtomicLong _connects = new AtomicLong();
+
+  private final RateCounter _received = new RateCounter();
+
+  private final RateCounter _dropped = new RateCounter();
+
+  private final RateCounter _suppressed = new RateCounter();
+
+  private final RateCounter _rudiFolderEvents = new RateCounter();
+
+  private final RateCounter _ruleLocEvents = new RateCounter();
+
+  /** The time the rates were last computed. */
+  private long _sampleTime = System.nanoTime();
+
+  private final AtomicLong _ruleModelLoads = new AtomicLong();
+
+  private volatile long _lastRuleModelLoadNanos;
+
+  private volatile long _maxRuleModelLoadNanos;
+
+  /** The store of the rule logging table (or null). */
+  private volatile RuleLogStore _logStore;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR, REGISTRATION
+   * **************************************************************************/
+
+  /**
+   * Creates the metrics of the given project.
+   *
+   * @param project
+   *        The project
+   */
+  ProjectMetrics(Project project) {
+    _project = project;
+  }
+
+  /** Registers these metrics at the platform's MBean server. */
+  void register() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName("de.dfki.mlt.rudibugger:type=Project,"
+              + "name=" + ObjectName.quote(_project.getProjectName()));
+      if (server.isRegistered(name)) server.unregisterMBean(name);
+      server.registerMBean(this, name);
+      _name = name;
+    } catch (JMException ex) {
+      log.error("Could not register project metrics: " + ex.getMessage());
+    }
+  }
+
+  /** Removes these metrics from the platform's MBean server. */
+  void unregister() {
+    if (_name == null) return;
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(_name);
+    } catch (JMException ex) {
+      log.error("Could not unregister project metrics: " + ex.getMessage());
+    }
+    _name = null;
+  }
+
+
+  /* ***************************************************************************
+   * RECORDING
+   * **************************************************************************/
+
+  /** Counts an established connection to VOnDA. */
+  public void connected() { _connects.incrementAndGet(); }
+
+  /** Counts a received log. */
+  public void logReceived() { _received._count.incrementAndGet(); }
+
+  /** Counts a received log that had to be dropped. */
+  public void logDropped() { _dropped._count.incrementAndGet(); }
+
+  /** Counts a received log suppressed by its rule's log policy. */
+  public void logSuppressed() { _suppressed._count.incrementAndGet(); }
+
+  /** Counts an event of the .rudi folder watch. */
+  public void rudiFolderEvent() { _rudiFolderEvents._count.incrementAndGet(); }
+
+  /** Counts an event of the RuleLoc.yml watch. */
+  public void ruleLocEvent() { _ruleLocEvents._count.incrementAndGet(); }
+
+  /**
+   * Records a (re)load of the rule model.
+   *
+   * @param nanos
+   *        The time the load took
+   */
+  void ruleModelLoaded(long nanos) {
+    _ruleModelLoads.incrementAndGet();
+    _lastRuleModelLoadNanos = nanos;
+    if (nanos > _maxRuleModelLoadNanos) _maxRuleModelLoadNanos = nanos;
+  }
+
+  /**
+   * @param store
+   *        The store of the rule logging table (or null)
+   */
+  public void setLogStore(RuleLogStore store) { _logStore = store; }
+
+  /** Computes the rates, if the last computation is at least 1s ago. */
+  private void sample() {
+    long now = System.nanoTime();
+    if (now - _sampleTime < RATE_INTERVAL_NANOS) return;
+    double seconds = (now - _sampleTime) / 1e9;
+    _received.sample(seconds);
+    _dropped.sample(seconds);
+    _suppressed.sample(seconds);
+    _rudiFolderEvents.sample(seconds);
+    _ruleLocEvents.sample(seconds);
+    _sampleTime = now;
+  }
+
+  private synchronized double rate(RateCounter counter) {
+    sample();
+    return counter._rate;
+  }
+
+
+  /* ***************************************************************************
+   * ATTRIBUTES
+   * **************************************************************************/
+
+  @Override
+  public String getProjectName() { return _project.getProjectName(); }
+
+  @Override
+  public String getConnectionState() {
+    switch (_project.vonda.getConnectionState()) {
+      case CONNECTED_TO_VONDA: return "connected";
+      case ESTABLISHING_CONNECTION: return "connecting";
+      default: return "disconnected";
+    }
+  }
+
+  @Override
+  public long getConnectCount() { return _connects.get(); }
+
+  @Override
+  public long getReconnectCount() { return Math.max(0, _connects.get() - 1); }
+
+  @Override
+  public int getFailedConnectAttempts() {
+    ConnectionManager connection = _project.vonda.getConnection();
+    return connection == null ? 0 : connection.getFailedAttempts();
+  }
+
+  @Override
+  public double getRoundTripMillis() {
+    ConnectionManager connection = _project.vonda.getConnection();
+    long nanos = connection == null ? -1 : connection.getRoundTripNanos();
+    return nanos < 0 ? -1 : nanos / 1e6;
+  }
+
+  @Override
+  public long getLogsReceived() { return _received._count.get(); }
+
+  @Override
+  public long getLogsDropped() { return _dropped._count.get(); }
+
+  @Override
+  public long getLogsSuppressed() { return _suppressed._count.get(); }
+
+  @Override
+  public double getLogsReceivedPerSecond() { return rate(_received); }
+
+  @Override
+  public double getLogsDroppedPerSecond() { return rate(_dropped); }
+
+  @Override
+  public double getLogsSuppressedPerSecond() { return rate(_suppressed); }
+
+  @Override
+  public int getQueueSize() {
+    return _project.vonda.getLogQueue().size();
+  }
+
+  @Override
+  public int getLogStoreSize() {
+    RuleLogStore store = _logStore;
+    return store == null ? 0 : store.size();
+  }
+
+  @Override
+  public int getLogStoreCapacity() {
+    RuleLogStore store = _logStore;
+    return store == null ? 0 : store.getCapacity();
+  }
+
+  @Override
+  public long getLogStoreBytes() {
+    RuleLogStore store = _logStore;
+    return store == null ? 0 : store.getEstimatedBytes();
+  }
+
+  @Override
+  public long getRudiFolderEvents() { return _rudiFolderEvents._count.get(); }
+
+  @Override
+  public double getRudiFolderEventsPerSecond() {
+    return rate(_rudiFolderEvents);
+  }
+
+  @Override
+  public long getRuleLocEvents() { return _ruleLocEvents._count.get(); }
+
+  @Override
+  public double getRuleLocEventsPerSecond() { return rate(_ruleLocEvents); }
+
+  @Override
+  public long getRuleModelLoads() { return _ruleModelLoads.get(); }
+
+  @Override
+  public double getLastRuleModelLoadMillis() {
+    return _lastRuleModelLoadNanos / 1e6;
+  }
+
+  @Override
+  public double getMaxRuleModelLoadMillis() {
+    return _maxRuleModelLoadNanos / 1e6;
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project;
+
+/**
+ * The operational metrics of an opened project, registered as MBean so that
+ * they can be watched with <code>jconsole</code> or any other JMX client.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public interface ProjectMetricsMXBean {
+
+  /** @return The project's name */
+  String getProjectName();
+
+  /** @return "connected", "connecting" or "disconnected" */
+  String getConnectionState();
+
+  /** @return How often a connection to VOnDA has been established */
+  long getConnectCount();
+
+  /** @return How often a connection to VOnDA has been re-established */
+  long getReconnectCount();
+
+  /** @return The failed connect attempts since the last stable connection */
+  int getFailedConnectAttempts();
+
+  /** @return The last heartbeat's round trip time in ms, or -1 if unknown */
+  double getRoundTripMillis();
+
+  /** @return The number of logs received from VOnDA */
+  long getLogsReceived();
+
+  /** @return The number of received logs dropped because of a full queue */
+  long getLogsDropped();
+
+  /** @return The number of received logs suppressed by log policies */
+  long getLogsSuppressed();
+
+  /** @return The logs received per second (during the last second) */
+  double getLogsReceivedPerSecond();
+
+  /** @return The logs dropped per second (during the last second) */
+  double getLogsDroppedPerSecond();
+
+  /** @return The logs suppressed per second (during the last second) */
+  double getLogsSuppressedPerSecond();
+
+  /** @return The number of logs waiting to be shown */
+  int getQueueSize();
+
+  /** @return The number of logs in the rule logging table's store */
+  int getLogStoreSize();
+
+  /** @return The maximum number of logs in the store */
+  int getLogStoreCapacity();
+
+  /** @return The estimated memory occupied by the stored logs in bytes */
+  long getLogStoreBytes();
+
+  /** @return The number of events seen by the .rudi folder watch */
+  long getRudiFolderEvents();
+
+  /** @return The .rudi folder events per second (during the last second) */
+  double getRudiFolderEventsPerSecond();
+
+  /** @return The number of events seen by the RuleLoc.yml watch */
+  long getRuleLocEvents();
+
+  /** @return The RuleLoc.yml events per second (during the last second) */
+  double getRuleLocEventsPerSecond();
+
+  /** @return How often the rule model has been (re)loaded */
+  long getRuleModelLoads();
+
+  /** @return The time the last rule model (re)load took in milliseconds */
+  double getLastRuleModelLoadMillis();
+
+  /** @return The longest time a rule model (re)load took in milliseconds */
+  double getMaxRuleModelLoadMillis();
+
+}
@@ -0,0 +1,541 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project;
+
+import de.dfki.mlt.rudibugger.rpc.ConnectionManager;
+import de.dfki.mlt.rudibugger.rpc.IngestLatency;
+import de.dfki.mlt.rudibugger.rpc.LogCapture;
+import de.dfki.mlt.rudibugger.rpc.LogIngestQueue;
+import de.dfki.mlt.rudibugger.rpc.LogLimiter;
+import de.dfki.mlt.rudibugger.rpc.LogTrigger;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerClient;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerAPI;
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.RuleLogSink;
+import de.dfki.mlt.rudibugger.rpc.SentLoggingStates;
+import static de.dfki.mlt.rudibugger.Constants.*;
+import de.dfki.mlt.rudibugger.DataModel;
+import de.dfki.mlt.rudibugger.HelperWindows;
+import de.dfki.mlt.rudibugger.project.ruleModel.LoggingState;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogJournal;
+import de.dfki.mlt.rudimant.common.SimpleClient;
+import de.dfki.mlt.rudimant.common.SimpleClient.ConnStatus;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import javafx.beans.property.*;
+import javafx.beans.value.ChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides additional functionality to interact with VOnDA's runtime system.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class VondaRuntimeConnection implements RuleLogSink {
+
+  static Logger log = LoggerFactory.getLogger(VondaRuntimeConnection.class);
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Represents the project's rule structure (or null). */
+  private volatile RuleModel _ruleModel;
+
+  /** Applies the rule model's log policies whenever they change. */
+  private final Runnable _logPolicyListener = this::updateLogPolicies;
+
+  /** Keeps a client connected to a server of VOnDA, reconnecting if lost. */
+  private volatile ConnectionManager _connection;
+
+  /** Contains every rule's state and its corresponding listener. */
+  private final Map<LoggingState, LoggingState.Listener> changeListenerMap
+          = new HashMap<>();
+
+  /** The maximum number of received logs waiting to be shown. */
+  private static final int LOG_QUEUE_CAPACITY = 1 << 16;
+
+  /** Contains the received logs that have not yet been shown. */
+  private final LogIngestQueue<LogData> _logQueue
+          = new LogIngestQueue<>(LOG_QUEUE_CAPACITY);
+
+  /**
+   * Writes every received log to disk, including suppressed and discarded
+   * ones (or null).
+   */
+  private volatile RuleLogJournal _journal;
+
+  /** Suppresses the logs exceeding the rules' log policies. */
+  private final LogLimiter _limiter = new LogLimiter();
+
+  /** Only lets the logs around a trigger through (or null). */
+  private volatile LogCapture _capture;
+
+  /** Measures the latencies of received logs until they are shown. */
+  private final IngestLatency _latency;
+
+  /** Counts connections and received logs. */
+  private final ProjectMetrics _metrics;
+
+  /**
+   * How long state changes are collected before they are sent to VOnDA, so
+   * that changing a whole import results in a single batch.
+   */
+  private static final long STATE_FLUSH_DELAY_MILLIS = 20;
+
+  /** The ids of rules whose state changed since the last flush. */
+  private final Set<Integer> _dirtyRules = new HashSet<>();
+
+  /**
+   * The logging states VOnDA has last been sent, kept over reconnects to send
+   * only the changed ones to the same agent.
+   */
+  private final SentLoggingStates _sentStates = new SentLoggingStates();
+
+  /** Whether a flush of the changed states has already been scheduled. */
+  private boolean _flushScheduled = false;
+
+
+  /* ***************************************************************************
+   * PROPERTIES AND LISTENERS
+   * **************************************************************************/
+
+  /** Represents the connection status between VOnDA and rudibugger. */
+  private final IntegerProperty connected
+          = new SimpleIntegerProperty(DISCONNECTED_FROM_VONDA);
+
+
+  /**
+   * Used to listen to connection state changes. If a connection has been
+   * established, changes to RuleInfoExtended objects will be observed.
+   */
+  private final ChangeListener<Number> connectionStateListener = ((o, ov, nv)
+          -> {
+    switch (nv.intValue()) {
+      case CONNECTED_TO_VONDA:
+        setAllLoggingStatuses();
+        addListenersForStates();
+        log.debug("Connected to VOnDA.");
+        break;
+      case ESTABLISHING_CONNECTION:
+        /* the connection was lost, the states are resynced on reconnect */
+        removeListenersForStates();
+        log.debug("Establishing connection to VOnDA...");
+        break;
+      case DISCONNECTED_FROM_VONDA:
+        removeListenersForStates();
+        log.debug("Disconnected from VOnDA.");
+    }
+  });
+
+
+  /* ***************************************************************************
+   * INITIALIZERS, CONNECT AND DISCONNECT
+   * **************************************************************************/
+
+  /**
+   * Initializes this addition of <code>DataModel</code>. A project keeps its
+   * instance, a reloaded rule model is set with
+   * {@link #setRuleModel(RuleModel)}.
+   *
+   * @param latency Measures the latencies of received logs
+   * @param metrics Counts connections and received logs
+   */
+  public VondaRuntimeConnection(IngestLatency latency,
+          ProjectMetrics metrics) {
+    _latency = latency;
+    _metrics = metrics;
+  }
+
+  /**
+   * Replaces the rule model, e.g. after <code>RuleLoc.yml</code> has been
+   * reloaded. The connection, the received logs, a running capture and the
+   * limiter's counters are kept, the limiter applies the new model's log
+   * policies. If VOnDA is connected, the new model's logging states are
+   * sent.
+   *
+   * @param ruleModel
+   *        The new rule model (or null)
+   */
+  public void setRuleModel(RuleModel ruleModel) {
+    RuleModel old = _ruleModel;
+    if (old == ruleModel) return;
+    if (old != null) old.removeLogPolicyListener(_logPolicyListener);
+    removeListenersForStates();
+    synchronized (this) {
+      /* pending changes refer to the old model, a resync covers them, a
+         flush still pending finds nothing to send */
+      _dirtyRules.clear();
+      _flushScheduled = false;
+      _ruleModel = ruleModel;
+    }
+    if (ruleModel != null) ruleModel.addLogPolicyListener(_logPolicyListener);
+    updateLogPolicies();
+    if (connected.get() == CONNECTED_TO_VONDA) {
+      setAllLoggingStatuses();
+      addListenersForStates();
+    }
+  }
+
+ /**
+   * Establishes connection to VOnDA. A lost connection is reestablished
+   * with an increasing delay between the attempts.
+   *
+   * (N.B.: The old key for a custom port was <code>SERVER_RUDIMANT</code>, now
+   * it is <code>vondaPort</code>.)
+   */
+  public void connect(int vondaPort, DataModel model) {
+    _connection = new ConnectionManager("localhost", vondaPort,
+        new RudibuggerAPI(this));
+
+    connected.addListener(connectionStateListener);
+    connected.set(ESTABLISHING_CONNECTION);
+
+    _connection.addPropertyChangeListener(
+        e -> {
+          SimpleClient.ConnStatus connStatus = (ConnStatus) e.getNewValue();
+          switch (connStatus) {
+            case ONLINE:
+              _metrics.connected();
+              connected.setValue(CONNECTED_TO_VONDA);
+              break;
+            case OFFLINE:
+              connected.setValue(DISCONNECTED_FROM_VONDA);
+              break;
+            case TRYING:
+              connected.setValue(ESTABLISHING_CONNECTION);
+          }
+          if (model != null) {
+            Platform.runLater(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    model.getConnectionButton().update(_ruleModel, connected.getValue());
+                    if (connected.getValue() == CONNECTED_TO_VONDA) {
+                      HelperWindows.showRuleLoggingWindow(
+                          model.mainStage,
+                          model.getLoadedProject(),
+                          model.getEditor(),
+                          model.globalConf);
+                    }
+                  }
+                });
+          }
+        });
+    _connection.start();
+
+    log.debug("RudibuggerClient has been started "
+            + "on port [" + vondaPort + "].");
+  }
+
+  /** Closes Connection to VOnDA. */
+  public void closeConnection() {
+    if (_connection != null) {
+      _connection.stop();
+    } else {
+      log.info("Could not close connection to VOnDA, "
+              + "it was probably never established.");
+    }
+
+    connected.set(DISCONNECTED_FROM_VONDA);
+    connected.removeListener(connectionStateListener);
+
+    log.debug("RudibuggerClient has been shut down.");
+  }
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /**
+   * Sends the loggingStatus of all rules to VOnDA, in a single command if
+   * VOnDA supports it. After a reconnect to the same agent, only the states
+   * changed in the meantime are sent.
+   */
+  private void setAllLoggingStatuses() {
+    RudibuggerClient client = getClient();
+    if ((client != null) && (client.isConnected()))
+      client.syncLoggingStatuses(this::sentLoggingStates);
+  }
+
+  /**
+   * Takes the logging states which are about to be sent to VOnDA after a
+   * (re)connect, pending changes are thereby sent as well.
+   *
+   * @return The logging state of every rule by its id, or only of the changed
+   *        ones if the agent has been connected before
+   */
+  private synchronized SortedMap<Integer, Integer> sentLoggingStates() {
+    if (_ruleModel == null) return new TreeMap<>();
+    RudibuggerClient client = getClient();
+    SortedMap<Integer, Integer> states = _sentStates.resync(
+            _ruleModel.getLoggingStates(),
+            client == null ? null : client.getAgentId());
+    log.debug("Sending the logging states of {} rules", states.size());
+    _dirtyRules.clear();
+    return states;
+  }
+
+  /**
+   * Remembers that the state of a given rule changed and schedules a flush,
+   * if there is none pending.
+   *
+   * @param ruleId The id of the changed rule
+   */
+  private synchronized void markDirty(int ruleId) {
+    _dirtyRules.add(ruleId);
+    if (_flushScheduled) return;
+    _flushScheduled = true;
+    CompletableFuture.runAsync(this::flushStates,
+            CompletableFuture.delayedExecutor(STATE_FLUSH_DELAY_MILLIS,
+                    TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Sends the collected state changes to VOnDA as one batch. Without a
+   * connection they are dropped, the next connect compares all states.
+   */
+  private void flushStates() {
+    RudibuggerClient client = getClient();
+    if ((client != null) && (client.isConnected()))
+      client.setLoggingStatuses(this::takeChangedStates);
+    else
+      dropChangedStates();
+  }
+
+  private synchronized void dropChangedStates() {
+    _flushScheduled = false;
+    _dirtyRules.clear();
+  }
+
+  /**
+   * Takes the net changes since the last flush: rules whose state has been
+   * changed back and forth are left out. Package-private for tests.
+   *
+   * @return The changed logging states by rule id, none without a rule model
+   */
+  synchronized SortedMap<Integer, Integer> takeChangedStates() {
+    _flushScheduled = false;
+    if (_ruleModel == null) {
+      _dirtyRules.clear();
+      return new TreeMap<>();
+    }
+    Map<Integer, LoggingState> map = _ruleModel.idLoggingStatesMap();
+    SortedMap<Integer, Integer> changed = new TreeMap<>();
+    for (int ruleId : _dirtyRules) {
+      LoggingState s = map.get(ruleId);
+      if (s != null && _sentStates.update(ruleId, s.get()))
+        changed.put(ruleId, s.get());
+    }
+    _dirtyRules.clear();
+    return changed;
+  }
+
+  /**
+   * Creates a new listener to track a changing state of a given rule. A
+   * change is sent to VOnDA shortly after, together with other changes.
+   *
+   * @param ruleId The id of the wanted rule.
+   */
+  private LoggingState.Listener createRuleStateListener(int ruleId) {
+    LoggingState.Listener cl = (ov, nv) -> markDirty(ruleId);
+    return cl;
+  }
+
+  /** Add listeners to every rule's state property */
+  private void addListenersForStates() {
+    RuleModel rm = _ruleModel;
+    if (rm == null) return;
+    Map<Integer, LoggingState> map = rm.idLoggingStatesMap();
+    map.keySet().forEach((ruleId) -> {
+      LoggingState.Listener cl = createRuleStateListener(ruleId);
+      LoggingState prop = map.get(ruleId);
+      prop.addListener(cl);
+      changeListenerMap.put(prop, cl);
+    });
+  }
+
+  /** Remove every listener for state changes from every rule. */
+  private void removeListenersForStates() {
+    changeListenerMap.keySet().forEach((prop) ->
+      prop.removeListener(changeListenerMap.get(prop)));
+    changeListenerMap.clear();
+  }
+
+  /**
+   * Intermediate function that transmits data coming from VOnDA to rudibugger.
+   * Only a compact <code>LogData</code> is created and queued, this method is
+   * called from the thread receiving VOnDA's messages and never blocks. Every
+   * log is counted in the rule model's statistics and coverage and written to
+   * the journal first, so that a replay reproduces the whole session. Logs
+   * exceeding their rule's log policy are suppressed afterwards, and while a
+   * capture is set, logs outside of its window are discarded.
+   *
+   * @param receivedNanos
+   * @param ruleId
+   * @param resultCount
+   * @param resultBits
+   * @param moreResultBits
+   */
+  @Override
+  public void printLog(long receivedNanos, int ruleId, int resultCount,
+          long resultBits, long[] moreResultBits) {
+    _metrics.logReceived();
+    RuleModel rm = _ruleModel;
+    if (rm != null)
+      rm.getLogCounter().printLog(receivedNanos, ruleId, resultCount,
+              resultBits, moreResultBits);
+    LogData data = null;
+    RuleLogJournal journal = _journal;
+    if (journal != null) {
+      data = new LogData(receivedNanos, ruleId, resultCount, resultBits,
+              moreResultBits);
+      journal.append(data);
+    }
+    if (! _limiter.admit(receivedNanos, ruleId, resultCount, resultBits)) {
+      _metrics.logSuppressed();
+      return;
+    }
+    LogCapture capture = _capture;
+    if (capture != null)
+      capture.printLog(receivedNanos, ruleId, resultCount, resultBits,
+              moreResultBits);
+    else if (data != null)
+      enqueueLog(data, true);
+    else
+      enqueueLog(new LogData(receivedNanos, ruleId, resultCount, resultBits,
+              moreResultBits), true);
+  }
+
+  /**
+   * Queues a received log to be shown.
+   *
+   * @param measure
+   *        False, if the log has been held back by a capture and its latency
+   *        is therefore not measured
+   */
+  private void enqueueLog(LogData data, boolean measure) {
+    long receivedNanos = data.getTimestampNanos();
+    if (measure) _latency.record(IngestLatency.Stage.DECODED, receivedNanos);
+    if (_logQueue.offer(data)) {
+      if (measure)
+        _latency.record(IngestLatency.Stage.ENQUEUED, receivedNanos);
+    } else {
+      _metrics.logDropped();
+    }
+  }
+
+  /**
+   * Moves up to <code>max</code> received logs into the given collection
+   * (oldest first).
+   *
+   * @param target
+   *        The collection to add the <code>LogData</code> to
+   * @param max
+   *        The maximum number of logs to move
+   * @return The number of moved logs
+   */
+  public int drainLogs(Collection<LogData> target, int max) {
+    return _logQueue.drainTo(target, max);
+  }
+
+
+  /* ***************************************************************************
+   * GETTERS AND SETTERS FOR PRIVATE FIELDS AND PROPERTIES
+   * **************************************************************************/
+
+  /**
+   * @param journal
+   *        The journal every received log is written to (or null)
+   */
+  public void setJournal(RuleLogJournal journal) { _journal = journal; }
+
+  /** Applies the current log policies of the rule model. */
+  private void updateLogPolicies() {
+    RuleModel rm = _ruleModel;
+    _limiter.setPolicies(rm == null
+            ? Collections.emptyMap() : rm.getLogPolicies());
+  }
+
+  /** @return Suppresses and counts the logs exceeding the log policies */
+  public LogLimiter getLimiter() { return _limiter; }
+
+  /**
+   * Starts capturing the logs around a trigger, all other logs are discarded
+   * until the capture is stopped.
+   *
+   * @param trigger
+   *        Decides which log triggers the capture
+   * @param preTrigger
+   *        The number of logs kept before the triggering one
+   * @param postTrigger
+   *        The number of logs kept after the triggering one
+   * @return The armed capture
+   */
+  public LogCapture startCapture(LogTrigger trigger, int preTrigger,
+          int postTrigger) {
+    LogCapture capture = new LogCapture(trigger, preTrigger, postTrigger,
+            (received, ruleId, count, bits, more) -> enqueueLog(
+                    new LogData(received, ruleId, count, bits, more), false));
+    _capture = capture;
+    log.info("Capturing " + preTrigger + " logs before and " + postTrigger
+            + " logs after the trigger.");
+    return capture;
+  }
+
+  /** Stops capturing, every received log is shown again. */
+  public void stopCapture() {
+    _capture = null;
+  }
+
+  /** @return The running capture (or null) */
+  public LogCapture getCapture() { return _capture; }
+
+  /** @return The queue containing logs that have not been shown yet */
+  public LogIngestQueue<LogData> getLogQueue() { return _logQueue; }
+
+  /** @return The connection status property */
+  public IntegerProperty connectedProperty() { return connected; }
+
+  /** @return The connection state */
+  public int getConnectionState() { return connected.get(); }
+
+  /** @return The client of the current connection (or null) */
+  private RudibuggerClient getClient() {
+    ConnectionManager connection = _connection;
+    return connection == null ? null : connection.getClient();
+  }
+
+  /** @return The connection to VOnDA, or null if never connected */
+  public ConnectionManager getConnection() { return _connection; }
+
+}
@@ -36,6 +36,7 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.dfki.mlt.rudibugger.project.ProjectMetrics;
 import de.dfki.mlt.rudibugger.view.fileTreeView.RudiHierarchy;
 import javafx.application.Platform;
 
@@ -69,16 +70,20 @@ public class RudiFolderWatch {
   /** Maps paths to the WatchKey created when monitoring the path with watch service **/
   private final Map<Path, WatchKey> _path2WatchKeyMap;
 
+  /** Counts the events of this watch. */
+  private final ProjectMetrics _metrics;
+
   /* ***************************************************************************
    * INITIALIZERS / CONSTRUCTORS
    * **************************************************************************/
 
   /** Private nullary construct to obstruct instantiating. */
   private RudiFolderWatch(RudiHierarchy rudiHierarchy,
-          WatchService watchService) {
+          WatchService watchService, ProjectMetrics metrics) {
     _rudiHierarchy = rudiHierarchy;
     _watchService = watchService;
     _path2WatchKeyMap = new HashMap<>();
+    _metrics = metrics;
   }
 
   /**
@@ -86,15 +91,17 @@ public class RudiFolderWatch {
    * folder.
    *
    * @param model The current <code>DataModel</code>.
+   * @param metrics Counts the events of the watch
    * @return The created WatchService
    */
   public static RudiFolderWatch createRudiFolderWatch(
-          RudiHierarchy rudiHierarchy, Path rudiFolder) {
+          RudiHierarchy rudiHierarchy, Path rudiFolder,
+          ProjectMetrics metrics) {
     RudiFolderWatch newWatch = null;
     try {
       WatchService watchService = FileSystems.getDefault().newWatchService();
 
-      newWatch = new RudiFolderWatch(rudiHierarchy, watchService);
+      newWatch = new RudiFolderWatch(rudiHierarchy, watchService, metrics);
       newWatch.recursivelyRegisterDirectories(rudiFolder);
       newWatch.startListening();
     } catch (IOException e) {
@@ -174,6 +181,7 @@ public class RudiFolderWatch {
     WatchKey rudiKey;
     while ((rudiKey = _watchService.take()) != null) {
       for (WatchEvent<?> event : rudiKey.pollEvents()) {
+        _metrics.rudiFolderEvent();
         Path eventPath = ((Path)rudiKey.watchable())
             .resolve(((WatchEvent<Path>) event).context());
         if (event.kind() == ENTRY_DELETE) {
@@ -168,6 +168,7 @@ public class RuleLocationYamlWatch {
 
         /* identify what has happened */
         for (WatchEvent<?> event : watchKey.pollEvents()) {
+          _project.getMetrics().ruleLocEvent();
           WatchEvent.Kind<?> kind = event.kind();
           WatchEvent<Path> ev = (WatchEvent<Path>) event;
           changingFile = ev.context();
@@ -208,6 +209,7 @@ public class RuleLocationYamlWatch {
 
           /* remove the events or watchKey can't be resetted properly */
           for (WatchEvent<?> event : watchKey.pollEvents()) {
+            _project.getMetrics().ruleLocEvent();
             WatchEvent.Kind<?> kind = event.kind();
             WatchEvent<Path> ev = (WatchEvent<Path>) event;
             changingFile = ev.context();
@@ -21,9 +21,14 @@ package de.dfki.mlt.rudibugger.view.editor;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.function.IntFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.IndexRange;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 import static javafx.scene.input.KeyCode.*;
 import org.fxmisc.richtext.CodeArea;
 import org.fxmisc.richtext.LineNumberFactory;
@@ -132,7 +137,15 @@ public class RudiCodeArea extends CodeArea {
     ));
   }
 
-  private static StyleSpans<Collection<String>> computeHighlighting(String text) {
+  /**
+   * Computes the syntax highlighting of the given text (public to be
+   * benchmarked).
+   *
+   * @param text
+   *        The content of a .rudi file
+   * @return The style classes of the text's spans
+   */
+  public static StyleSpans<Collection<String>> computeHighlighting(String text) {
     Matcher matcher = PATTERN.matcher(text);
     int lastKwEnd = 0;
     StyleSpansBuilder<Collection<String>> spansBuilder
@@ -158,6 +171,31 @@ public class RudiCodeArea extends CodeArea {
     return spansBuilder.create();
   }
 
+  /**
+   * Shows a marker next to the line numbers, e.g. the coverage of the rule
+   * starting in a line.
+   *
+   * @param markers
+   *        Maps paragraph indices to the style class of their marker (or
+   *        null for no marker), null removes all markers
+   */
+  public void setLineMarkers(IntFunction<String> markers) {
+    IntFunction<Node> lineNumbers = LineNumberFactory.get(this);
+    if (markers == null) {
+      this.setParagraphGraphicFactory(lineNumbers);
+      return;
+    }
+    this.setParagraphGraphicFactory(paragraph -> {
+      Region marker = new Region();
+      marker.getStyleClass().add("lineMarker");
+      String style = markers.apply(paragraph);
+      if (style != null) marker.getStyleClass().add(style);
+      HBox graphic = new HBox(lineNumbers.apply(paragraph), marker);
+      graphic.setAlignment(Pos.CENTER_LEFT);
+      return graphic;
+    });
+  }
+
   public void showParagraphPretty(int line) {
     if (line > 4) {
       this.showParagraphAtTop(line - 5);
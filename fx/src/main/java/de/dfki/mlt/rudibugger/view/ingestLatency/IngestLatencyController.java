@@ -0,0 +1,158 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.view.ingestLatency;
+
+import static de.dfki.mlt.rudibugger.rpc.IngestLatency.toMicros;
+
+import de.dfki.mlt.rudibugger.HelperWindows;
+import de.dfki.mlt.rudibugger.rpc.IngestLatency;
+import de.dfki.mlt.rudibugger.rpc.LatencyHistogram;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shows the latencies of received logs until they reach the stages of their
+ * way into the rule logging table. The shown values are refreshed every
+ * second and can be reset or exported as CSV.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class IngestLatencyController {
+
+  static Logger log = LoggerFactory.getLogger("ingestLatency");
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The measured latencies. */
+  private final IngestLatency _latency;
+
+  /** Shows one row per stage. */
+  private final TableView<IngestLatency.Stage> _table = new TableView<>(
+          FXCollections.observableArrayList(
+          IngestLatency.Stage.values()));
+
+  /** Refreshes the table every second while the window is shown. */
+  private final Timeline _refresh = new Timeline(
+          new KeyFrame(Duration.seconds(1), e -> _table.refresh()));
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates the content of a latency window.
+   *
+   * @param latency
+   *        The latencies to show
+   */
+  public IngestLatencyController(IngestLatency latency) {
+    _latency = latency;
+    _refresh.setCycleCount(Animation.INDEFINITE);
+
+    addColumn("Stage", 100, s -> s.label);
+    addColumn("Logs", 80, s -> Long.toString(histogram(s).getCount()));
+    addColumn("p50 (us)", 80, s -> toMicros(histogram(s).getPercentile(50)));
+    addColumn("p99 (us)", 80, s -> toMicros(histogram(s).getPercentile(99)));
+    addColumn("Max (us)", 80, s -> toMicros(histogram(s).getMax()));
+    _table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+  }
+
+  private LatencyHistogram histogram(IngestLatency.Stage stage) {
+    return _latency.get(stage);
+  }
+
+  private void addColumn(String title, double width,
+          Function<IngestLatency.Stage, String> value) {
+    TableColumn<IngestLatency.Stage, String> tc = new TableColumn<>(title);
+    tc.setPrefWidth(width);
+    tc.setSortable(false);
+    tc.setCellValueFactory(v ->
+            new ReadOnlyStringWrapper(value.apply(v.getValue())));
+    _table.getColumns().add(tc);
+  }
+
+  /**
+   * Creates the window's content and starts refreshing it while the given
+   * stage is shown.
+   *
+   * @param stage
+   *        The window's stage
+   * @return The window's content
+   */
+  public BorderPane createContent(Stage stage) {
+    Button reset = new Button("Reset");
+    reset.setOnAction(e -> {
+      _latency.reset();
+      _table.refresh();
+    });
+    Button export = new Button("Export...");
+    export.setOnAction(e -> {
+      Path file = HelperWindows.openExportLatencyDialog(stage);
+      if (file != null) export(file);
+    });
+    HBox buttons = new HBox(8, reset, export);
+    buttons.setPadding(new Insets(8));
+
+    BorderPane pane = new BorderPane(_table);
+    pane.setBottom(buttons);
+
+    stage.setOnShown(e -> _refresh.play());
+    stage.setOnHidden(e -> _refresh.stop());
+    return pane;
+  }
+
+  /**
+   * Writes the current latencies to the given file as CSV.
+   *
+   * @param file
+   *        The file to write to
+   */
+  private void export(Path file) {
+    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      _latency.writeCsv(out);
+      log.info("Exported ingest latencies to " + file);
+    } catch (IOException ex) {
+      log.error("Could not export ingest latencies: " + ex.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.view.logCapture;
+
+import de.dfki.mlt.rudibugger.project.Project;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.rpc.LogCapture;
+import de.dfki.mlt.rudibugger.rpc.LogTrigger;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+/**
+ * Lets the user capture only the live logs around a trigger: the rules
+ * (by id or a regular expression on <code>import:rule</code>) and the
+ * evaluation results (e.g. <code>0?1</code>) a triggering log must have, and
+ * how many logs before and after it are kept. All other logs are discarded
+ * when they are received.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class LogCaptureController {
+
+  /** The default number of logs before and after the trigger. */
+  private static final int DEFAULT_WINDOW = 1000;
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The project whose logs are captured. */
+  private final Project _project;
+
+  /** The triggering rules, empty for all. */
+  private final TextField _rules = new TextField();
+
+  /** The triggering result pattern, empty for all. */
+  private final TextField _results = new TextField();
+
+  /** The number of logs before the trigger. */
+  private final TextField _preTrigger
+          = new TextField(Integer.toString(DEFAULT_WINDOW));
+
+  /** The number of logs after the trigger. */
+  private final TextField _postTrigger
+          = new TextField(Integer.toString(DEFAULT_WINDOW));
+
+  /** Shows the state of the capture or why it could not be started. */
+  private final Label _status = new Label();
+
+  /** Updates the status twice per second while the window is shown. */
+  private final Timeline _refresh = new Timeline(
+          new KeyFrame(Duration.millis(500), e -> showState()));
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates the content of a capture window.
+   *
+   * @param project
+   *        The project whose logs are captured
+   */
+  public LogCaptureController(Project project) {
+    _project = project;
+    _refresh.setCycleCount(Animation.INDEFINITE);
+    _rules.setPromptText("any rule");
+    _results.setPromptText("any result, e.g. 0?1");
+    showState();
+  }
+
+  /** Arms a new capture with the entered trigger and window. */
+  private void arm() {
+    RuleModel rm = _project.getRuleModel();
+    if (rm == null) {
+      _status.setText("No rule model.");
+      return;
+    }
+    try {
+      LogTrigger trigger = LogTrigger.ANY;
+      if (! _rules.getText().trim().isEmpty())
+        trigger = LogTrigger.forRules(matchingRules(rm,
+                _rules.getText().trim()));
+      if (! _results.getText().trim().isEmpty())
+        trigger = trigger.and(LogTrigger.forResults(
+                _results.getText().trim()));
+      _project.vonda.startCapture(trigger,
+              Integer.parseInt(_preTrigger.getText().trim()),
+              Integer.parseInt(_postTrigger.getText().trim()));
+      showState();
+    } catch (IllegalArgumentException ex) {
+      _status.setText(ex.getMessage());
+    }
+  }
+
+  /**
+   * @param rm
+   *        The rule model
+   * @param rules
+   *        A rule id or a regular expression found in
+   *        <code>import:rule</code>
+   * @return The ids of the matching rules
+   */
+  private static BitSet matchingRules(RuleModel rm, String rules) {
+    BitSet ids = new BitSet();
+    if (rules.matches("\\d+")) {
+      ids.set(Integer.parseInt(rules));
+      return ids;
+    }
+    Pattern p = Pattern.compile(rules);
+    for (Map.Entry<Integer, String> e : rm.getRuleKeys().entrySet())
+      if (p.matcher(e.getValue()).find()) ids.set(e.getKey());
+    if (ids.isEmpty())
+      throw new IllegalArgumentException("No rule matches " + rules);
+    return ids;
+  }
+
+  /** Stops capturing, all logs are shown again. */
+  private void stop() {
+    _project.vonda.stopCapture();
+    showState();
+  }
+
+  /** Shows the state of the running capture. */
+  private void showState() {
+    LogCapture capture = _project.vonda.getCapture();
+    if (capture == null) {
+      _status.setText("Not capturing, all logs are shown.");
+      return;
+    }
+    switch (capture.getState()) {
+      case ARMED:
+        _status.setText("Armed, " + capture.getBufferedCount()
+                + " logs buffered.");
+        break;
+      case TRIGGERED:
+        _status.setText("Triggered, capturing " + capture.getRemainingCount()
+                + " more logs.");
+        break;
+      case CAPTURED:
+        _status.setText("Captured, further logs are discarded.");
+    }
+  }
+
+  /**
+   * Creates the window's content and starts refreshing it while the given
+   * stage is shown.
+   *
+   * @param stage
+   *        The window's stage
+   * @return The window's content
+   */
+  public VBox createContent(Stage stage) {
+    GridPane form = new GridPane();
+    form.setHgap(8);
+    form.setVgap(8);
+    form.addRow(0, new Label("Trigger rules:"), _rules);
+    form.addRow(1, new Label("Trigger results:"), _results);
+    form.addRow(2, new Label("Logs before trigger:"), _preTrigger);
+    form.addRow(3, new Label("Logs after trigger:"), _postTrigger);
+
+    Button arm = new Button("Arm");
+    arm.setOnAction(e -> arm());
+    Button stop = new Button("Stop");
+    stop.setOnAction(e -> stop());
+    HBox buttons = new HBox(8, arm, stop);
+
+    VBox content = new VBox(8, form, buttons, _status);
+    content.setPadding(new Insets(8));
+
+    stage.setOnShown(e -> _refresh.play());
+    stage.setOnHidden(e -> _refresh.stop());
+    return content;
+  }
+
+}
@@ -40,6 +40,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Paths;
 import javafx.application.HostServices;
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -107,6 +108,21 @@ public class MenuBarController {
   @FXML
   private MenuItem openRuleLoggingWindowItem;
 
+  @FXML
+  private MenuItem replaySessionItem;
+
+  @FXML
+  private MenuItem openIngestLatencyWindowItem;
+
+  @FXML
+  private MenuItem openRuleStatisticsWindowItem;
+
+  @FXML
+  private MenuItem openRuleCoverageWindowItem;
+
+  @FXML
+  private MenuItem openLogCaptureWindowItem;
+
   @FXML
   private MenuItem openTrackingWindowItem;
 
@@ -168,6 +184,11 @@ public class MenuBarController {
     saveLoggingStateItem.setDisable(val);
     findInProjectItem.setDisable(val);
     openRuleLoggingWindowItem.setDisable(val);
+    replaySessionItem.setDisable(val);
+    openIngestLatencyWindowItem.setDisable(val);
+    openRuleStatisticsWindowItem.setDisable(val);
+    openRuleCoverageWindowItem.setDisable(val);
+    openLogCaptureWindowItem.setDisable(val);
     openTrackingWindowItem.setDisable(val);
   }
 
@@ -320,6 +341,44 @@ public class MenuBarController {
       _model.getEditor(), _model.globalConf);
   }
 
+  @FXML
+  private void replaySession(ActionEvent event) {
+    Project project = _model.getLoadedProject();
+    Path journalFile = HelperWindows.openJournalFileDialog(_mainStage,
+      project.getJournalFolder());
+    if (journalFile == null) return;
+    Double speed = HelperWindows.openReplaySpeedDialog();
+    if (speed == null) return;
+    HelperWindows.showRuleLoggingWindow(_mainStage, project,
+      _model.getEditor(), _model.globalConf);
+    project.startReplay(journalFile, speed, replay ->
+      Platform.runLater(() -> HelperWindows.showReplayFinishedInfo(replay)));
+  }
+
+  @FXML
+  private void openIngestLatencyWindow(ActionEvent event) {
+    HelperWindows.showIngestLatencyWindow(_mainStage,
+      _model.getLoadedProject().getIngestLatency(), _model.globalConf);
+  }
+
+  @FXML
+  private void openRuleStatisticsWindow(ActionEvent event) {
+    HelperWindows.showRuleStatisticsWindow(_mainStage,
+      _model.getLoadedProject(), _model.getEditor(), _model.globalConf);
+  }
+
+  @FXML
+  private void openRuleCoverageWindow(ActionEvent event) {
+    HelperWindows.showRuleCoverageWindow(_mainStage,
+      _model.getLoadedProject(), _model.getEditor(), _model.globalConf);
+  }
+
+  @FXML
+  private void openLogCaptureWindow(ActionEvent event) {
+    HelperWindows.showLogCaptureWindow(_mainStage,
+      _model.getLoadedProject(), _model.globalConf);
+  }
+
   @FXML
   private void openTrackingWindow(ActionEvent event) {
     HelperWindows.showTrackingWindow(_mainStage, _model.getEditor(), _model.globalConf);
@@ -65,6 +65,12 @@ public class SettingsController {
     globalFontSize.setTextFormatter(
         new TextFormatter<>(
             change -> change.getControlNewText().matches("[0-9]{0,2}") ? change : null));
+    ruleLogCapacity.setTextFormatter(
+        new TextFormatter<>(
+            change -> change.getControlNewText().matches("[0-9]{0,9}") ? change : null));
+    ruleLogDownsamplingFactor.setTextFormatter(
+        new TextFormatter<>(
+            change -> change.getControlNewText().matches("[0-9]{0,3}") ? change : null));
   }
 
   /** Reflects the current configuration to the opened settings window. */
@@ -85,6 +91,7 @@ public class SettingsController {
             _globalConf.timeStampIndexProperty().get());
     autoConnectCheckBox.setSelected(
       _globalConf.getAutomaticallyConnectToVonda());
+    journalCheckBox.setSelected(_globalConf.getJournalRuleLogs());
     customFileEditor.setText((String) _globalConf.getOpenFileWith());
     customRuleEditor.setText((String) _globalConf.getOpenRuleWith());
 
@@ -92,6 +99,18 @@ public class SettingsController {
       _globalConf.showErrorInfoInRuleTreeViewContextMenu());
 
     globalFontSize.setText(_globalConf.getGlobalFontSize() + "");
+
+    ruleLogCapacityUnit.getItems().addAll("entries", "MB");
+    ruleLogCapacityUnit.setValue(
+      (String) _globalConf.getSetting("ruleLogCapacityUnit"));
+    ruleLogEvictionPolicy.getItems().addAll("dropOldest", "keepEveryNth");
+    ruleLogEvictionPolicy.setValue(
+      (String) _globalConf.getSetting("ruleLogEvictionPolicy"));
+    ruleLogCapacity.setText(_globalConf.getSetting("ruleLogCapacity") + "");
+    ruleLogDownsamplingFactor.setText(
+      _globalConf.getRuleLogDownsamplingFactor() + "");
+    ruleLogDownsamplingFactor.setDisable(
+      ! "keepEveryNth".equals(ruleLogEvictionPolicy.getValue()));
   }
 
   /** Defines listeners. */
@@ -121,11 +140,21 @@ public class SettingsController {
       _globalConf.setSetting("timeStampIndex", nv));
     autoConnectCheckBox.selectedProperty().addListener((cl, ov, nv) ->
       _globalConf.setSetting("automaticallyConnectToVonda", nv));
+    journalCheckBox.selectedProperty().addListener((cl, ov, nv) ->
+      _globalConf.setSetting("journalRuleLogs", nv));
     errorInfoInRuleTreeViewContextMenu.selectedProperty()
             .addListener((o, ov, nv) -> _globalConf
             .setSetting("showErrorInfoInRuleTreeViewContextMenu", nv));
     globalFontSize.textProperty().addListener((ob, ov, nv) ->
       _globalConf.setSetting("globalFontSize", nv));
+    storeWhenLeft(ruleLogCapacity, "ruleLogCapacity");
+    ruleLogCapacityUnit.valueProperty().addListener((ob, ov, nv) ->
+      _globalConf.setSetting("ruleLogCapacityUnit", nv));
+    ruleLogEvictionPolicy.valueProperty().addListener((ob, ov, nv) -> {
+      _globalConf.setSetting("ruleLogEvictionPolicy", nv);
+      ruleLogDownsamplingFactor.setDisable(! "keepEveryNth".equals(nv));
+    });
+    storeWhenLeft(ruleLogDownsamplingFactor, "ruleLogDownsamplingFactor");
     okButton.setOnAction(
         new EventHandler<ActionEvent>() {
           @Override
@@ -136,6 +165,18 @@ public class SettingsController {
   }
 
 
+  /**
+   * Stores the text of the given field when Enter is pressed or the field
+   * loses the focus. The rule logging view applies its settings immediately,
+   * it must not shrink while a number is being typed.
+   */
+  private void storeWhenLeft(TextField field, String key) {
+    field.setOnAction(e -> _globalConf.setSetting(key, field.getText()));
+    field.focusedProperty().addListener((ob, ov, nv) -> {
+      if (! nv) _globalConf.setSetting(key, field.getText());
+    });
+  }
+
   /* ***************************************************************************
    * GUI ELEMENTS
    * **************************************************************************/
@@ -185,6 +226,10 @@ public class SettingsController {
   @FXML
   private CheckBox autoConnectCheckBox;
 
+  /** Should be selected if received logs should be written to disk. */
+  @FXML
+  private CheckBox journalCheckBox;
+
   /**
    * Defines if the context menu in the ruleTreeView should contain a link to
    * occurred warnings and errors during compilation.
@@ -195,6 +240,22 @@ public class SettingsController {
   @FXML
   private TextField globalFontSize;
 
+  /** Defines how many logged rules are kept (see unit). */
+  @FXML
+  private TextField ruleLogCapacity;
+
+  /** Defines whether the capacity is given in entries or megabytes. */
+  @FXML
+  private ChoiceBox<String> ruleLogCapacityUnit;
+
+  /** Defines what happens to old logged rules if the capacity is reached. */
+  @FXML
+  private ChoiceBox<String> ruleLogEvictionPolicy;
+
+  /** Defines N for the keep-every-Nth eviction policy. */
+  @FXML
+  private TextField ruleLogDownsamplingFactor;
+
   @FXML
   private Button okButton;
 
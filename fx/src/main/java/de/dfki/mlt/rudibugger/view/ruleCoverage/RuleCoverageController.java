@@ -0,0 +1,275 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.view.ruleCoverage;
+
+import de.dfki.mlt.rudibugger.HelperWindows;
+import de.dfki.mlt.rudibugger.editor.Editor;
+import de.dfki.mlt.rudibugger.editor.RudibuggerEditor;
+import de.dfki.mlt.rudibugger.project.Project;
+import de.dfki.mlt.rudibugger.project.ruleModel.ImportInfoExtended;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleCoverage;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleCoverage.Summary;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleCoverageReport;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleInfoExtended;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudimant.common.BasicInfo;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shows the coverage of the rules of every import: how many rules fired and
+ * how many base terms evaluated to true, false or were shortcut, accumulated
+ * over the received and replayed logs. The shown values are refreshed every
+ * second and can be reset or exported as HTML or CSV. On demand, the coverage
+ * of every rule is marked next to its line in rudibugger's editor.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleCoverageController {
+
+  static Logger log = LoggerFactory.getLogger("ruleCoverage");
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The project whose rule model's coverage is shown. */
+  private final Project _project;
+
+  /** Shows the coverage next to the rules (or null, if not supported). */
+  private final RudibuggerEditor _editor;
+
+  /** The shown imports. */
+  private final ObservableList<ImportInfoExtended> _imports
+          = FXCollections.observableArrayList();
+
+  /** Shows one row per import containing rules. */
+  private final TableView<ImportInfoExtended> _table
+          = new TableView<>(_imports);
+
+  /** The summaries of the shown imports. */
+  private final Map<ImportInfoExtended, Summary> _summaries = new HashMap<>();
+
+  /** Shows the overall coverage. */
+  private final Label _total = new Label();
+
+  /** Marks the coverage in the editor. */
+  private final ToggleButton _markInEditor
+          = new ToggleButton("Mark in editor");
+
+  /** The rule model of the shown imports. */
+  private RuleModel _ruleModel;
+
+  /** Refreshes the table every second while the window is shown. */
+  private final Timeline _refresh = new Timeline(
+          new KeyFrame(Duration.seconds(1), e -> refresh()));
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates the content of a coverage window.
+   *
+   * @param project
+   *        The project whose coverage is shown
+   * @param editor
+   *        The editor, markers can only be shown in rudibugger's own one
+   */
+  public RuleCoverageController(Project project, Editor editor) {
+    _project = project;
+    _editor = editor instanceof RudibuggerEditor
+            ? (RudibuggerEditor) editor : null;
+    _refresh.setCycleCount(Animation.INDEFINITE);
+
+    TableColumn<ImportInfoExtended, String> label
+            = new TableColumn<>("Import");
+    label.setPrefWidth(160);
+    label.setCellValueFactory(v ->
+            new ReadOnlyStringWrapper(v.getValue().getLabel()));
+    _table.getColumns().add(label);
+    addColumn("Rules", s -> s.rules);
+    addColumn("Fired", s -> s.firedRules);
+    addColumn("Terms", s -> s.terms);
+    addColumn("True", s -> s.termsTrue);
+    addColumn("False", s -> s.termsFalse);
+    addColumn("Both", s -> s.termsBoth);
+    addColumn("Shortcut", s -> s.termsShortcut);
+    TableColumn<ImportInfoExtended, Number> percentage
+            = new TableColumn<>("Covered (%)");
+    percentage.setPrefWidth(80);
+    percentage.setCellValueFactory(v -> new ReadOnlyObjectWrapper<>(
+            Math.round(_summaries.get(v.getValue()).getPercentage())));
+    _table.getColumns().add(percentage);
+    _table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+    _markInEditor.setDisable(_editor == null);
+    _markInEditor.selectedProperty().addListener((o, ov, nv) -> {
+      if (! nv) _editor.setLineMarkers(null);
+      refresh();
+    });
+    refresh();
+  }
+
+  private void addColumn(String title, ToIntFunction<Summary> value) {
+    TableColumn<ImportInfoExtended, Number> tc = new TableColumn<>(title);
+    tc.setPrefWidth(60);
+    tc.setCellValueFactory(v -> new ReadOnlyObjectWrapper<>(
+            value.applyAsInt(_summaries.get(v.getValue()))));
+    _table.getColumns().add(tc);
+  }
+
+  /** Summarizes the imports of the project's current rule model. */
+  private void refresh() {
+    RuleModel rm = _project.getRuleModel();
+    if (rm != _ruleModel) {
+      _ruleModel = rm;
+      _summaries.clear();
+      _imports.clear();
+      if (rm != null)
+        rm.getPathToImportMap().values().stream()
+                .filter(ImportInfoExtended::containsRules)
+                .sorted((x, y) -> x.getLabel().compareTo(y.getLabel()))
+                .forEach(_imports::add);
+    }
+    if (rm == null) {
+      _total.setText("No rule model.");
+      return;
+    }
+    RuleCoverage coverage = rm.getCoverage();
+    for (ImportInfoExtended ii : _imports)
+      _summaries.put(ii, coverage.summarize(ii, false));
+    _table.refresh();
+    _table.sort();
+    Summary all = coverage.summarize(rm.getRootImport(), true);
+    _total.setText(String.format("%.1f %% covered, %d of %d rules fired",
+            all.getPercentage(), all.firedRules, all.rules));
+    if (_markInEditor.isSelected()) markInEditor(rm);
+  }
+
+  /** Marks the coverage of every rule next to its line in the editor. */
+  private void markInEditor(RuleModel rm) {
+    RuleCoverage coverage = rm.getCoverage();
+    Map<Path, Map<Integer, String>> markers = new HashMap<>();
+    collectMarkers(rm.getRootImport(), coverage, markers);
+    _editor.setLineMarkers(file ->
+            markers.getOrDefault(file, Collections.emptyMap()));
+  }
+
+  private static void collectMarkers(BasicInfo info, RuleCoverage coverage,
+          Map<Path, Map<Integer, String>> markers) {
+    if (info instanceof RuleInfoExtended) {
+      RuleInfoExtended ri = (RuleInfoExtended) info;
+      String style = coverage.isCovered(ri.getId()) ? "coverageFull"
+              : coverage.hasFired(ri.getId()) ? "coveragePartial"
+              : "coverageNone";
+      markers.computeIfAbsent(ri.getSourceFile(), f -> new HashMap<>())
+              .put(ri.getLine(), style);
+    }
+    for (BasicInfo child : info.getChildren())
+      collectMarkers(child, coverage, markers);
+  }
+
+  /**
+   * Creates the window's content and starts refreshing it while the given
+   * stage is shown.
+   *
+   * @param stage
+   *        The window's stage
+   * @return The window's content
+   */
+  public BorderPane createContent(Stage stage) {
+    Button reset = new Button("Reset");
+    reset.setOnAction(e -> {
+      if (_ruleModel != null) _ruleModel.getCoverage().reset();
+      refresh();
+    });
+    Button export = new Button("Export...");
+    export.setOnAction(e -> {
+      Path file = HelperWindows.openExportCoverageDialog(stage);
+      if (file != null) export(file);
+    });
+    HBox buttons = new HBox(8, reset, export, _markInEditor, _total);
+    buttons.setAlignment(Pos.CENTER_LEFT);
+    buttons.setPadding(new Insets(8));
+
+    BorderPane pane = new BorderPane(_table);
+    pane.setBottom(buttons);
+
+    stage.setOnShown(e -> _refresh.play());
+    stage.setOnHidden(e -> {
+      _refresh.stop();
+      if (_markInEditor.isSelected()) _markInEditor.setSelected(false);
+    });
+    return pane;
+  }
+
+  /**
+   * Writes the current coverage to the given file, as CSV if its name ends
+   * with <code>.csv</code>, else as HTML.
+   *
+   * @param file
+   *        The file to write to
+   */
+  private void export(Path file) {
+    if (_ruleModel == null) return;
+    RuleCoverage coverage = _ruleModel.getCoverage();
+    ImportInfoExtended root = _ruleModel.getRootImport();
+    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      if (file.getFileName().toString().endsWith(".csv"))
+        RuleCoverageReport.writeCsv(coverage, root, out);
+      else
+        RuleCoverageReport.writeHtml(coverage, root,
+                "Rule coverage of " + _project.getProjectName(), out);
+      log.info("Exported rule coverage to " + file);
+    } catch (IOException ex) {
+      log.error("Could not export rule coverage: " + ex.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.view.ruleLoggingTableView;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogData.StringPart;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer.RenderedLog;
+import java.util.List;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import static de.dfki.mlt.rudibugger.view.ruleLoggingTableView.ColourMap.colourMap;
+import javafx.scene.control.TableCell;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+
+/**
+ * This TableCell is responsible for the appearance of the rightmost column of
+ * the ruleLoggingTableView which contains the content of the rule itself
+ * and what parts of it were evaluated to which state.
+ *
+ * This is where the short-cut logic will be visually shown as it clearly
+ * indicates what part of the rule have not been evaluated.
+ *
+ * The cell keeps its <code>TextFlow</code> and <code>Text</code> nodes and only
+ * updates their content, so that scrolling does not build new scene graph
+ * nodes.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class EvaluatedCellFactory extends TableCell<LogData, LogData> {
+
+  /** Reconstructs the evaluated rule parts of a log. */
+  private final LogDataRenderer _renderer;
+
+  /** Shows the evaluated rule parts, reused for every item. */
+  private final TextFlow _textFlow = new TextFlow();
+
+  /** The currently shown log, rendered logs are shared by equal logs. */
+  private RenderedLog _shown;
+
+  /**
+   * Defines the look of this cell.
+   *
+   * @param renderer
+   *        Reconstructs the evaluated rule parts of a log
+   */
+  public EvaluatedCellFactory(LogDataRenderer renderer) {
+    _renderer = renderer;
+  }
+
+  @Override
+  protected void updateItem(LogData item, boolean empty) {
+    super.updateItem(item, empty);
+
+    if (empty || item == null) {
+      setText(null);
+      setGraphic(null);
+      return;
+    }
+    RenderedLog rendered = _renderer.render(item);
+    if (rendered != _shown) {
+      show(rendered.evaluatedRuleParts);
+      _shown = rendered;
+    }
+    if (getGraphic() != _textFlow) setGraphic(_textFlow);
+  }
+
+  /**
+   * Updates the <code>Text</code> nodes of this cell, nodes are only created
+   * if there are more parts than ever before.
+   */
+  private void show(List<StringPart> parts) {
+    ObservableList<Node> texts = _textFlow.getChildren();
+    int n = parts.size();
+    if (texts.size() > n) texts.remove(n, texts.size());
+    for (int i = 0; i < n; i++) {
+      StringPart x = parts.get(i);
+      Text t;
+      if (i < texts.size()) {
+        t = (Text) texts.get(i);
+        t.setText(x.content);
+      } else {
+        t = new Text(x.content);
+        texts.add(t);
+      }
+      t.setFill(colourMap.get(x.evalOutcome));
+    }
+  }
+
+}
@@ -20,6 +20,8 @@
 package de.dfki.mlt.rudibugger.view.ruleLoggingTableView;
 
 import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogData.StringPart;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer;
 import static de.dfki.mlt.rudibugger.view.ruleLoggingTableView.ColourMap.colourMap;
 import javafx.scene.control.TableCell;
 import javafx.scene.text.Text;
@@ -27,26 +29,45 @@ import javafx.scene.text.TextFlow;
 
 /**
  * This TableCell is responsible for the appearance of the middle column of
- * the ruleLoggingTableView which contains the rule's label.
+ * the ruleLoggingTableView which contains the rule's label. Its
+ * <code>Text</code> node is reused for every item.
  *
  * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
  */
-public class LabelCellFactory extends TableCell<LogData, LogData.StringPart> {
+public class LabelCellFactory extends TableCell<LogData, LogData> {
+
+  /** Reconstructs the label of a log. */
+  private final LogDataRenderer _renderer;
+
+  /** Shows the label. */
+  private final Text _text = new Text();
+
+  /** Contains the label. */
+  private final TextFlow _textFlow = new TextFlow(_text);
+
+  /**
+   * Defines the look of this cell.
+   *
+   * @param renderer
+   *        Reconstructs the label of a log
+   */
+  public LabelCellFactory(LogDataRenderer renderer) {
+    _renderer = renderer;
+  }
 
   @Override
-  protected void updateItem(LogData.StringPart item, boolean empty) {
+  protected void updateItem(LogData item, boolean empty) {
     super.updateItem(item, empty);
 
     if (empty || item == null) {
       setText(null);
       setGraphic(null);
     } else {
-      TextFlow textFlow = new TextFlow();
-      Text t = new Text(item.content);
-        t.setFill(colourMap.get(item.evalOutcome));
-        textFlow.getChildren().add(t);
-        setGraphic(textFlow);
-      }
+      StringPart label = _renderer.render(item).label;
+      _text.setText(label.content);
+      _text.setFill(colourMap.get(label.evalOutcome));
+      if (getGraphic() != _textFlow) setGraphic(_textFlow);
     }
-  
-  }
\ No newline at end of file
+  }
+
+}
\ No newline at end of file
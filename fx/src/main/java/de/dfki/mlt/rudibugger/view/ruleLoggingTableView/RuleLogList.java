@@ -0,0 +1,220 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+package de.dfki.mlt.rudibugger.view.ruleLoggingTableView;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore.EvictionPolicy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Presents a <code>RuleLogStore</code> as an observable list for the rule
+ * logging table. By default the newest log has index 0, but the list can also
+ * present the oldest log first. As logs are appended in the order they have
+ * been received, this replaces sorting by time: sorting a 100k entry table on
+ * every pulse would freeze the UI. Every change reports exactly the evicted
+ * and the appended rows, so that the table only has to process those.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogList extends ObservableListBase<LogData> {
+
+  /** Contains the logs. */
+  private final RuleLogStore _store;
+
+  /** Reused buffer collecting the logs dropped during one append. */
+  private final ArrayList<LogData> _dropped = new ArrayList<>();
+
+  /** True, if the newest log has index 0, else the oldest one. */
+  private boolean _newestFirst = true;
+
+  /**
+   * Creates a new list on top of the given store.
+   *
+   * @param store
+   *        The store containing the logs
+   */
+  public RuleLogList(RuleLogStore store) {
+    _store = store;
+  }
+
+  @Override
+  public LogData get(int index) {
+    return _store.get(row(index, _store.size()));
+  }
+
+  /**
+   * Converts a chronological index into a row index and vice versa.
+   *
+   * @param i
+   *        The index to convert
+   * @param size
+   *        The size of the list the index refers to
+   */
+  private int row(int i, int size) {
+    return _newestFirst ? size - 1 - i : i;
+  }
+
+  /**
+   * Defines which log is shown first. Changing the order is reported as a
+   * permutation.
+   *
+   * @param newestFirst
+   *        True, if the newest log should have index 0, else the oldest one
+   */
+  public void setNewestFirst(boolean newestFirst) {
+    if (_newestFirst == newestFirst) return;
+    _newestFirst = newestFirst;
+    int size = _store.size();
+    if (size == 0) return;
+    int[] permutation = new int[size];
+    for (int i = 0; i < size; i++) permutation[i] = size - 1 - i;
+    beginChange();
+    nextPermutation(0, size, permutation);
+    endChange();
+  }
+
+  /** @return True, if the newest log has index 0, else the oldest one */
+  public boolean isNewestFirst() { return _newestFirst; }
+
+  @Override
+  public int size() { return _store.size(); }
+
+  /**
+   * Appends new logs as a single change, evicting old logs if necessary.
+   *
+   * If the new logs fill at most a quarter of the store, every eviction only
+   * hits logs that were already shown and the store is thinned out at most
+   * once, so the evicted rows are reported by their index. Larger batches
+   * (only possible with very small stores) replace the whole list.
+   *
+   * @param logs
+   *        The new logs, oldest first
+   */
+  public void append(Collection<LogData> logs) {
+    if (logs.isEmpty()) return;
+    if (logs.size() > _store.getCapacity() / 4) {
+      List<LogData> before = new ArrayList<>(this);
+      for (LogData d : logs) {
+        if (_store.isFull()) evict(-1);
+        _store.append(d);
+      }
+      beginChange();
+      nextReplace(0, _store.size(), before);
+      endChange();
+      return;
+    }
+    int oldSize = _store.size();
+    beginChange();
+    try {
+      for (LogData d : logs) {
+        if (_store.isFull()) evict(oldSize);
+        _store.append(d);
+      }
+      reportDropped(oldSize);
+      int from = _newestFirst ? 0 : _store.size() - logs.size();
+      nextAdd(from, from + logs.size());
+    } finally {
+      _dropped.clear();
+      endChange();
+    }
+  }
+
+  /**
+   * Makes room for at least one log according to the eviction policy.
+   * Downsampled logs are reported at once, dropped logs are collected and
+   * reported by {@link #reportDropped(int)}.
+   *
+   * @param oldSize
+   *        The size of the list before the current change, or -1 if nothing
+   *        has to be reported
+   */
+  private void evict(int oldSize) {
+    if (_store.getPolicy() == EvictionPolicy.DROP_OLDEST) {
+      LogData d = _store.removeOldest();
+      if (oldSize >= 0) _dropped.add(d);
+      return;
+    }
+    if (oldSize >= 0) {
+      // ascending row indices, each removal shifts the following rows
+      int olderHalf = _store.size() / 2;
+      int removed = 0;
+      for (int k = 0; k < olderHalf; k++) {
+        int i = _newestFirst ? olderHalf - 1 - k : k;
+        if (! _store.survivesDownsampling(i))
+          nextRemove(row(i, oldSize) - removed++, _store.get(i));
+      }
+    }
+    _store.downsample();
+  }
+
+  /**
+   * Reports the dropped logs, which have been the last (or first) rows of
+   * the list, as a single removal.
+   */
+  private void reportDropped(int oldSize) {
+    int count = _dropped.size();
+    int from = _newestFirst ? oldSize - count : 0;
+    for (int k = 0; k < count; k++)
+      nextRemove(from, _dropped.get(_newestFirst ? count - 1 - k : k));
+  }
+
+  /**
+   * Applies new settings to the store. If the new capacity is smaller than
+   * the number of logs, the oldest logs are removed.
+   *
+   * @param capacity
+   *        The maximum number of logs
+   * @param policy
+   *        Defines what happens when the store is full
+   * @param downsamplingFactor
+   *        Only every Nth log is kept by {@link EvictionPolicy#KEEP_EVERY_NTH}
+   */
+  public void reconfigure(int capacity, EvictionPolicy policy,
+          int downsamplingFactor) {
+    int oldSize = _store.size();
+    _store.setPolicy(policy, downsamplingFactor);
+    _dropped.addAll(_store.setCapacity(capacity));
+    if (_dropped.isEmpty()) return;
+    beginChange();
+    try {
+      reportDropped(oldSize);
+    } finally {
+      _dropped.clear();
+      endChange();
+    }
+  }
+
+  @Override
+  public void clear() {
+    if (_store.size() == 0) return;
+    List<LogData> before = new ArrayList<>(this);
+    _store.clear();
+    beginChange();
+    nextRemove(0, before);
+    endChange();
+  }
+
+  /** @return The underlying store */
+  public RuleLogStore getStore() { return _store; }
+
+}
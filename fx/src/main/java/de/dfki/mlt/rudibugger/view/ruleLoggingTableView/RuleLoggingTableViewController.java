@@ -0,0 +1,292 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+package de.dfki.mlt.rudibugger.view.ruleLoggingTableView;
+
+import de.dfki.mlt.rudibugger.GlobalConfiguration;
+import de.dfki.mlt.rudibugger.editor.Editor;
+import de.dfki.mlt.rudibugger.rpc.IngestLatency;
+import de.dfki.mlt.rudibugger.rpc.IngestLatency.Stage;
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogDataRenderer;
+import de.dfki.mlt.rudibugger.rpc.LogIngestQueue;
+import de.dfki.mlt.rudibugger.rpc.TimestampService;
+import de.dfki.mlt.rudibugger.project.Project;
+import de.dfki.mlt.rudibugger.project.VondaRuntimeConnection;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleInfoExtended;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore;
+import java.util.ArrayList;
+import java.util.List;
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumn.SortType;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLoggingTableViewController {
+
+  static Logger log = LoggerFactory.getLogger("ruleLoggingTable");
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  private GlobalConfiguration _globalConf;
+  private Editor _editor;
+  private VondaRuntimeConnection _vonda;
+  private Project _project;
+
+  /** Represents the list of logged rules, newest first. */
+  private RuleLogList ruleLoggingList;
+
+  /** The maximum number of logs added to the table per pulse. */
+  private static final int MAX_LOGS_PER_PULSE = 4096;
+
+  /** Reused buffer collecting the logs of one pulse. */
+  private final ArrayList<LogData> _pulseBuffer = new ArrayList<>();
+
+  /**
+   * A sorted copy of the logs, shown when the table is sorted by another
+   * column than the time.
+   */
+  private final ObservableList<LogData> _resortedLogs
+    = FXCollections.observableArrayList();
+
+  /** The copy is sorted again at most once per interval (in nanoseconds). */
+  private static final long RESORT_INTERVAL = 1_000_000_000L;
+
+  /** When the copy has been sorted the last time. */
+  private long _lastResort;
+
+  /** True, if logs have been appended since the copy has been sorted. */
+  private boolean _resortPending;
+
+
+  /* ***************************************************************************
+   * GUI ELEMENTS
+   * **************************************************************************/
+
+  /** Shows the logged rules as a table. */
+  private TableView<LogData> _ruleLoggingTableView;
+
+  /* Columns */
+  private final TableColumn<LogData, LogData> _labelColumn
+    = new TableColumn<>();
+  private final TableColumn<LogData, LogData> _evaluatedColumn
+    = new TableColumn<>();
+  private final TableColumn<LogData, LogData> _timeColumn
+    = new TableColumn<>();
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  public void init(Project project, Editor editor,
+    GlobalConfiguration globalConf, TableView tw) {
+    _globalConf = globalConf;
+    _editor = editor;
+    _ruleLoggingTableView = tw;
+    _vonda = project.vonda;
+    _project = project;
+    ruleLoggingList = new RuleLogList(new RuleLogStore(
+            globalConf.getRuleLogCapacity(),
+            globalConf.getRuleLogEvictionPolicy(),
+            globalConf.getRuleLogDownsamplingFactor()));
+    project.getMetrics().setLogStore(ruleLoggingList.getStore());
+
+    initRuleLoggingTableView(globalConf);
+    incomingRuleLogTimer.start();
+
+    /* this listener updates the timeStampIndex setting in the tableView */
+    globalConf.timeStampIndexProperty().addListener(cl -> {
+        updateTimeStampIndexSetting();
+    });
+
+    /* this listener applies changed capacity and eviction settings */
+    globalConf.addRuleLogSettingsListener(() ->
+      ruleLoggingList.reconfigure(globalConf.getRuleLogCapacity(),
+              globalConf.getRuleLogEvictionPolicy(),
+              globalConf.getRuleLogDownsamplingFactor()));
+  }
+
+
+  /**
+   * Adds new ruleLogging output to the ruleLoggingList. The queued logs are
+   * collected once per pulse and inserted as a single change. If the table is
+   * sorted by time, the list places them itself, else the sorted copy is
+   * updated at most once per {@link #RESORT_INTERVAL}.
+   *
+   * While a replay has pending logs, only those are taken from its own
+   * queue, so they do not interleave with live logs, which wait in theirs.
+   * The latencies of live logs are recorded when they are taken from the
+   * queue and after they have been inserted. Replayed logs carry their
+   * original timestamps and are therefore not measured. The logs have already
+   * been counted when they were received or replayed.
+   */
+  private final AnimationTimer incomingRuleLogTimer = new AnimationTimer() {
+    @Override
+    public void handle(long now) {
+      long start = System.nanoTime();
+      LogIngestQueue<LogData> replayed = _project.getReplayQueue();
+      if (replayed != null)
+        replayed.drainTo(_pulseBuffer, MAX_LOGS_PER_PULSE);
+      else
+        _vonda.drainLogs(_pulseBuffer, MAX_LOGS_PER_PULSE);
+      if (! _pulseBuffer.isEmpty()) {
+        boolean measure = replayed == null;
+        if (measure) recordLatencies(Stage.DEQUEUED);
+        ruleLoggingList.append(_pulseBuffer);
+        if (measure) recordLatencies(Stage.INSERTED);
+        _pulseBuffer.clear();
+        _resortPending = true;
+      }
+      if (_resortPending && _ruleLoggingTableView.getItems() == _resortedLogs
+          && now - _lastResort >= RESORT_INTERVAL)
+        resort(now);
+      _vonda.getLogQueue().recordDrain(System.nanoTime() - start);
+    }
+  };
+
+  /**
+   * Sort policy of the table. Sorting by time only changes the direction of
+   * the ruleLoggingList, which keeps its order while logs are appended. Any
+   * other order is shown as a sorted copy.
+   */
+  private boolean applySortOrder(TableView<LogData> table) {
+    List<TableColumn<LogData, ?>> order = table.getSortOrder();
+    if (order.isEmpty() || order.get(0) == _timeColumn) {
+      ruleLoggingList.setNewestFirst(order.isEmpty()
+              || _timeColumn.getSortType() == SortType.DESCENDING);
+      if (table.getItems() != ruleLoggingList) {
+        table.setItems(ruleLoggingList);
+        _resortedLogs.clear();
+      }
+    } else {
+      resort(System.nanoTime());
+      if (table.getItems() != _resortedLogs) table.setItems(_resortedLogs);
+    }
+    return true;
+  }
+
+  /** Sorts the copy of the logs according to the table's sort order. */
+  private void resort(long now) {
+    List<LogData> logs = new ArrayList<>(ruleLoggingList);
+    logs.sort(_ruleLoggingTableView.getComparator());
+    _resortedLogs.setAll(logs);
+    _lastResort = now;
+    _resortPending = false;
+  }
+
+  /** Records that the logs of the current pulse have reached a stage. */
+  private void recordLatencies(Stage stage) {
+    IngestLatency latency = _project.getIngestLatency();
+    long now = TimestampService.now();
+    for (LogData d : _pulseBuffer)
+      latency.record(stage, d.getTimestampNanos(), now);
+  }
+
+  public void adaptTableViewColumns() {
+    Double correctionValue = 18.0;
+    Double prefWidth = _ruleLoggingTableView.widthProperty().getValue()
+            - _labelColumn.getWidth() - _timeColumn.getWidth()
+            - correctionValue;
+    _evaluatedColumn.setPrefWidth(prefWidth);
+  }
+
+  public void updateTimeStampIndexSetting() {
+    boolean timeStampIndexSetting = _globalConf.timeStampIndexProperty().get();
+    TimestampStringCache cache
+            = new TimestampStringCache(timeStampIndexSetting);
+    _timeColumn.setCellFactory(value -> new TimestampCellFactory(cache));
+    if (timeStampIndexSetting) {
+      _timeColumn.setPrefWidth(126.24658203125);
+    } else {
+      _timeColumn.setPrefWidth(105.3310546875);
+    }
+  }
+
+  private void initLabelColumn(TableColumn<LogData, LogData> tc) {
+    LogDataRenderer renderer = _project.getLogRenderer();
+    tc.setText("Label");
+    tc.setPrefWidth(180.0);
+    tc.setCellValueFactory(v -> new ReadOnlyObjectWrapper<>(v.getValue()));
+    tc.setCellFactory(v -> new LabelCellFactory(renderer));
+    tc.setComparator((x, y) -> renderer.render(x).label.content
+            .compareTo(renderer.render(y).label.content));
+    tc.widthProperty().addListener(v -> adaptTableViewColumns());
+  }
+
+  private void initEvaluatedColumn(TableColumn<LogData, LogData> tc) {
+    LogDataRenderer renderer = _project.getLogRenderer();
+    tc.setText("Evaluated");
+    tc.setCellValueFactory(v -> new ReadOnlyObjectWrapper<>(v.getValue()));
+    tc.setCellFactory(v -> new EvaluatedCellFactory(renderer));
+    tc.setSortable(false);
+    tc.widthProperty().addListener(v -> adaptTableViewColumns());
+  }
+
+  private void initTimeColumn(TableColumn<LogData, LogData> tc) {
+    tc.setText("Time");
+    tc.setCellValueFactory(v -> new ReadOnlyObjectWrapper<>(v.getValue()));
+    tc.setComparator(LogData.BY_SEQUENCE);
+    tc.widthProperty().addListener((cl, ov, nv) -> adaptTableViewColumns());
+  }
+
+  private void initRuleLoggingTableView(GlobalConfiguration globalConf) {
+    initLabelColumn(_labelColumn);
+    initEvaluatedColumn(_evaluatedColumn);
+    initTimeColumn(_timeColumn);
+    updateTimeStampIndexSetting();
+
+    _ruleLoggingTableView.getColumns().addAll(
+      _timeColumn, _labelColumn, _evaluatedColumn);
+    _ruleLoggingTableView.setItems(ruleLoggingList);
+    _ruleLoggingTableView.setSortPolicy(t -> applySortOrder(t));
+
+    /* set cell height of TableView */
+    _ruleLoggingTableView.setFixedCellSize(
+        // this is a hack and can probably be done better
+        globalConf.getGlobalFontSize() + globalConf.getGlobalFontSize() / 2);
+
+    /* set column resizing policies */
+    _ruleLoggingTableView.widthProperty().addListener((cl, ov, nv) -> {
+      adaptTableViewColumns();
+    });
+
+    /* Jump to selected rule. */
+    _ruleLoggingTableView.getSelectionModel().selectedItemProperty()
+      .addListener((o, ov, nv) -> {
+        if (nv != null) openRule(((LogData) nv).getRuleId());
+      });
+  }
+
+  private void openRule(int ruleId) {
+    RuleInfoExtended rule = _project.getRuleModel().getRule(ruleId);
+    _editor.loadFileAtLine(rule.getSourceFile(), rule.getLine());
+  }
+
+}
@@ -20,8 +20,6 @@
 package de.dfki.mlt.rudibugger.view.ruleLoggingTableView;
 
 import de.dfki.mlt.rudibugger.rpc.LogData;
-import de.dfki.mlt.rudibugger.rpc.LogData.DatePart;
-import java.text.SimpleDateFormat;
 import javafx.scene.control.TableCell;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
@@ -29,50 +27,48 @@ import javafx.scene.text.TextFlow;
 /**
  * This TableCell is responsible for the appearance of the leftmost column of
  * the ruleLoggingTableView which contains the timestamp indicating when this
- * rule has been traversed / logged.
+ * rule has been traversed / logged. Its <code>Text</code> node is reused for
+ * every item, the formatted timestamps are cached.
  *
  * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
  */
-public class TimestampCellFactory extends TableCell<LogData, DatePart> {
+public class TimestampCellFactory extends TableCell<LogData, LogData> {
 
   /**
    * Defines the look of this cell.
    *
-   * @param timeStampIndex
-   *        Defines if an index should be shown alongside the timestamp
+   * @param cache
+   *        Formats the timestamps (with or without index) and caches them
    */
-  public TimestampCellFactory(boolean timeStampIndex) {
-    _timeStampIndex = timeStampIndex;
+  TimestampCellFactory(TimestampStringCache cache) {
+    _cache = cache;
   }
 
   /**
-   * Defines whether or not an index should be shown alongside the timestamp.
-   * This is especially useful when a lot of rules are logged and some of them
-   * are executed at the exact same millisecond.
+   * Formats and caches the timestamps. Defines whether or not an index should
+   * be shown alongside the timestamp. This is especially useful when a lot of
+   * rules are logged and some of them are executed at the exact same
+   * millisecond.
    */
-  private final boolean _timeStampIndex;
+  private final TimestampStringCache _cache;
 
-  /** Represents the current date at the time of creation. */
-  public static SimpleDateFormat dt = new SimpleDateFormat("HH:mm:ss.SSS");
+  /** Shows the timestamp. */
+  private final Text _text = new Text();
+
+  /** Contains the timestamp. */
+  private final TextFlow _textFlow = new TextFlow(_text);
 
   @Override
-    protected void updateItem(DatePart item, boolean empty) {
-      super.updateItem(item, empty);
+  protected void updateItem(LogData item, boolean empty) {
+    super.updateItem(item, empty);
 
-      if (empty || item == null) {
-        setText(null);
-        setGraphic(null);
-      } else {
-        TextFlow textFlow = new TextFlow();
-        Text t;
-        if (_timeStampIndex) {
-          t = new Text(dt.format(item.date) + " / " + item.counter);
-        } else {
-          t = new Text(dt.format(item.date));
-        }
-        textFlow.getChildren().add(t);
-        setGraphic(textFlow);
-      }
+    if (empty || item == null) {
+      setText(null);
+      setGraphic(null);
+    } else {
+      _text.setText(_cache.get(item));
+      if (getGraphic() != _textFlow) setGraphic(_textFlow);
     }
-    
   }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+package de.dfki.mlt.rudibugger.view.ruleLoggingTableView;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Caches the formatted timestamps of recently shown logs, so that scrolling
+ * back and forth does not format the same timestamps again. The cache is
+ * direct-mapped on the logs' sequence keys and never grows.
+ *
+ * An instance should only be used on the JavaFX application thread.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+final class TimestampStringCache {
+
+  /** The number of cached strings, must be a power of two. */
+  private static final int SIZE = 4096;
+
+  /** Formats the time of logging (immutable, may be shared by threads). */
+  static final DateTimeFormatter FORMATTER = DateTimeFormatter
+          .ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+  /** Defines whether the index within the millisecond is appended. */
+  private final boolean _timeStampIndex;
+
+  /** The sequence keys of the cached logs (0 means empty). */
+  private final long[] _keys = new long[SIZE];
+
+  /** The formatted timestamps of the cached logs. */
+  private final String[] _strings = new String[SIZE];
+
+  /**
+   * @param timeStampIndex
+   *        Defines if an index should be appended to the timestamp
+   */
+  TimestampStringCache(boolean timeStampIndex) {
+    _timeStampIndex = timeStampIndex;
+  }
+
+  /**
+   * @param item
+   *        A log
+   * @return The formatted timestamp of the given log
+   */
+  String get(LogData item) {
+    int slot = (int) (item.getSequence() & (SIZE - 1));
+    if (_keys[slot] == item.getSequence()) return _strings[slot];
+    String s = FORMATTER.format(Instant.ofEpochMilli(item.getTimestamp()));
+    if (_timeStampIndex) s = s + " / " + item.getCounter();
+    _keys[slot] = item.getSequence();
+    _strings[slot] = s;
+    return s;
+  }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.view.ruleStatistics;
+
+import de.dfki.mlt.rudibugger.editor.Editor;
+import de.dfki.mlt.rudibugger.project.Project;
+import de.dfki.mlt.rudibugger.rpc.LogLimiter;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleInfoExtended;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleStatistics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongBiFunction;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+/**
+ * Shows how often every rule has been logged, one row per rule that has been
+ * logged (or suppressed by its log policy) at least once. The rows can be sorted by every column, initially
+ * the rules with the highest rate come first. The shown values are
+ * refreshed every second, a double click opens the rule in the editor.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleStatisticsController {
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The project whose rule model's statistics are shown. */
+  private final Project _project;
+
+  /** Suppresses and counts the logs of the project's connection. */
+  private final LogLimiter _limiter;
+
+  /** Opens a rule on double click. */
+  private final Editor _editor;
+
+  /** The shown rules. */
+  private final ObservableList<RuleInfoExtended> _rules
+          = FXCollections.observableArrayList();
+
+  /** Shows one row per logged rule. */
+  private final TableView<RuleInfoExtended> _table = new TableView<>(_rules);
+
+  /** Shows the total number of logs. */
+  private final Label _total = new Label();
+
+  /** The rule model of the shown rules. */
+  private RuleModel _ruleModel;
+
+  /** The time of the last refresh, as of <code>System.nanoTime()</code>. */
+  private long _now = System.nanoTime();
+
+  /** Refreshes the table every second while the window is shown. */
+  private final Timeline _refresh = new Timeline(
+          new KeyFrame(Duration.seconds(1), e -> refresh()));
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * Creates the content of a rule statistics window.
+   *
+   * @param project
+   *        The project whose statistics are shown
+   * @param editor
+   *        Opens a rule on double click
+   */
+  public RuleStatisticsController(Project project, Editor editor) {
+    _project = project;
+    _limiter = project.vonda.getLimiter();
+    _editor = editor;
+    _refresh.setCycleCount(Animation.INDEFINITE);
+
+    TableColumn<RuleInfoExtended, String> label = new TableColumn<>("Rule");
+    label.setPrefWidth(200);
+    label.setCellValueFactory(v ->
+            new ReadOnlyStringWrapper(v.getValue().getLabel()));
+    _table.getColumns().add(label);
+    addColumn("Fired", (s, id) -> s.getFired(id));
+    addColumn("True", (s, id) -> s.getTrue(id));
+    addColumn("False", (s, id) -> s.getFalse(id));
+    addColumn("Shortcut", (s, id) -> s.getShortcut(id));
+    addColumn("Suppressed", (s, id) -> suppressed(id));
+    TableColumn<RuleInfoExtended, Number> rate
+            = new TableColumn<>("Rate (1/s)");
+    rate.setPrefWidth(70);
+    rate.setCellValueFactory(v -> new ReadOnlyObjectWrapper<>(
+            statistics().getRate(v.getValue().getId(), _now)));
+    rate.setCellFactory(tc -> new RateCell());
+    _table.getColumns().add(rate);
+    rate.setSortType(TableColumn.SortType.DESCENDING);
+    _table.getSortOrder().add(rate);
+    _table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+    _table.setRowFactory(tv -> {
+      TableRow<RuleInfoExtended> row = new TableRow<>();
+      row.setOnMouseClicked(e -> {
+        if (e.getClickCount() == 2 && e.getButton() == MouseButton.PRIMARY
+                && ! row.isEmpty()) {
+          RuleInfoExtended ri = row.getItem();
+          _editor.loadFileAtLine(ri.getSourceFile(), ri.getLine());
+        }
+      });
+      return row;
+    });
+    refresh();
+  }
+
+  private void addColumn(String title,
+          ToLongBiFunction<RuleStatistics, Integer> value) {
+    TableColumn<RuleInfoExtended, Number> tc = new TableColumn<>(title);
+    tc.setPrefWidth(70);
+    tc.setCellValueFactory(v -> new ReadOnlyObjectWrapper<>(
+            value.applyAsLong(statistics(), v.getValue().getId())));
+    _table.getColumns().add(tc);
+  }
+
+  private RuleStatistics statistics() {
+    return _ruleModel.getStatistics();
+  }
+
+  /** @return The number of suppressed logs of the given rule */
+  private long suppressed(int ruleId) {
+    return _limiter.getSuppressed(ruleId);
+  }
+
+  /** Shows rates with one decimal. */
+  private static class RateCell extends TableCell<RuleInfoExtended, Number> {
+    @Override
+    protected void updateItem(Number rate, boolean empty) {
+      super.updateItem(rate, empty);
+      setText(empty || rate == null
+              ? null : String.format("%.1f", rate.doubleValue()));
+    }
+  }
+
+  /**
+   * Takes the logged rules of the project's current rule model and sorts
+   * them by their current values.
+   */
+  private void refresh() {
+    _now = System.nanoTime();
+    RuleModel rm = _project.getRuleModel();
+    if (rm != _ruleModel) {
+      _ruleModel = rm;
+      _rules.clear();
+    }
+    if (rm == null) {
+      _total.setText("No rule model.");
+      return;
+    }
+    RuleStatistics stats = rm.getStatistics();
+    Set<Integer> ids = rm.idLoggingStatesMap().keySet();
+    int logged = 0;
+    for (int id : ids)
+      if (stats.getFired(id) > 0 || suppressed(id) > 0) logged++;
+    if (logged != _rules.size()) {
+      List<RuleInfoExtended> rules = new ArrayList<>(logged);
+      for (int id : ids)
+        if (stats.getFired(id) > 0 || suppressed(id) > 0)
+          rules.add(rm.getRule(id));
+      _rules.setAll(rules);
+    }
+    _table.refresh();
+    _table.sort();
+    long suppressed = _limiter.getTotalSuppressed();
+    _total.setText(stats.getTotal() + " logs of " + _rules.size() + " rules"
+            + (suppressed > 0 ? ", " + suppressed + " suppressed" : ""));
+  }
+
+  /**
+   * Creates the window's content and starts refreshing it while the given
+   * stage is shown.
+   *
+   * @param stage
+   *        The window's stage
+   * @return The window's content
+   */
+  public BorderPane createContent(Stage stage) {
+    Button reset = new Button("Reset");
+    reset.setOnAction(e -> {
+      if (_ruleModel != null) _ruleModel.getStatistics().reset();
+      _limiter.resetSuppressed();
+      _rules.clear();
+      refresh();
+    });
+    HBox buttons = new HBox(8, reset, _total);
+    buttons.setPadding(new Insets(8));
+
+    BorderPane pane = new BorderPane(_table);
+    pane.setBottom(buttons);
+
+    stage.setOnShown(e -> _refresh.play());
+    stage.setOnHidden(e -> _refresh.stop());
+    return pane;
+  }
+
+}
@@ -26,10 +26,15 @@ import static de.dfki.mlt.rudimant.common.ErrorInfo.ErrorType.*;
 
 import de.dfki.mlt.rudibugger.project.ruleModel.RuleInfoExtended;
 import de.dfki.mlt.rudibugger.project.ruleModel.ImportInfoExtended;
+import de.dfki.mlt.rudibugger.project.ruleModel.LoggingState;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleStatistics;
 import de.dfki.mlt.rudimant.common.BasicInfo;
 import static de.dfki.mlt.rudimant.common.Constants.*;
 import java.util.HashMap;
 import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.beans.value.WeakChangeListener;
 import javafx.css.PseudoClass;
 import javafx.geometry.Pos;
 import javafx.scene.control.TreeCell;
@@ -94,15 +99,31 @@ public class BasicInfoTreeCell extends TreeCell<BasicInfo> {
   /** TODO */
   private final GlobalConfiguration _globalConf;
 
+  /** Provides the log counters shown next to the rules. */
+  private final Project _project;
+
+  /** Shows how often the rule has been logged. */
+  private final Text _logCount = new Text();
+
   /* ***************************************************************************
    * CONSTRUCTOR
    * **************************************************************************/
 
-  /** Initializes a new cell. */
-  public BasicInfoTreeCell(Editor editor, GlobalConfiguration globalConf) {
+  /**
+   * Initializes a new cell.
+   *
+   * @param logCountsChanged
+   *        Changes whenever the shown log counters should be updated
+   */
+  public BasicInfoTreeCell(Editor editor, GlobalConfiguration globalConf,
+          Project project, ObservableValue<Number> logCountsChanged) {
     super();
     _editor = editor;
     _globalConf = globalConf;
+    _project = project;
+    _logCount.getStyleClass().add("ruleHitCount");
+    logCountsChanged.addListener(
+            new WeakChangeListener<>(logCountsListener));
   }
 
   /* ***************************************************************************
@@ -123,18 +144,42 @@ public class BasicInfoTreeCell extends TreeCell<BasicInfo> {
    * **************************************************************************/
 
   /** Used to listen to rule state changes. */
-  private final ChangeListener<Number> ruleStateListener = ((o, ov, nv)
-    -> this.stateIndicator.setImage(ICONS_RULES.get(nv.intValue())));
+  private final LoggingState.Listener ruleStateListener = ((ov, nv)
+    -> this.stateIndicator.setImage(ICONS_RULES.get(nv)));
 
   /** Used to listen to import state changes. */
-  private final ChangeListener<Number> importStateListener = ((o, ov, nv)
-    -> this.stateIndicator.setImage(ICONS_IMPORTS.get(nv.intValue())));
+  private final LoggingState.Listener importStateListener = ((ov, nv)
+    -> this.stateIndicator.setImage(ICONS_IMPORTS.get(nv)));
+
+  /** Used to update the shown log counter. */
+  private final ChangeListener<Number> logCountsListener = ((o, ov, nv)
+    -> updateLogCount());
 
 
   /* ***************************************************************************
    * METHODS
    * **************************************************************************/
 
+  /**
+   * Shows how often the cell's rule has been logged and how many of its logs
+   * have been suppressed by its log policy, if at all.
+   */
+  private void updateLogCount() {
+    RuleModel rm = _project.getRuleModel();
+    long fired = 0;
+    long suppressed = 0;
+    if (rm != null && getItem() instanceof RuleInfoExtended) {
+      int id = ((RuleInfoExtended) getItem()).getId();
+      RuleStatistics stats = rm.getStatistics();
+      fired = stats.getFired(id);
+      suppressed = _project.vonda.getLimiter().getSuppressed(id);
+    }
+    if (suppressed > 0)
+      _logCount.setText("(" + fired + ", " + suppressed + " suppressed)");
+    else
+      _logCount.setText(fired > 0 ? "(" + fired + ")" : "");
+  }
+
   @Override
   protected void updateItem(BasicInfo bi, boolean empty) {
 
@@ -180,9 +225,11 @@ public class BasicInfoTreeCell extends TreeCell<BasicInfo> {
         /* define a listener to reflect the rule logging state */
         ri.stateProperty().addListener(ruleStateListener);
 
-        /* define the shown content of the cell */
+        /* define the shown content of the cell, with the number of logs */
         HBox hbox = new HBox();
-        hbox.getChildren().addAll(stateIndicator, new Text(bi.getLabel()));
+        hbox.getChildren().addAll(stateIndicator, new Text(bi.getLabel()),
+                _logCount);
+        updateLogCount();
         hbox.setSpacing(5.0);
         hbox.setAlignment(Pos.CENTER_LEFT);
         setText(null);
@@ -191,7 +238,8 @@ public class BasicInfoTreeCell extends TreeCell<BasicInfo> {
         /* define the context menu */
         this.setOnContextMenuRequested(e -> {
           RuleContextMenu contextMenu
-                  = new RuleContextMenu(ri, _editor, _globalConf);
+                  = new RuleContextMenu(ri, _editor, _globalConf,
+                          _project.getRuleModel());
           contextMenu.show(this, e.getScreenX(), e.getScreenY());
         });
 
@@ -243,7 +291,8 @@ public class BasicInfoTreeCell extends TreeCell<BasicInfo> {
         /* define the context menu */
         this.setOnContextMenuRequested(e -> {
           ImportContextMenu contextMenu
-                  = new ImportContextMenu(ii, _editor, _globalConf);
+                  = new ImportContextMenu(ii, _editor, _globalConf,
+                          _project.getRuleModel());
           contextMenu.show(this, e.getScreenX(), e.getScreenY());
         });
 
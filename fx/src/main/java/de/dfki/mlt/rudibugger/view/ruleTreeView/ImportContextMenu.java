@@ -20,8 +20,11 @@
 package de.dfki.mlt.rudibugger.view.ruleTreeView;
 
 import de.dfki.mlt.rudibugger.GlobalConfiguration;
+import de.dfki.mlt.rudibugger.HelperWindows;
 import de.dfki.mlt.rudibugger.editor.Editor;
 import de.dfki.mlt.rudibugger.project.ruleModel.ImportInfoExtended;
+import de.dfki.mlt.rudibugger.project.ruleModel.LogPolicy;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
 import static de.dfki.mlt.rudimant.common.Constants.*;
 import de.dfki.mlt.rudimant.common.ErrorInfo;
 import java.util.LinkedHashMap;
@@ -72,6 +75,9 @@ public class ImportContextMenu extends ContextMenu {
 
   private final GlobalConfiguration _globalConf;
 
+  /** Is told about changed log policies. */
+  private final RuleModel _ruleModel;
+
 
   /* ***************************************************************************
    * CONSTRUCTOR
@@ -82,11 +88,12 @@ public class ImportContextMenu extends ContextMenu {
    * requested by clicking on an import.
    */
   public ImportContextMenu(ImportInfoExtended ii, Editor editor,
-          GlobalConfiguration globalConf) {
+          GlobalConfiguration globalConf, RuleModel ruleModel) {
     super();
     _item = ii;
     _editor = editor;
     _globalConf = globalConf;
+    _ruleModel = ruleModel;
     initializeMenuItems();
   }
 
@@ -104,6 +111,7 @@ public class ImportContextMenu extends ContextMenu {
     if (_item.containsRules()) {
       initRuleLoggingMenuItems();
       markCurrentRuleLoggingState();
+      initLogPolicyMenuItem();
     }
   }
 
@@ -152,6 +160,22 @@ public class ImportContextMenu extends ContextMenu {
     PSEUDO_BUTTON.setToggleGroup(toggleGroup);
   }
 
+  /** Creates the MenuItem limiting the logs of the Import's rules. */
+  private void initLogPolicyMenuItem() {
+    addSeparator();
+    LogPolicy policy = _item.getEffectiveLogPolicy();
+    MenuItem limit = new MenuItem("Limit logs of all child rules"
+            + (policy == null ? "" : " (" + policy + ")") + "...");
+    limit.setOnAction(e -> {
+      LogPolicy chosen = HelperWindows.openLogPolicyDialog(_item.getLabel(),
+              policy);
+      if (chosen == null) return;
+      _item.setLogPolicy(chosen.isUnlimited() ? null : chosen);
+      _ruleModel.logPoliciesChanged();
+    });
+    this.getItems().add(limit);
+  }
+
   /** Marks the corresponding MenuItem reflecting the ruleLoggingState. */
   private void markCurrentRuleLoggingState() {
     if (_item.getState() == STATE_PARTLY)
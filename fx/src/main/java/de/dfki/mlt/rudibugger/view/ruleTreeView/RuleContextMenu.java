@@ -20,8 +20,11 @@
 package de.dfki.mlt.rudibugger.view.ruleTreeView;
 
 import de.dfki.mlt.rudibugger.GlobalConfiguration;
+import de.dfki.mlt.rudibugger.HelperWindows;
 import de.dfki.mlt.rudibugger.editor.Editor;
+import de.dfki.mlt.rudibugger.project.ruleModel.LogPolicy;
 import de.dfki.mlt.rudibugger.project.ruleModel.RuleInfoExtended;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
 import static de.dfki.mlt.rudimant.common.Constants.*;
 import java.util.LinkedHashMap;
 import javafx.event.ActionEvent;
@@ -81,6 +84,9 @@ public class RuleContextMenu extends ContextMenu {
 
   private final GlobalConfiguration _globalConf;
 
+  /** Is told about changed log policies. */
+  private final RuleModel _ruleModel;
+
 
   /* ***************************************************************************
    * CONSTRUCTOR
@@ -91,11 +97,12 @@ public class RuleContextMenu extends ContextMenu {
    * requested by clicking on a rule.
    */
   public RuleContextMenu(RuleInfoExtended ri, Editor editor,
-          GlobalConfiguration globalConf) {
+          GlobalConfiguration globalConf, RuleModel ruleModel) {
     super();
     _item = ri;
     _editor = editor;
     _globalConf = globalConf;
+    _ruleModel = ruleModel;
     initializeMenuItems();
 
     /* mark the current state */
@@ -147,5 +154,18 @@ public class RuleContextMenu extends ContextMenu {
       this.getItems().addAll(sep2, childrenMenu);
     }
 
+    /* set MenuItem to limit the rule's logs */
+    LogPolicy policy = _item.getEffectiveLogPolicy();
+    MenuItem limit = new MenuItem("Limit logs"
+            + (policy == null ? "" : " (" + policy + ")") + "...");
+    limit.setOnAction(e -> {
+      LogPolicy chosen = HelperWindows.openLogPolicyDialog(_item.getLabel(),
+              policy);
+      if (chosen == null) return;
+      _item.setLogPolicy(chosen.isUnlimited() ? null : chosen);
+      _ruleModel.logPoliciesChanged();
+    });
+    this.getItems().addAll(new SeparatorMenuItem(), limit);
+
   }
 }
\ No newline at end of file
@@ -20,11 +20,18 @@ package de.dfki.mlt.rudibugger.view.ruleTreeView;
 
 import de.dfki.mlt.rudibugger.DataModel;
 import de.dfki.mlt.rudibugger.project.Project;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
 import de.dfki.mlt.rudimant.common.BasicInfo;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.LongProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeView;
+import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +44,13 @@ public class RuleTreeViewController {
   static Logger log = LoggerFactory.getLogger("ruleTreeViewCon.");
   private DataModel _model;
 
+  /** The number of logs when the shown log counters were updated. */
+  private final LongProperty _shownLogs = new SimpleLongProperty(0);
+
+  /** Updates the log counters shown next to the rules every second. */
+  private final Timeline _refreshLogCounts = new Timeline(
+          new KeyFrame(Duration.seconds(1), e -> refreshLogCounts()));
+
 
   /* ***************************************************************************
    * GUI ELEMENTS
@@ -61,13 +75,16 @@ public class RuleTreeViewController {
   public void init(DataModel model) {
     _model = model;
     listenForLoadedProject();
+    _refreshLogCounts.setCycleCount(Animation.INDEFINITE);
+    _refreshLogCounts.play();
   }
 
   private void listenForLoadedProject() {
     _model.loadedProjectProperty().addListener((o, ov, project) -> {
       if (project != null) {
         ruleTreeView.setCellFactory(value
-                -> new BasicInfoTreeCell(_model.getEditor(), _model.globalConf));
+                -> new BasicInfoTreeCell(_model.getEditor(), _model.globalConf,
+                        project, _shownLogs));
         if (project.getRuleModel() != null) {
           ruleTreeView.setRoot(buildRuleTreeView(
                   project.getRuleModel().getRootImport()));
@@ -90,8 +107,10 @@ public class RuleTreeViewController {
           oldRms = RuleTreeViewState.retrieveStateOf(ruleTreeView);
         ruleTreeView.setRoot(buildRuleTreeView(newRuleModel.getRootImport()));
         ruleTreeView.getRoot().setExpanded(true);
-        if (oldRuleModel != null)
+        if (oldRuleModel != null) {
           RuleTreeViewState.setStateOf(oldRms, ruleTreeView);
+          newRuleModel.logPoliciesChanged();
+        }
       } else {
         ruleTreeView.setRoot(null);
         log.debug("ruleTreeView has been resetted, RuleModel has been removed.");
@@ -119,6 +138,14 @@ public class RuleTreeViewController {
     return treeItem;
   }
 
+  /** Updates the shown log counters, if rules have been logged since. */
+  private void refreshLogCounts() {
+    Project project = _model.getLoadedProject();
+    RuleModel rm = project == null ? null : project.getRuleModel();
+    long logs = rm == null ? 0 : rm.getStatistics().getTotal();
+    _shownLogs.set(logs);
+  }
+
   /** Expands a given TreeItem and all its children. */
   private static void expandTreeItems(TreeItem item) {
     item.setExpanded(true);
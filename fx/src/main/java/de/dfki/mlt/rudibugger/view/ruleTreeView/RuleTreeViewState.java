@@ -33,11 +33,13 @@ import javafx.scene.control.TreeView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 
 /**
  * Represents a complete RuleModel's state. It includes
  *  - the logging state of every known rule,
+ *  - the log policy of every rule and import having one,
  *  - the expansion state of every item in the ruleTreeView, and
  *  - the scrollbar position in the ruleTreeView. //TODO
  *
@@ -93,6 +95,7 @@ public class RuleTreeViewState {
     rms._root = new RuleTreeViewStateItem(root.getValue().getLabel(),
             root.isExpanded(), root.getValue().getState());
     rms._root.isImport(true);
+    rms._root.setLogPolicy(root.getValue().getLogPolicy());
 
     /* Create children and add them */
     rms._root.addChildren(retrieveStateOfHelper(root, rms._root));
@@ -134,6 +137,7 @@ public class RuleTreeViewState {
             ruleStateItem.isImport(true);
           }
         }
+        ruleStateItem.setLogPolicy(itemValue.getLogPolicy());
       }
 
       else {
@@ -155,6 +159,7 @@ public class RuleTreeViewState {
             ruleStateItem.isImport(true);
           }
         }
+        ruleStateItem.setLogPolicy(itemValue.getLogPolicy());
       }
 
       /* Create children and add them */
@@ -175,8 +180,9 @@ public class RuleTreeViewState {
     /* Has this item already appeared once? */
     if (root.getValue().getLabel().equals(rms.getRoot().getLabel())) {
 
-      /* Set the expansion state */
+      /* Set the expansion state and the log policy */
       root.setExpanded(rms.getRoot().getProps().getIsExpanded());
+      root.getValue().setLogPolicy(rms.getRoot().getProps().getLogPolicy());
 
       /* Iterate over the children */
       for (Object x : root.getChildren()) {
@@ -199,10 +205,15 @@ public class RuleTreeViewState {
       /* Set the expansion state */
       obj.setExpanded(item.getChild(lab).getProps().getIsExpanded());
 
-      /* If this is a rule, also set the log state */
+      /* If this is a rule, also set the log state, always the log policy */
+      RuleTreeViewStateItemProperties props = item.getChild(lab).getProps();
       if (obj.getValue() instanceof RuleInfoExtended) {
         RuleInfoExtended rule = (RuleInfoExtended) obj.getValue();
-        rule.setState(item.getChild(lab).getProps().getLoggingState());
+        rule.setState(props.getLoggingState());
+        rule.setLogPolicy(props.getLogPolicy());
+      } else {
+        ((ImportInfoExtended) obj.getValue())
+                .setLogPolicy(props.getLogPolicy());
       }
 
       /* Iterate over the children */
@@ -243,7 +254,10 @@ public class RuleTreeViewState {
   public static void loadState(Path path, TreeView treeView) {
     RuleTreeViewState rtvs;
     try {
-      Yaml yaml = new Yaml();
+      LoaderOptions opt = new LoaderOptions();
+      opt.setTagInspector(tag ->
+          tag.getClassName().startsWith("de.dfki.mlt.rudibugger."));
+      Yaml yaml = new Yaml(opt);
       rtvs = (RuleTreeViewState) yaml.load(new FileReader(path.toFile()));
     } catch (FileNotFoundException e) {
       log.error("Could not read in configuration file");
@@ -19,6 +19,7 @@
 
 package de.dfki.mlt.rudibugger.view.ruleTreeView;
 
+import de.dfki.mlt.rudibugger.project.ruleModel.LogPolicy;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -69,6 +70,11 @@ public class RuleTreeViewStateItem {
     props.setLoggingState((Integer) logStat);
   }
 
+  /** Sets the log policy of the <code>RuleTreeViewStateItem</code>. */
+  public void setLogPolicy(LogPolicy policy) {
+    props.setLogPolicy(policy);
+  }
+
   /** Adds children to the <code>RuleTreeViewStateItem</code>. */
   public void addChildren(HashMap<String, RuleTreeViewStateItem> e) {
     if (!e.isEmpty()) {
@@ -108,7 +114,9 @@ public class RuleTreeViewStateItem {
   public String toString() {
     return label + " (" + ((props.getIsImport()) ? "IMPORT, " : "")
       + "expanded: " + props.getIsExpanded() + ", logState: "
-      + props.getLoggingState() + ")";
+      + props.getLoggingState()
+      + (props.getLogPolicy() == null ? "" : ", limit: " + props.getLogPolicy())
+      + ")";
   }
 
 
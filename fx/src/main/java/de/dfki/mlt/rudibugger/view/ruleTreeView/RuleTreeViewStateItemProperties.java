@@ -19,9 +19,11 @@
 
 package de.dfki.mlt.rudibugger.view.ruleTreeView;
 
+import de.dfki.mlt.rudibugger.project.ruleModel.LogPolicy;
+
 /**
  * Represents the current state of a TreeItem: Is it expanded, what is its
- * logging state and is it an import.
+ * logging state, how are its logs limited and is it an import.
  *
  * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
  */
@@ -37,6 +39,9 @@ public class RuleTreeViewStateItemProperties {
   /** Represents the ruleLoggingState of the associated TreeItem. */
   Integer loggingState;
 
+  /** Represents the log policy of the associated TreeItem (or null). */
+  LogPolicy logPolicy;
+
   /** Used to save whether or not the associated TreeItem is an Import. */
   Boolean isImport = false;
 
@@ -89,6 +94,20 @@ public class RuleTreeViewStateItemProperties {
     this.loggingState = loggingState;
   }
 
+  /** @return The log policy of the associated TreeItem (or null) */
+  public LogPolicy getLogPolicy() {
+    return logPolicy;
+  }
+
+  /**
+   * Sets the log policy of associated TreeItem.
+   *
+   * @param logPolicy The log policy (or null)
+   */
+  public void setLogPolicy(LogPolicy logPolicy) {
+    this.logPolicy = logPolicy;
+  }
+
   /** @return True, if associated TreeItem represents an import, else false */
   public Boolean getIsImport() {
     return isImport;
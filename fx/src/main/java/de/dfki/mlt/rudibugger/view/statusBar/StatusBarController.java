@@ -20,12 +20,20 @@
 package de.dfki.mlt.rudibugger.view.statusBar;
 
 import static de.dfki.mlt.rudibugger.Constants.COMPILATION_NO_PROJECT;
+import static de.dfki.mlt.rudibugger.Constants.CONNECTED_TO_VONDA;
+import static de.dfki.mlt.rudibugger.Constants.ESTABLISHING_CONNECTION;
 import static de.dfki.mlt.rudibugger.Constants.FILES_SYNC_UNDEFINED;
 import de.dfki.mlt.rudibugger.DataModel;
 import de.dfki.mlt.rudibugger.project.Project;
+import de.dfki.mlt.rudibugger.project.ProjectMetrics;
+import de.dfki.mlt.rudibugger.project.VondaRuntimeConnection;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.image.ImageView;
+import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,7 +45,8 @@ import org.slf4j.LoggerFactory;
  *
  *  - reflect changes to the .rudi files to an icon,
  *  - reflect the outcome of a compilation attempt to an icon,
- *  - show status messages on the statusBar.
+ *  - show status messages on the statusBar,
+ *  - show the connection's latency and reconnects to VOnDA.
  *
  * TODO: Only needs RuleModel and RudiHierarchy
  *
@@ -51,6 +60,10 @@ public class StatusBarController {
   /** Current <code>DataModel</code> of rudibugger. */
   private DataModel _model;
 
+  /** Updates the connection info every second. */
+  private final Timeline _refreshConnectionInfo = new Timeline(
+          new KeyFrame(Duration.seconds(1), e -> refreshConnectionInfo()));
+
   /**
    * Links model to controller and initializes listeners.
    *
@@ -71,6 +84,8 @@ public class StatusBarController {
       _model.getEditor());
 
     listenForLoadedProject();
+    _refreshConnectionInfo.setCycleCount(Animation.INDEFINITE);
+    _refreshConnectionInfo.play();
   }
 
   private CompileIndicator compileIndicator;
@@ -107,6 +122,35 @@ public class StatusBarController {
             .addListener((o, ov, nv) -> syncIndicator.update(nv.intValue()));
   }
 
+  /**
+   * Shows the round-trip time and the number of reconnects while connected
+   * to VOnDA, or the number of failed attempts while reconnecting.
+   */
+  private void refreshConnectionInfo() {
+    Project project = _model.getLoadedProject();
+    VondaRuntimeConnection vonda = project == null ? null : project.vonda;
+    if (vonda == null) {
+      connectionInfo.setText("");
+      return;
+    }
+    ProjectMetrics metrics = project.getMetrics();
+    switch (vonda.getConnectionState()) {
+      case CONNECTED_TO_VONDA:
+        double rtt = metrics.getRoundTripMillis();
+        connectionInfo.setText(String.format("VOnDA: %s, %d reconnects",
+                rtt < 0 ? "RTT n/a" : String.format("%.1f ms RTT", rtt),
+                metrics.getReconnectCount()));
+        break;
+      case ESTABLISHING_CONNECTION:
+        connectionInfo.setText(String.format(
+                "VOnDA: connecting (attempt %d)",
+                metrics.getFailedConnectAttempts() + 1));
+        break;
+      default:
+        connectionInfo.setText("");
+    }
+  }
+
   /**
    * @param text text to display on the statusBar
    */
@@ -118,6 +162,10 @@ public class StatusBarController {
   @FXML
   private Label statusBarText;
 
+  /** Shows the latency and reconnects of the connection to VOnDA. */
+  @FXML
+  private Label connectionInfo;
+
   /** Icon for sync status of .rudi and .java code. */
   @FXML
   private ImageView _syncIndicator;
@@ -0,0 +1,75 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project;
+
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudimant.common.IncludeInfo;
+import de.dfki.mlt.rudimant.common.RuleInfo;
+import java.nio.file.Paths;
+
+/**
+ * Creates small rule models as VOnDA would describe them in a
+ * <code>RuleLoc.yml</code>: one import containing rules with ids from 0 on.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+final class TestRules {
+
+  private static class TestImport extends IncludeInfo {
+
+    TestImport(String label, IncludeInfo parent) {
+      _label = label;
+      _parent = parent;
+      if (parent != null) parent.getChildren().add(this);
+    }
+
+    @Override
+    public String getFilePath() { return _label + ".rudi"; }
+  }
+
+  private static class TestRule extends RuleInfo {
+
+    TestRule(int id, IncludeInfo parent) {
+      _id = id;
+      _label = "rule" + id;
+      _line = id + 1;
+      _parent = parent;
+      _baseTerms = new String[] { "a" + id, "b" + id };
+      _expr = _baseTerms[0] + " && " + _baseTerms[1];
+      parent.getChildren().add(this);
+    }
+  }
+
+  private TestRules() {}
+
+  /**
+   * @param rules
+   *        The number of rules
+   * @return A new rule model containing the given number of rules
+   */
+  static RuleModel create(int rules) {
+    IncludeInfo root = new TestImport("Root", null);
+    IncludeInfo main = new TestImport("Main", root);
+    for (int id = 0; id < rules; id++) new TestRule(id, main);
+    return RuleModel.createRuleModel(Paths.get("src"),
+            Paths.get("RuleLoc.yml"), root);
+  }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.project;
+
+import static de.dfki.mlt.rudibugger.Constants.CONNECTED_TO_VONDA;
+import static de.dfki.mlt.rudimant.common.Constants.*;
+import static org.junit.Assert.*;
+
+import de.dfki.mlt.rudibugger.project.ruleModel.LogPolicy;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleModel;
+import de.dfki.mlt.rudibugger.project.ruleModel.RuleStatistics;
+import de.dfki.mlt.rudibugger.rpc.IngestLatency;
+import de.dfki.mlt.rudibugger.rpc.LogCapture;
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogIngestQueue;
+import de.dfki.mlt.rudibugger.rpc.LogLimiter;
+import de.dfki.mlt.rudibugger.rpc.LogTrigger;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerClient;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogJournal;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogJournalReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+/**
+ * Tests that a project's connection to VOnDA survives reloaded rule models.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class VondaRuntimeConnectionTest {
+
+  private final VondaRuntimeConnection _vonda = new VondaRuntimeConnection(
+          new IngestLatency(), new ProjectMetrics(null));
+
+  private long _now;
+
+  /** Receives the given number of logs of a rule, 1 ms apart. */
+  private void receive(int ruleId, int count) {
+    for (int i = 0; i < count; i++)
+      _vonda.printLog(_now += 1_000_000, ruleId, 2, i & 3, null);
+  }
+
+  private List<LogData> drain() {
+    List<LogData> logs = new ArrayList<>();
+    _vonda.drainLogs(logs, Integer.MAX_VALUE);
+    return logs;
+  }
+
+  private static RuleModel sampled(int ruleId) {
+    RuleModel rm = TestRules.create(4);
+    rm.getRule(ruleId).setLogPolicy(new LogPolicy(0, 2, false));
+    return rm;
+  }
+
+  @Test
+  public void showsEveryLogWithoutRuleModel() {
+    receive(1, 3);
+    assertEquals(3, drain().size());
+  }
+
+  @Test
+  public void reloadKeepsQueueAndLimiter() {
+    LogIngestQueue<LogData> queue = _vonda.getLogQueue();
+    LogLimiter limiter = _vonda.getLimiter();
+    _vonda.setRuleModel(sampled(1));
+    receive(1, 4);
+    assertEquals(2, limiter.getSuppressed(1));
+
+    _vonda.setRuleModel(TestRules.create(4));
+    receive(1, 4);
+    assertSame(queue, _vonda.getLogQueue());
+    assertSame(limiter, _vonda.getLimiter());
+    assertEquals(2, limiter.getSuppressed(1));
+    assertEquals(6, drain().size());
+  }
+
+  @Test
+  public void reloadAppliesTheNewModelsPolicies() {
+    _vonda.setRuleModel(TestRules.create(4));
+    _vonda.setRuleModel(sampled(2));
+    receive(2, 6);
+    receive(1, 6);
+    assertEquals(3, _vonda.getLimiter().getSuppressed(2));
+    assertEquals(0, _vonda.getLimiter().getSuppressed(1));
+    assertEquals(9, drain().size());
+  }
+
+  @Test
+  public void onlyTheCurrentModelUpdatesThePolicies() {
+    RuleModel old = TestRules.create(4);
+    RuleModel current = TestRules.create(4);
+    _vonda.setRuleModel(old);
+    _vonda.setRuleModel(current);
+
+    old.getRule(0).setLogPolicy(new LogPolicy(0, 4, false));
+    old.logPoliciesChanged();
+    receive(0, 4);
+    assertEquals(4, drain().size());
+
+    current.getRule(0).setLogPolicy(new LogPolicy(0, 4, false));
+    current.logPoliciesChanged();
+    receive(0, 4);
+    assertEquals(1, drain().size());
+  }
+
+  @Test
+  public void countsLogsOnReception() {
+    RuleModel rm = TestRules.create(4);
+    _vonda.setRuleModel(rm);
+    receive(1, 3);
+    receive(2, 2);
+    RuleStatistics stats = rm.getStatistics();
+    assertEquals(5, stats.getTotal());
+    assertEquals(3, stats.getFired(1));
+    assertEquals(2, stats.getFired(2));
+    assertTrue(rm.getCoverage().hasFired(1));
+    assertFalse(rm.getCoverage().hasFired(3));
+  }
+
+  @Test
+  public void countsSuppressedAndDiscardedLogs() {
+    RuleModel rm = sampled(1);
+    _vonda.setRuleModel(rm);
+    receive(1, 4);
+    assertEquals(2, drain().size());
+    assertEquals(4, rm.getStatistics().getFired(1));
+
+    _vonda.startCapture((ruleId, count, bits, more) -> false, 0, 0);
+    receive(2, 3);
+    assertEquals(0, drain().size());
+    assertEquals(3, rm.getStatistics().getFired(2));
+  }
+
+  @Test
+  public void countsLogsDroppedByAFullQueue() {
+    RuleModel rm = TestRules.create(4);
+    _vonda.setRuleModel(rm);
+    int capacity = _vonda.getLogQueue().getCapacity();
+    receive(3, capacity + 10);
+    assertEquals(10, _vonda.getLogQueue().getDroppedCount());
+    assertEquals(capacity + 10, rm.getStatistics().getFired(3));
+  }
+
+  @Test
+  public void journalsSuppressedAndDiscardedLogs() throws IOException {
+    Path folder = Files.createTempDirectory("journal");
+    try {
+      RuleLogJournal journal = new RuleLogJournal(folder,
+              RuleLogJournal.DEFAULT_MAX_FILE_BYTES);
+      _vonda.setJournal(journal);
+      _vonda.setRuleModel(sampled(1));
+      receive(1, 4);
+      _vonda.startCapture((ruleId, count, bits, more) -> false, 0, 0);
+      receive(2, 3);
+      assertEquals(2, drain().size());
+      journal.close();
+
+      List<Path> files;
+      try (Stream<Path> s = Files.list(folder)) {
+        files = s.sorted().collect(Collectors.toList());
+      }
+      List<Integer> journaled = new ArrayList<>();
+      try (RuleLogJournalReader r = new RuleLogJournalReader(files)) {
+        while (r.next()) journaled.add(r.getRuleId());
+      }
+      assertEquals(Arrays.asList(1, 1, 1, 1, 2, 2, 2), journaled);
+    } finally {
+      try (Stream<Path> s = Files.list(folder)) {
+        for (Path f : (Iterable<Path>) s::iterator) Files.delete(f);
+      }
+      Files.delete(folder);
+    }
+  }
+
+  @Test
+  public void countsInTheCurrentRuleModel() {
+    RuleModel old = TestRules.create(4);
+    RuleModel current = TestRules.create(4);
+    _vonda.setRuleModel(old);
+    receive(0, 2);
+    _vonda.setRuleModel(current);
+    receive(0, 3);
+    assertEquals(2, old.getStatistics().getFired(0));
+    assertEquals(3, current.getStatistics().getFired(0));
+  }
+
+  /** @return A trigger matching the logs of the given rule */
+  private static LogTrigger rule(int ruleId) {
+    BitSet ids = new BitSet();
+    ids.set(ruleId);
+    return LogTrigger.forRules(ids);
+  }
+
+  /** Checks which rules the given logs belong to. */
+  private static void assertRules(List<LogData> logs, int... ruleIds) {
+    assertEquals(ruleIds.length, logs.size());
+    for (int i = 0; i < ruleIds.length; i++)
+      assertEquals(ruleIds[i], logs.get(i).getRuleId());
+  }
+
+  @Test
+  public void capturesAfterARuleModelReload() {
+    _vonda.setRuleModel(TestRules.create(4));
+    _vonda.setRuleModel(TestRules.create(4));
+    LogCapture capture = _vonda.startCapture(rule(2), 2, 1);
+    receive(1, 5);
+    assertEquals(0, drain().size());
+    receive(2, 1);
+    receive(3, 3);
+    assertRules(drain(), 1, 1, 2, 3);
+    assertSame(capture, _vonda.getCapture());
+    assertEquals(LogCapture.State.CAPTURED, capture.getState());
+  }
+
+  @Test
+  public void captureSurvivesARuleModelReload() {
+    _vonda.setRuleModel(TestRules.create(4));
+    LogCapture capture = _vonda.startCapture(rule(2), 1, 1);
+    receive(1, 2);
+    _vonda.setRuleModel(TestRules.create(4));
+    assertSame(capture, _vonda.getCapture());
+    receive(0, 1);
+    receive(2, 1);
+    receive(3, 1);
+    assertRules(drain(), 0, 2, 3);
+
+    _vonda.stopCapture();
+    receive(1, 2);
+    assertRules(drain(), 1, 1);
+  }
+
+  @Test
+  public void removingTheRuleModelLiftsThePolicies() {
+    _vonda.setRuleModel(sampled(1));
+    _vonda.setRuleModel(null);
+    receive(1, 4);
+    assertEquals(4, drain().size());
+  }
+
+  /**
+   * Accepts connections one after the other like VOnDA does (the first one
+   * is the probe of the connection manager), announces the bulk command and
+   * collects the received commands.
+   */
+  private static BlockingQueue<String> serve(ServerSocket server) {
+    BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    Thread t = new Thread(() -> {
+      while (! server.isClosed()) {
+        try (Socket s = server.accept()) {
+          BufferedReader in = new BufferedReader(
+                  new InputStreamReader(s.getInputStream()));
+          Writer out = new OutputStreamWriter(s.getOutputStream());
+          String line;
+          while ((line = in.readLine()) != null) {
+            if (line.startsWith(RudibuggerClient.REQ_CAPABILITIES)) {
+              out.write(RudibuggerClient.CAPABILITIES + "\t"
+                      + RudibuggerClient.SET_LOG_STATS + "\n");
+              out.flush();
+            }
+            received.add(line);
+          }
+        } catch (IOException ex) {
+          /* closed */
+        }
+      }
+    });
+    t.setDaemon(true);
+    t.start();
+    return received;
+  }
+
+  /** Waits for a received command starting with the given prefix. */
+  private static boolean awaitCommand(BlockingQueue<String> received,
+          String prefix) throws InterruptedException {
+    String line;
+    while ((line = received.poll(3, TimeUnit.SECONDS)) != null)
+      if (line.startsWith(prefix)) return true;
+    return false;
+  }
+
+  @Test(timeout = 20_000)
+  public void aPendingFlushSurvivesAMissingRuleModel() throws Exception {
+    try (ServerSocket server = new ServerSocket(0)) {
+      BlockingQueue<String> received = serve(server);
+      RuleModel rm = TestRules.create(4);
+      _vonda.setRuleModel(rm);
+      _vonda.connect(server.getLocalPort(), null);
+      try {
+        assertTrue(awaitCommand(received, RudibuggerClient.SET_LOG_STATS));
+        assertEquals(CONNECTED_TO_VONDA, _vonda.getConnectionState());
+
+        /* RuleLoc.yml could not be read before the change was flushed */
+        rm.idLoggingStatesMap().get(1).set(STATE_NEVER);
+        _vonda.setRuleModel(null);
+        /* what the pending flush does */
+        assertTrue(_vonda.takeChangedStates().isEmpty());
+        Thread.sleep(100);
+
+        RuleModel reloaded = TestRules.create(4);
+        _vonda.setRuleModel(reloaded);
+        received.clear();
+        reloaded.idLoggingStatesMap().get(2).set(STATE_IF_TRUE);
+        assertTrue(awaitCommand(received,
+                "setLogStat\t2\t" + STATE_IF_TRUE));
+      } finally {
+        _vonda.closeConnection();
+      }
+    }
+  }
+
+}
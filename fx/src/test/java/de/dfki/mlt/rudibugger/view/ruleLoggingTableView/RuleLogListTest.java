@@ -0,0 +1,244 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.view.ruleLoggingTableView;
+
+import static org.junit.Assert.*;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore.EvictionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javafx.collections.ListChangeListener;
+import org.junit.Test;
+
+/**
+ * Tests that the rule log list reports exactly the evicted and appended rows.
+ * Every change is replayed on a mirror list, which must end up equal to the
+ * list itself.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class RuleLogListTest {
+
+  /** The next rule id, used to identify the logs. */
+  private int _nextId;
+
+  /** Follows the reported changes. */
+  private final List<LogData> _mirror = new ArrayList<>();
+
+  /** The number of rows reported as removed and added. */
+  private int _removed, _added;
+
+  private RuleLogList list(int capacity, EvictionPolicy policy, int factor) {
+    RuleLogList list = new RuleLogList(
+            new RuleLogStore(capacity, policy, factor));
+    list.addListener((ListChangeListener<LogData>) c -> {
+      while (c.next()) {
+        assertFalse(c.wasPermutated());
+        int from = c.getFrom();
+        List<LogData> removed = _mirror.subList(from,
+                from + c.getRemovedSize());
+        assertEquals(removed, c.getRemoved());
+        removed.clear();
+        _mirror.addAll(from, c.getAddedSubList());
+        _removed += c.getRemovedSize();
+        _added += c.getAddedSize();
+      }
+    });
+    return list;
+  }
+
+  private List<LogData> logs(int count) {
+    List<LogData> logs = new ArrayList<>(count);
+    for (int i = 0; i < count; i++)
+      logs.add(new LogData(_nextId++, new boolean[] { true }));
+    return logs;
+  }
+
+  private void assertMirrored(RuleLogList list) {
+    assertEquals(list, _mirror);
+    for (int i = 1; i < list.size(); i++)
+      assertEquals(list.isNewestFirst(),
+              list.get(i - 1).getRuleId() > list.get(i).getRuleId());
+    _removed = _added = 0;
+  }
+
+  /** @return The median time of appending the given pulses in nanoseconds */
+  private static long medianPulseNanos(RuleLogList list,
+          List<List<LogData>> pulses) {
+    long[] nanos = new long[pulses.size()];
+    for (int i = 0; i < nanos.length; i++) {
+      long start = System.nanoTime();
+      list.append(pulses.get(i));
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+    return nanos[nanos.length / 2];
+  }
+
+  /**
+   * Appends pulses of the table's maximum size to a store of 100k logs, once
+   * while filling it and once when it is full, and compares the cost.
+   */
+  private void assertFlatPulseCost(boolean newestFirst) {
+    final int capacity = 100_000, pulse = 4096;
+    RuleLogList list = new RuleLogList(
+            new RuleLogStore(capacity, EvictionPolicy.DROP_OLDEST, 2));
+    list.setNewestFirst(newestFirst);
+    list.addListener((ListChangeListener<LogData>) c -> {
+      while (c.next()) _added += c.getAddedSize() + c.getRemovedSize();
+    });
+    List<List<LogData>> pulses = new ArrayList<>();
+    for (int i = 0; i < 3 * capacity / pulse; i++) pulses.add(logs(pulse));
+    // warm up with a separate list
+    RuleLogList warmUp = new RuleLogList(
+            new RuleLogStore(capacity, EvictionPolicy.DROP_OLDEST, 2));
+    for (List<LogData> p : pulses) warmUp.append(p);
+
+    int filling = capacity / pulse;
+    long fillingNanos = medianPulseNanos(list, pulses.subList(0, filling));
+    list.append(pulses.get(filling));
+    assertEquals(capacity, list.size());
+    long fullNanos = medianPulseNanos(list,
+            pulses.subList(filling + 1, pulses.size()));
+    assertEquals(capacity, list.size());
+    assertTrue("full: " + fullNanos + " ns, filling: " + fillingNanos + " ns",
+            fullNanos <= 4 * fillingNanos + 2_000_000);
+  }
+
+  @Test
+  public void dropOldestReportsOnlyTheDroppedRows() {
+    RuleLogList list = list(100, EvictionPolicy.DROP_OLDEST, 2);
+    list.append(logs(95));
+    assertMirrored(list);
+    list.append(logs(20));
+    assertEquals(15, _removed);
+    assertEquals(20, _added);
+    assertMirrored(list);
+    assertEquals(114, list.get(0).getRuleId());
+    assertEquals(15, list.get(99).getRuleId());
+  }
+
+  @Test
+  public void keepEveryNthReportsOnlyTheThinnedOutRows() {
+    RuleLogList list = list(100, EvictionPolicy.KEEP_EVERY_NTH, 2);
+    list.append(logs(20));
+    list.append(logs(80));
+    assertMirrored(list);
+    list.append(logs(10));
+    assertEquals(25, _removed);
+    assertEquals(10, _added);
+    assertMirrored(list);
+    assertEquals(85, list.size());
+  }
+
+  @Test
+  public void keepEveryNthWithLargerFactorStaysExact() {
+    RuleLogList list = list(64, EvictionPolicy.KEEP_EVERY_NTH, 3);
+    for (int i = 0; i < 40; i++) {
+      list.append(logs(1 + i % 16));
+      assertMirrored(list);
+    }
+  }
+
+  @Test
+  public void oldestFirstReportsOnlyTheChangedRows() {
+    RuleLogList list = list(100, EvictionPolicy.DROP_OLDEST, 2);
+    list.setNewestFirst(false);
+    list.append(logs(95));
+    assertMirrored(list);
+    list.append(logs(20));
+    assertEquals(15, _removed);
+    assertEquals(20, _added);
+    assertMirrored(list);
+    assertEquals(15, list.get(0).getRuleId());
+    list.getStore().setPolicy(EvictionPolicy.KEEP_EVERY_NTH, 2);
+    list.append(logs(10));
+    assertEquals(25, _removed);
+    assertEquals(10, _added);
+    assertMirrored(list);
+  }
+
+  @Test
+  public void changingTheOrderPermutesTheRows() {
+    RuleLogList list = new RuleLogList(
+            new RuleLogStore(10, EvictionPolicy.DROP_OLDEST, 2));
+    list.append(logs(5));
+    List<LogData> before = new ArrayList<>(list);
+    list.addListener((ListChangeListener<LogData>) c -> {
+      assertTrue(c.next());
+      assertTrue(c.wasPermutated());
+      for (int i = 0; i < 5; i++) assertEquals(4 - i, c.getPermutation(i));
+      assertFalse(c.next());
+      _added++;
+    });
+    list.setNewestFirst(false);
+    list.setNewestFirst(false);
+    assertEquals(1, _added);
+    for (int i = 0; i < 5; i++) assertSame(before.get(4 - i), list.get(i));
+  }
+
+  @Test
+  public void pulseCostStaysFlatAtFullCapacity() {
+    assertFlatPulseCost(true);
+    assertFlatPulseCost(false);
+  }
+
+  @Test
+  public void largeBatchesReplaceTheList() {
+    RuleLogList list = list(8, EvictionPolicy.DROP_OLDEST, 2);
+    list.append(logs(5));
+    list.append(logs(30));
+    assertMirrored(list);
+    assertEquals(8, list.size());
+    assertEquals(34, list.get(0).getRuleId());
+    list = list(8, EvictionPolicy.KEEP_EVERY_NTH, 2);
+    _mirror.clear();
+    list.append(logs(30));
+    assertMirrored(list);
+  }
+
+  @Test
+  public void reconfigureRemovesTheOldestRows() {
+    RuleLogList list = list(50, EvictionPolicy.DROP_OLDEST, 2);
+    list.append(logs(50));
+    assertMirrored(list);
+    list.reconfigure(30, EvictionPolicy.KEEP_EVERY_NTH, 2);
+    assertEquals(20, _removed);
+    assertEquals(0, _added);
+    assertMirrored(list);
+    assertEquals(EvictionPolicy.KEEP_EVERY_NTH,
+            list.getStore().getPolicy());
+    list.append(logs(5));
+    assertMirrored(list);
+  }
+
+  @Test
+  public void clearRemovesAllRows() {
+    RuleLogList list = list(10, EvictionPolicy.DROP_OLDEST, 2);
+    list.append(logs(7));
+    list.clear();
+    assertMirrored(list);
+    assertTrue(list.isEmpty());
+  }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.tools;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A TCP proxy between rudibugger and a (stand-in) debug server that loses
+ * connections on purpose: established connections can be dropped, and the
+ * proxy can be taken down for a while, so that connecting is refused like
+ * with a stopped agent.
+ *
+ * <pre>
+ *   FlakyProxy &lt;port&gt; &lt;target port&gt; [--drop-every ms]
+ * </pre>
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class FlakyProxy {
+
+  /** The logger. */
+  static Logger log = LoggerFactory.getLogger("flakyProxy");
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The port rudibugger connects to. */
+  private final int _port;
+
+  /** The port of the debug server. */
+  private final int _targetPort;
+
+  /** Accepts connections while the proxy is up (or null). */
+  private volatile ServerSocket _serverSocket;
+
+  /** The established connections: rudibugger's and the server's socket. */
+  private final List<Socket[]> _connections = new CopyOnWriteArrayList<>();
+
+  /** The number of dropped connections. */
+  private volatile long _dropped;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR AND METHODS
+   * **************************************************************************/
+
+  /**
+   * @param port
+   *        The port rudibugger connects to
+   * @param targetPort
+   *        The port of the debug server on localhost
+   */
+  public FlakyProxy(int port, int targetPort) {
+    _port = port;
+    _targetPort = targetPort;
+  }
+
+  /**
+   * Starts accepting connections.
+   *
+   * @throws IOException
+   *        If the port could not be opened
+   */
+  public synchronized void up() throws IOException {
+    if (_serverSocket != null) return;
+    ServerSocket serverSocket = new ServerSocket();
+    serverSocket.setReuseAddress(true);
+    serverSocket.bind(new InetSocketAddress(_port));
+    _serverSocket = serverSocket;
+    Thread acceptor = new Thread(() -> accept(serverSocket), "proxyAccept");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /** Drops all connections and refuses new ones until {@link #up()}. */
+  public synchronized void down() {
+    ServerSocket serverSocket = _serverSocket;
+    _serverSocket = null;
+    if (serverSocket != null) close(serverSocket);
+    dropConnections();
+  }
+
+  /** Closes all established connections, new ones are accepted. */
+  public void dropConnections() {
+    for (Socket[] connection : _connections) {
+      if (! connection[0].isClosed()) _dropped++;
+      close(connection[0]);
+      close(connection[1]);
+    }
+    _connections.clear();
+  }
+
+  /** Accepts connections until the server socket is closed. */
+  private void accept(ServerSocket serverSocket) {
+    while (! serverSocket.isClosed()) {
+      try {
+        Socket client = serverSocket.accept();
+        Socket server;
+        try {
+          server = new Socket("localhost", _targetPort);
+        } catch (IOException ex) {
+          log.error("Debug server not reachable: " + ex.getMessage());
+          close(client);
+          continue;
+        }
+        _connections.add(new Socket[] { client, server });
+        pipe(client, server);
+        pipe(server, client);
+      } catch (IOException ex) {
+        /* the server socket has been closed */
+      }
+    }
+  }
+
+  /** Copies everything from one socket to the other, in a new thread. */
+  private void pipe(Socket from, Socket to) {
+    Thread t = new Thread(() -> {
+      byte[] buffer = new byte[1 << 16];
+      try (InputStream in = from.getInputStream();
+              OutputStream out = to.getOutputStream()) {
+        int n;
+        while ((n = in.read(buffer)) >= 0) out.write(buffer, 0, n);
+      } catch (IOException ex) {
+        /* one of the sockets has been closed */
+      }
+      close(from);
+      close(to);
+    }, "proxyPipe");
+    t.setDaemon(true);
+    t.start();
+  }
+
+  private static void close(Closeable c) {
+    try {
+      c.close();
+    } catch (IOException ex) {
+      /* already closed */
+    }
+  }
+
+  /** @return The number of connections dropped on purpose */
+  public long getDroppedCount() { return _dropped; }
+
+
+  /* ***************************************************************************
+   * MAIN
+   * **************************************************************************/
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println(
+              "Usage: FlakyProxy <port> <target port> [--drop-every ms]");
+      System.exit(2);
+    }
+    FlakyProxy proxy = new FlakyProxy(Integer.parseInt(args[0]),
+            Integer.parseInt(args[1]));
+    long dropEvery = 0;
+    for (int i = 2; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--drop-every": dropEvery = Long.parseLong(args[i + 1]); break;
+        default:
+          System.err.println("Unknown argument: " + args[i]);
+          System.exit(2);
+      }
+    }
+    proxy.up();
+    log.info("Forwarding port {} to {}", args[0], args[1]);
+    while (true) {
+      Thread.sleep(dropEvery > 0 ? dropEvery : Long.MAX_VALUE);
+      proxy.dropConnections();
+      log.info("Dropped connections ({} so far)", proxy.getDroppedCount());
+    }
+  }
+
+}
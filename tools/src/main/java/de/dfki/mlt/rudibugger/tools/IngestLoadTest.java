@@ -0,0 +1,312 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.tools;
+
+import de.dfki.mlt.rudibugger.rpc.LogData;
+import de.dfki.mlt.rudibugger.rpc.LogIngestQueue;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerAPI;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerClient;
+import de.dfki.mlt.rudibugger.rpc.RuleLogSink;
+import de.dfki.mlt.rudibugger.ruleLogging.RuleLogStore;
+import de.dfki.mlt.rudimant.common.SimpleClient.ConnStatus;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Measures the throughput and latency of rudibugger's ingest path against a
+ * {@link VondaStandIn}, without a real agent and without the GUI.
+ *
+ * The logs take the same way as in rudibugger: they are received by a
+ * <code>RudibuggerClient</code>, decoded by <code>RudibuggerAPI</code>, queued
+ * as <code>LogData</code> and moved into a <code>RuleLogStore</code> once per
+ * pulse (like the rule logging view does). Two latencies are reported, both
+ * measured from the moment the stand-in sent a log: until it has been decoded
+ * and queued, and until it has been moved into the store.
+ *
+ * <pre>
+ *   IngestLoadTest &lt;RuleLoc.yml&gt; [--rate logs/s] [--seconds n] [--port n]
+ * </pre>
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class IngestLoadTest implements RuleLogSink {
+
+  /** How often (in ms) the queue is drained, like the rule logging view. */
+  private static final long PULSE = 16;
+
+  /** The maximum number of queued logs, like in rudibugger. */
+  private static final int QUEUE_CAPACITY = 1 << 16;
+
+
+  /* ***************************************************************************
+   * SUBCLASSES
+   * **************************************************************************/
+
+  /** Collects latencies and computes their percentiles. */
+  public static final class LatencyRecorder {
+
+    /** The recorded latencies in ns (the first <code>length</code> ones). */
+    private final long[] _samples = new long[1 << 20];
+
+    /** The number of recorded latencies. */
+    private int _count;
+
+    /** The largest latency. */
+    private long _max;
+
+    /** @param nanos A latency in ns */
+    void record(long nanos) {
+      if (_count < _samples.length) _samples[_count++] = nanos;
+      if (nanos > _max) _max = nanos;
+    }
+
+    /** @return The number of recorded latencies */
+    public int getCount() { return _count; }
+
+    /**
+     * @param p
+     *        The wanted percentile (between 0 and 1)
+     * @return The latency in ns below which the given share of the recorded
+     *         latencies lies, or 0 if there are none
+     */
+    public long getPercentile(double p) {
+      if (_count == 0) return 0;
+      long[] sorted = Arrays.copyOf(_samples, _count);
+      Arrays.sort(sorted);
+      return percentile(sorted, p);
+    }
+
+    /** @return The percentiles p50, p90, p99, p99.9 and the maximum in us */
+    String summary() {
+      if (_count == 0) return "no samples";
+      long[] sorted = Arrays.copyOf(_samples, _count);
+      Arrays.sort(sorted);
+      return String.format("p50 %d, p90 %d, p99 %d, p99.9 %d, max %d us",
+              percentile(sorted, 0.5) / 1000, percentile(sorted, 0.9) / 1000,
+              percentile(sorted, 0.99) / 1000,
+              percentile(sorted, 0.999) / 1000, _max / 1000);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+      return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+
+  }
+
+  /** The outcome of a load test. */
+  public static final class Result {
+
+    private final long _sent;
+    private final long _stored;
+    private final long _dropped;
+    private final double _seconds;
+    private final LatencyRecorder _receiveLatency;
+    private final LatencyRecorder _storeLatency;
+
+    private Result(IngestLoadTest test, long sent, double seconds) {
+      _sent = sent;
+      _stored = test._stored;
+      _dropped = test._queue.getDroppedCount();
+      _seconds = seconds;
+      _receiveLatency = test._receiveLatency;
+      _storeLatency = test._storeLatency;
+    }
+
+    /** @return The number of logs sent by the stand-in */
+    public long getSent() { return _sent; }
+
+    /** @return The number of logs moved into the store */
+    public long getStored() { return _stored; }
+
+    /** @return The number of logs dropped because the queue was full */
+    public long getDropped() { return _dropped; }
+
+    /** @return The stored logs per second */
+    public double getThroughput() { return _stored / _seconds; }
+
+    /** @return The latencies until a log has been queued */
+    public LatencyRecorder getReceiveLatency() { return _receiveLatency; }
+
+    /** @return The latencies until a log has been stored */
+    public LatencyRecorder getStoreLatency() { return _storeLatency; }
+
+    @Override
+    public String toString() {
+      return String.format("sent %d, stored %d, dropped %d%n"
+              + "throughput %.0f logs/s%nuntil queued: %s%nuntil stored: %s",
+              _sent, _stored, _dropped, getThroughput(),
+              _receiveLatency.summary(), _storeLatency.summary());
+    }
+
+  }
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** Sends the logs. */
+  private final VondaStandIn _standIn;
+
+  /** Contains the received logs that have not yet been stored. */
+  private final LogIngestQueue<LogData> _queue
+          = new LogIngestQueue<>(QUEUE_CAPACITY);
+
+  /** Stores the logs like the rule logging view. */
+  private final RuleLogStore _store = new RuleLogStore(100_000,
+          RuleLogStore.EvictionPolicy.DROP_OLDEST, 2);
+
+  /** The latencies until a log has been queued. */
+  private final LatencyRecorder _receiveLatency = new LatencyRecorder();
+
+  /** The latencies until a log has been stored. */
+  private final LatencyRecorder _storeLatency = new LatencyRecorder();
+
+  /** The number of received logs, only accessed by the receiving thread. */
+  private long _received;
+
+  /** The sequence key of the first received log. */
+  private volatile long _firstSequence;
+
+  /** The number of stored logs. */
+  private long _stored;
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  private IngestLoadTest(VondaStandIn standIn) {
+    _standIn = standIn;
+  }
+
+  @Override
+  public void printLog(long receivedNanos, int ruleId, int resultCount,
+          long resultBits, long[] moreResultBits) {
+    LogData data = new LogData(receivedNanos, ruleId, resultCount,
+            resultBits, moreResultBits);
+    if (_received == 0) _firstSequence = data.getSequence();
+    _queue.offer(data);
+    _receiveLatency.record(System.nanoTime() - _standIn.getSendTime(_received));
+    _received++;
+  }
+
+  /** Moves the queued logs into the store, like the rule logging view. */
+  private void pulse(ArrayList<LogData> batch) {
+    _queue.drainTo(batch, Integer.MAX_VALUE);
+    for (LogData d : batch) {
+      if (_store.isFull()) _store.removeOldest();
+      _store.append(d);
+    }
+    long now = System.nanoTime();
+    for (LogData d : batch)
+      _storeLatency.record(now - _standIn.getSendTime(
+              d.getSequence() - _firstSequence));
+    _stored += batch.size();
+    batch.clear();
+  }
+
+  /**
+   * Sends logs from the given stand-in to a rudibugger client for the given
+   * time and waits (up to five seconds) until all of them have been stored
+   * or dropped. The stand-in is shut down afterwards.
+   *
+   * @param standIn
+   *        The stand-in, not yet started
+   * @param port
+   *        The port of the stand-in's debug server
+   * @param rate
+   *        The number of logs per second, or
+   *        {@link VondaStandIn#AS_FAST_AS_POSSIBLE}
+   * @param seconds
+   *        How long logs are sent
+   * @return The outcome
+   * @throws IOException
+   *        If the client could not be disconnected
+   * @throws InterruptedException
+   *        If the thread has been interrupted while waiting
+   */
+  public static Result run(VondaStandIn standIn, int port, double rate,
+          double seconds) throws IOException, InterruptedException {
+    standIn.start();
+    IngestLoadTest test = new IngestLoadTest(standIn);
+    RudibuggerClient client = new RudibuggerClient("localhost", port,
+            new RudibuggerAPI(test));
+    try {
+      while (! client.isConnected()) Thread.sleep(10);
+      client.addPropertyChangeListener(e -> {
+        if (e.getNewValue() != ConnStatus.ONLINE) standIn.stopLoad();
+      });
+
+      long start = System.nanoTime();
+      long end = start + (long) (seconds * 1e9);
+      standIn.startLoad(rate, Long.MAX_VALUE);
+      ArrayList<LogData> batch = new ArrayList<>();
+      while (System.nanoTime() < end) {
+        Thread.sleep(PULSE);
+        test.pulse(batch);
+      }
+      standIn.stopLoad();
+      long sent = standIn.getSentCount();
+      /* give the receiver some time to catch up */
+      long deadline = System.nanoTime() + 5_000_000_000L;
+      while (test._stored + test._queue.getDroppedCount() < sent
+              && System.nanoTime() < deadline) {
+        Thread.sleep(PULSE);
+        test.pulse(batch);
+      }
+      double elapsed = (System.nanoTime() - start) / 1e9;
+      return new Result(test, sent, elapsed);
+    } finally {
+      client.disconnect();
+      standIn.shutDown();
+    }
+  }
+
+  public static void main(String[] args)
+          throws IOException, InterruptedException {
+    if (args.length < 1) {
+      System.err.println("Usage: IngestLoadTest <RuleLoc.yml> "
+              + "[--rate logs/s] [--seconds n] [--port n]");
+      System.exit(2);
+    }
+    double rate = VondaStandIn.AS_FAST_AS_POSSIBLE;
+    int seconds = 10;
+    int port = 9777;
+    for (int i = 1; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--rate": rate = Double.parseDouble(args[i + 1]); break;
+        case "--seconds": seconds = Integer.parseInt(args[i + 1]); break;
+        case "--port": port = Integer.parseInt(args[i + 1]); break;
+        default:
+          System.err.println("Unknown argument: " + args[i]);
+          System.exit(2);
+      }
+    }
+
+    VondaStandIn standIn = new VondaStandIn(Paths.get(args[0]), port, 42);
+    System.out.printf("%d rules, rate %s, %d s%n", standIn.getRuleCount(),
+            rate > 0 ? rate + " logs/s" : "unlimited", seconds);
+    System.out.println(run(standIn, port, rate, seconds));
+  }
+
+}
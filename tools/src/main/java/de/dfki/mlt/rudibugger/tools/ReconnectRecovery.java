@@ -0,0 +1,300 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.tools;
+
+import static de.dfki.mlt.rudimant.common.Constants.*;
+
+import de.dfki.mlt.rudibugger.rpc.Backoff;
+import de.dfki.mlt.rudibugger.rpc.ConnectionManager;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerAPI;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerClient;
+import de.dfki.mlt.rudimant.common.SimpleClient.ConnStatus;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Checks that a {@link ConnectionManager} survives lost connections: a
+ * {@link VondaStandIn} is connected through a {@link FlakyProxy}, which
+ * drops the connection several times and is then down for a while. After
+ * every reconnect, the logging states are synchronised again, like
+ * rudibugger does; the states changed while the proxy is down must arrive
+ * after it is up again. The time until the connection and the states are
+ * back, the failed attempts and the heartbeat's round-trip time are
+ * reported.
+ *
+ * <pre>
+ *   ReconnectRecovery &lt;RuleLoc.yml&gt; [--drops n] [--down ms] [--port n]
+ * </pre>
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class ReconnectRecovery {
+
+  /** How long to wait for a reconnect before giving up. */
+  private static final long TIMEOUT_MILLIS = 30_000;
+
+  /** How long to wait for the heartbeat's round-trip time. */
+  private static final long ROUND_TRIP_TIMEOUT_MILLIS = 3_000;
+
+  /** The outcome of a run. */
+  public static final class Result {
+
+    private double _firstResyncMillis;
+    private double[] _dropResyncMillis;
+    private int _failedAttemptsWhileDown;
+    private double _resyncAfterDownMillis;
+    private long _roundTripNanos = -1;
+    private long _roundTripAfterDownNanos = -1;
+    private long _connects;
+    private long _dropped;
+
+    private Result() {}
+
+    /** @return The time until connected and synchronised in ms */
+    public double getFirstResyncMillis() { return _firstResyncMillis; }
+
+    /**
+     * @return The time until connected and synchronised again after each
+     *         dropped connection in ms
+     */
+    public double[] getDropResyncMillis() { return _dropResyncMillis; }
+
+    /** @return The number of failed attempts while the proxy was down */
+    public int getFailedAttemptsWhileDown() {
+      return _failedAttemptsWhileDown;
+    }
+
+    /**
+     * @return The time until connected and synchronised again after the
+     *         proxy is up in ms
+     */
+    public double getResyncAfterDownMillis() { return _resyncAfterDownMillis; }
+
+    /**
+     * @return The round-trip time measured after the first connect in ns, or
+     *         -1 if none has been measured
+     */
+    public long getRoundTripNanos() { return _roundTripNanos; }
+
+    /**
+     * @return The round-trip time measured after the proxy was down in ns, or
+     *         -1 if none has been measured
+     */
+    public long getRoundTripAfterDownNanos() {
+      return _roundTripAfterDownNanos;
+    }
+
+    /** @return How often a connection has been established */
+    public long getConnectCount() { return _connects; }
+
+    /** @return The number of connections dropped by the proxy */
+    public long getDroppedCount() { return _dropped; }
+
+    private static String rtt(long nanos) {
+      return nanos < 0 ? "n/a" : String.format("%.2f ms", nanos / 1e6);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format("connected and synchronised: %.1f ms%n",
+              _firstResyncMillis));
+      sb.append("round-trip time: ").append(rtt(_roundTripNanos))
+              .append(String.format("%n"));
+      for (int i = 0; i < _dropResyncMillis.length; i++)
+        sb.append(String.format("drop %d: back and synchronised after"
+                + " %.1f ms%n", i + 1, _dropResyncMillis[i]));
+      sb.append(String.format("down: %d failed attempts, back and"
+              + " synchronised %.1f ms after up%n", _failedAttemptsWhileDown,
+              _resyncAfterDownMillis));
+      sb.append("round-trip time: ").append(rtt(_roundTripAfterDownNanos))
+              .append(String.format("%n"));
+      sb.append(String.format("%d connects, %d connections dropped",
+              _connects, _dropped));
+      return sb.toString();
+    }
+
+  }
+
+
+  /* ***************************************************************************
+   * FIELDS AND METHODS
+   * **************************************************************************/
+
+  /** The stand-in whose states are synchronised. */
+  private final VondaStandIn _standIn;
+
+  /** The logging states of all rules. */
+  private final SortedMap<Integer, Integer> _states
+          = new ConcurrentSkipListMap<>();
+
+  private ReconnectRecovery(VondaStandIn standIn) {
+    _standIn = standIn;
+  }
+
+  /** Synchronises the states after a (re)connect, like rudibugger does. */
+  private void connected(ConnectionManager manager) {
+    RudibuggerClient client = manager.getClient();
+    if (client != null) client.syncLoggingStatuses(() -> _states);
+  }
+
+  /** Sets the states of all rules, alternating between two states. */
+  private void setStates(int even, int odd) {
+    for (int id = 0; id < _standIn.getRuleCount(); id++)
+      _states.put(id, id % 2 == 0 ? even : odd);
+  }
+
+  /**
+   * Waits until the manager is connected and the stand-in has received the
+   * states again.
+   *
+   * @return The time this took in ms
+   */
+  private double awaitResync(ConnectionManager manager, long updatesBefore)
+          throws InterruptedException {
+    long start = System.nanoTime();
+    long deadline = start + TIMEOUT_MILLIS * 1_000_000;
+    long expected = updatesBefore + _states.size();
+    while (! manager.isConnected()
+            || _standIn.getStateUpdateCount() < expected) {
+      if (System.nanoTime() > deadline)
+        throw new IllegalStateException("No reconnect within "
+                + TIMEOUT_MILLIS + " ms");
+      Thread.sleep(1);
+    }
+    return (System.nanoTime() - start) / 1e6;
+  }
+
+  /**
+   * Waits a few heartbeats for a round-trip time.
+   *
+   * @return The round-trip time in ns, or -1 if none has been measured
+   */
+  private static long awaitRoundTrip(ConnectionManager manager)
+          throws InterruptedException {
+    long deadline = System.nanoTime() + ROUND_TRIP_TIMEOUT_MILLIS * 1_000_000;
+    while (manager.getRoundTripNanos() < 0 && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    return manager.getRoundTripNanos();
+  }
+
+  /**
+   * Connects to the given stand-in through a flaky proxy, drops the
+   * connection a number of times and takes the proxy down for a while, in
+   * which the logging states of all rules are changed. Even rule ids are
+   * logged always before and only if true afterwards, odd ones the other
+   * way round. The stand-in is shut down afterwards.
+   *
+   * @param standIn
+   *        The stand-in, not yet started
+   * @param port
+   *        The port of the stand-in's debug server
+   * @param proxyPort
+   *        The port of the proxy
+   * @param backoff
+   *        Computes the delays between the manager's attempts
+   * @param drops
+   *        How often the connection is dropped
+   * @param downMillis
+   *        How long the proxy is down
+   * @return The outcome
+   * @throws IOException
+   *        If the proxy's port could not be opened
+   * @throws InterruptedException
+   *        If the thread has been interrupted while waiting
+   * @throws IllegalStateException
+   *        If a connection is not reestablished in time
+   */
+  public static Result run(VondaStandIn standIn, int port, int proxyPort,
+          Backoff backoff, int drops, long downMillis)
+          throws IOException, InterruptedException {
+    standIn.start();
+    FlakyProxy proxy = new FlakyProxy(proxyPort, port);
+    ReconnectRecovery test = new ReconnectRecovery(standIn);
+    test.setStates(STATE_ALWAYS, STATE_IF_TRUE);
+    ConnectionManager manager = new ConnectionManager("localhost", proxyPort,
+            new RudibuggerAPI((received, ruleId, count, bits, more) -> {}),
+            backoff);
+    manager.addPropertyChangeListener(e -> {
+      if (e.getNewValue() == ConnStatus.ONLINE) test.connected(manager);
+    });
+    Result r = new Result();
+    try {
+      proxy.up();
+      manager.start();
+      r._firstResyncMillis = test.awaitResync(manager, 0);
+      r._roundTripNanos = awaitRoundTrip(manager);
+
+      r._dropResyncMillis = new double[drops];
+      for (int i = 0; i < drops; i++) {
+        long updates = standIn.getStateUpdateCount();
+        proxy.dropConnections();
+        r._dropResyncMillis[i] = test.awaitResync(manager, updates);
+      }
+
+      long updates = standIn.getStateUpdateCount();
+      int failedBefore = manager.getFailedAttempts();
+      proxy.down();
+      test.setStates(STATE_IF_TRUE, STATE_ALWAYS);
+      Thread.sleep(downMillis);
+      r._failedAttemptsWhileDown = manager.getFailedAttempts() - failedBefore;
+      proxy.up();
+      r._resyncAfterDownMillis = test.awaitResync(manager, updates);
+      r._roundTripAfterDownNanos = awaitRoundTrip(manager);
+      r._connects = manager.getConnectCount();
+      r._dropped = proxy.getDroppedCount();
+      return r;
+    } finally {
+      manager.stop();
+      proxy.down();
+      standIn.shutDown();
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: ReconnectRecovery <RuleLoc.yml> [--drops n]"
+              + " [--down ms] [--port n]");
+      System.exit(2);
+    }
+    int drops = 5;
+    long down = 3000;
+    int port = 9787;
+    for (int i = 1; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--drops": drops = Integer.parseInt(args[i + 1]); break;
+        case "--down": down = Long.parseLong(args[i + 1]); break;
+        case "--port": port = Integer.parseInt(args[i + 1]); break;
+        default:
+          System.err.println("Unknown argument: " + args[i]);
+          System.exit(2);
+      }
+    }
+
+    VondaStandIn standIn = new VondaStandIn(Paths.get(args[0]), port, 42);
+    System.out.println(run(standIn, port, port + 1,
+            new Backoff(100, 2000, Backoff.UNLIMITED, new Random(42)),
+            drops, down));
+  }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.tools;
+
+import static de.dfki.mlt.rudimant.common.Constants.*;
+
+import de.dfki.mlt.rudibugger.rpc.RudibuggerAPI;
+import de.dfki.mlt.rudibugger.rpc.RudibuggerClient;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Measures how long it takes to send the logging states of all rules to a
+ * {@link VondaStandIn}, once with one <code>setLogStat</code> per rule (as
+ * for VOnDA versions without <code>setLogStats</code>) and once with a single
+ * <code>setLogStats</code> command, and shows the speedup.
+ *
+ * The states are those of a synthetic project: rule ids 0 to n-1, most of
+ * them logged always, every 100th rule never. A synchronisation is finished
+ * when the stand-in has set the states of all rules.
+ *
+ * <pre>
+ *   StateSyncSpeedup &lt;RuleLoc.yml&gt; [--rules n] [--rounds n] [--port n]
+ * </pre>
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class StateSyncSpeedup {
+
+  /** The outcome of synchronising the states with a stand-in. */
+  public static final class Result {
+
+    private final boolean _bulk;
+    private final int _rules;
+    private final int _rounds;
+    private final double _millis;
+    private final long _setLogStatCommands;
+    private final long _setLogStatsCommands;
+
+    private Result(boolean bulk, int rules, int rounds, double millis,
+            long setLogStatCommands, long setLogStatsCommands) {
+      _bulk = bulk;
+      _rules = rules;
+      _rounds = rounds;
+      _millis = millis;
+      _setLogStatCommands = setLogStatCommands;
+      _setLogStatsCommands = setLogStatsCommands;
+    }
+
+    /** @return The number of measured synchronisations */
+    public int getRounds() { return _rounds; }
+
+    /** @return The average time of a synchronisation in ms */
+    public double getMillis() { return _millis; }
+
+    /**
+     * @return The number of <code>setLogStat</code> commands received by the
+     *         stand-in during the measured synchronisations
+     */
+    public long getSetLogStatCount() { return _setLogStatCommands; }
+
+    /**
+     * @return The number of <code>setLogStats</code> commands received by the
+     *         stand-in during the measured synchronisations
+     */
+    public long getSetLogStatsCount() { return _setLogStatsCommands; }
+
+    @Override
+    public String toString() {
+      return String.format("%s: %.2f ms for %d rules (%d setLogStat, "
+              + "%d setLogStats in %d rounds)",
+              _bulk ? "setLogStats" : "setLogStat per rule", _millis, _rules,
+              _setLogStatCommands, _setLogStatsCommands, _rounds);
+    }
+
+  }
+
+  private StateSyncSpeedup() {}
+
+  /**
+   * Synchronises the logging states with a stand-in. The first
+   * synchronisation finds out whether <code>setLogStats</code> is supported
+   * and is not measured. The stand-in is shut down afterwards.
+   *
+   * @param standIn
+   *        The stand-in, not yet started
+   * @param port
+   *        The stand-in's port
+   * @param bulk
+   *        Whether the stand-in supports <code>setLogStats</code>
+   * @param rules
+   *        The number of rules
+   * @param rounds
+   *        The number of measured synchronisations
+   * @return The outcome
+   * @throws IOException
+   *        If the client could not be disconnected
+   * @throws InterruptedException
+   *        If the thread has been interrupted while waiting
+   */
+  public static Result run(VondaStandIn standIn, int port, boolean bulk,
+          int rules, int rounds) throws IOException, InterruptedException {
+    standIn.setBulkSupported(bulk);
+    standIn.start();
+    RudibuggerClient client = new RudibuggerClient("localhost", port,
+            new RudibuggerAPI((received, ruleId, count, bits, more) -> {}));
+    try {
+      while (! client.isConnected()) Thread.sleep(10);
+
+      sync(client, standIn, states(rules, STATE_ALWAYS));
+
+      long setLogStat = standIn.getSetLogStatCount();
+      long setLogStats = standIn.getSetLogStatsCount();
+      long total = 0;
+      for (int round = 0; round < rounds; round++) {
+        SortedMap<Integer, Integer> states = states(rules,
+                round % 2 == 0 ? STATE_IF_TRUE : STATE_ALWAYS);
+        long start = System.nanoTime();
+        sync(client, standIn, states);
+        total += System.nanoTime() - start;
+      }
+      return new Result(bulk, rules, rounds, total / 1e6 / rounds,
+              standIn.getSetLogStatCount() - setLogStat,
+              standIn.getSetLogStatsCount() - setLogStats);
+    } finally {
+      client.disconnect();
+      standIn.shutDown();
+    }
+  }
+
+  /**
+   * @return The states of the given number of rules, every 100th rule is
+   *         never logged, all others with the given state
+   */
+  public static SortedMap<Integer, Integer> states(int rules, int state) {
+    SortedMap<Integer, Integer> states = new TreeMap<>();
+    for (int id = 0; id < rules; id++)
+      states.put(id, id % 100 == 99 ? STATE_NEVER : state);
+    return states;
+  }
+
+  /** Sends the states and waits until the stand-in has set all of them. */
+  private static void sync(RudibuggerClient client, VondaStandIn standIn,
+          SortedMap<Integer, Integer> states) throws InterruptedException {
+    long expected = standIn.getStateUpdateCount() + states.size();
+    client.syncLoggingStatuses(() -> states);
+    while (standIn.getStateUpdateCount() < expected) Thread.sleep(0, 100_000);
+  }
+
+  public static void main(String[] args)
+          throws IOException, InterruptedException {
+    if (args.length < 1) {
+      System.err.println("Usage: StateSyncSpeedup <RuleLoc.yml> [--rules n]"
+              + " [--rounds n] [--port n]");
+      System.exit(2);
+    }
+    int rules = 10000;
+    int rounds = 20;
+    int port = 9777;
+    for (int i = 1; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--rules": rules = Integer.parseInt(args[i + 1]); break;
+        case "--rounds": rounds = Integer.parseInt(args[i + 1]); break;
+        case "--port": port = Integer.parseInt(args[i + 1]); break;
+        default:
+          System.err.println("Unknown argument: " + args[i]);
+          System.exit(2);
+      }
+    }
+
+    Path ruleLocYaml = Paths.get(args[0]);
+    System.out.printf("%d rules, %d rounds%n", rules, rounds);
+    Result perRule = run(new VondaStandIn(ruleLocYaml, port, 42), port,
+            false, rules, rounds);
+    System.out.println(perRule);
+    Result bulk = run(new VondaStandIn(ruleLocYaml, port + 1, 42), port + 1,
+            true, rules, rounds);
+    System.out.println(bulk);
+    System.out.printf("speedup %.1fx%n",
+            perRule.getMillis() / bulk.getMillis());
+  }
+
+}
@@ -0,0 +1,470 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.tools;
+
+import static de.dfki.mlt.rudibugger.rpc.RudibuggerClient.*;
+import static de.dfki.mlt.rudimant.common.Constants.*;
+import de.dfki.mlt.rudimant.common.BasicInfo;
+import de.dfki.mlt.rudimant.common.IncludeInfo;
+import de.dfki.mlt.rudimant.common.RuleInfo;
+import de.dfki.mlt.rudimant.common.SimpleServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stands in for a running VOnDA agent on the debug port, so that rudibugger
+ * can be tuned without a real dialogue system.
+ *
+ * The rules and their number of base terms are read from a project's
+ * <code>RuleLoc.yml</code>. The stand-in accepts <code>setLogStat</code>,
+ * <code>setLogStats</code>, <code>ping</code> and <code>reqFieldInfo</code>
+ * and emits <code>printLog</code> commands with random results at a
+ * configurable rate, respecting the logging states like VOnDA does. The
+ * support of <code>setLogStats</code> and <code>ping</code> can be switched
+ * off to stand in for older VOnDA versions. Each stand-in announces its own
+ * agent id with its capabilities, like a restarted agent would. To drop
+ * connections on purpose, put a {@link FlakyProxy} in between.
+ *
+ * The time at which each log has been sent is remembered, so that a receiver
+ * in the same JVM can measure the latency (see {@link IngestLoadTest}).
+ *
+ * <pre>
+ *   VondaStandIn &lt;RuleLoc.yml&gt; [--port n] [--rate logs/s]
+ *                [--bulk true|false]
+ * </pre>
+ * Without a rate, logs are sent as fast as possible. The load starts with the
+ * first command received from rudibugger.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class VondaStandIn {
+
+  /** The logger. */
+  static Logger log = LoggerFactory.getLogger("vondaStandIn");
+
+  /** Sends logs as fast as possible. */
+  public static final double AS_FAST_AS_POSSIBLE = 0;
+
+  /** The number of pre-generated result patterns per rule. */
+  private static final int PATTERNS_PER_RULE = 16;
+
+  /** The number of remembered send times (a power of two). */
+  private static final int SEND_TIMES = 1 << 20;
+
+
+  /* ***************************************************************************
+   * FIELDS
+   * **************************************************************************/
+
+  /** The port of the debug server. */
+  private final int _port;
+
+  /** The ids of all rules. */
+  private final int[] _ruleIds;
+
+  /** The pre-generated printLog commands, per rule. */
+  private final String[][][] _commands;
+
+  /** The pre-generated overall results, per rule and command. */
+  private final boolean[][] _results;
+
+  /** The logging states set by rudibugger. */
+  private final ConcurrentHashMap<Integer, Integer> _states
+          = new ConcurrentHashMap<>();
+
+  /** Chooses the logged rules and patterns. */
+  private final Random _random;
+
+  /** VOnDA's debug server. */
+  private SimpleServer _server;
+
+  /** The <code>System.nanoTime()</code> at which the logs have been sent. */
+  private final long[] _sendTimes = new long[SEND_TIMES];
+
+  /** The number of sent logs. */
+  private volatile long _sent;
+
+  /** The number of received commands. */
+  private volatile long _received;
+
+  /** The number of logging states set by received commands. */
+  private volatile long _stateUpdates;
+
+  /** The number of received <code>setLogStat</code> commands. */
+  private volatile long _setLogStatCommands;
+
+  /** The number of received <code>setLogStats</code> commands. */
+  private volatile long _setLogStatsCommands;
+
+  /** The id announced with the capabilities. */
+  private final String _agentId = UUID.randomUUID().toString();
+
+  /** Whether <code>setLogStats</code> is supported. */
+  private volatile boolean _bulkSupported = true;
+
+  /** Sends the logs. */
+  private Thread _generator;
+
+  /** Indicates that the generator should stop. */
+  private volatile boolean _stopped;
+
+  /** The rate used if the load starts with the first command (or -1). */
+  private volatile double _rateOnFirstCommand = -1;
+
+
+  /* ***************************************************************************
+   * CONSTRUCTOR
+   * **************************************************************************/
+
+  /**
+   * Creates a stand-in for the rules of the given rule location file.
+   *
+   * @param ruleLocYaml
+   *        A project's <code>RuleLoc.yml</code>
+   * @param port
+   *        The port of the debug server
+   * @param seed
+   *        The seed of the random results
+   * @throws IOException
+   *        If the rule location file could not be read
+   */
+  public VondaStandIn(Path ruleLocYaml, int port, long seed)
+          throws IOException {
+    this(loadRules(ruleLocYaml), port, seed);
+  }
+
+  /**
+   * Creates a stand-in for the given rules.
+   *
+   * @param root
+   *        The root of the rules, as read from a <code>RuleLoc.yml</code>
+   * @param port
+   *        The port of the debug server
+   * @param seed
+   *        The seed of the random results
+   */
+  public VondaStandIn(IncludeInfo root, int port, long seed) {
+    _port = port;
+    _random = new Random(seed);
+    List<RuleInfo> rules = new ArrayList<>();
+    collectRules(root, rules);
+    if (rules.isEmpty())
+      throw new IllegalArgumentException("There are no rules.");
+
+    _ruleIds = new int[rules.size()];
+    _commands = new String[rules.size()][PATTERNS_PER_RULE][];
+    _results = new boolean[rules.size()][PATTERNS_PER_RULE];
+    for (int r = 0; r < rules.size(); r++) {
+      RuleInfo rule = rules.get(r);
+      _ruleIds[r] = rule.getId();
+      String[] terms = rule.getBaseterms();
+      int results = 1 + (terms == null ? 0 : terms.length);
+      for (int p = 0; p < PATTERNS_PER_RULE; p++) {
+        String[] cmd = new String[2 + results];
+        cmd[0] = "printLog";
+        cmd[1] = Integer.toString(rule.getId());
+        for (int i = 0; i < results; i++)
+          cmd[2 + i] = Boolean.toString(_random.nextBoolean());
+        _commands[r][p] = cmd;
+        _results[r][p] = Boolean.parseBoolean(cmd[2]);
+      }
+    }
+  }
+
+  /** Reads the rules of a rule location file. */
+  private static IncludeInfo loadRules(Path ruleLocYaml) throws IOException {
+    IncludeInfo root;
+    try (InputStream in = Files.newInputStream(ruleLocYaml)) {
+      root = IncludeInfo.loadInfo(in);
+    }
+    if (root == null)
+      throw new IOException(ruleLocYaml + " could not be read.");
+    List<RuleInfo> rules = new ArrayList<>();
+    collectRules(root, rules);
+    if (rules.isEmpty())
+      throw new IOException(ruleLocYaml + " does not contain any rules.");
+    return root;
+  }
+
+  /** Collects all rules below the given info. */
+  private static void collectRules(BasicInfo info, List<RuleInfo> rules) {
+    if (info instanceof RuleInfo) rules.add((RuleInfo) info);
+    for (BasicInfo child : info.getChildren()) collectRules(child, rules);
+  }
+
+
+  /* ***************************************************************************
+   * METHODS
+   * **************************************************************************/
+
+  /** Starts the debug server. */
+  public void start() {
+    _server = new SimpleServer(this::execute, _port, "VondaStandIn");
+    _server.startServer();
+    log.info("Serving {} rules on port {}", _ruleIds.length, _port);
+  }
+
+  /** Executes a command received from rudibugger. */
+  private void execute(String[] args) {
+    _received++;
+    switch (args[0]) {
+      case "setLogStat":
+        try {
+          _states.put(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+          _stateUpdates++;
+          _setLogStatCommands++;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+          log.error("Illegal setLogStat: " + String.join(" ", args));
+        }
+        break;
+      case SET_LOG_STATS:
+        if (_bulkSupported) {
+          setLogStats(args);
+          _setLogStatsCommands++;
+        } else
+          log.error("Unknown command: " + String.join(" ", args));
+        break;
+      case REQ_CAPABILITIES:
+        if (_bulkSupported)
+          _server.send(CAPABILITIES, SET_LOG_STATS, PING,
+                  AGENT_ID_PREFIX + _agentId);
+        else
+          log.error("Unknown command: " + String.join(" ", args));
+        break;
+      case PING:
+        if (_bulkSupported)
+          _server.send(PONG, args.length > 1 ? args[1] : "");
+        else
+          log.error("Unknown command: " + String.join(" ", args));
+        break;
+      case "reqFieldInfo":
+        log.debug("Field info requested: " + String.join(" ", args));
+        break;
+      default:
+        log.error("Unknown command: " + String.join(" ", args));
+    }
+    double rate = _rateOnFirstCommand;
+    if (rate >= 0) {
+      _rateOnFirstCommand = -1;
+      startLoad(rate, Long.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Sets the logging states of a <code>setLogStats</code> command: triples of
+   * the first rule id, the number of rules and their state.
+   */
+  private void setLogStats(String[] args) {
+    try {
+      for (int i = 1; i + 2 < args.length; i += 3) {
+        int first = Integer.parseInt(args[i]);
+        int count = Integer.parseInt(args[i + 1]);
+        Integer state = Integer.parseInt(args[i + 2]);
+        for (int id = first; id < first + count; id++)
+          _states.put(id, state);
+        _stateUpdates += count;
+      }
+    } catch (NumberFormatException ex) {
+      log.error("Illegal setLogStats: " + ex.getMessage());
+    }
+  }
+
+  /**
+   * @param supported
+   *        Whether <code>setLogStats</code> is supported (the default)
+   */
+  public void setBulkSupported(boolean supported) {
+    _bulkSupported = supported;
+  }
+
+  /**
+   * Starts sending logs.
+   *
+   * @param rate
+   *        The number of logs per second, or {@link #AS_FAST_AS_POSSIBLE}
+   * @param maxLogs
+   *        The number of logs after which the load stops
+   */
+  public synchronized void startLoad(double rate, long maxLogs) {
+    if (_generator != null) return;
+    _stopped = false;
+    _generator = new Thread(() -> generate(rate, maxLogs), "vondaLoad");
+    _generator.setDaemon(true);
+    _generator.start();
+  }
+
+  /**
+   * Starts sending logs as soon as the first command has been received.
+   *
+   * @param rate
+   *        The number of logs per second, or {@link #AS_FAST_AS_POSSIBLE}
+   */
+  public void startLoadOnFirstCommand(double rate) {
+    _rateOnFirstCommand = rate;
+  }
+
+  /** Sends logs until stopped, runs on the generator thread. */
+  private void generate(double rate, long maxLogs) {
+    long start = System.nanoTime();
+    long generated = 0;
+    Random random = new Random(_random.nextLong());
+    while (! _stopped && _sent < maxLogs) {
+      if (rate > 0) {
+        long due = (long) ((System.nanoTime() - start) * rate / 1e9);
+        if (generated >= due) {
+          LockSupport.parkNanos(100_000);
+          continue;
+        }
+      }
+      generated++;
+      int r = random.nextInt(_ruleIds.length);
+      int p = random.nextInt(PATTERNS_PER_RULE);
+      if (! isLogged(_ruleIds[r], _results[r][p])) continue;
+      _sendTimes[(int) (_sent & (SEND_TIMES - 1))] = System.nanoTime();
+      _server.send(_commands[r][p]);
+      _sent++;
+    }
+  }
+
+  /** @return True, if VOnDA would log the given rule with the given result */
+  private boolean isLogged(int ruleId, boolean result) {
+    switch (_states.getOrDefault(ruleId, STATE_ALWAYS)) {
+      case STATE_ALWAYS: return true;
+      case STATE_IF_TRUE: return result;
+      case STATE_IF_FALSE: return ! result;
+      default: return false;
+    }
+  }
+
+  /** Stops sending logs. */
+  public synchronized void stopLoad() {
+    _stopped = true;
+    if (_generator != null) {
+      try {
+        _generator.join();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      _generator = null;
+    }
+  }
+
+  /** Stops sending logs and shuts down the debug server. */
+  public void shutDown() {
+    stopLoad();
+    if (_server != null) _server.shutDown();
+  }
+
+
+  /* ***************************************************************************
+   * GETTERS
+   * **************************************************************************/
+
+  /** @return The number of sent logs */
+  public long getSentCount() { return _sent; }
+
+  /** @return The number of commands received from rudibugger */
+  public long getReceivedCount() { return _received; }
+
+  /** @return The number of logging states set by rudibugger */
+  public long getStateUpdateCount() { return _stateUpdates; }
+
+  /** @return The number of received <code>setLogStat</code> commands */
+  public long getSetLogStatCount() { return _setLogStatCommands; }
+
+  /** @return The number of received <code>setLogStats</code> commands */
+  public long getSetLogStatsCount() { return _setLogStatsCommands; }
+
+  /**
+   * @param ruleId
+   *        The id of a rule
+   * @return The logging state set by rudibugger, or null if none has been set
+   */
+  public Integer getLoggingState(int ruleId) { return _states.get(ruleId); }
+
+  /** @return The number of rules */
+  public int getRuleCount() { return _ruleIds.length; }
+
+  /**
+   * @param n
+   *        The number of a sent log (starting at 0), must be one of the last
+   *        {@value #SEND_TIMES} sent logs
+   * @return The <code>System.nanoTime()</code> at which it has been sent
+   */
+  public long getSendTime(long n) {
+    return _sendTimes[(int) (n & (SEND_TIMES - 1))];
+  }
+
+
+  /* ***************************************************************************
+   * MAIN
+   * **************************************************************************/
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println(
+              "Usage: VondaStandIn <RuleLoc.yml> [--port n] [--rate logs/s]"
+              + " [--bulk true|false]");
+      System.exit(2);
+    }
+    int port = SimpleServer.DEFAULT_PORT;
+    double rate = AS_FAST_AS_POSSIBLE;
+    boolean bulk = true;
+    for (int i = 1; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--port": port = Integer.parseInt(args[i + 1]); break;
+        case "--rate": rate = Double.parseDouble(args[i + 1]); break;
+        case "--bulk": bulk = Boolean.parseBoolean(args[i + 1]); break;
+        default:
+          System.err.println("Unknown argument: " + args[i]);
+          System.exit(2);
+      }
+    }
+    VondaStandIn standIn = new VondaStandIn(Paths.get(args[0]), port,
+            System.nanoTime());
+    standIn.setBulkSupported(bulk);
+    standIn.startLoadOnFirstCommand(rate);
+    standIn.start();
+    long last = 0;
+    while (true) {
+      try {
+        Thread.sleep(1000);
+      } catch (InterruptedException ex) {
+        break;
+      }
+      long sent = standIn.getSentCount();
+      if (sent != last) log.info("Sent {} logs/s", sent - last);
+      last = sent;
+    }
+    standIn.shutDown();
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.tools;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Runs {@link IngestLoadTest} against a {@link VondaStandIn} with synthetic
+ * rules and checks that rudibugger's ingest path keeps up. The thresholds
+ * are far below what a developer machine achieves, so that the tests only
+ * fail if the ingest path has become substantially slower or loses logs.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class IngestThroughputTest {
+
+  /** The number of synthetic rules. */
+  private static final int RULES = 500;
+
+  /** How long logs are sent in each test. */
+  private static final double SECONDS = 2;
+
+  /** @return A stand-in for {@value #RULES} rules on the given port */
+  private static VondaStandIn standIn(int port) {
+    return new VondaStandIn(TestRules.create(RULES), port, 42);
+  }
+
+  @Test(timeout = 30_000)
+  public void storesEveryLogAtASteadyRate() throws Exception {
+    int port = TestRules.freePort();
+    double rate = 20_000;
+    IngestLoadTest.Result r = IngestLoadTest.run(standIn(port), port, rate,
+            SECONDS);
+    assertTrue(r.toString(), r.getSent() >= rate * SECONDS * 0.8);
+    assertEquals(r.toString(), 0, r.getDropped());
+    assertEquals(r.toString(), r.getSent(), r.getStored());
+    assertTrue(r.toString(),
+            r.getReceiveLatency().getPercentile(0.99) < 50_000_000);
+    assertTrue(r.toString(),
+            r.getStoreLatency().getPercentile(0.99) < 250_000_000);
+  }
+
+  @Test(timeout = 30_000)
+  public void accountsForEveryLogAtFullSpeed() throws Exception {
+    int port = TestRules.freePort();
+    IngestLoadTest.Result r = IngestLoadTest.run(standIn(port), port,
+            VondaStandIn.AS_FAST_AS_POSSIBLE, SECONDS);
+    assertEquals(r.toString(), r.getSent(), r.getStored() + r.getDropped());
+    assertTrue(r.toString(), r.getThroughput() >= 50_000);
+    assertTrue(r.toString(), r.getDropped() <= r.getSent() / 100);
+  }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.tools;
+
+import static de.dfki.mlt.rudimant.common.Constants.*;
+import static org.junit.Assert.*;
+
+import de.dfki.mlt.rudibugger.rpc.Backoff;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Test;
+
+/**
+ * Runs {@link ReconnectRecovery}: a connection manager is connected to a
+ * {@link VondaStandIn} through a {@link FlakyProxy}, which drops the
+ * connection and goes down for a while.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class ReconnectRecoveryTest {
+
+  /** The number of synthetic rules. */
+  private static final int RULES = 200;
+
+  /** How often the proxy drops the connection. */
+  private static final int DROPS = 3;
+
+  /** How long the proxy is down. */
+  private static final long DOWN_MILLIS = 2000;
+
+  /** The initial and the maximum delay of the backoff. */
+  private static final long INITIAL_MILLIS = 50, MAX_MILLIS = 800;
+
+  /** Records the delays between the attempts. */
+  private static class RecordingBackoff extends Backoff {
+
+    final List<Long> delays = new CopyOnWriteArrayList<>();
+
+    RecordingBackoff() {
+      super(INITIAL_MILLIS, MAX_MILLIS, UNLIMITED, new Random(3));
+    }
+
+    @Override
+    public synchronized long nextDelayMillis() {
+      long delay = super.nextDelayMillis();
+      delays.add(delay);
+      return delay;
+    }
+  }
+
+  @Test(timeout = 60_000)
+  public void reconnectsAndResynchronisesThroughAFlakyProxy()
+          throws Exception {
+    int port = TestRules.freePort();
+    VondaStandIn standIn = new VondaStandIn(TestRules.create(RULES), port, 1);
+    RecordingBackoff backoff = new RecordingBackoff();
+    ReconnectRecovery.Result r = ReconnectRecovery.run(standIn, port,
+            TestRules.freePort(), backoff, DROPS, DOWN_MILLIS);
+
+    /* the first connect, one per drop and one after the proxy was down */
+    assertEquals(r.toString(), DROPS + 2, r.getConnectCount());
+    assertEquals(r.toString(), DROPS + 1, r.getDroppedCount());
+    assertEquals(DROPS, r.getDropResyncMillis().length);
+
+    /* the states changed while down have been sent after the reconnect */
+    for (int id = 0; id < RULES; id++)
+      assertEquals(Integer.valueOf(id % 2 == 0 ? STATE_IF_TRUE : STATE_ALWAYS),
+              standIn.getLoggingState(id));
+
+    assertTrue(r.toString(), r.getRoundTripNanos() > 0);
+    assertTrue(r.toString(), r.getRoundTripAfterDownNanos() > 0);
+  }
+
+  @Test(timeout = 60_000)
+  public void theDelaysGrowWhileTheServerIsDown() throws Exception {
+    int port = TestRules.freePort();
+    VondaStandIn standIn = new VondaStandIn(TestRules.create(RULES), port, 1);
+    RecordingBackoff backoff = new RecordingBackoff();
+    ReconnectRecovery.Result r = ReconnectRecovery.run(standIn, port,
+            TestRules.freePort(), backoff, DROPS, DOWN_MILLIS);
+
+    List<Long> delays = backoff.delays;
+    String msg = r + "\n" + delays;
+    /* no reset, the connections did not last long enough */
+    for (int i = 0; i < delays.size(); i++) {
+      long full = Math.min(MAX_MILLIS, INITIAL_MILLIS << i);
+      assertTrue(msg, delays.get(i) >= full - full / 2);
+      assertTrue(msg, delays.get(i) <= full);
+    }
+    assertTrue(msg, delays.get(delays.size() - 1) >= MAX_MILLIS / 2);
+    /* far fewer attempts than with the initial delay all the time */
+    assertTrue(msg, r.getFailedAttemptsWhileDown() >= 2);
+    assertTrue(msg, r.getFailedAttemptsWhileDown()
+            < DOWN_MILLIS / INITIAL_MILLIS / 4);
+  }
+
+  @Test(timeout = 60_000)
+  public void noRoundTripTimeWithoutPing() throws Exception {
+    int port = TestRules.freePort();
+    VondaStandIn standIn = new VondaStandIn(TestRules.create(RULES), port, 1);
+    /* an older VOnDA does not answer reqCapabilities, and thus no pings */
+    standIn.setBulkSupported(false);
+    ReconnectRecovery.Result r = ReconnectRecovery.run(standIn, port,
+            TestRules.freePort(), new RecordingBackoff(), 1, 100);
+    assertEquals(r.toString(), 3, r.getConnectCount());
+    assertEquals(r.toString(), -1, r.getRoundTripNanos());
+    assertEquals(r.toString(), -1, r.getRoundTripAfterDownNanos());
+  }
+
+}
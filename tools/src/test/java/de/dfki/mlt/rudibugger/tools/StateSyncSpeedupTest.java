@@ -0,0 +1,89 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.tools;
+
+import static de.dfki.mlt.rudimant.common.Constants.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Synchronises the logging states with a {@link VondaStandIn} through
+ * {@link StateSyncSpeedup}, with and without support for
+ * <code>setLogStats</code>, and checks the sent commands and the speedup.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+public class StateSyncSpeedupTest {
+
+  /** The number of synthetic rules. */
+  private static final int RULES = 5000;
+
+  /** The number of measured synchronisations. */
+  private static final int ROUNDS = 5;
+
+  /** Checks the states set by the stand-in after the last round. */
+  private static void assertStates(VondaStandIn standIn) {
+    int expected = ROUNDS % 2 == 1 ? STATE_IF_TRUE : STATE_ALWAYS;
+    for (int id = 0; id < RULES; id++)
+      assertEquals(Integer.valueOf(id % 100 == 99 ? STATE_NEVER : expected),
+              standIn.getLoggingState(id));
+  }
+
+  private static StateSyncSpeedup.Result sync(VondaStandIn standIn, int port,
+          boolean bulk) throws Exception {
+    StateSyncSpeedup.Result r = StateSyncSpeedup.run(standIn, port, bulk,
+            RULES, ROUNDS);
+    assertStates(standIn);
+    return r;
+  }
+
+  @Test(timeout = 30_000)
+  public void sendsOneSetLogStatsPerSynchronisation() throws Exception {
+    int port = TestRules.freePort();
+    VondaStandIn standIn = new VondaStandIn(TestRules.create(RULES), port, 1);
+    StateSyncSpeedup.Result r = sync(standIn, port, true);
+    assertEquals(r.toString(), ROUNDS, r.getSetLogStatsCount());
+    assertEquals(r.toString(), 0, r.getSetLogStatCount());
+  }
+
+  @Test(timeout = 30_000)
+  public void fallsBackToOneSetLogStatPerRule() throws Exception {
+    int port = TestRules.freePort();
+    VondaStandIn standIn = new VondaStandIn(TestRules.create(RULES), port, 1);
+    StateSyncSpeedup.Result r = sync(standIn, port, false);
+    assertEquals(r.toString(), 0, r.getSetLogStatsCount());
+    assertEquals(r.toString(), (long) RULES * ROUNDS, r.getSetLogStatCount());
+    assertEquals(0, standIn.getSetLogStatsCount());
+  }
+
+  @Test(timeout = 60_000)
+  public void setLogStatsIsFaster() throws Exception {
+    int port = TestRules.freePort();
+    StateSyncSpeedup.Result perRule = sync(
+            new VondaStandIn(TestRules.create(RULES), port, 1), port, false);
+    port = TestRules.freePort();
+    StateSyncSpeedup.Result bulk = sync(
+            new VondaStandIn(TestRules.create(RULES), port, 1), port, true);
+    assertTrue(perRule + "\n" + bulk,
+            bulk.getMillis() * 1.5 < perRule.getMillis());
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * The Creative Commons CC-BY-NC 4.0 License
+ *
+ * http://creativecommons.org/licenses/by-nc/4.0/legalcode
+ *
+ * Creative Commons (CC) by DFKI GmbH
+ *  - Bernd Kiefer <kiefer@dfki.de>
+ *  - Anna Welker <anna.welker@dfki.de>
+ *  - Christophe Biwer <christophe.biwer@dfki.de>
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS
+ * IN THE SOFTWARE.
+ */
+
+package de.dfki.mlt.rudibugger.tools;
+
+import de.dfki.mlt.rudimant.common.IncludeInfo;
+import de.dfki.mlt.rudimant.common.RuleInfo;
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/**
+ * Creates synthetic rules as VOnDA would describe them in a
+ * <code>RuleLoc.yml</code>, to serve them with a {@link VondaStandIn}.
+ *
+ * @author Christophe Biwer (yoshegg) christophe.biwer@dfki.de
+ */
+final class TestRules {
+
+  private static class TestImport extends IncludeInfo {
+
+    TestImport(String label, IncludeInfo parent) {
+      _label = label;
+      _parent = parent;
+      if (parent != null) parent.getChildren().add(this);
+    }
+  }
+
+  private static class TestRule extends RuleInfo {
+
+    TestRule(int id, IncludeInfo parent) {
+      _id = id;
+      _label = "rule" + id;
+      _parent = parent;
+      _baseTerms = new String[id % 6];
+      for (int i = 0; i < _baseTerms.length; i++) _baseTerms[i] = "t" + i;
+      parent.getChildren().add(this);
+    }
+  }
+
+  private TestRules() {}
+
+  /**
+   * @param rules
+   *        The number of rules
+   * @return The root of one import containing rules with ids from 0 on
+   */
+  static IncludeInfo create(int rules) {
+    IncludeInfo root = new TestImport("Root", null);
+    IncludeInfo main = new TestImport("Main", root);
+    for (int id = 0; id < rules; id++) new TestRule(id, main);
+    return root;
+  }
+
+  /** @return A port that is currently free */
+  static int freePort() throws IOException {
+    try (ServerSocket s = new ServerSocket(0)) {
+      return s.getLocalPort();
+    }
+  }
+
+}